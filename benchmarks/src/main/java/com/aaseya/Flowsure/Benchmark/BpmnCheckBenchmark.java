@@ -0,0 +1,57 @@
+package com.aaseya.Flowsure.Benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aaseya.Flowsure.Model.DiagramValidationResult;
+import com.aaseya.Flowsure.Service.BpmnStreamValidator;
+import com.aaseya.Flowsure.Service.DiagramValidationService;
+
+/**
+ * Throughput of BPMN validation on a generated process. Structural and naming checks run
+ * in the same streaming pass, and the control-flow analysis right after it on the graph
+ * that pass collected, so they are measured together.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BpmnCheckBenchmark {
+
+    @Param({ "10", "1000", "10000", "50000" })
+    public int nodes;
+
+    private byte[] bpmnBytes;
+    private BpmnStreamValidator validator;
+    private DiagramValidationService service;
+
+    @Setup
+    public void setUp() {
+        bpmnBytes = CorpusGenerator.bpmn(nodes, 42L);
+        validator = new BpmnStreamValidator();
+        service = Validators.diagramValidationService();
+    }
+
+    @Benchmark
+    public DiagramValidationResult structuralAndNaming() throws Exception {
+        return validator.validate("bench.bpmn", bpmnBytes);
+    }
+
+    @Benchmark
+    public DiagramValidationResult fullFile() {
+        return service.validateDiagram("bench.bpmn", bpmnBytes);
+    }
+}
@@ -0,0 +1,159 @@
+package com.aaseya.Flowsure.Benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Generates deterministic synthetic DMN decision tables and BPMN processes. The same
+ * arguments always produce the same bytes, so benchmark runs are comparable.
+ */
+public final class CorpusGenerator {
+
+    private static final String[] STRING_VALUES = { "\"GOLD\"", "\"SILVER\"", "\"BRONZE\"", "\"NONE\"", "\"VIP\"" };
+    private static final String[] NUMBER_TESTS = { "< 18", ">= 18", "[18..65]", "> 65", "<= 100" };
+
+    private CorpusGenerator() {
+    }
+
+    /**
+     * A definitions file with one decision table.
+     * <p>
+     * The first input column holds a numeric range that is unique to each rule, except
+     * that roughly one rule in a hundred repeats its predecessor's range, so overlaps stay
+     * sparse as in real tables. Further columns cycle through number, string and boolean
+     * types with about 30% wildcards.
+     *
+     * @param rules Number of rules (10 to 100k in the benchmark set).
+     * @param inputs Number of input columns (1 to 30 in the benchmark set).
+     * @param hitPolicy Hit policy written on the table.
+     * @param seed Random seed.
+     */
+    public static byte[] dmn(int rules, int inputs, String hitPolicy, long seed) {
+        Random random = new Random(seed);
+        StringBuilder xml = new StringBuilder(rules * inputs * 64 + 4096);
+        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+                .append("<definitions xmlns=\"https://www.omg.org/spec/DMN/20191111/MODEL/\" id=\"defs_").append(seed)
+                .append("\" name=\"Generated\" namespace=\"http://flowsure/generated/").append(seed).append("\">\n");
+        xml.append("  <inputData id=\"input_0\" name=\"Applicant\"><description>Applicant data</description></inputData>\n");
+        xml.append("  <decision id=\"decision_0\" name=\"Generated decision\">\n")
+                .append("    <description>Synthetic decision with ").append(rules).append(" rules</description>\n")
+                .append("    <decisionTable id=\"table_0\" hitPolicy=\"").append(hitPolicy).append("\">\n");
+        for (int c = 0; c < inputs; c++) {
+            xml.append("      <input id=\"in_").append(c).append("\" label=\"Input ").append(c)
+                    .append("\"><inputExpression id=\"in_expr_").append(c).append("\" typeRef=\"").append(columnType(c))
+                    .append("\"><text>input").append(c).append("</text></inputExpression></input>\n");
+        }
+        xml.append("      <output id=\"out_0\" name=\"score\" typeRef=\"number\"/>\n");
+
+        String previousRange = null;
+        for (int r = 0; r < rules; r++) {
+            xml.append("      <rule id=\"rule_").append(r).append("\">\n");
+            String range = "[" + (r * 10L) + ".." + (r * 10L + 9) + "]";
+            if (previousRange != null && random.nextInt(100) == 0) {
+                range = previousRange;
+            }
+            previousRange = range;
+            appendEntry(xml, "inputEntry", "ie_" + r + "_0", range);
+            for (int c = 1; c < inputs; c++) {
+                appendEntry(xml, "inputEntry", "ie_" + r + "_" + c, randomEntry(random, c));
+            }
+            appendEntry(xml, "outputEntry", "oe_" + r, Integer.toString(random.nextInt(1000)));
+            xml.append("      </rule>\n");
+        }
+        xml.append("    </decisionTable>\n  </decision>\n</definitions>\n");
+        return xml.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A process with a start event, {@code nodes - 2} tasks and exclusive gateways and an end
+     * event, laid out in a chain. Every twentieth node is a gateway that loops back to the
+     * previous task, and every node and flow has a diagram-interchange shape or edge.
+     *
+     * @param nodes Number of flow nodes (10 to 50k in the benchmark set).
+     * @param seed Random seed.
+     */
+    public static byte[] bpmn(int nodes, long seed) {
+        Random random = new Random(seed);
+        int count = Math.max(2, nodes);
+        StringBuilder process = new StringBuilder(count * 160);
+        StringBuilder diagram = new StringBuilder(count * 260);
+        StringBuilder flows = new StringBuilder(count * 120);
+        int flowCount = 0;
+
+        for (int n = 0; n < count; n++) {
+            String id = "node_" + n;
+            if (n == 0) {
+                process.append("    <bpmn:startEvent id=\"").append(id).append("\" name=\"Start request\"/>\n");
+            } else if (n == count - 1) {
+                process.append("    <bpmn:endEvent id=\"").append(id).append("\" name=\"End request\"/>\n");
+            } else if (n % 20 == 0 && n > 1) {
+                process.append("    <bpmn:exclusiveGateway id=\"").append(id).append("\" name=\"Retry?\"/>\n");
+                flows.append("    <bpmn:sequenceFlow id=\"flow_").append(flowCount++).append("\" sourceRef=\"").append(id)
+                        .append("\" targetRef=\"node_").append(n - 1).append("\"/>\n");
+            } else {
+                String name = random.nextInt(7) == 0 ? "review item " + n : "Review item " + n;
+                process.append("    <bpmn:task id=\"").append(id).append("\" name=\"").append(name).append("\"/>\n");
+            }
+            if (n > 0) {
+                flows.append("    <bpmn:sequenceFlow id=\"flow_").append(flowCount++).append("\" sourceRef=\"node_").append(n - 1)
+                        .append("\" targetRef=\"").append(id).append("\"/>\n");
+            }
+            diagram.append("      <bpmndi:BPMNShape id=\"shape_").append(n).append("\" bpmnElement=\"").append(id)
+                    .append("\"><dc:Bounds x=\"").append(n * 150).append("\" y=\"100\" width=\"100\" height=\"80\"/></bpmndi:BPMNShape>\n");
+        }
+        for (int f = 0; f < flowCount; f++) {
+            diagram.append("      <bpmndi:BPMNEdge id=\"edge_").append(f).append("\" bpmnElement=\"flow_").append(f)
+                    .append("\"><di:waypoint x=\"").append(f * 150 + 100).append("\" y=\"140\"/><di:waypoint x=\"")
+                    .append(f * 150 + 150).append("\" y=\"140\"/></bpmndi:BPMNEdge>\n");
+        }
+
+        StringBuilder xml = new StringBuilder(process.length() + flows.length() + diagram.length() + 1024);
+        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+                .append("<bpmn:definitions xmlns:bpmn=\"http://www.omg.org/spec/BPMN/20100524/MODEL\"")
+                .append(" xmlns:bpmndi=\"http://www.omg.org/spec/BPMN/20100524/DI\"")
+                .append(" xmlns:dc=\"http://www.omg.org/spec/DD/20100524/DC\"")
+                .append(" xmlns:di=\"http://www.omg.org/spec/DD/20100524/DI\" id=\"defs_").append(seed).append("\">\n")
+                .append("  <bpmn:process id=\"process_").append(seed).append("\" isExecutable=\"true\">\n")
+                .append(process).append(flows)
+                .append("  </bpmn:process>\n")
+                .append("  <bpmndi:BPMNDiagram id=\"diagram_").append(seed).append("\">\n")
+                .append("    <bpmndi:BPMNPlane id=\"plane_").append(seed).append("\" bpmnElement=\"process_").append(seed).append("\">\n")
+                .append(diagram)
+                .append("    </bpmndi:BPMNPlane>\n  </bpmndi:BPMNDiagram>\n</bpmn:definitions>\n");
+        return xml.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String columnType(int column) {
+        if (column == 0) {
+            return "number";
+        }
+        switch (column % 3) {
+        case 1:
+            return "string";
+        case 2:
+            return "boolean";
+        default:
+            return "number";
+        }
+    }
+
+    private static String randomEntry(Random random, int column) {
+        if (random.nextInt(10) < 3) {
+            return "-";
+        }
+        switch (columnType(column)) {
+        case "string":
+            return STRING_VALUES[random.nextInt(STRING_VALUES.length)];
+        case "boolean":
+            return random.nextBoolean() ? "true" : "false";
+        default:
+            return NUMBER_TESTS[random.nextInt(NUMBER_TESTS.length)];
+        }
+    }
+
+    private static void appendEntry(StringBuilder xml, String element, String id, String text) {
+        xml.append("        <").append(element).append(" id=\"").append(id).append("\"><text>")
+                .append(text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;"))
+                .append("</text></").append(element).append(">\n");
+    }
+}
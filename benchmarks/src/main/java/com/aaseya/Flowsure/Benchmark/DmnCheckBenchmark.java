@@ -0,0 +1,118 @@
+package com.aaseya.Flowsure.Benchmark;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aaseya.Flowsure.Model.DiagramValidationResult;
+import com.aaseya.Flowsure.Model.DmnDefinitions;
+import com.aaseya.Flowsure.Model.ValidationIssue;
+import com.aaseya.Flowsure.Service.DmnModelParser;
+import com.aaseya.Flowsure.Service.DmnValidationService;
+
+/**
+ * Throughput of each DMN check on a generated decision table. The model is parsed once in
+ * setup, so every benchmark measures only its check (plus rule indexing where the check
+ * needs it). Parsing itself is measured by {@link #parse()}. {@link #fullFile()} runs
+ * independent checks concurrently where the service would; {@link #fullFileSequential()}
+ * runs the same checks one after another for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class DmnCheckBenchmark {
+
+    @Param({ "10", "1000", "10000", "100000" })
+    public int rules;
+
+    @Param({ "1", "10", "30" })
+    public int inputs;
+
+    @Param({ "UNIQUE" })
+    public String hitPolicy;
+
+    private byte[] dmnBytes;
+    private DmnDefinitions model;
+    private DmnModelParser parser;
+    private DmnValidationService service;
+    private DmnValidationService sequentialService;
+
+    @Setup
+    public void setUp() throws Exception {
+        dmnBytes = CorpusGenerator.dmn(rules, inputs, hitPolicy, 42L);
+        parser = new DmnModelParser();
+        model = parser.parse(dmnBytes);
+        service = Validators.dmnValidationService();
+        sequentialService = Validators.dmnValidationService(Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public DmnDefinitions parse() throws Exception {
+        return parser.parse(dmnBytes);
+    }
+
+    @Benchmark
+    public List<ValidationIssue> overlapAnalysis() {
+        List<ValidationIssue> issues = new ArrayList<>();
+        service.checkForRuleOverlapsInDmnFile(model, new IdentityHashMap<>(), issues, "bench.dmn", newResult());
+        return issues;
+    }
+
+    @Benchmark
+    public List<ValidationIssue> typeConsistency() {
+        List<ValidationIssue> issues = new ArrayList<>();
+        service.checkForTypeConsistency(model, issues, "bench.dmn", newResult());
+        return issues;
+    }
+
+    @Benchmark
+    public List<ValidationIssue> hitPolicy() {
+        List<ValidationIssue> issues = new ArrayList<>();
+        service.checkHitPolicyCompatibility(model, new IdentityHashMap<>(), issues, "bench.dmn", newResult());
+        return issues;
+    }
+
+    @Benchmark
+    public List<ValidationIssue> ruleGaps() {
+        List<ValidationIssue> issues = new ArrayList<>();
+        service.checkRuleGaps(model, issues, "bench.dmn", newResult());
+        return issues;
+    }
+
+    @Benchmark
+    public List<ValidationIssue> missingDescriptions() {
+        List<ValidationIssue> issues = new ArrayList<>();
+        service.checkForMissingDescriptions(model, issues, "bench.dmn", newResult());
+        return issues;
+    }
+
+    @Benchmark
+    public DiagramValidationResult fullFile() {
+        return service.validateDmnFile("bench.dmn", dmnBytes);
+    }
+
+    @Benchmark
+    public DiagramValidationResult fullFileSequential() {
+        return sequentialService.validateDmnFile("bench.dmn", dmnBytes);
+    }
+
+    private static DiagramValidationResult newResult() {
+        return new DiagramValidationResult("bench.dmn", true, new ArrayList<>());
+    }
+}
@@ -0,0 +1,546 @@
+package com.aaseya.Flowsure.Benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.aaseya.Flowsure.FlowsureApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * End-to-end load test of the validation endpoints. Starts {@link FlowsureApplication} in
+ * this JVM with the {@code validation-only} profile on a random port, uploads generated
+ * archives over HTTP and writes throughput, latency percentiles, error rate and the heap
+ * high-water mark to a JSON file, so releases can be compared on the same hardware.
+ * <p>
+ * Load is either closed ({@code --concurrency} clients, each sending its next request when
+ * the previous one is answered) or open ({@code --rate} requests per second at fixed
+ * intervals, whatever the response times). Open-loop latency is measured from the time a
+ * request was due, so a server that falls behind shows it in the percentiles. Requests sent
+ * inside the measurement window count, and the run waits for their responses; throughput is
+ * taken over the window or until the last of them was answered, whichever is longer. The
+ * warmup before the window lets the JIT and the lazily created beans settle. The result cache is off unless {@code --cache} is given, so
+ * every request runs the checks.
+ * <p>
+ * Heap is sampled every 10 ms during the measurement and includes the small footprint of
+ * the load generator, whose archives are built before the run.
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.aaseya.Flowsure.Benchmark.LoadTest \
+ *     --mix=upload-zip:1,upload-dmn-zip:3 --concurrency=16 --duration-s=120
+ * </pre>
+ */
+public final class LoadTest {
+
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: LoadTest [options]",
+            "  --mix=<endpoint>:<weight>,...  share of requests per endpoint: upload-zip, upload-dmn-zip, upload",
+            "                                 (default: upload-zip:1,upload-dmn-zip:1)",
+            "  --concurrency=<n>              closed loop with n clients (default: 8)",
+            "  --rate=<n>                     open loop at n requests per second instead",
+            "  --max-in-flight=<n>            open loop: requests outstanding at once (default: 1024)",
+            "  --warmup-s=<n>                 seconds before measuring (default: 10)",
+            "  --duration-s=<n>               seconds measured (default: 60)",
+            "  --timeout-s=<n>                requests slower than this count as errors (default: 120)",
+            "  --archives=<n>                 distinct archives per endpoint (default: 4)",
+            "  --files=<n>                    diagram files per archive (default: 20)",
+            "  --dmn-rules=<n>                rules per DMN decision table (default: 200)",
+            "  --dmn-inputs=<n>               input columns per DMN decision table (default: 5)",
+            "  --bpmn-nodes=<n>               flow nodes per BPMN process (default: 200)",
+            "  --seed=<n>                     seed of the generated archives (default: 1)",
+            "  --cache                        keep the result cache enabled",
+            "  --output=<file>                result file (default: load-result.json)");
+
+    private static final List<String> ENDPOINTS = List.of("upload-zip", "upload-dmn-zip", "upload");
+    private static final String BOUNDARY = "flowsure-load-test-boundary";
+    private static final long HEAP_SAMPLE_MILLIS = 10;
+
+    private final Map<String, Integer> mix = new LinkedHashMap<>();
+    private int concurrency = 8;
+    private int rate;
+    private int maxInFlight = 1024;
+    private int warmupSeconds = 10;
+    private int durationSeconds = 60;
+    private int timeoutSeconds = 120;
+    private int archives = 4;
+    private int files = 20;
+    private int dmnRules = 200;
+    private int dmnInputs = 5;
+    private int bpmnNodes = 200;
+    private long seed = 1;
+    private boolean cache;
+    private Path output = Path.of("load-result.json");
+
+    private final Map<String, Recorder> recorders = new LinkedHashMap<>();
+    private final List<Target> targets = new ArrayList<>();
+    private int totalWeight;
+    private HttpClient client;
+    private volatile long measureStart;
+    private volatile long measureEnd;
+    private final AtomicLong lastCompletion = new AtomicLong();
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTest loadTest = new LoadTest();
+        try {
+            loadTest.parseArguments(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        loadTest.run();
+        System.exit(0);
+    }
+
+    private void parseArguments(String[] args) {
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unknown argument '" + arg + "'.");
+            }
+            int separator = arg.indexOf('=');
+            String name = separator >= 0 ? arg.substring(2, separator) : arg.substring(2);
+            String value = separator >= 0 ? arg.substring(separator + 1) : null;
+            switch (name) {
+            case "mix":
+                parseMix(required(name, value));
+                break;
+            case "concurrency":
+                concurrency = positive(name, value);
+                break;
+            case "rate":
+                rate = positive(name, value);
+                break;
+            case "max-in-flight":
+                maxInFlight = positive(name, value);
+                break;
+            case "warmup-s":
+                warmupSeconds = (int) Math.max(0, number(name, value));
+                break;
+            case "duration-s":
+                durationSeconds = positive(name, value);
+                break;
+            case "timeout-s":
+                timeoutSeconds = positive(name, value);
+                break;
+            case "archives":
+                archives = positive(name, value);
+                break;
+            case "files":
+                files = positive(name, value);
+                break;
+            case "dmn-rules":
+                dmnRules = positive(name, value);
+                break;
+            case "dmn-inputs":
+                dmnInputs = positive(name, value);
+                break;
+            case "bpmn-nodes":
+                bpmnNodes = positive(name, value);
+                break;
+            case "seed":
+                seed = number(name, value);
+                break;
+            case "cache":
+                cache = true;
+                break;
+            case "output":
+                output = Path.of(required(name, value));
+                break;
+            case "help":
+                throw new IllegalArgumentException("Load test of the validation endpoints.");
+            default:
+                throw new IllegalArgumentException("Unknown option '" + arg + "'.");
+            }
+        }
+        if (mix.isEmpty()) {
+            mix.put("upload-zip", 1);
+            mix.put("upload-dmn-zip", 1);
+        }
+    }
+
+    private void parseMix(String value) {
+        for (String part : value.split(",")) {
+            String[] endpointAndWeight = part.trim().split(":");
+            String endpoint = endpointAndWeight[0];
+            if (!ENDPOINTS.contains(endpoint)) {
+                throw new IllegalArgumentException("Unknown endpoint '" + endpoint + "'. Use one of " + ENDPOINTS + ".");
+            }
+            int weight = endpointAndWeight.length > 1 ? (int) number("mix", endpointAndWeight[1]) : 1;
+            if (weight > 0) {
+                mix.put(endpoint, weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Option --mix needs at least one endpoint with a positive weight.");
+        }
+    }
+
+    private static String required(String name, String value) {
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Option --" + name + " needs a value.");
+        }
+        return value;
+    }
+
+    private static long number(String name, String value) {
+        try {
+            return Long.parseLong(required(name, value));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Option --" + name + " needs a number, not '" + value + "'.");
+        }
+    }
+
+    private static int positive(String name, String value) {
+        long number = number(name, value);
+        if (number <= 0 || number > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Option --" + name + " needs a positive number, not '" + value + "'.");
+        }
+        return (int) number;
+    }
+
+    private void run() throws Exception {
+        System.out.println("Generating archives...");
+        for (Map.Entry<String, Integer> endpoint : mix.entrySet()) {
+            List<byte[]> bodies = new ArrayList<>(archives);
+            for (int a = 0; a < archives; a++) {
+                bodies.add(multipartBody("load-" + a + ".zip", archive(endpoint.getKey(), a)));
+            }
+            targets.add(new Target(endpoint.getKey(), endpoint.getValue(), bodies));
+            recorders.put(endpoint.getKey(), new Recorder());
+            totalWeight += endpoint.getValue();
+        }
+
+        System.out.println("Starting FlowsureApplication...");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(FlowsureApplication.class)
+                .profiles("validation-only")
+                .properties("server.port=0", "spring.main.banner-mode=off", "logging.level.root=WARN",
+                        "flowsure.cache.enabled=" + cache)
+                .run();
+        try {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                    + "/api/validate/";
+            client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            for (Target target : targets) {
+                target.uri = URI.create(baseUrl + target.endpoint);
+            }
+
+            long start = System.nanoTime();
+            measureStart = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+            measureEnd = measureStart + TimeUnit.SECONDS.toNanos(durationSeconds);
+            System.out.printf(Locale.ROOT, "Warming up for %d s, then measuring for %d s (%s)...%n", warmupSeconds,
+                    durationSeconds, rate > 0 ? rate + " requests/s" : concurrency + " clients");
+            HeapSampler heap = new HeapSampler();
+            heap.start();
+            if (rate > 0) {
+                runOpenLoop(start);
+            } else {
+                runClosedLoop();
+            }
+            heap.interrupt();
+            heap.join();
+
+            Map<String, Object> report = report(heap, context.getEnvironment().getProperty(
+                    "flowsure.validation.ruleset-version"));
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), report);
+            printSummary(report);
+            System.out.println("Results written to " + output.toAbsolutePath());
+        } finally {
+            context.close();
+        }
+    }
+
+    private void runClosedLoop() throws InterruptedException {
+        List<Thread> clients = new ArrayList<>(concurrency);
+        for (int c = 0; c < concurrency; c++) {
+            Random random = new Random(seed * 31 + c);
+            Thread thread = new Thread(() -> {
+                while (System.nanoTime() < measureEnd) {
+                    Target target = pick(random);
+                    long sent = System.nanoTime();
+                    boolean ok = send(target, random);
+                    record(target, sent, System.nanoTime(), ok);
+                }
+            }, "load-client-" + c);
+            thread.setDaemon(true);
+            clients.add(thread);
+            thread.start();
+        }
+        for (Thread thread : clients) {
+            thread.join();
+        }
+    }
+
+    private void runOpenLoop(long start) throws InterruptedException {
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        Random random = new Random(seed);
+        List<CompletableFuture<?>> pending = new ArrayList<>();
+        for (long due = start; due < measureEnd; due += interval) {
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            inFlight.acquire();
+            Target target = pick(random);
+            long dueTime = due;
+            pending.add(client.sendAsync(request(target, random), HttpResponse.BodyHandlers.discarding())
+                    .handle((response, e) -> {
+                        inFlight.release();
+                        record(target, dueTime, System.nanoTime(), e == null && response.statusCode() / 100 == 2);
+                        return null;
+                    }));
+            pending.removeIf(CompletableFuture::isDone);
+        }
+        CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private Target pick(Random random) {
+        int ticket = random.nextInt(totalWeight);
+        for (Target target : targets) {
+            ticket -= target.weight;
+            if (ticket < 0) {
+                return target;
+            }
+        }
+        throw new IllegalStateException("Weights do not add up");
+    }
+
+    private HttpRequest request(Target target, Random random) {
+        return HttpRequest.newBuilder(target.uri)
+                .timeout(Duration.ofSeconds(timeoutSeconds))
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(target.bodies.get(random.nextInt(target.bodies.size()))))
+                .build();
+    }
+
+    private boolean send(Target target, Random random) {
+        try {
+            HttpResponse<Void> response = client.send(request(target, random), HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() / 100 == 2;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void record(Target target, long sent, long completed, boolean ok) {
+        // Requests sent in the window are measured however late they are answered, so an
+        // overloaded server cannot hide its slowest requests
+        if (sent >= measureStart && sent < measureEnd) {
+            recorders.get(target.endpoint).record(completed - sent, ok);
+            lastCompletion.accumulateAndGet(completed, Math::max);
+        }
+    }
+
+    private byte[] archive(String endpoint, int index) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (int f = 0; f < files; f++) {
+                long fileSeed = seed * 1_000_003L + index * 1_009L + f;
+                // The mixed endpoint gets BPMN and DMN files alternately
+                boolean dmn = "upload-dmn-zip".equals(endpoint) || ("upload".equals(endpoint) && f % 2 == 1);
+                if (dmn) {
+                    zip.putNextEntry(new ZipEntry("decision_" + f + ".dmn"));
+                    zip.write(CorpusGenerator.dmn(dmnRules, dmnInputs, f % 3 == 0 ? "FIRST" : "UNIQUE", fileSeed));
+                } else {
+                    zip.putNextEntry(new ZipEntry("process_" + f + ".bpmn"));
+                    zip.write(CorpusGenerator.bpmn(bpmnNodes, fileSeed));
+                }
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] multipartBody(String fileName, byte[] archive) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(archive.length + 512);
+        body.write(("--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"" + fileName + "\"\r\n"
+                + "Content-Type: application/zip\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        body.write(archive);
+        body.write(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+        return body.toByteArray();
+    }
+
+    private Map<String, Object> report(HeapSampler heap, String rulesetVersion) {
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("mix", mix);
+        config.put("mode", rate > 0 ? "open" : "closed");
+        config.put(rate > 0 ? "rate" : "concurrency", rate > 0 ? rate : concurrency);
+        config.put("warmupSeconds", warmupSeconds);
+        config.put("durationSeconds", durationSeconds);
+        config.put("timeoutSeconds", timeoutSeconds);
+        config.put("archives", archives);
+        config.put("filesPerArchive", files);
+        config.put("dmnRules", dmnRules);
+        config.put("dmnInputs", dmnInputs);
+        config.put("bpmnNodes", bpmnNodes);
+        config.put("seed", seed);
+        config.put("cache", cache);
+
+        Runtime runtime = Runtime.getRuntime();
+        Map<String, Object> environment = new LinkedHashMap<>();
+        environment.put("javaVersion", System.getProperty("java.version"));
+        environment.put("javaVm", System.getProperty("java.vm.name"));
+        environment.put("os", System.getProperty("os.name") + " " + System.getProperty("os.arch"));
+        environment.put("availableProcessors", runtime.availableProcessors());
+        environment.put("maxHeapBytes", runtime.maxMemory());
+        environment.put("rulesetVersion", rulesetVersion);
+
+        double elapsedSeconds = Math.max(measureEnd, lastCompletion.get()) - measureStart;
+        elapsedSeconds /= TimeUnit.SECONDS.toNanos(1);
+        Recorder all = new Recorder();
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        for (Map.Entry<String, Recorder> recorder : recorders.entrySet()) {
+            all.addAll(recorder.getValue());
+            endpoints.put(recorder.getKey(), recorder.getValue().summary(elapsedSeconds));
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("config", config);
+        report.put("environment", environment);
+        report.put("elapsedSeconds", Recorder.round(elapsedSeconds));
+        report.put("total", all.summary(elapsedSeconds));
+        report.put("endpoints", endpoints);
+        report.put("heapHighWaterBytes", heap.highWater.get());
+        return report;
+    }
+
+    private static void printSummary(Map<String, Object> report) {
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> endpoints = (Map<String, Map<String, Object>>) report.get("endpoints");
+        for (Map.Entry<String, Map<String, Object>> endpoint : endpoints.entrySet()) {
+            Map<String, Object> summary = endpoint.getValue();
+            System.out.printf(Locale.ROOT, "%-16s %8s req %8s/s  error rate %s  latency ms p50 %s p95 %s p99 %s%n",
+                    endpoint.getKey(), summary.get("requests"), summary.get("throughputPerSecond"),
+                    summary.get("errorRate"), summary.get("p50Millis"), summary.get("p95Millis"),
+                    summary.get("p99Millis"));
+        }
+    }
+
+    /**
+     * Latencies of one endpoint, in nanoseconds.
+     */
+    private static final class Recorder {
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        synchronized void record(long latency, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latency;
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        synchronized void addAll(Recorder other) {
+            synchronized (other) {
+                for (int i = 0; i < other.count; i++) {
+                    record(other.latencies[i], true);
+                }
+                errors += other.errors;
+            }
+        }
+
+        synchronized Map<String, Object> summary(double elapsedSeconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("requests", count);
+            summary.put("errors", errors);
+            summary.put("errorRate", count == 0 ? 0.0 : round((double) errors / count));
+            summary.put("throughputPerSecond", round(count / elapsedSeconds));
+            summary.put("meanMillis", count == 0 ? null : round(Arrays.stream(sorted).average().orElse(0) / 1e6));
+            summary.put("p50Millis", percentile(sorted, 50));
+            summary.put("p95Millis", percentile(sorted, 95));
+            summary.put("p99Millis", percentile(sorted, 99));
+            summary.put("maxMillis", count == 0 ? null : round(sorted[count - 1] / 1e6));
+            return summary;
+        }
+
+        /**
+         * Nearest-rank percentile in milliseconds; null without samples.
+         */
+        private static Double percentile(long[] sorted, int percentile) {
+            if (sorted.length == 0) {
+                return null;
+            }
+            int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+            return round(sorted[Math.max(0, rank - 1)] / 1e6);
+        }
+
+        static double round(double value) {
+            return Math.round(value * 1000) / 1000.0;
+        }
+    }
+
+    private final class HeapSampler extends Thread {
+        private final AtomicLong highWater = new AtomicLong();
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+        HeapSampler() {
+            super("load-heap-sampler");
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!isInterrupted()) {
+                    if (System.nanoTime() >= measureStart) {
+                        highWater.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                    }
+                    Thread.sleep(HEAP_SAMPLE_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                // Done
+            }
+        }
+    }
+
+    private static final class Target {
+        final String endpoint;
+        final int weight;
+        final List<byte[]> bodies;
+        URI uri;
+
+        Target(String endpoint, int weight, List<byte[]> bodies) {
+            this.endpoint = endpoint;
+            this.weight = weight;
+            this.bodies = bodies;
+        }
+    }
+}
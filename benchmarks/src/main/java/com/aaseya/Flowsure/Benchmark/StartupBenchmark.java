@@ -0,0 +1,80 @@
+package com.aaseya.Flowsure.Benchmark;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time from launching a validation-only instance to its refreshed application context, in
+ * a fresh JVM per measurement. The application runs as a child process from its own jar,
+ * since startup inside this shaded jar would say little about a deployed pod.
+ * <p>
+ * Build the application with {@code mvn -Pappcds package} first; the default {@code jar}
+ * is the extracted jar that profile produces, and {@code classSharing=appcds} starts it
+ * with the class data archive trained next to it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StartupBenchmark {
+
+    @Param({ "../target/cds/Flowsure-0.0.1-SNAPSHOT.jar" })
+    public String jar;
+
+    @Param({ "none", "appcds" })
+    public String classSharing;
+
+    private List<String> command;
+
+    @Setup
+    public void setUp() {
+        Path jarPath = Path.of(jar).toAbsolutePath();
+        if (!Files.isRegularFile(jarPath)) {
+            throw new IllegalStateException(jarPath + " not found; build it with mvn -Pappcds package");
+        }
+        command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if ("appcds".equals(classSharing)) {
+            Path archive = jarPath.resolveSibling("Flowsure.jsa");
+            if (!Files.isRegularFile(archive)) {
+                throw new IllegalStateException(archive + " not found; build it with mvn -Pappcds package");
+            }
+            command.add("-XX:SharedArchiveFile=" + archive);
+        }
+        command.add("-Dspring.context.exit=onRefresh");
+        command.add("-jar");
+        command.add(jarPath.toString());
+        command.add("--spring.profiles.active=validation-only");
+        command.add("--server.port=0");
+    }
+
+    @Benchmark
+    public int startUp() throws Exception {
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        int exitCode = process.waitFor();
+        if (exitCode != 0) {
+            throw new IllegalStateException("Startup failed with exit code " + exitCode + ": " + command);
+        }
+        return exitCode;
+    }
+}
@@ -0,0 +1,68 @@
+package com.aaseya.Flowsure.Benchmark;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.aaseya.Flowsure.Service.ArchiveValidationPipeline;
+import com.aaseya.Flowsure.Service.DiagramValidationService;
+import com.aaseya.Flowsure.Service.DmnValidationService;
+import com.aaseya.Flowsure.Service.ValidationLimits;
+import com.aaseya.Flowsure.Service.ValidationMetrics;
+import com.aaseya.Flowsure.Service.ValidationResultCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Builds the validation services without a Spring context. The result cache is disabled
+ * so repeated invocations always run the checks, and metrics are recorded nowhere.
+ */
+final class Validators {
+
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), runnable -> {
+                Thread thread = new Thread(runnable, "bench-validate");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private static final ExecutorService CHECK_EXECUTOR = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), runnable -> {
+                Thread thread = new Thread(runnable, "bench-dmn-check");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    /** Rule count from which checks of one file run concurrently, as in application.properties. */
+    static final int PARALLEL_MIN_RULES = 2000;
+
+    private static final ValidationMetrics METRICS = ValidationMetrics.disabled();
+
+    private Validators() {
+    }
+
+    static ArchiveValidationPipeline pipeline() {
+        return new ArchiveValidationPipeline(EXECUTOR, 64, METRICS, ValidationLimits.defaults());
+    }
+
+    static ValidationResultCache disabledCache() {
+        return new ValidationResultCache(new ObjectMapper(), (com.aaseya.Flowsure.Repository.ValidationResultCacheRepository) null,
+                false, 0, "bench", Duration.ZERO);
+    }
+
+    static DmnValidationService dmnValidationService() {
+        return dmnValidationService(PARALLEL_MIN_RULES);
+    }
+
+    /**
+     * @param parallelMinRules {@link Integer#MAX_VALUE} runs every file's checks one after another.
+     */
+    static DmnValidationService dmnValidationService(int parallelMinRules) {
+        return new DmnValidationService(pipeline(), disabledCache(), METRICS, CHECK_EXECUTOR, List.of(),
+                parallelMinRules);
+    }
+
+    static DiagramValidationService diagramValidationService() {
+        return new DiagramValidationService(pipeline(), disabledCache(), METRICS);
+    }
+}
@@ -0,0 +1,42 @@
+package com.aaseya.Flowsure.Config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Worker pool shared by all archive validations. Its size is fixed so concurrent uploads
+ * compete for the same cores instead of each one starting its own threads.
+ * <p>
+ * Checks of a single large DMN file run on a second pool. Archive workers wait for those
+ * checks, so sharing one pool could leave every thread waiting on work queued behind it.
+ */
+@Configuration
+public class ValidationExecutorConfig {
+
+    @Bean(name = "validationExecutor", destroyMethod = "shutdown")
+    public ExecutorService validationExecutor(@Value("${flowsure.validation.parallelism:0}") int parallelism) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        return Executors.newFixedThreadPool(threads, namedDaemonThreads("flowsure-validate-"));
+    }
+
+    @Bean(name = "dmnCheckExecutor", destroyMethod = "shutdown")
+    public ExecutorService dmnCheckExecutor(@Value("${flowsure.validation.checks.parallelism:0}") int parallelism) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        return Executors.newFixedThreadPool(threads, namedDaemonThreads("flowsure-dmn-check-"));
+    }
+
+    static ThreadFactory namedDaemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -1,36 +1,91 @@
 package com.aaseya.Flowsure.Controller;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.http.HttpStatus;
+import com.aaseya.Flowsure.DTO.DeploymentStatus;
 import com.aaseya.Flowsure.DTO.DiagramValidationResponse;
+import com.aaseya.Flowsure.DTO.IssueHistoryEntry;
+import com.aaseya.Flowsure.DTO.ManifestDiff;
+import com.aaseya.Flowsure.DTO.ManifestRequest;
+import com.aaseya.Flowsure.DTO.ResultHistoryEntry;
+import com.aaseya.Flowsure.DTO.ValidationJobStatus;
+import com.aaseya.Flowsure.DTO.ValidationSummary;
+import com.aaseya.Flowsure.Entity.ValidationJob;
 import com.aaseya.Flowsure.Model.DiagramValidationResult;
+import com.aaseya.Flowsure.Model.ValidationIssue.IssueType;
+import com.aaseya.Flowsure.Service.DeploymentService;
 import com.aaseya.Flowsure.Service.DiagramValidationService;
 import com.aaseya.Flowsure.Service.DmnValidationService;
+import com.aaseya.Flowsure.Service.ModelArchiveValidationService;
+import com.aaseya.Flowsure.Service.ProjectDeltaService;
+import com.aaseya.Flowsure.Service.ValidationHistoryService;
+import com.aaseya.Flowsure.Service.ValidationJobService;
+import com.aaseya.Flowsure.Service.ValidationJobWorker;
+import com.aaseya.Flowsure.Service.ValidationResultListener;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 @RestController
 @RequestMapping("/api/validate")
 public class FlowsureController {
+
+    private static final Logger log = LoggerFactory.getLogger(FlowsureController.class);
 	
 	@Autowired
 	private DiagramValidationService diagramValidationService;
 	
 	 @Autowired // Autowire the new DMN validation service
 	    private DmnValidationService dmnValidationService;
+
+	@Autowired
+	private ModelArchiveValidationService modelArchiveValidationService;
+
+	@Autowired
+	private DeploymentService deploymentService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	// The services below need the datasource; they are absent when flowsure.persistence.enabled=false
+	@Autowired(required = false)
+	private ValidationJobService validationJobService;
+
+	@Autowired(required = false)
+	private ValidationJobWorker validationJobWorker;
+
+	@Autowired(required = false)
+	private ValidationHistoryService validationHistoryService;
+
+	@Autowired(required = false)
+	private ProjectDeltaService projectDeltaService;
 	
 	@PostMapping("/upload-zip") // Changed endpoint name for clarity
     public ResponseEntity<DiagramValidationResponse> validateDiagramsInZip(
             @RequestParam("file") MultipartFile file) { // Expecting a ZIP file
         try {
             List<DiagramValidationResult> results = diagramValidationService.validateZip(file);
+            recordHistory("upload-zip", file.getOriginalFilename(), results);
             DiagramValidationResponse response = new DiagramValidationResponse(
                     "SUCCESS",
                     "Diagram validation completed for files in ZIP.",
@@ -39,8 +94,7 @@ public class FlowsureController {
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             // Log the exception for debugging
-            System.err.println("Error during ZIP file validation: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error during ZIP file validation", e);
             DiagramValidationResponse errorResponse = new DiagramValidationResponse(
                     "FAILURE",
                     "An error occurred during ZIP file processing: " + e.getMessage(),
@@ -77,6 +131,7 @@ public class FlowsureController {
 
         try {
             List<DiagramValidationResult> results = dmnValidationService.validateDmnZip(file); // Call the new service
+            recordHistory("upload-dmn-zip", originalFilename, results);
             DiagramValidationResponse response = new DiagramValidationResponse(
                     "SUCCESS",
                     "DMN validation completed for files in ZIP.",
@@ -84,8 +139,7 @@ public class FlowsureController {
             );
             return ResponseEntity.ok(response);
         } catch (IOException ioe) { // Specific exception handling for IO
-            System.err.println("IO Error during DMN ZIP file validation: " + ioe.getMessage());
-            ioe.printStackTrace();
+            log.error("IO Error during DMN ZIP file validation", ioe);
             DiagramValidationResponse errorResponse = new DiagramValidationResponse(
                     "FAILURE",
                     "An IO error occurred during DMN ZIP file processing: " + ioe.getMessage(),
@@ -94,8 +148,7 @@ public class FlowsureController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
         }
         catch (Exception e) { // General exception handling
-            System.err.println("Error during DMN ZIP file validation: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error during DMN ZIP file validation", e);
             DiagramValidationResponse errorResponse = new DiagramValidationResponse(
                     "FAILURE",
                     "An error occurred during DMN ZIP file processing: " + e.getMessage(),
@@ -104,11 +157,399 @@ public class FlowsureController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
         }
     }
-}
 
+    // Streaming variant of /upload-zip: one JSON line per diagram as it completes, then a summary line
+    @PostMapping("/upload-zip/stream")
+    public ResponseEntity<StreamingResponseBody> streamDiagramsInZip(
+            @RequestParam("file") MultipartFile file) {
+        Optional<ResponseEntity<DiagramValidationResponse>> rejected = rejectArchive(file);
+        if (rejected.isPresent()) {
+            return streamed(rejected.get());
+        }
+        StreamingResponseBody body = out -> {
+            ValidationSummary summary = new ValidationSummary("SUCCESS", "Diagram validation completed for files in ZIP.");
+            Optional<ValidationHistoryService.RunRecorder> history = startHistory("upload-zip/stream",
+                    file.getOriginalFilename());
+            try {
+                diagramValidationService.validateZip(file, result -> {
+                    summary.add(result);
+                    history.ifPresent(recorder -> recorder.onResult(result));
+                    writeLine(out, result);
+                });
+                writeLine(out, summary);
+            } finally {
+                // A client that hangs up makes writeLine throw; the run keeps what was validated until then
+                history.ifPresent(ValidationHistoryService.RunRecorder::finish);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
 
-	
-	
-	
+    // Streaming variant of /upload-dmn-zip
+    @PostMapping("/upload-dmn-zip/stream")
+    public ResponseEntity<StreamingResponseBody> streamDmnFilesInZip(
+            @RequestParam("file") MultipartFile file) {
+        Optional<ResponseEntity<DiagramValidationResponse>> rejected = rejectArchive(file);
+        if (rejected.isPresent()) {
+            return streamed(rejected.get());
+        }
+        String originalFilename = file.getOriginalFilename();
+
+        StreamingResponseBody body = out -> {
+            ValidationSummary summary = new ValidationSummary("SUCCESS", "DMN validation completed for files in ZIP.");
+            Optional<ValidationHistoryService.RunRecorder> history = startHistory("upload-dmn-zip/stream",
+                    originalFilename);
+            try {
+                try {
+                    dmnValidationService.validateDmnZip(file, result -> {
+                        summary.add(result);
+                        history.ifPresent(recorder -> recorder.onResult(result));
+                        writeLine(out, result);
+                    });
+                } catch (IOException ioe) {
+                    // Results already written stay valid; the summary line reports the failure
+                    summary.setStatus("FAILURE");
+                    summary.setMessage("An IO error occurred during DMN ZIP file processing: " + ioe.getMessage());
+                }
+                writeLine(out, summary);
+            } finally {
+                history.ifPresent(ValidationHistoryService.RunRecorder::finish);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    // Archives mixing BPMN and DMN files: every entry is routed by its root element, in one pass.
+    // With deploy=true an archive without errors is deployed right away, all files in one deployment.
+    @PostMapping("/upload")
+    public ResponseEntity<DiagramValidationResponse> validateModelsInZip(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "deploy", defaultValue = "false") boolean deploy) {
+        Optional<ResponseEntity<DiagramValidationResponse>> rejected = rejectArchive(file);
+        if (rejected.isPresent()) {
+            return rejected.get();
+        }
+        if (deploy && !deploymentService.isEnabled()) {
+            return deploymentDisabled();
+        }
+        try {
+            List<DiagramValidationResult> results;
+            DeploymentStatus deployment = null;
+            if (deploy) {
+                results = new ArrayList<>();
+                deployment = deploymentService.validateAndDeploy(file, results::add);
+            } else {
+                results = modelArchiveValidationService.validateZip(file);
+            }
+            recordHistory("upload", file.getOriginalFilename(), results);
+            DiagramValidationResponse response = new DiagramValidationResponse(
+                    "SUCCESS",
+                    "BPMN and DMN validation completed for files in ZIP.",
+                    results
+            );
+            response.setDeployment(deployment);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.error("Error during ZIP file validation", e);
+            DiagramValidationResponse errorResponse = new DiagramValidationResponse(
+                    "FAILURE",
+                    "An error occurred during ZIP file processing: " + e.getMessage(),
+                    null
+            );
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
+    // Streaming variant of /upload
+    @PostMapping("/upload/stream")
+    public ResponseEntity<StreamingResponseBody> streamModelsInZip(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "deploy", defaultValue = "false") boolean deploy) {
+        Optional<ResponseEntity<DiagramValidationResponse>> rejected = rejectArchive(file);
+        if (rejected.isPresent()) {
+            return streamed(rejected.get());
+        }
+        if (deploy && !deploymentService.isEnabled()) {
+            return streamed(deploymentDisabled());
+        }
+        StreamingResponseBody body = out -> {
+            ValidationSummary summary = new ValidationSummary("SUCCESS", "BPMN and DMN validation completed for files in ZIP.");
+            Optional<ValidationHistoryService.RunRecorder> history = startHistory("upload/stream",
+                    file.getOriginalFilename());
+            ValidationResultListener listener = result -> {
+                summary.add(result);
+                history.ifPresent(recorder -> recorder.onResult(result));
+                writeLine(out, result);
+            };
+            try {
+                if (deploy) {
+                    // The deployment outcome rides on the summary line
+                    summary.setDeployment(deploymentService.validateAndDeploy(file, listener));
+                } else {
+                    modelArchiveValidationService.validateZip(file, listener);
+                }
+                writeLine(out, summary);
+            } finally {
+                history.ifPresent(ValidationHistoryService.RunRecorder::finish);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    private static Optional<ResponseEntity<DiagramValidationResponse>> rejectArchive(MultipartFile file) {
+        if (file.isEmpty()) {
+            return Optional.of(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new DiagramValidationResponse(
+                    "FAILURE",
+                    "File is empty. Please upload a valid ZIP file.",
+                    null
+            )));
+        }
+        String originalFilename = file.getOriginalFilename();
+        if (originalFilename == null || !originalFilename.toLowerCase().endsWith(".zip")) {
+            return Optional.of(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new DiagramValidationResponse(
+                    "FAILURE",
+                    "Invalid file type. Please upload a ZIP file.",
+                    null
+            )));
+        }
+        return Optional.empty();
+    }
+
+    // Asynchronous validation: queue the archive and return its job id right away
+    @PostMapping("/jobs")
+    public ResponseEntity<?> submitValidationJob(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "type", defaultValue = "diagram") String type) throws IOException {
+        if (validationJobService == null) {
+            return persistenceDisabled();
+        }
+        if (file.isEmpty()) {
+            DiagramValidationResponse errorResponse = new DiagramValidationResponse(
+                    "FAILURE",
+                    "File is empty. Please upload a valid ZIP file.",
+                    null
+            );
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        }
+        ValidationJob.Kind kind;
+        if ("diagram".equalsIgnoreCase(type)) {
+            kind = ValidationJob.Kind.DIAGRAM;
+        } else if ("dmn".equalsIgnoreCase(type)) {
+            kind = ValidationJob.Kind.DMN;
+        } else {
+            DiagramValidationResponse errorResponse = new DiagramValidationResponse(
+                    "FAILURE",
+                    "Invalid job type '" + type + "'. Use 'diagram' or 'dmn'.",
+                    null
+            );
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        }
 
+        Optional<ValidationJob> job = validationJobService.submit(kind, file.getOriginalFilename(), file);
+        if (job.isEmpty()) {
+            DiagramValidationResponse errorResponse = new DiagramValidationResponse(
+                    "FAILURE",
+                    "The validation queue is full. Please retry later.",
+                    null
+            );
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .body(errorResponse);
+        }
+        validationJobWorker.wakeUp();
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/validate/jobs/" + job.get().getId()))
+                .body(new ValidationJobStatus(job.get()));
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<?> getValidationJob(@PathVariable("jobId") UUID jobId) {
+        if (validationJobService == null) {
+            return persistenceDisabled();
+        }
+        return validationJobService.findJob(jobId)
+                .map(job -> ResponseEntity.ok(new ValidationJobStatus(job)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Results of a finished job; 409 with the job status while it is still queued or running
+    @GetMapping("/jobs/{jobId}/results")
+    public ResponseEntity<?> getValidationJobResults(@PathVariable("jobId") UUID jobId) {
+        if (validationJobService == null) {
+            return persistenceDisabled();
+        }
+        Optional<ValidationJob> job = validationJobService.findJob(jobId);
+        if (job.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        switch (job.get().getStatus()) {
+            case COMPLETED:
+                List<DiagramValidationResult> results = validationJobService.findResults(jobId).orElse(List.of());
+                return ResponseEntity.ok(new DiagramValidationResponse(
+                        "SUCCESS",
+                        "Validation completed for files in ZIP.",
+                        results
+                ));
+            case FAILED:
+                return ResponseEntity.ok(new DiagramValidationResponse(
+                        "FAILURE",
+                        job.get().getErrorMessage(),
+                        null
+                ));
+            default:
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(new ValidationJobStatus(job.get()));
+        }
+    }
+
+    // Validation history: issues of one severity for a diagram over the last N days, newest first
+    @GetMapping("/history/issues")
+    public ResponseEntity<?> getIssueHistory(
+            @RequestParam("diagram") String diagramName,
+            @RequestParam(value = "severity", defaultValue = "ERROR") String severity,
+            @RequestParam(value = "days", defaultValue = "30") int days,
+            @RequestParam(value = "limit", defaultValue = "200") int limit) {
+        if (validationHistoryService == null) {
+            return persistenceDisabled();
+        }
+        IssueType issueType;
+        try {
+            issueType = IssueType.valueOf(severity.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            DiagramValidationResponse errorResponse = new DiagramValidationResponse(
+                    "FAILURE",
+                    "Invalid severity '" + severity + "'. Use ERROR, WARNING or INFO.",
+                    null
+            );
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        }
+        List<IssueHistoryEntry> issues = validationHistoryService.findIssues(diagramName, issueType, days, limit)
+                .stream()
+                .map(IssueHistoryEntry::new)
+                .toList();
+        return ResponseEntity.ok(issues);
+    }
+
+    // Validation history: every recorded result for a file content, newest first
+    @GetMapping("/history/results")
+    public ResponseEntity<?> getResultHistory(
+            @RequestParam("contentHash") String contentHash,
+            @RequestParam(value = "limit", defaultValue = "200") int limit) {
+        if (validationHistoryService == null) {
+            return persistenceDisabled();
+        }
+        List<ResultHistoryEntry> results = validationHistoryService.findResultsByContentHash(contentHash, limit)
+                .stream()
+                .map(ResultHistoryEntry::new)
+                .toList();
+        return ResponseEntity.ok(results);
+    }
+
+    // Delta uploads, step 1: submit entry names and SHA-256 hashes, get back the entries to upload
+    @PostMapping("/projects/{project}/manifest")
+    public ResponseEntity<?> submitProjectManifest(
+            @PathVariable("project") String project,
+            @RequestBody ManifestRequest manifest) throws IOException {
+        if (projectDeltaService == null) {
+            return persistenceDisabled();
+        }
+        try {
+            ManifestDiff diff = projectDeltaService.submitManifest(project, manifest);
+            return ResponseEntity.ok(diff);
+        } catch (IllegalArgumentException e) {
+            DiagramValidationResponse errorResponse = new DiagramValidationResponse(
+                    "FAILURE",
+                    e.getMessage(),
+                    null
+            );
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        }
+    }
+
+    // Manifest of the project's last validated run
+    @GetMapping("/projects/{project}/manifest")
+    public ResponseEntity<?> getProjectManifest(@PathVariable("project") String project) throws IOException {
+        if (projectDeltaService == null) {
+            return persistenceDisabled();
+        }
+        return projectDeltaService.currentManifest(project)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Delta uploads, step 2: upload only the missing entries; results cover the whole manifest
+    @PostMapping("/projects/{project}/delta")
+    public ResponseEntity<DiagramValidationResponse> validateProjectDelta(
+            @PathVariable("project") String project,
+            @RequestParam(value = "file", required = false) MultipartFile file) {
+        if (projectDeltaService == null) {
+            return persistenceDisabled();
+        }
+        try {
+            List<DiagramValidationResult> results = projectDeltaService.validateDelta(project, file);
+            recordHistory("project-delta", project, results);
+            DiagramValidationResponse response = new DiagramValidationResponse(
+                    "SUCCESS",
+                    "Validation completed for project '" + project + "'.",
+                    results
+            );
+            return ResponseEntity.ok(response);
+        } catch (IllegalStateException e) {
+            DiagramValidationResponse errorResponse = new DiagramValidationResponse(
+                    "FAILURE",
+                    e.getMessage(),
+                    null
+            );
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+        } catch (IOException e) {
+            log.error("IO Error during delta validation of project {}", project, e);
+            DiagramValidationResponse errorResponse = new DiagramValidationResponse(
+                    "FAILURE",
+                    "An IO error occurred during delta processing: " + e.getMessage(),
+                    null
+            );
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+
+    private void recordHistory(String source, String archiveName, List<DiagramValidationResult> results) {
+        if (validationHistoryService != null) {
+            validationHistoryService.record(source, archiveName, results);
+        }
+    }
+
+    private Optional<ValidationHistoryService.RunRecorder> startHistory(String source, String archiveName) {
+        return Optional.ofNullable(validationHistoryService).map(service -> service.startRun(source, archiveName));
+    }
+
+    private static ResponseEntity<DiagramValidationResponse> persistenceDisabled() {
+        DiagramValidationResponse errorResponse = new DiagramValidationResponse(
+                "FAILURE",
+                "This endpoint needs persistence, which is disabled on this instance.",
+                null
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
+    }
+
+    private static ResponseEntity<DiagramValidationResponse> deploymentDisabled() {
+        DiagramValidationResponse errorResponse = new DiagramValidationResponse(
+                "FAILURE",
+                "Deployment is disabled on this instance.",
+                null
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
+    }
 
+    // Streaming endpoints must declare StreamingResponseBody, so their JSON errors are written through one too
+    private ResponseEntity<StreamingResponseBody> streamed(ResponseEntity<DiagramValidationResponse> response) {
+        DiagramValidationResponse errorResponse = response.getBody();
+        return ResponseEntity.status(response.getStatusCode())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> writeLine(out, errorResponse));
+    }
+
+    private void writeLine(OutputStream out, Object value) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(value));
+        out.write('\n');
+        out.flush();
+    }
+}
@@ -0,0 +1,55 @@
+package com.aaseya.Flowsure.DTO;
+
+import java.util.List;
+
+/**
+ * Whether an archive validated with deploy=true was deployed.
+ */
+public class DeploymentStatus {
+    private String status; // DEPLOYED, SKIPPED or FAILED
+    private String message;
+    private Long deploymentKey; // null unless DEPLOYED
+    private List<String> resources; // resource names as deployed
+
+    public DeploymentStatus() {}
+
+    public DeploymentStatus(String status, String message, Long deploymentKey, List<String> resources) {
+        this.status = status;
+        this.message = message;
+        this.deploymentKey = deploymentKey;
+        this.resources = resources;
+    }
+
+    // Getters and Setters
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public Long getDeploymentKey() {
+        return deploymentKey;
+    }
+
+    public void setDeploymentKey(Long deploymentKey) {
+        this.deploymentKey = deploymentKey;
+    }
+
+    public List<String> getResources() {
+        return resources;
+    }
+
+    public void setResources(List<String> resources) {
+        this.resources = resources;
+    }
+}
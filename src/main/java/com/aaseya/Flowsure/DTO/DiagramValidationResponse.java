@@ -3,11 +3,14 @@ package com.aaseya.Flowsure.DTO;
 import java.util.List;
 
 import com.aaseya.Flowsure.Model.DiagramValidationResult;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 public class DiagramValidationResponse {
     private String status; // e.g., "SUCCESS", "FAILURE"
     private String message;
     private List<DiagramValidationResult> results; // Changed to a list for multiple diagrams
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private DeploymentStatus deployment; // only when deployment was requested
 
     public DiagramValidationResponse() {}
 
@@ -41,4 +44,12 @@ public class DiagramValidationResponse {
     public void setResults(List<DiagramValidationResult> results) {
         this.results = results;
     }
+
+    public DeploymentStatus getDeployment() {
+        return deployment;
+    }
+
+    public void setDeployment(DeploymentStatus deployment) {
+        this.deployment = deployment;
+    }
 }
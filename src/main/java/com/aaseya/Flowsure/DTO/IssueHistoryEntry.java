@@ -0,0 +1,104 @@
+package com.aaseya.Flowsure.DTO;
+
+import java.time.Instant;
+
+import com.aaseya.Flowsure.Entity.ValidationRunIssue;
+
+public class IssueHistoryEntry {
+    private String diagramName;
+    private String contentHash;
+    private String severity;
+    private String message;
+    private String elementId;
+    private String elementName;
+    private Integer line;
+    private Integer column;
+    private Instant validatedAt;
+
+    public IssueHistoryEntry() {}
+
+    public IssueHistoryEntry(ValidationRunIssue issue) {
+        this.diagramName = issue.getDiagramName();
+        this.contentHash = issue.getContentHash();
+        this.severity = issue.getSeverity().name();
+        this.message = issue.getMessage();
+        this.elementId = issue.getElementId();
+        this.elementName = issue.getElementName();
+        this.line = issue.getLine();
+        this.column = issue.getColumn();
+        this.validatedAt = issue.getCreatedAt();
+    }
+
+    // Getters and Setters
+    public String getDiagramName() {
+        return diagramName;
+    }
+
+    public void setDiagramName(String diagramName) {
+        this.diagramName = diagramName;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public String getSeverity() {
+        return severity;
+    }
+
+    public void setSeverity(String severity) {
+        this.severity = severity;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public String getElementId() {
+        return elementId;
+    }
+
+    public void setElementId(String elementId) {
+        this.elementId = elementId;
+    }
+
+    public String getElementName() {
+        return elementName;
+    }
+
+    public void setElementName(String elementName) {
+        this.elementName = elementName;
+    }
+
+    public Integer getLine() {
+        return line;
+    }
+
+    public void setLine(Integer line) {
+        this.line = line;
+    }
+
+    public Integer getColumn() {
+        return column;
+    }
+
+    public void setColumn(Integer column) {
+        this.column = column;
+    }
+
+    public Instant getValidatedAt() {
+        return validatedAt;
+    }
+
+    public void setValidatedAt(Instant validatedAt) {
+        this.validatedAt = validatedAt;
+    }
+}
@@ -0,0 +1,55 @@
+package com.aaseya.Flowsure.DTO;
+
+import java.util.List;
+
+/**
+ * The server's answer to a submitted manifest: the entries to put into the delta upload.
+ */
+public class ManifestDiff {
+    private String project;
+    private int totalEntries;
+    private int cachedEntries;
+    private List<String> missingEntries;
+
+    public ManifestDiff() {}
+
+    public ManifestDiff(String project, int totalEntries, int cachedEntries, List<String> missingEntries) {
+        this.project = project;
+        this.totalEntries = totalEntries;
+        this.cachedEntries = cachedEntries;
+        this.missingEntries = missingEntries;
+    }
+
+    // Getters and Setters
+    public String getProject() {
+        return project;
+    }
+
+    public void setProject(String project) {
+        this.project = project;
+    }
+
+    public int getTotalEntries() {
+        return totalEntries;
+    }
+
+    public void setTotalEntries(int totalEntries) {
+        this.totalEntries = totalEntries;
+    }
+
+    public int getCachedEntries() {
+        return cachedEntries;
+    }
+
+    public void setCachedEntries(int cachedEntries) {
+        this.cachedEntries = cachedEntries;
+    }
+
+    public List<String> getMissingEntries() {
+        return missingEntries;
+    }
+
+    public void setMissingEntries(List<String> missingEntries) {
+        this.missingEntries = missingEntries;
+    }
+}
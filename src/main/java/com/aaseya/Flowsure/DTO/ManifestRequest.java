@@ -0,0 +1,47 @@
+package com.aaseya.Flowsure.DTO;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A project's archive described by entry name and the lowercase hex SHA-256 of each entry's bytes.
+ */
+public class ManifestRequest {
+    private String type = "diagram"; // "diagram" or "dmn"
+    private Map<String, String> entries = new LinkedHashMap<>(); // entry name -> SHA-256
+    private Instant updatedAt; // set on manifests returned by the server
+
+    public ManifestRequest() {}
+
+    public ManifestRequest(String type, Map<String, String> entries, Instant updatedAt) {
+        this.type = type;
+        this.entries = entries;
+        this.updatedAt = updatedAt;
+    }
+
+    // Getters and Setters
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Map<String, String> getEntries() {
+        return entries;
+    }
+
+    public void setEntries(Map<String, String> entries) {
+        this.entries = entries;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
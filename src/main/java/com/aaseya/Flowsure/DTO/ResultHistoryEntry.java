@@ -0,0 +1,74 @@
+package com.aaseya.Flowsure.DTO;
+
+import java.time.Instant;
+
+import com.aaseya.Flowsure.Entity.ValidationRunResult;
+
+public class ResultHistoryEntry {
+    private Long runId;
+    private String diagramName;
+    private String contentHash;
+    private boolean valid;
+    private int issueCount;
+    private Instant validatedAt;
+
+    public ResultHistoryEntry() {}
+
+    public ResultHistoryEntry(ValidationRunResult result) {
+        this.runId = result.getRun().getId();
+        this.diagramName = result.getDiagramName();
+        this.contentHash = result.getContentHash();
+        this.valid = result.isValid();
+        this.issueCount = result.getIssueCount();
+        this.validatedAt = result.getValidatedAt();
+    }
+
+    // Getters and Setters
+    public Long getRunId() {
+        return runId;
+    }
+
+    public void setRunId(Long runId) {
+        this.runId = runId;
+    }
+
+    public String getDiagramName() {
+        return diagramName;
+    }
+
+    public void setDiagramName(String diagramName) {
+        this.diagramName = diagramName;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    public void setValid(boolean valid) {
+        this.valid = valid;
+    }
+
+    public int getIssueCount() {
+        return issueCount;
+    }
+
+    public void setIssueCount(int issueCount) {
+        this.issueCount = issueCount;
+    }
+
+    public Instant getValidatedAt() {
+        return validatedAt;
+    }
+
+    public void setValidatedAt(Instant validatedAt) {
+        this.validatedAt = validatedAt;
+    }
+}
@@ -0,0 +1,115 @@
+package com.aaseya.Flowsure.DTO;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import com.aaseya.Flowsure.Entity.ValidationJob;
+
+public class ValidationJobStatus {
+    private UUID jobId;
+    private String type; // "diagram" or "dmn"
+    private String status; // QUEUED, RUNNING, COMPLETED or FAILED
+    private String archiveName;
+    private int entriesDone;
+    private Integer entriesTotal; // null until a worker has opened the archive
+    private String error;
+    private Instant submittedAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+
+    public ValidationJobStatus() {}
+
+    public ValidationJobStatus(ValidationJob job) {
+        this.jobId = job.getId();
+        this.type = job.getKind().name().toLowerCase();
+        this.status = job.getStatus().name();
+        this.archiveName = job.getArchiveName();
+        this.entriesDone = job.getEntriesDone();
+        this.entriesTotal = job.getEntriesTotal();
+        this.error = job.getErrorMessage();
+        this.submittedAt = job.getCreatedAt();
+        this.startedAt = job.getStartedAt();
+        this.finishedAt = job.getFinishedAt();
+    }
+
+    // Getters and Setters
+    public UUID getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(UUID jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getArchiveName() {
+        return archiveName;
+    }
+
+    public void setArchiveName(String archiveName) {
+        this.archiveName = archiveName;
+    }
+
+    public int getEntriesDone() {
+        return entriesDone;
+    }
+
+    public void setEntriesDone(int entriesDone) {
+        this.entriesDone = entriesDone;
+    }
+
+    public Integer getEntriesTotal() {
+        return entriesTotal;
+    }
+
+    public void setEntriesTotal(Integer entriesTotal) {
+        this.entriesTotal = entriesTotal;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public void setSubmittedAt(Instant submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+}
@@ -0,0 +1,126 @@
+package com.aaseya.Flowsure.DTO;
+
+import com.aaseya.Flowsure.Model.DiagramValidationResult;
+import com.aaseya.Flowsure.Model.ValidationIssue;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Final line of a streamed validation response: totals over every result written before it.
+ */
+public class ValidationSummary {
+    private String status; // e.g., "SUCCESS", "FAILURE"
+    private String message;
+    private int totalFiles;
+    private int validFiles;
+    private int invalidFiles;
+    private int errors;
+    private int warnings;
+    private int infos;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private DeploymentStatus deployment; // only when deployment was requested
+
+    public ValidationSummary() {}
+
+    public ValidationSummary(String status, String message) {
+        this.status = status;
+        this.message = message;
+    }
+
+    /**
+     * Counts one result; the result itself is not kept.
+     */
+    public void add(DiagramValidationResult result) {
+        totalFiles++;
+        if (result.isValid()) {
+            validFiles++;
+        } else {
+            invalidFiles++;
+        }
+        for (ValidationIssue issue : result.getIssues()) {
+            switch (issue.getType()) {
+            case ERROR:
+                errors++;
+                break;
+            case WARNING:
+                warnings++;
+                break;
+            default:
+                infos++;
+                break;
+            }
+        }
+    }
+
+    // Getters and Setters
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public int getTotalFiles() {
+        return totalFiles;
+    }
+
+    public void setTotalFiles(int totalFiles) {
+        this.totalFiles = totalFiles;
+    }
+
+    public int getValidFiles() {
+        return validFiles;
+    }
+
+    public void setValidFiles(int validFiles) {
+        this.validFiles = validFiles;
+    }
+
+    public int getInvalidFiles() {
+        return invalidFiles;
+    }
+
+    public void setInvalidFiles(int invalidFiles) {
+        this.invalidFiles = invalidFiles;
+    }
+
+    public int getErrors() {
+        return errors;
+    }
+
+    public void setErrors(int errors) {
+        this.errors = errors;
+    }
+
+    public int getWarnings() {
+        return warnings;
+    }
+
+    public void setWarnings(int warnings) {
+        this.warnings = warnings;
+    }
+
+    public int getInfos() {
+        return infos;
+    }
+
+    public void setInfos(int infos) {
+        this.infos = infos;
+    }
+
+    public DeploymentStatus getDeployment() {
+        return deployment;
+    }
+
+    public void setDeployment(DeploymentStatus deployment) {
+        this.deployment = deployment;
+    }
+}
@@ -0,0 +1,105 @@
+package com.aaseya.Flowsure.Entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * The entry names and content hashes of a project's archive, stored as JSON maps. The
+ * current manifest is the one of the last validated run, kept with that run's results and
+ * the ruleset version they were found under; the pending one was submitted by the client
+ * and waits for its delta upload.
+ */
+@Entity
+@Table(name = "project_manifest")
+public class ProjectManifest {
+
+    @Id
+    @Column(name = "project", length = 255)
+    private String project;
+
+    @Column(name = "type", nullable = false, length = 16)
+    private String type; // "diagram" or "dmn"
+
+    @Column(name = "entries_json", columnDefinition = "text")
+    private String entriesJson;
+
+    @Column(name = "results_json", columnDefinition = "text")
+    private String resultsJson;
+
+    @Column(name = "ruleset_version", length = 32)
+    private String rulesetVersion;
+
+    @Column(name = "pending_json", columnDefinition = "text")
+    private String pendingJson;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    public ProjectManifest() {}
+
+    public ProjectManifest(String project, String type) {
+        this.project = project;
+        this.type = type;
+    }
+
+    // Getters and Setters
+    public String getProject() {
+        return project;
+    }
+
+    public void setProject(String project) {
+        this.project = project;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getEntriesJson() {
+        return entriesJson;
+    }
+
+    public void setEntriesJson(String entriesJson) {
+        this.entriesJson = entriesJson;
+    }
+
+    public String getResultsJson() {
+        return resultsJson;
+    }
+
+    public void setResultsJson(String resultsJson) {
+        this.resultsJson = resultsJson;
+    }
+
+    public String getRulesetVersion() {
+        return rulesetVersion;
+    }
+
+    public void setRulesetVersion(String rulesetVersion) {
+        this.rulesetVersion = rulesetVersion;
+    }
+
+    public String getPendingJson() {
+        return pendingJson;
+    }
+
+    public void setPendingJson(String pendingJson) {
+        this.pendingJson = pendingJson;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
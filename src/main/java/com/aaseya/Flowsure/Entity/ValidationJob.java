@@ -0,0 +1,206 @@
+package com.aaseya.Flowsure.Entity;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * An archive submitted for asynchronous validation. The archive location and the results
+ * live in {@link ValidationJobData}, so polling a job's progress never loads them.
+ * <p>
+ * A worker claims a job by setting a fresh {@code claimToken}; progress and completion are
+ * only written while the token still matches, so a job reclaimed after its worker stopped
+ * heartbeating cannot be finished twice.
+ */
+@Entity
+@Table(name = "validation_job", indexes = @Index(name = "idx_validation_job_status_created", columnList = "status, created_at"))
+public class ValidationJob {
+
+    public enum Kind {
+        DIAGRAM, DMN
+    }
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    @Id
+    @Column(name = "id")
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "kind", nullable = false, length = 16)
+    private Kind kind;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private Status status;
+
+    @Column(name = "archive_name", length = 1024)
+    private String archiveName;
+
+    @Column(name = "archive_size", nullable = false)
+    private long archiveSize;
+
+    @Column(name = "entries_total")
+    private Integer entriesTotal;
+
+    @Column(name = "entries_done", nullable = false)
+    private int entriesDone;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "claim_token")
+    private UUID claimToken;
+
+    @Column(name = "error_message", length = 2048)
+    private String errorMessage;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "started_at")
+    private Instant startedAt;
+
+    @Column(name = "heartbeat_at")
+    private Instant heartbeatAt;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+
+    public ValidationJob() {}
+
+    public ValidationJob(Kind kind, String archiveName, long archiveSize) {
+        this.id = UUID.randomUUID();
+        this.kind = kind;
+        this.status = Status.QUEUED;
+        this.archiveName = archiveName;
+        this.archiveSize = archiveSize;
+        this.createdAt = Instant.now();
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    // Getters and Setters
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public void setKind(Kind kind) {
+        this.kind = kind;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getArchiveName() {
+        return archiveName;
+    }
+
+    public void setArchiveName(String archiveName) {
+        this.archiveName = archiveName;
+    }
+
+    public long getArchiveSize() {
+        return archiveSize;
+    }
+
+    public void setArchiveSize(long archiveSize) {
+        this.archiveSize = archiveSize;
+    }
+
+    public Integer getEntriesTotal() {
+        return entriesTotal;
+    }
+
+    public void setEntriesTotal(Integer entriesTotal) {
+        this.entriesTotal = entriesTotal;
+    }
+
+    public int getEntriesDone() {
+        return entriesDone;
+    }
+
+    public void setEntriesDone(int entriesDone) {
+        this.entriesDone = entriesDone;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public UUID getClaimToken() {
+        return claimToken;
+    }
+
+    public void setClaimToken(UUID claimToken) {
+        this.claimToken = claimToken;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getHeartbeatAt() {
+        return heartbeatAt;
+    }
+
+    public void setHeartbeatAt(Instant heartbeatAt) {
+        this.heartbeatAt = heartbeatAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+}
@@ -0,0 +1,60 @@
+package com.aaseya.Flowsure.Entity;
+
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * The payload of a {@link ValidationJob}: where the uploaded archive is spooled until the
+ * job has run, and the results as JSON afterwards. The archive itself never enters the
+ * database, so neither submitting nor claiming a job holds it in memory.
+ */
+@Entity
+@Table(name = "validation_job_data")
+public class ValidationJobData {
+
+    @Id
+    @Column(name = "job_id")
+    private UUID jobId;
+
+    @Column(name = "archive_path", length = 1024)
+    private String archivePath;
+
+    @Column(name = "result_json", columnDefinition = "text")
+    private String resultJson;
+
+    public ValidationJobData() {}
+
+    public ValidationJobData(UUID jobId, String archivePath) {
+        this.jobId = jobId;
+        this.archivePath = archivePath;
+    }
+
+    // Getters and Setters
+    public UUID getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(UUID jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getArchivePath() {
+        return archivePath;
+    }
+
+    public void setArchivePath(String archivePath) {
+        this.archivePath = archivePath;
+    }
+
+    public String getResultJson() {
+        return resultJson;
+    }
+
+    public void setResultJson(String resultJson) {
+        this.resultJson = resultJson;
+    }
+}
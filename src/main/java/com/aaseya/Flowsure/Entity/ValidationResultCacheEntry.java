@@ -0,0 +1,100 @@
+package com.aaseya.Flowsure.Entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * A cached validation result, keyed by validator, ruleset version, the SHA-256 of the
+ * validated file and a hash of its entry name. The result itself is stored as JSON. The ruleset version and the time of
+ * the last hit are kept in their own columns so that stale rows can be purged.
+ */
+@Entity
+@Table(name = "validation_result_cache", indexes = {
+        @Index(name = "idx_validation_result_cache_ruleset", columnList = "ruleset_version"),
+        @Index(name = "idx_validation_result_cache_last_hit", columnList = "last_hit_at") })
+public class ValidationResultCacheEntry {
+
+    @Id
+    @Column(name = "cache_key", length = 160)
+    private String cacheKey;
+
+    @Column(name = "diagram_name", length = 1024)
+    private String diagramName;
+
+    @Column(name = "result_json", nullable = false, columnDefinition = "text")
+    private String resultJson;
+
+    @Column(name = "ruleset_version", length = 32)
+    private String rulesetVersion;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "last_hit_at")
+    private Instant lastHitAt;
+
+    public ValidationResultCacheEntry() {}
+
+    public ValidationResultCacheEntry(String cacheKey, String rulesetVersion, String diagramName, String resultJson) {
+        this.cacheKey = cacheKey;
+        this.rulesetVersion = rulesetVersion;
+        this.diagramName = diagramName;
+        this.resultJson = resultJson;
+        this.createdAt = Instant.now();
+        this.lastHitAt = this.createdAt;
+    }
+
+    // Getters and Setters
+    public String getCacheKey() {
+        return cacheKey;
+    }
+
+    public void setCacheKey(String cacheKey) {
+        this.cacheKey = cacheKey;
+    }
+
+    public String getDiagramName() {
+        return diagramName;
+    }
+
+    public void setDiagramName(String diagramName) {
+        this.diagramName = diagramName;
+    }
+
+    public String getResultJson() {
+        return resultJson;
+    }
+
+    public void setResultJson(String resultJson) {
+        this.resultJson = resultJson;
+    }
+
+    public String getRulesetVersion() {
+        return rulesetVersion;
+    }
+
+    public void setRulesetVersion(String rulesetVersion) {
+        this.rulesetVersion = rulesetVersion;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getLastHitAt() {
+        return lastHitAt;
+    }
+
+    public void setLastHitAt(Instant lastHitAt) {
+        this.lastHitAt = lastHitAt;
+    }
+}
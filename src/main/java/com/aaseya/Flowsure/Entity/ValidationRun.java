@@ -0,0 +1,141 @@
+package com.aaseya.Flowsure.Entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+/**
+ * One validated archive in the validation history. Totals are filled in when the run finishes.
+ */
+@Entity
+@Table(name = "validation_run", indexes = @Index(name = "idx_validation_run_started", columnList = "started_at"))
+public class ValidationRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "validation_run_seq")
+    @SequenceGenerator(name = "validation_run_seq", sequenceName = "validation_run_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "source", nullable = false, length = 64)
+    private String source; // endpoint or job that produced the run
+
+    @Column(name = "archive_name", length = 1024)
+    private String archiveName;
+
+    @Column(name = "started_at", nullable = false)
+    private Instant startedAt;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+
+    @Column(name = "total_files", nullable = false)
+    private int totalFiles;
+
+    @Column(name = "invalid_files", nullable = false)
+    private int invalidFiles;
+
+    @Column(name = "error_count", nullable = false)
+    private int errorCount;
+
+    @Column(name = "warning_count", nullable = false)
+    private int warningCount;
+
+    @Column(name = "info_count", nullable = false)
+    private int infoCount;
+
+    public ValidationRun() {}
+
+    public ValidationRun(String source, String archiveName) {
+        this.source = source;
+        this.archiveName = archiveName;
+        this.startedAt = Instant.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public String getArchiveName() {
+        return archiveName;
+    }
+
+    public void setArchiveName(String archiveName) {
+        this.archiveName = archiveName;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public int getTotalFiles() {
+        return totalFiles;
+    }
+
+    public void setTotalFiles(int totalFiles) {
+        this.totalFiles = totalFiles;
+    }
+
+    public int getInvalidFiles() {
+        return invalidFiles;
+    }
+
+    public void setInvalidFiles(int invalidFiles) {
+        this.invalidFiles = invalidFiles;
+    }
+
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    public void setErrorCount(int errorCount) {
+        this.errorCount = errorCount;
+    }
+
+    public int getWarningCount() {
+        return warningCount;
+    }
+
+    public void setWarningCount(int warningCount) {
+        this.warningCount = warningCount;
+    }
+
+    public int getInfoCount() {
+        return infoCount;
+    }
+
+    public void setInfoCount(int infoCount) {
+        this.infoCount = infoCount;
+    }
+}
@@ -0,0 +1,174 @@
+package com.aaseya.Flowsure.Entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+import com.aaseya.Flowsure.Model.ValidationIssue.IssueType;
+
+/**
+ * One issue of a {@link ValidationRunResult}. Diagram name, content hash and time are copied
+ * from the result, so issue lookups by diagram, severity and period are served by a single
+ * index without joins.
+ */
+@Entity
+@Table(name = "validation_run_issue", indexes = {
+        @Index(name = "idx_validation_run_issue_diagram", columnList = "diagram_name, severity, created_at"),
+        @Index(name = "idx_validation_run_issue_hash", columnList = "content_hash, severity"),
+        @Index(name = "idx_validation_run_issue_result", columnList = "result_id") })
+public class ValidationRunIssue {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "validation_run_issue_seq")
+    @SequenceGenerator(name = "validation_run_issue_seq", sequenceName = "validation_run_issue_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "result_id", nullable = false)
+    private ValidationRunResult result;
+
+    @Column(name = "diagram_name", length = 1024)
+    private String diagramName;
+
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "severity", nullable = false, length = 16)
+    private IssueType severity;
+
+    @Column(name = "message", columnDefinition = "text")
+    private String message;
+
+    @Column(name = "element_id", length = 512)
+    private String elementId;
+
+    @Column(name = "element_name", length = 1024)
+    private String elementName;
+
+    @Column(name = "line_number")
+    private Integer line;
+
+    @Column(name = "column_number")
+    private Integer column;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    public ValidationRunIssue() {}
+
+    public ValidationRunIssue(ValidationRunResult result, IssueType severity, String message, String elementId,
+            String elementName, Integer line, Integer column) {
+        this.result = result;
+        this.diagramName = result.getDiagramName();
+        this.contentHash = result.getContentHash();
+        this.createdAt = result.getValidatedAt();
+        this.severity = severity;
+        this.message = message;
+        this.elementId = elementId;
+        this.elementName = elementName;
+        this.line = line;
+        this.column = column;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public ValidationRunResult getResult() {
+        return result;
+    }
+
+    public void setResult(ValidationRunResult result) {
+        this.result = result;
+    }
+
+    public String getDiagramName() {
+        return diagramName;
+    }
+
+    public void setDiagramName(String diagramName) {
+        this.diagramName = diagramName;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public IssueType getSeverity() {
+        return severity;
+    }
+
+    public void setSeverity(IssueType severity) {
+        this.severity = severity;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public String getElementId() {
+        return elementId;
+    }
+
+    public void setElementId(String elementId) {
+        this.elementId = elementId;
+    }
+
+    public String getElementName() {
+        return elementName;
+    }
+
+    public void setElementName(String elementName) {
+        this.elementName = elementName;
+    }
+
+    public Integer getLine() {
+        return line;
+    }
+
+    public void setLine(Integer line) {
+        this.line = line;
+    }
+
+    public Integer getColumn() {
+        return column;
+    }
+
+    public void setColumn(Integer column) {
+        this.column = column;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,119 @@
+package com.aaseya.Flowsure.Entity;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+/**
+ * The outcome for one diagram of a {@link ValidationRun}.
+ */
+@Entity
+@Table(name = "validation_run_result", indexes = {
+        @Index(name = "idx_validation_run_result_hash", columnList = "content_hash"),
+        @Index(name = "idx_validation_run_result_diagram", columnList = "diagram_name, validated_at"),
+        @Index(name = "idx_validation_run_result_run", columnList = "run_id") })
+public class ValidationRunResult {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "validation_run_result_seq")
+    @SequenceGenerator(name = "validation_run_result_seq", sequenceName = "validation_run_result_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "run_id", nullable = false)
+    private ValidationRun run;
+
+    @Column(name = "diagram_name", length = 1024)
+    private String diagramName;
+
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(name = "valid", nullable = false)
+    private boolean valid;
+
+    @Column(name = "issue_count", nullable = false)
+    private int issueCount;
+
+    @Column(name = "validated_at", nullable = false)
+    private Instant validatedAt;
+
+    public ValidationRunResult() {}
+
+    public ValidationRunResult(ValidationRun run, String diagramName, String contentHash, boolean valid,
+            int issueCount, Instant validatedAt) {
+        this.run = run;
+        this.diagramName = diagramName;
+        this.contentHash = contentHash;
+        this.valid = valid;
+        this.issueCount = issueCount;
+        this.validatedAt = validatedAt;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public ValidationRun getRun() {
+        return run;
+    }
+
+    public void setRun(ValidationRun run) {
+        this.run = run;
+    }
+
+    public String getDiagramName() {
+        return diagramName;
+    }
+
+    public void setDiagramName(String diagramName) {
+        this.diagramName = diagramName;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    public void setValid(boolean valid) {
+        this.valid = valid;
+    }
+
+    public int getIssueCount() {
+        return issueCount;
+    }
+
+    public void setIssueCount(int issueCount) {
+        this.issueCount = issueCount;
+    }
+
+    public Instant getValidatedAt() {
+        return validatedAt;
+    }
+
+    public void setValidatedAt(Instant validatedAt) {
+        this.validatedAt = validatedAt;
+    }
+}
@@ -0,0 +1,368 @@
+package com.aaseya.Flowsure;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.LoggerFactory;
+
+import com.aaseya.Flowsure.DTO.ValidationSummary;
+import com.aaseya.Flowsure.Model.DiagramValidationResult;
+import com.aaseya.Flowsure.Model.ValidationIssue;
+import com.aaseya.Flowsure.Repository.ValidationResultCacheRepository;
+import com.aaseya.Flowsure.Service.ArchiveValidationPipeline;
+import com.aaseya.Flowsure.Service.DiagramValidationService;
+import com.aaseya.Flowsure.Service.DmnRequirementGraph;
+import com.aaseya.Flowsure.Service.DmnValidationService;
+import com.aaseya.Flowsure.Service.ValidationLimits;
+import com.aaseya.Flowsure.Service.ValidationMetrics;
+import com.aaseya.Flowsure.Service.ValidationResultCache;
+import com.aaseya.Flowsure.Service.ValidationResultListener;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.ConsoleAppender;
+
+/**
+ * Validates the BPMN and DMN files of local directory trees without starting the web
+ * application, e.g. in pre-commit hooks or nightly jobs over a checkout.
+ * <p>
+ * The validation services are wired by hand instead of through a Spring context, so the
+ * command starts in a fraction of a second. Files are validated in parallel by the same
+ * pipeline as uploaded archives, under the same per-file size limit and time budget;
+ * {@code .dmn} files get the full decision table analysis, {@code .bpmn} files the BPMN
+ * checks. Hidden directories such as {@code .git} are skipped.
+ * <p>
+ * Exit status: 0 if no file has an ERROR issue, 1 if any does, 2 on invalid arguments or
+ * unreadable paths.
+ * <p>
+ * The repackaged jar starts the web application by default; run this class through the
+ * Spring Boot {@code PropertiesLauncher} instead:
+ *
+ * <pre>
+ * java -cp Flowsure.jar -Dloader.main=com.aaseya.Flowsure.FlowsureCli \
+ *     org.springframework.boot.loader.launch.PropertiesLauncher [options] &lt;path&gt;...
+ * </pre>
+ */
+public class FlowsureCli {
+
+	private static final String USAGE = String.join(System.lineSeparator(),
+			"Usage: FlowsureCli [options] <file or directory>...",
+			"  --format=summary|json  summary lists errors and warnings per file (default); json writes all results",
+			"  --output=<file>        write the report to a file instead of standard output",
+			"  --threads=<n>          files validated in parallel (default: available cores)",
+			"  --file-budget-ms=<n>   time limit per file, 0 for none (default: 30000)",
+			"  --max-file-bytes=<n>   larger files are reported instead of validated (default: 67108864)",
+			"  --include-xml          also validate .xml files as diagrams");
+
+	static final int EXIT_OK = 0;
+	static final int EXIT_ERRORS = 1;
+	static final int EXIT_USAGE = 2;
+
+	private String format = "summary";
+	private Path output;
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private long fileBudgetMillis = 30_000;
+	private long maxFileBytes = 64L << 20;
+	private boolean includeXml;
+	private final List<Path> roots = new ArrayList<>();
+
+	public static void main(String[] args) {
+		System.exit(run(args));
+	}
+
+	/**
+	 * Runs the command and returns its exit status.
+	 */
+	public static int run(String[] args) {
+		configureLogging();
+		FlowsureCli cli = new FlowsureCli();
+		try {
+			cli.parseArguments(args);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.println(USAGE);
+			return EXIT_USAGE;
+		}
+		if (cli.roots.isEmpty()) {
+			System.err.println(USAGE);
+			return EXIT_USAGE;
+		}
+		try {
+			return cli.validate();
+		} catch (IOException | UncheckedIOException e) {
+			System.err.println("Validation failed: " + e.getMessage());
+			return EXIT_USAGE;
+		}
+	}
+
+	private void parseArguments(String[] args) {
+		for (String arg : args) {
+			if (!arg.startsWith("--")) {
+				roots.add(Path.of(arg));
+				continue;
+			}
+			int separator = arg.indexOf('=');
+			String name = separator >= 0 ? arg.substring(2, separator) : arg.substring(2);
+			String value = separator >= 0 ? arg.substring(separator + 1) : null;
+			switch (name) {
+			case "format":
+				format = required(name, value).toLowerCase(Locale.ROOT);
+				if (!format.equals("summary") && !format.equals("json")) {
+					throw new IllegalArgumentException("Invalid format '" + value + "'. Use 'summary' or 'json'.");
+				}
+				break;
+			case "output":
+				output = Path.of(required(name, value));
+				break;
+			case "threads":
+				threads = Math.max(1, (int) number(name, value));
+				break;
+			case "file-budget-ms":
+				fileBudgetMillis = number(name, value);
+				break;
+			case "max-file-bytes":
+				maxFileBytes = number(name, value);
+				break;
+			case "include-xml":
+				includeXml = true;
+				break;
+			case "help":
+				throw new IllegalArgumentException("Validates BPMN and DMN files.");
+			default:
+				throw new IllegalArgumentException("Unknown option '" + arg + "'.");
+			}
+		}
+	}
+
+	private static String required(String name, String value) {
+		if (value == null || value.isEmpty()) {
+			throw new IllegalArgumentException("Option --" + name + " needs a value.");
+		}
+		return value;
+	}
+
+	private static long number(String name, String value) {
+		try {
+			return Long.parseLong(required(name, value));
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Option --" + name + " needs a number, not '" + value + "'.");
+		}
+	}
+
+	private int validate() throws IOException {
+		List<Path> files = new ArrayList<>();
+		for (Path root : roots) {
+			collect(root, files);
+		}
+
+		// Jackson takes a noticeable part of startup; the disabled cache never serializes
+		ObjectMapper objectMapper = format.equals("json") ? new ObjectMapper() : null;
+		ValidationMetrics metrics = ValidationMetrics.disabled();
+		ExecutorService executor = Executors.newFixedThreadPool(threads, daemonThreads("flowsure-cli-"));
+		ExecutorService checkExecutor = Executors.newFixedThreadPool(threads, daemonThreads("flowsure-cli-check-"));
+		// No entry cap and no overall budget: a checkout is not an untrusted upload
+		ArchiveValidationPipeline pipeline = new ArchiveValidationPipeline(executor, threads * 4, metrics,
+				new ValidationLimits(0, maxFileBytes, 0, 0, fileBudgetMillis, 0));
+		ValidationResultCache noCache = new ValidationResultCache(objectMapper, (ValidationResultCacheRepository) null,
+				false, 0, "cli", Duration.ZERO);
+		DiagramValidationService diagramValidationService = new DiagramValidationService(pipeline, noCache, metrics);
+		DmnValidationService dmnValidationService = new DmnValidationService(pipeline, noCache, metrics,
+				checkExecutor, List.of(), 2000);
+
+		ValidationSummary summary = new ValidationSummary();
+		try (OutputStream out = output != null ? Files.newOutputStream(output) : new NonClosing(System.out)) {
+			Report report = format.equals("json") ? new JsonReport(objectMapper, out) : new SummaryReport(out);
+			ValidationResultListener listener = result -> {
+				summary.add(result);
+				report.onResult(result);
+			};
+			DmnRequirementGraph requirements = new DmnRequirementGraph();
+			pipeline.validateFiles(files, (name, content) -> DmnValidationService.isDmnEntry(name)
+					? dmnValidationService.validateDmnFile(name, content, requirements)
+					: diagramValidationService.validateDiagram(name, content), requirements.track(listener));
+			requirements.report(listener);
+			summary.setStatus(summary.getErrors() > 0 ? "FAILURE" : "SUCCESS");
+			summary.setMessage(String.format("%d files validated: %d valid, %d invalid; %d errors, %d warnings.",
+					summary.getTotalFiles(), summary.getValidFiles(), summary.getInvalidFiles(), summary.getErrors(),
+					summary.getWarnings()));
+			report.finish(summary);
+		} finally {
+			executor.shutdownNow();
+			checkExecutor.shutdownNow();
+		}
+		return summary.getErrors() > 0 ? EXIT_ERRORS : EXIT_OK;
+	}
+
+	/**
+	 * Adds the diagram files below the path, in a stable order.
+	 */
+	private void collect(Path root, List<Path> files) throws IOException {
+		if (!Files.exists(root)) {
+			throw new IOException("No such file or directory: " + root);
+		}
+		if (!Files.isDirectory(root)) {
+			files.add(root);
+			return;
+		}
+		List<Path> found = new ArrayList<>();
+		Files.walkFileTree(root, new SimpleFileVisitor<>() {
+			@Override
+			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+				return !dir.equals(root) && dir.getFileName().toString().startsWith(".")
+						? FileVisitResult.SKIP_SUBTREE
+						: FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+				if (attrs.isRegularFile() && isDiagramFile(file.getFileName().toString())) {
+					found.add(file);
+				}
+				return FileVisitResult.CONTINUE;
+			}
+		});
+		found.sort(null);
+		files.addAll(found);
+	}
+
+	private boolean isDiagramFile(String fileName) {
+		String name = fileName.toLowerCase(Locale.ROOT);
+		return name.endsWith(".bpmn") || name.endsWith(".dmn") || (includeXml && name.endsWith(".xml"));
+	}
+
+	private static ThreadFactory daemonThreads(String prefix) {
+		AtomicInteger counter = new AtomicInteger();
+		return runnable -> {
+			Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
+	/**
+	 * Without Spring Boot, logback would log everything at DEBUG to standard output, where
+	 * it would mix with the report. Only warnings are logged, to standard error.
+	 */
+	private static void configureLogging() {
+		// Names the provider so SLF4J does not scan the whole class path for one
+		if (System.getProperty("slf4j.provider") == null) {
+			System.setProperty("slf4j.provider", "ch.qos.logback.classic.spi.LogbackServiceProvider");
+			System.setProperty("slf4j.internal.verbosity", "WARN");
+		}
+		if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext)) {
+			return;
+		}
+		LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+		context.reset();
+		PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+		encoder.setContext(context);
+		encoder.setPattern("%level %logger{0} - %msg%n");
+		encoder.start();
+		ConsoleAppender<ILoggingEvent> appender = new ConsoleAppender<>();
+		appender.setContext(context);
+		appender.setTarget("System.err");
+		appender.setEncoder(encoder);
+		appender.start();
+		Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+		root.setLevel(Level.WARN);
+		root.addAppender(appender);
+	}
+
+	private interface Report extends ValidationResultListener {
+		void finish(ValidationSummary summary) throws IOException;
+	}
+
+	/**
+	 * Errors and warnings, one line each, followed by the totals.
+	 */
+	private static final class SummaryReport implements Report {
+		private final PrintStream out;
+
+		SummaryReport(OutputStream out) {
+			this.out = new PrintStream(out, false, StandardCharsets.UTF_8);
+		}
+
+		@Override
+		public void onResult(DiagramValidationResult result) {
+			for (ValidationIssue issue : result.getIssues()) {
+				if (issue.getType() != ValidationIssue.IssueType.INFO) {
+					out.println(result.getDiagramName() + ": " + issue.getType() + " " + issue.getMessage());
+				}
+			}
+		}
+
+		@Override
+		public void finish(ValidationSummary summary) {
+			out.println(summary.getMessage());
+			out.flush();
+		}
+	}
+
+	/**
+	 * <code>{"results": [...], "summary": {...}}</code>, written as results arrive.
+	 */
+	private static final class JsonReport implements Report {
+		private final JsonGenerator json;
+
+		JsonReport(ObjectMapper objectMapper, OutputStream out) throws IOException {
+			this.json = objectMapper.getFactory().createGenerator(out);
+			json.writeStartObject();
+			json.writeArrayFieldStart("results");
+		}
+
+		@Override
+		public void onResult(DiagramValidationResult result) throws IOException {
+			json.writeObject(result);
+		}
+
+		@Override
+		public void finish(ValidationSummary summary) throws IOException {
+			json.writeEndArray();
+			json.writeObjectField("summary", summary);
+			json.writeEndObject();
+			json.writeRaw(System.lineSeparator());
+			json.flush();
+		}
+	}
+
+	/**
+	 * Keeps standard output open when the report is done.
+	 */
+	private static final class NonClosing extends FilterOutputStream {
+		NonClosing(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+		}
+
+		@Override
+		public void close() throws IOException {
+			flush();
+		}
+	}
+}
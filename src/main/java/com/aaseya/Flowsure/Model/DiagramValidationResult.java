@@ -7,6 +7,7 @@ public class DiagramValidationResult {
     private String diagramName;
     private boolean isValid;
     private List<ValidationIssue> issues;
+    private String contentHash; // SHA-256 of the validated file, hex encoded
 
     public DiagramValidationResult() {
         this.issues = new ArrayList<>();
@@ -43,6 +44,14 @@ public class DiagramValidationResult {
         this.issues = issues;
     }
 
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     public void addIssue(ValidationIssue issue) {
         this.issues.add(issue);
     }
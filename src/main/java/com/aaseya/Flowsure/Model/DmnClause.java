@@ -0,0 +1,30 @@
+package com.aaseya.Flowsure.Model;
+
+/**
+ * An input or output column of a decision table. For inputs the label is the input label
+ * and the typeRef comes from the inputExpression; for outputs both are read from the
+ * output element itself.
+ */
+public final class DmnClause {
+    private final String id;
+    private final String label;
+    private final String typeRef;
+
+    public DmnClause(String id, String label, String typeRef) {
+        this.id = id;
+        this.label = label;
+        this.typeRef = typeRef;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public String getTypeRef() {
+        return typeRef;
+    }
+}
@@ -0,0 +1,53 @@
+package com.aaseya.Flowsure.Model;
+
+import java.util.List;
+
+/**
+ * A decision table with its columns and rules, in document order.
+ */
+public final class DmnDecisionTable {
+    private final String id;
+    private final String hitPolicy;
+    private final List<DmnClause> inputs;
+    private final List<DmnClause> outputs;
+    private final List<DmnRule> rules;
+
+    public DmnDecisionTable(String id, String hitPolicy, List<DmnClause> inputs, List<DmnClause> outputs,
+            List<DmnRule> rules) {
+        this.id = id;
+        this.hitPolicy = hitPolicy;
+        this.inputs = List.copyOf(inputs);
+        this.outputs = List.copyOf(outputs);
+        this.rules = List.copyOf(rules);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return the hitPolicy attribute as written in the file, possibly empty.
+     */
+    public String getHitPolicy() {
+        return hitPolicy;
+    }
+
+    /**
+     * @return the hit policy, defaulting to UNIQUE when the attribute is absent.
+     */
+    public String getEffectiveHitPolicy() {
+        return hitPolicy == null || hitPolicy.isEmpty() ? "UNIQUE" : hitPolicy;
+    }
+
+    public List<DmnClause> getInputs() {
+        return inputs;
+    }
+
+    public List<DmnClause> getOutputs() {
+        return outputs;
+    }
+
+    public List<DmnRule> getRules() {
+        return rules;
+    }
+}
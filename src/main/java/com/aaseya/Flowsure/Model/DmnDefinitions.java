@@ -0,0 +1,65 @@
+package com.aaseya.Flowsure.Model;
+
+import java.util.List;
+
+/**
+ * Immutable model of one DMN definitions file. It is built by a single parse and shared
+ * by every DMN check, so no check needs to read the XML again.
+ */
+public final class DmnDefinitions {
+    private final String id;
+    private final String name;
+    private final String namespace;
+    private final List<DmnElement> elements;
+    private final List<DmnElement> supportingElements;
+    private final List<DmnDecisionTable> decisionTables;
+
+    public DmnDefinitions(String id, String name, String namespace, List<DmnElement> elements,
+            List<DmnDecisionTable> decisionTables) {
+        this(id, name, namespace, elements, List.of(), decisionTables);
+    }
+
+    public DmnDefinitions(String id, String name, String namespace, List<DmnElement> elements,
+            List<DmnElement> supportingElements, List<DmnDecisionTable> decisionTables) {
+        this.id = id;
+        this.name = name;
+        this.namespace = namespace;
+        this.elements = List.copyOf(elements);
+        this.supportingElements = List.copyOf(supportingElements);
+        this.decisionTables = List.copyOf(decisionTables);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getNamespace() {
+        return namespace;
+    }
+
+    /**
+     * @return decisions, inputData and businessKnowledgeModels in document order.
+     */
+    public List<DmnElement> getElements() {
+        return elements;
+    }
+
+    /**
+     * @return decisionServices and knowledgeSources in document order. Requirements may
+     *         point at them, but the element checks do not cover them.
+     */
+    public List<DmnElement> getSupportingElements() {
+        return supportingElements;
+    }
+
+    /**
+     * @return every decision table in the file, wherever it is nested, in document order.
+     */
+    public List<DmnDecisionTable> getDecisionTables() {
+        return decisionTables;
+    }
+}
@@ -0,0 +1,52 @@
+package com.aaseya.Flowsure.Model;
+
+import java.util.List;
+
+/**
+ * A named DMN element (decision, inputData, businessKnowledgeModel, decisionService or
+ * knowledgeSource) as read from a definitions file, with the requirements it declares.
+ * The description is that of the first description element inside it, at any depth, and
+ * null when there is none.
+ */
+public final class DmnElement {
+    private final String kind;
+    private final String id;
+    private final String name;
+    private final String description;
+    private final List<DmnRequirement> requirements;
+
+    public DmnElement(String kind, String id, String name, String description) {
+        this(kind, id, name, description, List.of());
+    }
+
+    public DmnElement(String kind, String id, String name, String description, List<DmnRequirement> requirements) {
+        this.kind = kind;
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.requirements = List.copyOf(requirements);
+    }
+
+    public String getKind() {
+        return kind;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * @return the information, knowledge and authority requirements in document order.
+     */
+    public List<DmnRequirement> getRequirements() {
+        return requirements;
+    }
+}
@@ -0,0 +1,36 @@
+package com.aaseya.Flowsure.Model;
+
+/**
+ * One requirement of a DMN element, e.g. the {@code requiredDecision} of an
+ * {@code informationRequirement}. The href is kept as written: {@code #id} for an element of
+ * the same file, {@code namespace#id} for one defined in another file.
+ */
+public final class DmnRequirement {
+    private final String type;
+    private final String kind;
+    private final String href;
+
+    public DmnRequirement(String type, String kind, String href) {
+        this.type = type;
+        this.kind = kind;
+        this.href = href;
+    }
+
+    /**
+     * @return informationRequirement, knowledgeRequirement or authorityRequirement.
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * @return requiredDecision, requiredInput, requiredKnowledge or requiredAuthority.
+     */
+    public String getKind() {
+        return kind;
+    }
+
+    public String getHref() {
+        return href;
+    }
+}
@@ -0,0 +1,37 @@
+package com.aaseya.Flowsure.Model;
+
+import java.util.List;
+
+/**
+ * A single decision table rule. Entry texts are the raw text of each inputEntry and
+ * outputEntry, in column order, with "" for entries that have no text child.
+ */
+public final class DmnRule {
+    private final String id;
+    private final int index; // 0-based index in the table
+    private final List<String> inputEntries;
+    private final List<String> outputEntries;
+
+    public DmnRule(String id, int index, List<String> inputEntries, List<String> outputEntries) {
+        this.id = id;
+        this.index = index;
+        this.inputEntries = List.copyOf(inputEntries);
+        this.outputEntries = List.copyOf(outputEntries);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public List<String> getInputEntries() {
+        return inputEntries;
+    }
+
+    public List<String> getOutputEntries() {
+        return outputEntries;
+    }
+}
@@ -1,5 +1,7 @@
 package com.aaseya.Flowsure.Model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 public class ValidationIssue {
     public enum IssueType {
         ERROR, WARNING, INFO
@@ -9,6 +11,10 @@ public class ValidationIssue {
     private String message;
     private String elementId; 
     private String elementName; 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer line;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer column;
     public ValidationIssue() {}
 
     public ValidationIssue(IssueType type, String message) {
@@ -23,6 +29,12 @@ public class ValidationIssue {
         this.elementName = elementName;
     }
 
+    public ValidationIssue(IssueType type, String message, String elementId, String elementName, Integer line, Integer column) {
+        this(type, message, elementId, elementName);
+        this.line = line;
+        this.column = column;
+    }
+
     // Getters and Setters
     public IssueType getType() {
         return type;
@@ -55,5 +67,20 @@ public class ValidationIssue {
     public void setElementName(String elementName) {
         this.elementName = elementName;
     }
-}
 
+    public Integer getLine() {
+        return line;
+    }
+
+    public void setLine(Integer line) {
+        this.line = line;
+    }
+
+    public Integer getColumn() {
+        return column;
+    }
+
+    public void setColumn(Integer column) {
+        this.column = column;
+    }
+}
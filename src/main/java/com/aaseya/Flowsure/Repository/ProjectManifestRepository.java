@@ -0,0 +1,42 @@
+package com.aaseya.Flowsure.Repository;
+
+import java.time.Instant;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.aaseya.Flowsure.Entity.ProjectManifest;
+
+@Repository
+public interface ProjectManifestRepository extends JpaRepository<ProjectManifest, String> {
+
+    /**
+     * Takes a transaction-scoped advisory lock on the project, released on commit or rollback.
+     * Unlike a row lock it also covers a project that has no row yet, so two first
+     * submissions cannot both insert one.
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(hashtext('project_manifest'), hashtext(:project))",
+            nativeQuery = true)
+    int lockProject(@Param("project") String project);
+
+    /**
+     * Stores a validated run as the project's current manifest, unless the project switched
+     * type meanwhile. The pending manifest is cleared only if it is still the one the run
+     * validated, so a manifest submitted during the run is kept.
+     *
+     * @return 0 if the project switched type or no longer exists.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update ProjectManifest m set m.entriesJson = :entries, m.resultsJson = :results,"
+            + " m.rulesetVersion = :version, m.updatedAt = :now,"
+            + " m.pendingJson = case when m.pendingJson = :pending then null else m.pendingJson end"
+            + " where m.project = :project and m.type = :type")
+    int recordRun(@Param("project") String project, @Param("type") String type, @Param("pending") String pendingJson,
+            @Param("entries") String entriesJson, @Param("results") String resultsJson,
+            @Param("version") String rulesetVersion, @Param("now") Instant now);
+}
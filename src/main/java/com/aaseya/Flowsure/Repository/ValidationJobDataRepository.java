@@ -0,0 +1,20 @@
+package com.aaseya.Flowsure.Repository;
+
+import java.util.Collection;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.aaseya.Flowsure.Entity.ValidationJobData;
+
+@Repository
+public interface ValidationJobDataRepository extends JpaRepository<ValidationJobData, UUID> {
+
+    @Modifying
+    @Query("delete from ValidationJobData d where d.jobId in :jobIds")
+    int deleteByJobIds(@Param("jobIds") Collection<UUID> jobIds);
+}
@@ -0,0 +1,55 @@
+package com.aaseya.Flowsure.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.aaseya.Flowsure.Entity.ValidationJob;
+
+@Repository
+public interface ValidationJobRepository extends JpaRepository<ValidationJob, UUID> {
+
+    long countByStatusIn(Collection<ValidationJob.Status> statuses);
+
+    /**
+     * Takes a transaction-scoped advisory lock, released on commit or rollback. Submissions
+     * hold it while they count the active jobs and insert theirs, so two of them cannot both
+     * see the last free slot.
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(:key)", nativeQuery = true)
+    int lockForSubmission(@Param("key") long key);
+
+    /**
+     * Locks the oldest job that is queued, or running without a recent heartbeat. Rows locked
+     * by other workers are skipped rather than waited for, so workers never block each other.
+     */
+    @Query(value = "SELECT id FROM validation_job"
+            + " WHERE status = 'QUEUED' OR (status = 'RUNNING' AND heartbeat_at < :staleBefore)"
+            + " ORDER BY created_at LIMIT 1 FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<UUID> lockNextClaimable(@Param("staleBefore") Instant staleBefore);
+
+    /**
+     * Records progress and heartbeats a running job, as long as the caller still holds its claim.
+     */
+    @Modifying
+    @Query("update ValidationJob j set j.entriesDone = :done, j.entriesTotal = :total, j.heartbeatAt = :now"
+            + " where j.id = :id and j.claimToken = :token")
+    int updateProgress(@Param("id") UUID id, @Param("token") UUID token, @Param("done") int done,
+            @Param("total") Integer total, @Param("now") Instant now);
+
+    @Query("select j.id from ValidationJob j where j.status in :statuses and j.finishedAt < :finishedBefore")
+    List<UUID> findFinishedBefore(@Param("statuses") Collection<ValidationJob.Status> statuses,
+            @Param("finishedBefore") Instant finishedBefore);
+
+    @Modifying
+    @Query("delete from ValidationJob j where j.id in :ids")
+    int deleteByIds(@Param("ids") Collection<UUID> ids);
+}
@@ -0,0 +1,41 @@
+package com.aaseya.Flowsure.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.aaseya.Flowsure.Entity.ValidationResultCacheEntry;
+
+@Repository
+public interface ValidationResultCacheRepository extends JpaRepository<ValidationResultCacheEntry, String> {
+
+    @Transactional
+    @Modifying
+    @Query("update ValidationResultCacheEntry e set e.lastHitAt = :now where e.cacheKey = :key")
+    int touch(@Param("key") String cacheKey, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("update ValidationResultCacheEntry e set e.lastHitAt = :now where e.cacheKey in :keys")
+    int touchAll(@Param("keys") Collection<String> cacheKeys, @Param("now") Instant now);
+
+    /**
+     * Deletes rows written under another ruleset version; rows from before the version had
+     * its own column have none and go too.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from ValidationResultCacheEntry e where e.rulesetVersion is null or e.rulesetVersion <> :version")
+    int deleteOtherRulesetVersions(@Param("version") String rulesetVersion);
+
+    @Transactional
+    @Modifying
+    @Query("delete from ValidationResultCacheEntry e where coalesce(e.lastHitAt, e.createdAt) < :before")
+    int deleteLastHitBefore(@Param("before") Instant before);
+}
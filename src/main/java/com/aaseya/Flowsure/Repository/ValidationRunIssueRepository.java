@@ -0,0 +1,19 @@
+package com.aaseya.Flowsure.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.aaseya.Flowsure.Entity.ValidationRunIssue;
+import com.aaseya.Flowsure.Model.ValidationIssue.IssueType;
+
+@Repository
+public interface ValidationRunIssueRepository extends JpaRepository<ValidationRunIssue, Long> {
+
+    // Served by idx_validation_run_issue_diagram (diagram_name, severity, created_at)
+    List<ValidationRunIssue> findByDiagramNameAndSeverityAndCreatedAtAfterOrderByCreatedAtDesc(String diagramName,
+            IssueType severity, Instant since, Pageable page);
+}
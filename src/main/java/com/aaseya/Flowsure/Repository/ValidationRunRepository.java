@@ -0,0 +1,10 @@
+package com.aaseya.Flowsure.Repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.aaseya.Flowsure.Entity.ValidationRun;
+
+@Repository
+public interface ValidationRunRepository extends JpaRepository<ValidationRun, Long> {
+}
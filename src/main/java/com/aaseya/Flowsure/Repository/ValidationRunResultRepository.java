@@ -0,0 +1,15 @@
+package com.aaseya.Flowsure.Repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.aaseya.Flowsure.Entity.ValidationRunResult;
+
+@Repository
+public interface ValidationRunResultRepository extends JpaRepository<ValidationRunResult, Long> {
+
+    List<ValidationRunResult> findByContentHashOrderByValidatedAtDesc(String contentHash, Pageable page);
+}
@@ -0,0 +1,321 @@
+package com.aaseya.Flowsure.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.aaseya.Flowsure.Model.DiagramValidationResult;
+import com.aaseya.Flowsure.Model.ValidationIssue;
+import com.aaseya.Flowsure.Model.ValidationIssue.IssueType;
+
+/**
+ * Validates the entries of a ZIP archive on the shared worker pool.
+ * <p>
+ * The archive is opened with {@link ZipFile}, so entries are selected from the central
+ * directory and only the selected ones are ever inflated; images, documents and other
+ * payloads stored next to the diagrams cost nothing. Each selected entry is inflated,
+ * parsed and checked by a worker. At most {@code queueDepth} entries per archive are
+ * queued, running or finished but not yet handed out at any time, so memory stays
+ * bounded on large archives. Results are streamed to a {@link ValidationResultListener}
+ * in archive order. Inflation time and inflated size of every entry are recorded in
+ * {@link ValidationMetrics}.
+ * <p>
+ * {@link ValidationLimits} are enforced here: entries beyond the entry cap, past the total
+ * inflated size or past the archive's time budget are not validated, and a final "ZIP File"
+ * result says so. Entries that are too large or too highly compressed are rejected one by one,
+ * and every file is validated under a {@link ValidationBudget}.
+ */
+@Component
+public class ArchiveValidationPipeline {
+
+    /**
+     * Parses and validates one archive entry.
+     */
+    @FunctionalInterface
+    public interface EntryValidator {
+        DiagramValidationResult validate(String entryName, byte[] content) throws Exception;
+    }
+
+    /**
+     * Names of the final result reporting that limits stopped an archive or a file list early.
+     */
+    public static final String ARCHIVE_RESULT_NAME = "ZIP File";
+    public static final String FILES_RESULT_NAME = "Files";
+
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private final ExecutorService executor;
+    private final int queueDepth;
+    private final ValidationMetrics metrics;
+    private final ValidationLimits limits;
+
+    @Autowired
+    public ArchiveValidationPipeline(@Qualifier("validationExecutor") ExecutorService executor,
+            @Value("${flowsure.validation.queue-depth:64}") int queueDepth, ValidationMetrics metrics,
+            ValidationLimits limits) {
+        this.executor = executor;
+        this.queueDepth = Math.max(1, queueDepth);
+        this.metrics = metrics;
+        this.limits = limits;
+    }
+
+    /**
+     * Spools an uploaded archive to a temporary file, which {@link ZipFile} needs for random
+     * access, and validates it. The temporary file is removed afterwards.
+     */
+    public void validate(MultipartFile upload, Predicate<String> entryFilter, EntryValidator validator,
+            ValidationResultListener listener) throws IOException {
+        Path archive = Files.createTempFile("flowsure-", ".zip");
+        try {
+            upload.transferTo(archive);
+            validate(archive, entryFilter, validator, listener);
+        } finally {
+            Files.deleteIfExists(archive);
+        }
+    }
+
+    /**
+     * Validates the archive and hands each result to the listener as soon as it and every
+     * result before it are done, so results arrive in archive order without waiting for
+     * the whole archive. If the listener fails, outstanding entries are cancelled.
+     *
+     * @param archive The ZIP archive on disk.
+     * @param entryFilter Selects the entry names to validate; directories are always skipped.
+     * @param validator Validates a single selected entry.
+     * @param listener Receives one result per selected entry, plus a final "ZIP File" result
+     *            if limits stopped the validation early.
+     */
+    public void validate(Path archive, Predicate<String> entryFilter, EntryValidator validator,
+            ValidationResultListener listener) throws IOException {
+        long requestDeadline = deadline(System.nanoTime(), limits.getRequestBudgetMillis());
+        Deque<PendingEntry> pending = new ArrayDeque<>();
+        try (ZipFile zip = new ZipFile(archive.toFile())) {
+            List<? extends ZipEntry> selected = zip.stream()
+                    .filter(entry -> !entry.isDirectory() && entryFilter.test(entry.getName()))
+                    .collect(Collectors.toList());
+            int toValidate = limits.getMaxEntries() > 0 ? Math.min(selected.size(), limits.getMaxEntries())
+                    : selected.size();
+            listener.onArchiveOpened(toValidate);
+            // Both the entry cap and a size or time limit may stop the archive; all reasons are reported
+            List<String> stopReasons = new ArrayList<>(2);
+            if (toValidate < selected.size()) {
+                stopReasons.add(String.format(
+                        "Archive contains %d diagram entries; entries after the first %d were not validated.",
+                        selected.size(), toValidate));
+            }
+            // Central directory sizes; reading an entry never inflates more than its declared size
+            long declaredTotal = 0;
+            for (int i = 0; i < toValidate; i++) {
+                ZipEntry entry = selected.get(i);
+                declaredTotal += Math.max(0, entry.getSize());
+                if (limits.getMaxTotalBytes() > 0 && declaredTotal > limits.getMaxTotalBytes()) {
+                    stopReasons.add(String.format(
+                            "Archive exceeds the inflated size limit of %d bytes; %d of %d diagram entries were not validated.",
+                            limits.getMaxTotalBytes(), toValidate - i, toValidate));
+                    break;
+                }
+                if (System.nanoTime() - requestDeadline > 0) {
+                    stopReasons.add(String.format(
+                            "Validation time budget of %d ms for this archive was exceeded; %d of %d diagram entries were not validated.",
+                            limits.getRequestBudgetMillis(), toValidate - i, toValidate));
+                    break;
+                }
+                submit(pending, entry.getName(), () -> validateEntry(zip, entry, validator, requestDeadline),
+                        listener);
+            }
+            while (!pending.isEmpty()) {
+                listener.onResult(await(pending.poll()));
+            }
+            if (!stopReasons.isEmpty()) {
+                listener.onResult(entryError(ARCHIVE_RESULT_NAME, String.join(" ", stopReasons)));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelAll(pending);
+            throw new IOException("Interrupted while validating ZIP entries", e);
+        } catch (IOException | RuntimeException e) {
+            cancelAll(pending);
+            throw e;
+        }
+    }
+
+    /**
+     * Validates files on disk, such as a directory tree walked by the command line, with the
+     * same window, ordering, entry cap, size limit per file and time budgets as archive
+     * entries. The total size and compression ratio limits only apply to archives.
+     *
+     * @param files The files to validate; each result is named by the path as given.
+     * @param validator Validates a single file.
+     * @param listener Receives one result per file, plus a final "Files" result if limits
+     *            stopped the validation early.
+     */
+    public void validateFiles(List<Path> files, EntryValidator validator, ValidationResultListener listener)
+            throws IOException {
+        long requestDeadline = deadline(System.nanoTime(), limits.getRequestBudgetMillis());
+        Deque<PendingEntry> pending = new ArrayDeque<>();
+        int toValidate = limits.getMaxEntries() > 0 ? Math.min(files.size(), limits.getMaxEntries()) : files.size();
+        listener.onArchiveOpened(toValidate);
+        List<String> stopReasons = new ArrayList<>(2);
+        if (toValidate < files.size()) {
+            stopReasons.add(String.format("Found %d diagram files; files after the first %d were not validated.",
+                    files.size(), toValidate));
+        }
+        try {
+            for (int i = 0; i < toValidate; i++) {
+                Path file = files.get(i);
+                if (System.nanoTime() - requestDeadline > 0) {
+                    stopReasons.add(String.format(
+                            "Validation time budget of %d ms was exceeded; %d of %d diagram files were not validated.",
+                            limits.getRequestBudgetMillis(), toValidate - i, toValidate));
+                    break;
+                }
+                submit(pending, file.toString(), () -> validateFile(file, validator, requestDeadline), listener);
+            }
+            while (!pending.isEmpty()) {
+                listener.onResult(await(pending.poll()));
+            }
+            if (!stopReasons.isEmpty()) {
+                listener.onResult(entryError(FILES_RESULT_NAME, String.join(" ", stopReasons)));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelAll(pending);
+            throw new IOException("Interrupted while validating files", e);
+        } catch (IOException | RuntimeException e) {
+            cancelAll(pending);
+            throw e;
+        }
+    }
+
+    /**
+     * Queues one entry, first waiting for the oldest one if the window is full, then emits
+     * whatever is already finished at the head of the queue.
+     */
+    private void submit(Deque<PendingEntry> pending, String name, Callable<DiagramValidationResult> task,
+            ValidationResultListener listener) throws IOException, InterruptedException {
+        if (pending.size() == queueDepth) {
+            listener.onResult(await(pending.poll()));
+        }
+        pending.add(new PendingEntry(name, executor.submit(task)));
+        while (!pending.isEmpty() && pending.peek().future.isDone()) {
+            listener.onResult(await(pending.poll()));
+        }
+    }
+
+    private DiagramValidationResult validateFile(Path file, EntryValidator validator, long requestDeadline)
+            throws Exception {
+        String name = file.toString();
+        long size = Files.size(file);
+        if (limits.getMaxEntryBytes() > 0 && size > limits.getMaxEntryBytes()) {
+            return entryError(name,
+                    "File was not validated: it exceeds the size limit of " + limits.getMaxEntryBytes() + " bytes.");
+        }
+        return validateWithinBudget(name, Files.readAllBytes(file), validator, requestDeadline);
+    }
+
+    /**
+     * Inflates one entry within its size limits and validates it within its time budget.
+     */
+    private DiagramValidationResult validateEntry(ZipFile zip, ZipEntry entry, EntryValidator validator,
+            long requestDeadline) throws Exception {
+        String entryName = entry.getName();
+        long limit = entry.getSize() >= 0 ? entry.getSize() : Long.MAX_VALUE;
+        String limitName = "declared size of " + limit + " bytes";
+        if (limits.getMaxEntryBytes() > 0 && limits.getMaxEntryBytes() < limit) {
+            limit = limits.getMaxEntryBytes();
+            limitName = "size limit of " + limit + " bytes";
+        }
+        if (limits.getMaxCompressionRatio() > 0 && entry.getCompressedSize() > 0
+                && entry.getCompressedSize() * limits.getMaxCompressionRatio() < limit) {
+            limit = entry.getCompressedSize() * limits.getMaxCompressionRatio();
+            limitName = "compression ratio limit of " + limits.getMaxCompressionRatio() + ":1";
+        }
+        if (limit > MAX_ARRAY_SIZE) {
+            limit = MAX_ARRAY_SIZE;
+            limitName = "size limit of " + limit + " bytes";
+        }
+
+        byte[] content;
+        long inflateStart = System.nanoTime();
+        try (InputStream in = zip.getInputStream(entry)) {
+            content = in.readNBytes((int) Math.min(limit + 1, MAX_ARRAY_SIZE));
+        }
+        if (content.length > limit) {
+            return entryError(entryName, "Entry was not validated: its inflated content exceeds the " + limitName + ".");
+        }
+        metrics.recordInflate(System.nanoTime() - inflateStart, content.length);
+        return validateWithinBudget(entryName, content, validator, requestDeadline);
+    }
+
+    private DiagramValidationResult validateWithinBudget(String entryName, byte[] content,
+            EntryValidator validator, long requestDeadline) throws Exception {
+        long fileDeadline = deadline(System.nanoTime(), limits.getFileBudgetMillis());
+        boolean requestBound = requestDeadline - fileDeadline < 0;
+        ValidationBudget.begin(requestBound ? requestDeadline : fileDeadline,
+                requestBound ? limits.getRequestBudgetMillis() : limits.getFileBudgetMillis());
+        try {
+            return validator.validate(entryName, content);
+        } finally {
+            ValidationBudget.end();
+        }
+    }
+
+    private static long deadline(long startNanos, long budgetMillis) {
+        // Far enough out to never trip, yet safe against overflow in deadline comparisons
+        return startNanos + (budgetMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(budgetMillis) : Long.MAX_VALUE / 4);
+    }
+
+    private static DiagramValidationResult await(PendingEntry entry) throws InterruptedException {
+        try {
+            return entry.future.get();
+        } catch (ExecutionException | CancellationException e) {
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            return entryError(entry.name, "Error processing ZIP entry: " + cause.getMessage());
+        }
+    }
+
+    static DiagramValidationResult entryError(String entryName, String message) {
+        DiagramValidationResult errorResult = new DiagramValidationResult();
+        errorResult.setDiagramName(entryName);
+        errorResult.addIssue(new ValidationIssue(IssueType.ERROR, message));
+        errorResult.setValid(false);
+        return errorResult;
+    }
+
+    private static void cancelAll(Deque<PendingEntry> pending) {
+        for (PendingEntry entry : pending) {
+            entry.future.cancel(true);
+        }
+    }
+
+    private static final class PendingEntry {
+        final String name;
+        final Future<DiagramValidationResult> future;
+
+        PendingEntry(String name, Future<DiagramValidationResult> future) {
+            this.name = name;
+            this.future = future;
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package com.aaseya.Flowsure.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.aaseya.Flowsure.Model.ValidationIssue;
+import com.aaseya.Flowsure.Model.ValidationIssue.IssueType;
+
+/**
+ * The control flow of one BPMN file, collected during the streaming pass of
+ * {@link BpmnStreamValidator} and checked once the whole file is read, so references may
+ * point forward.
+ * <p>
+ * Flow nodes are numbered as they are read, and sequence flows and boundary event attachments
+ * become the edges of a {@link CsrGraph}. Every process and subprocess is a scope: flows must
+ * stay inside their scope, and a scope is entered through its start events, or through its
+ * nodes without incoming flows if it has none. Event subprocesses, compensation handlers and
+ * link catch events are entered without a flow. A node can end the flow if it is an end event,
+ * a link throw event or has no outgoing sequence flow. On this graph the checks find duplicate
+ * ids, references that do not resolve, nodes no start event reaches, loops without an exit and
+ * nodes that cannot reach an end. Each is linear in nodes plus flows.
+ */
+final class BpmnFlowGraph {
+
+    private static final int MAX_LOOP_MEMBERS_LISTED = 10;
+
+    private static final Set<String> ACTIVITIES = Set.of("task", "userTask", "serviceTask", "scriptTask",
+            "businessRuleTask", "sendTask", "receiveTask", "manualTask", "callActivity", "subProcess", "transaction",
+            "adHocSubProcess");
+    private static final Set<String> SCOPES = Set.of("subProcess", "transaction", "adHocSubProcess");
+    private static final Set<String> FLOW_NODES = Set.of("startEvent", "endEvent", "intermediateCatchEvent",
+            "intermediateThrowEvent", "boundaryEvent", "exclusiveGateway", "parallelGateway", "inclusiveGateway",
+            "eventBasedGateway", "complexGateway");
+
+    private final List<FlowNode> nodes = new ArrayList<>();
+    private final Map<String, Integer> nodeIndex = new HashMap<>();
+    private final List<Flow> flows = new ArrayList<>();
+    private final Map<String, Flow> flowIndex = new HashMap<>();
+    // Container node of every scope; -1 for a process
+    private final List<Integer> scopeContainers = new ArrayList<>();
+    private final Map<String, Integer> firstIdLine = new HashMap<>();
+    private final List<ValidationIssue> duplicateIssues = new ArrayList<>();
+
+    static boolean isFlowNode(String localName) {
+        return ACTIVITIES.contains(localName) || FLOW_NODES.contains(localName);
+    }
+
+    static boolean opensScope(String localName) {
+        return SCOPES.contains(localName);
+    }
+
+    /**
+     * @param containerNode The subprocess node that contains the scope, or -1 for a process.
+     * @return the new scope.
+     */
+    int openScope(int containerNode) {
+        scopeContainers.add(containerNode);
+        return scopeContainers.size() - 1;
+    }
+
+    /**
+     * Notes the id of any model element; the second use of an id is reported.
+     */
+    void recordId(String id, String kind, int line, int column) {
+        Integer first = firstIdLine.putIfAbsent(id, line);
+        if (first != null) {
+            duplicateIssues.add(new ValidationIssue(IssueType.ERROR, "BPMN " + kind + " id '" + id
+                    + "' is already used by the element at line " + first + "; ids must be unique.", id, null, line,
+                    column));
+        }
+    }
+
+    /**
+     * @return the index of the new node.
+     */
+    int addNode(String kind, String id, String name, int scope, int line, int column) {
+        int index = nodes.size();
+        nodes.add(new FlowNode(kind, id, name, scope, line, column));
+        nodeIndex.putIfAbsent(id, index);
+        return index;
+    }
+
+    void addFlow(String id, String name, String sourceRef, String targetRef, int scope, int line, int column) {
+        Flow flow = new Flow(id, name, sourceRef, targetRef, scope, line, column);
+        flows.add(flow);
+        flowIndex.putIfAbsent(id, flow);
+    }
+
+    void setAttachedTo(int node, String attachedToRef) {
+        nodes.get(node).attachedToRef = attachedToRef;
+    }
+
+    void setDefaultFlow(int node, String defaultFlow) {
+        nodes.get(node).defaultFlow = defaultFlow;
+    }
+
+    /**
+     * Marks a node that its scope enters without a sequence flow.
+     */
+    void markEntry(int node) {
+        nodes.get(node).entry = true;
+    }
+
+    /**
+     * Marks a link event: a catch event is entered from its throw event, and a throw event
+     * continues at its catch event.
+     */
+    void markLink(int node) {
+        FlowNode flowNode = nodes.get(node);
+        if ("intermediateCatchEvent".equals(flowNode.kind)) {
+            flowNode.entry = true;
+        } else {
+            flowNode.end = true;
+        }
+    }
+
+    /**
+     * Resolves all references and analyzes the control flow.
+     *
+     * @return reference issues first, then reachability, loop and termination issues, each in
+     *         document order.
+     */
+    List<ValidationIssue> analyze() {
+        List<ValidationIssue> issues = new ArrayList<>(duplicateIssues);
+        int nodeCount = nodes.size();
+        CsrGraph.Builder flowEdges = new CsrGraph.Builder(nodeCount, flows.size() + nodeCount / 8);
+        int[] incoming = new int[nodeCount];
+        int[] outgoing = new int[nodeCount];
+
+        for (Flow flow : flows) {
+            int source = resolveFlowEnd(flow, "sourceRef", flow.sourceRef, issues);
+            int target = resolveFlowEnd(flow, "targetRef", flow.targetRef, issues);
+            if (source >= 0 && target >= 0) {
+                flowEdges.addEdge(source, target);
+                outgoing[source]++;
+                incoming[target]++;
+            }
+        }
+        for (int i = 0; i < nodeCount; i++) {
+            FlowNode node = nodes.get(i);
+            if (node.attachedToRef != null) {
+                Integer host = nodeIndex.get(node.attachedToRef);
+                if (host == null || !ACTIVITIES.contains(nodes.get(host).kind) || nodes.get(host).scope != node.scope) {
+                    issues.add(located(node, IssueType.ERROR, String.format(
+                            "%s is attached to '%s', which is not an activity of the same process or subprocess.",
+                            node.describe(), node.attachedToRef)));
+                    node.entry = true; // Already reported; not unreachable on top of that
+                } else {
+                    flowEdges.addEdge(host, i);
+                }
+            }
+            if (node.defaultFlow != null && !node.defaultFlow.isEmpty()) {
+                Flow flow = flowIndex.get(node.defaultFlow);
+                if (flow == null || !node.id.equals(flow.sourceRef)) {
+                    issues.add(located(node, IssueType.ERROR, String.format(
+                            "%s has default flow '%s', which is not one of its outgoing sequence flows.",
+                            node.describe(), node.defaultFlow)));
+                }
+            }
+        }
+        ValidationBudget.checkpoint();
+        CsrGraph flowGraph = flowEdges.build();
+
+        // Entry points: start events, or nodes without incoming flows in scopes without start events
+        boolean[] scopeHasStart = new boolean[scopeContainers.size()];
+        for (FlowNode node : nodes) {
+            if ("startEvent".equals(node.kind)) {
+                scopeHasStart[node.scope] = true;
+            }
+        }
+        CsrGraph.Builder reachEdges = new CsrGraph.Builder(nodeCount, flows.size() + nodeCount / 8);
+        int[] roots = new int[nodeCount];
+        int rootCount = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            for (int edge = flowGraph.firstEdge(i); edge < flowGraph.endEdge(i); edge++) {
+                reachEdges.addEdge(i, flowGraph.target(edge));
+            }
+            FlowNode node = nodes.get(i);
+            boolean entry = node.entry || "startEvent".equals(node.kind)
+                    || (!scopeHasStart[node.scope] && incoming[i] == 0 && node.attachedToRef == null);
+            if (entry) {
+                int container = scopeContainers.get(node.scope);
+                if (container < 0) {
+                    roots[rootCount++] = i;
+                } else {
+                    reachEdges.addEdge(container, i);
+                }
+            }
+        }
+        boolean[] reached = reachEdges.build().reachableFrom(roots, rootCount);
+        for (int i = 0; i < nodeCount; i++) {
+            if (!reached[i]) {
+                FlowNode node = nodes.get(i);
+                issues.add(located(node, IssueType.WARNING,
+                        node.describe() + " is not reachable from a start event of its process."));
+            }
+        }
+
+        // Backwards from every node that can end the flow
+        int[] ends = new int[nodeCount];
+        int endCount = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            FlowNode node = nodes.get(i);
+            if (node.end || "endEvent".equals(node.kind) || outgoing[i] == 0) {
+                ends[endCount++] = i;
+            }
+        }
+        boolean[] canEnd = flowGraph.reversed().reachableFrom(ends, endCount);
+
+        // A loop without an exit is a strongly connected component with no edge leaving it
+        int[] component = flowGraph.stronglyConnectedComponents();
+        int[] sizes = new int[nodeCount];
+        boolean[] hasExit = new boolean[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            sizes[component[i]]++;
+            for (int edge = flowGraph.firstEdge(i); edge < flowGraph.endEdge(i); edge++) {
+                if (component[flowGraph.target(edge)] != component[i]) {
+                    hasExit[component[i]] = true;
+                }
+            }
+        }
+        int[][] loops = new int[nodeCount][];
+        int[] filled = new int[nodeCount];
+        List<int[]> trapped = new ArrayList<>();
+        for (int i = 0; i < nodeCount; i++) {
+            int c = component[i];
+            if (canEnd[i] || hasExit[c] || (sizes[c] == 1 && !flowGraph.hasEdge(i, i))) {
+                continue;
+            }
+            if (loops[c] == null) {
+                loops[c] = new int[sizes[c]];
+                trapped.add(loops[c]);
+            }
+            loops[c][filled[c]++] = i;
+        }
+        for (int[] loop : trapped) {
+            issues.add(located(nodes.get(loop[0]), IssueType.ERROR, describeLoop(loop)));
+        }
+        for (int i = 0; i < nodeCount; i++) {
+            if (!canEnd[i] && reached[i] && loops[component[i]] == null) {
+                FlowNode node = nodes.get(i);
+                issues.add(located(node, IssueType.WARNING, node.describe()
+                        + " cannot reach an end event; every path from it runs into a loop without an exit."));
+            }
+        }
+        return issues;
+    }
+
+    /**
+     * @return the node the reference resolves to, or -1 if it is missing or invalid.
+     */
+    private int resolveFlowEnd(Flow flow, String attribute, String ref, List<ValidationIssue> issues) {
+        if (ref == null) {
+            return -1; // Reported while reading
+        }
+        Integer node = nodeIndex.get(ref);
+        if (node == null) {
+            issues.add(flow.issue(String.format("Sequence flow '%s' has %s '%s', which is not a flow node.", flow.id,
+                    attribute, ref)));
+            return -1;
+        }
+        if (nodes.get(node).scope != flow.scope) {
+            issues.add(flow.issue(String.format(
+                    "Sequence flow '%s' has %s '%s', which is in a different process or subprocess.", flow.id,
+                    attribute, ref)));
+            return -1;
+        }
+        return node;
+    }
+
+    private String describeLoop(int[] loop) {
+        if (loop.length == 1) {
+            return nodes.get(loop[0]).describe()
+                    + " only flows back to itself; a token reaching it never reaches an end event.";
+        }
+        StringBuilder members = new StringBuilder();
+        for (int i = 0; i < loop.length && i < MAX_LOOP_MEMBERS_LISTED; i++) {
+            if (i > 0) {
+                members.append(", ");
+            }
+            members.append(nodes.get(loop[i]).describe());
+        }
+        if (loop.length > MAX_LOOP_MEMBERS_LISTED) {
+            members.append(" and ").append(loop.length - MAX_LOOP_MEMBERS_LISTED).append(" more");
+        }
+        return String.format(
+                "Loop through %d flow nodes has no exit: %s. A token entering it never reaches an end event.",
+                loop.length, members);
+    }
+
+    private static ValidationIssue located(FlowNode node, IssueType type, String message) {
+        return new ValidationIssue(type, message, node.id, node.name, node.line, node.column);
+    }
+
+    private static final class FlowNode {
+        final String kind;
+        final String id;
+        final String name;
+        final int scope;
+        final int line;
+        final int column;
+        String attachedToRef;
+        String defaultFlow;
+        boolean entry;
+        boolean end;
+
+        FlowNode(String kind, String id, String name, int scope, int line, int column) {
+            this.kind = kind;
+            this.id = id;
+            this.name = name;
+            this.scope = scope;
+            this.line = line;
+            this.column = column;
+        }
+
+        String describe() {
+            return "BPMN " + kind + " '" + (name.isEmpty() ? id : name) + "'";
+        }
+    }
+
+    private static final class Flow {
+        final String id;
+        final String name;
+        final String sourceRef;
+        final String targetRef;
+        final int scope;
+        final int line;
+        final int column;
+
+        Flow(String id, String name, String sourceRef, String targetRef, int scope, int line, int column) {
+            this.id = id;
+            this.name = name;
+            this.sourceRef = sourceRef;
+            this.targetRef = targetRef;
+            this.scope = scope;
+            this.line = line;
+            this.column = column;
+        }
+
+        ValidationIssue issue(String message) {
+            return new ValidationIssue(IssueType.ERROR, message, id, name, line, column);
+        }
+    }
+}
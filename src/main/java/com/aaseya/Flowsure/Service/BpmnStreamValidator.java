@@ -0,0 +1,227 @@
+package com.aaseya.Flowsure.Service;
+
+import com.aaseya.Flowsure.Model.DiagramValidationResult;
+import com.aaseya.Flowsure.Model.ValidationIssue;
+import com.aaseya.Flowsure.Model.ValidationIssue.IssueType;
+
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Validates BPMN diagrams in a single streaming (StAX) pass.
+ * <p>
+ * Start/end events, sequence flows and named elements are checked as the reader goes,
+ * and diagram-interchange (bpmndi) subtrees are skipped without being materialized.
+ * Flow nodes and sequence flows are collected into a {@link BpmnFlowGraph}, whose control
+ * flow checks run once the file is read. Issues carry the line and column of the element
+ * they refer to.
+ */
+public class BpmnStreamValidator {
+
+    static final String BPMN_MODEL_NS = "http://www.omg.org/spec/BPMN/20100524/MODEL";
+    static final String BPMN_DI_NS = "http://www.omg.org/spec/BPMN/20100524/DI";
+
+    // Starts with "Start ", "End ", or "Intermediate " followed by any characters
+    private static final Pattern EVENT_NAME_PATTERN = Pattern.compile("^(Start|End|Intermediate) .*");
+
+    private final XMLInputFactory inputFactory;
+
+    public BpmnStreamValidator() {
+        this.inputFactory = XMLInputFactory.newInstance();
+        this.inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        this.inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    /**
+     * Validates structural issues and naming conventions of a BPMN diagram.
+     *
+     * @param diagramName The name of the diagram file.
+     * @param content The raw XML bytes of the diagram.
+     * @return A DiagramValidationResult containing validation status and issues.
+     * @throws XMLStreamException if the XML is not well-formed.
+     */
+    public DiagramValidationResult validate(String diagramName, byte[] content) throws XMLStreamException {
+        XMLStreamReader reader = inputFactory.createXMLStreamReader(new ByteArrayInputStream(content));
+        try {
+            return validate(diagramName, reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private DiagramValidationResult validate(String diagramName, XMLStreamReader reader) throws XMLStreamException {
+        int startEvents = 0;
+        int endEvents = 0;
+        Location rootLocation = null;
+        // Kept apart so issues come out grouped: structure first, then task and event naming
+        List<ValidationIssue> flowIssues = new ArrayList<>();
+        List<ValidationIssue> taskIssues = new ArrayList<>();
+        List<ValidationIssue> eventIssues = new ArrayList<>();
+        BpmnFlowGraph graph = new BpmnFlowGraph();
+        // Open processes and subprocesses, innermost first: {scope, element depth}
+        Deque<int[]> scopes = new ArrayDeque<>();
+        int openEvent = -1; // the event whose definitions are being read
+        int openEventDepth = -1;
+        int depth = 0;
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                if (!scopes.isEmpty() && scopes.peek()[1] == depth) {
+                    scopes.pop();
+                }
+                if (openEventDepth == depth) {
+                    openEvent = -1;
+                    openEventDepth = -1;
+                }
+                depth--;
+                continue;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            if (rootLocation == null) {
+                rootLocation = reader.getLocation();
+            }
+            if (BPMN_DI_NS.equals(reader.getNamespaceURI())) {
+                skipSubtree(reader);
+                continue;
+            }
+            depth++;
+            if (!BPMN_MODEL_NS.equals(reader.getNamespaceURI())) {
+                continue;
+            }
+            ValidationBudget.checkpoint();
+
+            String localName = reader.getLocalName();
+            Location location = reader.getLocation();
+            String elementId = reader.getAttributeValue(null, "id");
+            if (elementId != null) {
+                graph.recordId(elementId, localName, location.getLineNumber(), location.getColumnNumber());
+            }
+            if ("process".equals(localName)) {
+                scopes.push(new int[] { graph.openScope(-1), depth });
+            } else if (BpmnFlowGraph.isFlowNode(localName) && !scopes.isEmpty()) {
+                int node = graph.addNode(localName, attribute(reader, "id"), attribute(reader, "name"),
+                        scopes.peek()[0], location.getLineNumber(), location.getColumnNumber());
+                String attachedToRef = reader.getAttributeValue(null, "attachedToRef");
+                if (attachedToRef != null) {
+                    graph.setAttachedTo(node, attachedToRef);
+                }
+                String defaultFlow = reader.getAttributeValue(null, "default");
+                if (defaultFlow != null) {
+                    graph.setDefaultFlow(node, defaultFlow);
+                }
+                if ("true".equals(reader.getAttributeValue(null, "triggeredByEvent"))
+                        || "true".equals(reader.getAttributeValue(null, "isForCompensation"))) {
+                    graph.markEntry(node);
+                }
+                if (localName.endsWith("Event")) {
+                    openEvent = node;
+                    openEventDepth = depth;
+                }
+                if (BpmnFlowGraph.opensScope(localName)) {
+                    scopes.push(new int[] { graph.openScope(node), depth });
+                }
+            } else if ("linkEventDefinition".equals(localName) && openEvent >= 0) {
+                graph.markLink(openEvent);
+            }
+
+            switch (localName) {
+            case "startEvent":
+                startEvents++;
+                break;
+            case "endEvent":
+                endEvents++;
+                break;
+            case "sequenceFlow": {
+                String id = attribute(reader, "id");
+                String sourceRef = reader.getAttributeValue(null, "sourceRef");
+                String targetRef = reader.getAttributeValue(null, "targetRef");
+                if (sourceRef == null || targetRef == null) {
+                    flowIssues.add(issue(reader, IssueType.ERROR, "Sequence flow '" + id + "' is missing sourceRef or targetRef.", id, attribute(reader, "name")));
+                }
+                if (!scopes.isEmpty()) {
+                    graph.addFlow(id, attribute(reader, "name"), sourceRef, targetRef, scopes.peek()[0],
+                            location.getLineNumber(), location.getColumnNumber());
+                }
+                break;
+            }
+            case "task": {
+                // All tasks should start with an uppercase letter
+                String taskName = attribute(reader, "name");
+                if (!taskName.isEmpty() && !Character.isUpperCase(taskName.charAt(0))) {
+                    taskIssues.add(issue(reader, IssueType.WARNING, "BPMN Task name '" + taskName + "' should start with an uppercase letter.", attribute(reader, "id"), taskName));
+                }
+                break;
+            }
+            case "event": {
+                // Event names should follow a specific pattern (e.g., "Start <Action>")
+                String eventName = attribute(reader, "name");
+                if (!eventName.isEmpty() && !EVENT_NAME_PATTERN.matcher(eventName).matches()) {
+                    eventIssues.add(issue(reader, IssueType.WARNING, "BPMN Event name '" + eventName + "' does not follow recommended pattern (e.g., 'Start <Action>').", attribute(reader, "id"), eventName));
+                }
+                break;
+            }
+            default:
+                break;
+            }
+        }
+
+        DiagramValidationResult result = new DiagramValidationResult();
+        result.setDiagramName(diagramName);
+        if (startEvents == 0) {
+            result.addIssue(located(rootLocation, IssueType.ERROR, "BPMN diagram must have at least one start event."));
+        }
+        if (endEvents == 0) {
+            result.addIssue(located(rootLocation, IssueType.ERROR, "BPMN diagram must have at least one end event."));
+        }
+        flowIssues.forEach(result::addIssue);
+        graph.analyze().forEach(result::addIssue);
+        taskIssues.forEach(result::addIssue);
+        eventIssues.forEach(result::addIssue);
+        result.setValid(result.getIssues().stream().noneMatch(issue -> issue.getType() == IssueType.ERROR));
+        return result;
+    }
+
+    /**
+     * Advances the reader to the END_ELEMENT matching the current START_ELEMENT.
+     */
+    private static void skipSubtree(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static String attribute(XMLStreamReader reader, String localName) {
+        String value = reader.getAttributeValue(null, localName);
+        return value != null ? value : "";
+    }
+
+    private static ValidationIssue issue(XMLStreamReader reader, IssueType type, String message, String elementId, String elementName) {
+        Location location = reader.getLocation();
+        return new ValidationIssue(type, message, elementId, elementName, location.getLineNumber(), location.getColumnNumber());
+    }
+
+    private static ValidationIssue located(Location location, IssueType type, String message) {
+        if (location == null) {
+            return new ValidationIssue(type, message);
+        }
+        return new ValidationIssue(type, message, null, null, location.getLineNumber(), location.getColumnNumber());
+    }
+}
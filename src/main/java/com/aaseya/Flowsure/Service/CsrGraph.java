@@ -0,0 +1,202 @@
+package com.aaseya.Flowsure.Service;
+
+import java.util.Arrays;
+
+/**
+ * An immutable directed graph over nodes {@code 0..n-1} in compressed sparse row form: the
+ * successors of node {@code v} are {@code target(firstEdge(v))} up to, but excluding,
+ * {@code target(endEdge(v))}. Two int arrays hold the whole graph, so graphs with hundreds of
+ * thousands of edges cost a few megabytes and are walked without boxing or pointer chasing.
+ * Every traversal here is iterative and linear in nodes plus edges.
+ */
+final class CsrGraph {
+
+    private final int[] edgeStart;
+    private final int[] targets;
+
+    private CsrGraph(int[] edgeStart, int[] targets) {
+        this.edgeStart = edgeStart;
+        this.targets = targets;
+    }
+
+    int nodeCount() {
+        return edgeStart.length - 1;
+    }
+
+    int firstEdge(int node) {
+        return edgeStart[node];
+    }
+
+    int endEdge(int node) {
+        return edgeStart[node + 1];
+    }
+
+    int target(int edge) {
+        return targets[edge];
+    }
+
+    boolean hasEdge(int from, int to) {
+        for (int edge = edgeStart[from]; edge < edgeStart[from + 1]; edge++) {
+            if (targets[edge] == to) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The same graph with every edge turned around.
+     */
+    CsrGraph reversed() {
+        Builder builder = new Builder(nodeCount(), targets.length);
+        for (int node = 0; node < nodeCount(); node++) {
+            for (int edge = edgeStart[node]; edge < edgeStart[node + 1]; edge++) {
+                builder.addEdge(targets[edge], node);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Marks every node reachable from the roots, the roots included.
+     */
+    boolean[] reachableFrom(int[] roots, int rootCount) {
+        boolean[] reached = new boolean[nodeCount()];
+        int[] queue = new int[nodeCount()];
+        int tail = 0;
+        for (int i = 0; i < rootCount; i++) {
+            if (!reached[roots[i]]) {
+                reached[roots[i]] = true;
+                queue[tail++] = roots[i];
+            }
+        }
+        for (int head = 0; head < tail; head++) {
+            int node = queue[head];
+            for (int edge = edgeStart[node]; edge < edgeStart[node + 1]; edge++) {
+                int next = targets[edge];
+                if (!reached[next]) {
+                    reached[next] = true;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return reached;
+    }
+
+    /**
+     * Strongly connected components by Tarjan's algorithm, with an explicit call stack so long
+     * chains cannot overflow the thread stack.
+     *
+     * @return the component of every node. Components are numbered in reverse topological
+     *         order: an edge between components always goes to a lower number.
+     */
+    int[] stronglyConnectedComponents() {
+        int nodeCount = nodeCount();
+        int[] component = new int[nodeCount];
+        int[] index = new int[nodeCount];
+        Arrays.fill(index, -1);
+        int[] low = new int[nodeCount];
+        boolean[] onStack = new boolean[nodeCount];
+        int[] stack = new int[nodeCount];
+        int stackSize = 0;
+        int[] callNode = new int[nodeCount];
+        int[] callEdge = new int[nodeCount];
+        int nextIndex = 0;
+        int components = 0;
+
+        for (int root = 0; root < nodeCount; root++) {
+            if (index[root] >= 0) {
+                continue;
+            }
+            int depth = 1;
+            callNode[0] = root;
+            callEdge[0] = edgeStart[root];
+            index[root] = low[root] = nextIndex++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+            while (depth > 0) {
+                int node = callNode[depth - 1];
+                if (callEdge[depth - 1] < edgeStart[node + 1]) {
+                    int next = targets[callEdge[depth - 1]++];
+                    if (index[next] < 0) {
+                        index[next] = low[next] = nextIndex++;
+                        stack[stackSize++] = next;
+                        onStack[next] = true;
+                        callNode[depth] = next;
+                        callEdge[depth] = edgeStart[next];
+                        depth++;
+                    } else if (onStack[next]) {
+                        low[node] = Math.min(low[node], index[next]);
+                    }
+                    continue;
+                }
+                depth--;
+                if (depth > 0) {
+                    int parent = callNode[depth - 1];
+                    low[parent] = Math.min(low[parent], low[node]);
+                }
+                if (low[node] == index[node]) {
+                    int member;
+                    do {
+                        member = stack[--stackSize];
+                        onStack[member] = false;
+                        component[member] = components;
+                    } while (member != node);
+                    components++;
+                }
+            }
+        }
+        return component;
+    }
+
+    /**
+     * Collects edges in any order and lays them out by source node with a counting sort.
+     */
+    static final class Builder {
+        private final int nodeCount;
+        private int[] from;
+        private int[] to;
+        private int edgeCount;
+
+        Builder(int nodeCount) {
+            this(nodeCount, nodeCount);
+        }
+
+        /**
+         * @param expectedEdges Initial capacity; more edges can still be added.
+         */
+        Builder(int nodeCount, int expectedEdges) {
+            this.nodeCount = nodeCount;
+            this.from = new int[Math.max(16, expectedEdges)];
+            this.to = new int[Math.max(16, expectedEdges)];
+        }
+
+        Builder addEdge(int source, int target) {
+            if (edgeCount == from.length) {
+                from = Arrays.copyOf(from, edgeCount * 2);
+                to = Arrays.copyOf(to, edgeCount * 2);
+            }
+            from[edgeCount] = source;
+            to[edgeCount] = target;
+            edgeCount++;
+            return this;
+        }
+
+        CsrGraph build() {
+            int[] edgeStart = new int[nodeCount + 1];
+            for (int i = 0; i < edgeCount; i++) {
+                edgeStart[from[i] + 1]++;
+            }
+            for (int node = 0; node < nodeCount; node++) {
+                edgeStart[node + 1] += edgeStart[node];
+            }
+            int[] next = Arrays.copyOf(edgeStart, nodeCount);
+            int[] targets = new int[edgeCount];
+            // Stable, so every node keeps its edges in the order they were added
+            for (int i = 0; i < edgeCount; i++) {
+                targets[next[from[i]]++] = to[i];
+            }
+            return new CsrGraph(edgeStart, targets);
+        }
+    }
+}
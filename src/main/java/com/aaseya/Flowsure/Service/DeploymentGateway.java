@@ -0,0 +1,42 @@
+package com.aaseya.Flowsure.Service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Deploys BPMN and DMN resources to a process engine. {@link ZeebeDeploymentGateway} talks
+ * to the configured Camunda cluster; {@link InMemoryDeploymentGateway} keeps deployments in
+ * memory for tests and local runs.
+ */
+public interface DeploymentGateway {
+
+    /**
+     * Deploys all resources in a single command, so they become active together or not at all.
+     *
+     * @param archiveName The archive the resources came from, for logging.
+     * @param resources At least one resource; names end in .bpmn or .dmn.
+     * @return completes with the key of the deployment, or exceptionally if it was rejected.
+     */
+    CompletableFuture<Long> deploy(String archiveName, List<Resource> resources);
+
+    /**
+     * One file of a deployment.
+     */
+    final class Resource {
+        private final String name;
+        private final byte[] content;
+
+        public Resource(String name, byte[] content) {
+            this.name = name;
+            this.content = content;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public byte[] getContent() {
+            return content;
+        }
+    }
+}
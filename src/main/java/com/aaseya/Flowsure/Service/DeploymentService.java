@@ -0,0 +1,158 @@
+package com.aaseya.Flowsure.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.aaseya.Flowsure.DTO.DeploymentStatus;
+
+/**
+ * Validate-then-deploy. An archive is validated in one pass by
+ * {@link ModelArchiveValidationService}; if no file has an error, all of its BPMN and DMN
+ * files are deployed with a single command through the {@link DeploymentGateway}. The
+ * bytes handed to the validators are kept for the deployment, so the archive is inflated
+ * only once.
+ * <p>
+ * Archives deploy concurrently, but at most {@code flowsure.deploy.max-in-flight} at a time;
+ * a request waits up to {@code flowsure.deploy.acquire-timeout-ms} for a slot. A deployment
+ * keeps its slot until the gateway answers, even after the request gave up waiting.
+ */
+@Service
+public class DeploymentService {
+
+    private static final Logger log = LoggerFactory.getLogger(DeploymentService.class);
+
+    public static final String DEPLOYED = "DEPLOYED";
+    public static final String SKIPPED = "SKIPPED";
+    public static final String FAILED = "FAILED";
+
+    private final ModelArchiveValidationService validationService;
+    private final ObjectProvider<DeploymentGateway> gateway;
+    private final Semaphore inFlight;
+    private final long acquireTimeoutMillis;
+    private final long deployTimeoutMillis;
+
+    public DeploymentService(ModelArchiveValidationService validationService, ObjectProvider<DeploymentGateway> gateway,
+            @Value("${flowsure.deploy.max-in-flight:4}") int maxInFlight,
+            @Value("${flowsure.deploy.acquire-timeout-ms:30000}") long acquireTimeoutMillis,
+            @Value("${flowsure.deploy.timeout-ms:60000}") long deployTimeoutMillis) {
+        this.validationService = validationService;
+        this.gateway = gateway;
+        this.inFlight = new Semaphore(Math.max(1, maxInFlight));
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.deployTimeoutMillis = deployTimeoutMillis;
+    }
+
+    /**
+     * Whether a gateway is configured; {@code flowsure.deploy.gateway=none} turns deployment off.
+     */
+    public boolean isEnabled() {
+        return gateway.getIfAvailable() != null;
+    }
+
+    /**
+     * Validates the archive, handing every result to the listener as it becomes available,
+     * and deploys it if every result is valid.
+     *
+     * @return what happened to the deployment; validation results go to the listener only.
+     * @throws IOException only if the listener fails.
+     */
+    public DeploymentStatus validateAndDeploy(MultipartFile zipFile, ValidationResultListener listener)
+            throws IOException {
+        Map<String, DeploymentGateway.Resource> validated = new ConcurrentHashMap<>();
+        List<DeploymentGateway.Resource> resources = new ArrayList<>();
+        AtomicInteger invalid = new AtomicInteger();
+        validationService.validateZip(zipFile, result -> {
+            // Results arrive in archive order, so resources are deployed in that order too
+            DeploymentGateway.Resource resource = validated.remove(result.getDiagramName());
+            if (resource != null) {
+                resources.add(resource);
+            }
+            if (!result.isValid()) {
+                invalid.incrementAndGet();
+            }
+            listener.onResult(result);
+        }, (entryName, diagramType, content) -> validated.put(entryName,
+                new DeploymentGateway.Resource(resourceName(entryName, diagramType), content)));
+
+        if (invalid.get() > 0) {
+            return new DeploymentStatus(SKIPPED, String.format(
+                    "Not deployed: validation found errors in %d results.", invalid.get()), null, null);
+        }
+        if (resources.isEmpty()) {
+            return new DeploymentStatus(SKIPPED, "Not deployed: the archive has no BPMN or DMN files.", null, null);
+        }
+        return deploy(zipFile.getOriginalFilename(), resources);
+    }
+
+    private DeploymentStatus deploy(String archiveName, List<DeploymentGateway.Resource> resources) {
+        List<String> names = resources.stream().map(DeploymentGateway.Resource::getName).toList();
+        DeploymentGateway target = gateway.getIfAvailable();
+        if (target == null) {
+            return new DeploymentStatus(FAILED, "Deployment is disabled on this instance.", null, names);
+        }
+        try {
+            if (!inFlight.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                return new DeploymentStatus(FAILED, "Too many deployments are in progress. Please retry later.", null,
+                        names);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new DeploymentStatus(FAILED, "Interrupted while waiting to deploy.", null, names);
+        }
+
+        CompletableFuture<Long> deployment;
+        try {
+            deployment = target.deploy(archiveName, resources);
+        } catch (RuntimeException e) {
+            inFlight.release();
+            log.error("Deployment of {} failed", archiveName, e);
+            return new DeploymentStatus(FAILED, "Deployment failed: " + e.getMessage(), null, names);
+        }
+        deployment.whenComplete((key, e) -> inFlight.release());
+        try {
+            long key = deployment.get(deployTimeoutMillis, TimeUnit.MILLISECONDS);
+            log.info("Deployed {} resources of {} as deployment {}", resources.size(), archiveName, key);
+            return new DeploymentStatus(DEPLOYED, String.format("Deployed %d resources.", resources.size()), key,
+                    names);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            log.warn("Deployment of {} was rejected: {}", archiveName, cause.getMessage());
+            return new DeploymentStatus(FAILED, "Deployment failed: " + cause.getMessage(), null, names);
+        } catch (TimeoutException e) {
+            return new DeploymentStatus(FAILED, String.format(
+                    "No answer to the deployment within %d ms; it may still be applied.", deployTimeoutMillis), null,
+                    names);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new DeploymentStatus(FAILED, "Interrupted while deploying; the deployment may still be applied.",
+                    null, names);
+        }
+    }
+
+    /**
+     * Engines tell BPMN from DMN by extension, so a DMN model stored as .xml is renamed.
+     */
+    static String resourceName(String entryName, String diagramType) {
+        String lowerCaseName = entryName.toLowerCase();
+        if (DiagramValidationService.DMN.equals(diagramType)) {
+            return lowerCaseName.endsWith(".dmn") ? entryName : entryName + ".dmn";
+        }
+        return lowerCaseName.endsWith(".bpmn") || lowerCaseName.endsWith(".xml") ? entryName : entryName + ".bpmn";
+    }
+}
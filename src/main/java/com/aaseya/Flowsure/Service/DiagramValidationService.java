@@ -11,195 +11,271 @@ import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
+import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
 
 @Service
 public class DiagramValidationService {
 
+    static final String CACHE_NAMESPACE = "diagram";
+
+    static final String BPMN = "BPMN";
+    static final String DMN = "DMN";
+    // Values of the validator tag of the metrics
+    private static final String BPMN_VALIDATOR = "bpmn";
+    private static final String DMN_VALIDATOR = "dmn-dom";
+    private static final String UNKNOWN_VALIDATOR = "unknown";
+    // Every DMN version so far: 1.1 used http, 1.2 and later https
+    private static final String DMN_NAMESPACE_PREFIX = "https://www.omg.org/spec/DMN/";
+    private static final String LEGACY_DMN_NAMESPACE_PREFIX = "http://www.omg.org/spec/DMN/";
+
+    private final ArchiveValidationPipeline pipeline;
+    private final ValidationResultCache resultCache;
+    private final ValidationMetrics metrics;
+    private final BpmnStreamValidator bpmnValidator = new BpmnStreamValidator();
+    private final XMLInputFactory inputFactory;
+
+    public DiagramValidationService(ArchiveValidationPipeline pipeline, ValidationResultCache resultCache,
+            ValidationMetrics metrics) {
+        this.pipeline = pipeline;
+        this.resultCache = resultCache;
+        this.metrics = metrics;
+        this.inputFactory = XMLInputFactory.newInstance();
+        this.inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        this.inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
     /**
      * Validates a ZIP file containing BPMN or DMN diagram XML files.
-     * Extracts files from the ZIP and validates each supported diagram.
+     * Only diagram entries are inflated, in parallel on the shared worker pool, and then parsed and validated;
+     * entries whose bytes were validated before are served from the result cache.
      *
      * @param zipFile The MultipartFile containing the ZIP archive.
-     * @return A list of DiagramValidationResult, one for each diagram found and validated.
+     * @return A list of DiagramValidationResult, one for each diagram found and validated, in archive order.
      */
     public List<DiagramValidationResult> validateZip(MultipartFile zipFile) {
         List<DiagramValidationResult> allResults = new ArrayList<>();
+        try {
+            validateZip(zipFile, allResults::add);
+        } catch (IOException e) {
+            // Adding to a list cannot fail; archive errors are reported as results
+            throw new UncheckedIOException(e);
+        }
+        return allResults;
+    }
 
+    /**
+     * Streaming variant of {@link #validateZip(MultipartFile)}: each result is handed to the
+     * listener as soon as it is available, in archive order. Archive-level problems are
+     * reported as error results as well.
+     *
+     * @param zipFile The MultipartFile containing the ZIP archive.
+     * @param listener Receives one result per diagram.
+     * @throws IOException only if the listener fails.
+     */
+    public void validateZip(MultipartFile zipFile, ValidationResultListener listener) throws IOException {
         if (zipFile.isEmpty()) {
             DiagramValidationResult emptyZipResult = new DiagramValidationResult();
             emptyZipResult.setDiagramName("ZIP File");
             emptyZipResult.addIssue(new ValidationIssue(IssueType.ERROR, "Uploaded ZIP file is empty."));
             emptyZipResult.setValid(false);
-            allResults.add(emptyZipResult);
-            return allResults;
+            listener.onResult(emptyZipResult);
+            return;
         }
 
-        try (ZipInputStream zis = new ZipInputStream(zipFile.getInputStream())) {
-            ZipEntry zipEntry;
-            while ((zipEntry = zis.getNextEntry()) != null) {
-                if (!zipEntry.isDirectory() && (zipEntry.getName().endsWith(".bpmn") || zipEntry.getName().endsWith(".xml") || zipEntry.getName().endsWith(".dmn"))) {
-                    // Read the entry content into a byte array
-                    byte[] buffer = new byte[1024];
-                    int len;
-                    try (java.io.ByteArrayOutputStream bos = new java.io.ByteArrayOutputStream()) {
-                        while ((len = zis.read(buffer)) > 0) {
-                            bos.write(buffer, 0, len);
-                        }
-                        try (InputStream diagramInputStream = new java.io.ByteArrayInputStream(bos.toByteArray())) {
-                            DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
-                            DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
-                            Document doc = dBuilder.parse(diagramInputStream);
-                            doc.getDocumentElement().normalize();
-
-                            String diagramName = zipEntry.getName();
-                            String diagramType = determineDiagramType(doc, diagramName);
-
-                            allResults.add(validateSingleDiagram(doc, diagramName, diagramType));
-                        }
-                    }
-                }
-                zis.closeEntry();
-            }
-        } catch (IOException | ParserConfigurationException | SAXException e) {
-            DiagramValidationResult errorResult = new DiagramValidationResult();
-            errorResult.setDiagramName(zipFile.getOriginalFilename());
-            errorResult.addIssue(new ValidationIssue(IssueType.ERROR, "Error processing ZIP file or its contents: " + e.getMessage()));
-            errorResult.setValid(false);
-            allResults.add(errorResult);
+        try {
+            pipeline.validate(zipFile, DiagramValidationService::isDiagramEntry, this::validateCached, listener);
+        } catch (IOException e) {
+            listener.onResult(archiveError(zipFile.getOriginalFilename(), e));
         }
-        return allResults;
     }
 
     /**
-     * Determines the type of the diagram (BPMN or DMN) based on the root element.
+     * Variant of {@link #validateZip(MultipartFile, ValidationResultListener)} for an archive
+     * that is already on disk, such as a queued validation job.
      *
-     * @param doc The parsed XML Document.
-     * @param fileName The name of the file (for fallback if root element is generic).
-     * @return "BPMN", "DMN", or "UNKNOWN".
+     * @param archive The ZIP archive.
+     * @param archiveName The name reported if the archive itself cannot be read.
+     * @param listener Receives one result per diagram.
+     * @throws IOException only if the listener fails.
      */
-    private String determineDiagramType(Document doc, String fileName) {
-        String rootElementName = doc.getDocumentElement().getTagName();
-        if ("bpmn:definitions".equalsIgnoreCase(rootElementName) || fileName.toLowerCase().endsWith(".bpmn")) {
-            return "BPMN";
-        } else if ("dmn:definitions".equalsIgnoreCase(rootElementName) || fileName.toLowerCase().endsWith(".dmn")) {
-            return "DMN";
+    public void validateZip(Path archive, String archiveName, ValidationResultListener listener) throws IOException {
+        try {
+            pipeline.validate(archive, DiagramValidationService::isDiagramEntry, this::validateCached, listener);
+        } catch (IOException e) {
+            listener.onResult(archiveError(archiveName, e));
         }
-        return "UNKNOWN";
+    }
+
+    private DiagramValidationResult validateCached(String entryName, byte[] content) throws Exception {
+        return resultCache.getOrValidate(CACHE_NAMESPACE, entryName, content, this::validateDiagram);
+    }
+
+    static DiagramValidationResult archiveError(String archiveName, IOException e) {
+        DiagramValidationResult errorResult = new DiagramValidationResult();
+        errorResult.setDiagramName(archiveName);
+        errorResult.addIssue(new ValidationIssue(IssueType.ERROR, "Error processing ZIP file or its contents: " + e.getMessage()));
+        errorResult.setValid(false);
+        return errorResult;
+    }
+
+    public static boolean isDiagramEntry(String entryName) {
+        return entryName.endsWith(".bpmn") || entryName.endsWith(".xml") || entryName.endsWith(".dmn");
     }
 
     /**
-     * Validates a single BPMN or DMN diagram XML document.
+     * Parses and validates a single BPMN or DMN diagram.
+     * BPMN diagrams are validated in one streaming pass, timed as the "stream" check since parsing
+     * and checking cannot be separated; DMN diagrams are loaded into a DOM.
      *
-     * @param doc The parsed XML Document of the diagram.
      * @param diagramName The name of the diagram file.
-     * @param diagramType The determined type of the diagram (e.g., "BPMN", "DMN").
-     * @return A DiagramValidationResult containing validation status and issues for this single diagram.
+     * @param content The raw XML bytes of the diagram.
+     * @return A DiagramValidationResult for this diagram; unreadable XML is reported as an error result.
      */
-    private DiagramValidationResult validateSingleDiagram(Document doc, String diagramName, String diagramType) {
-        DiagramValidationResult result = new DiagramValidationResult();
-        result.setDiagramName(diagramName);
-        boolean overallValid = true;
-
-        // Determine validation logic based on diagram type
-        if ("BPMN".equalsIgnoreCase(diagramType)) {
-            overallValid &= validateBpmnStructuralIssues(doc, result);
-            overallValid &= validateBpmnNamingConventions(doc, result);
-            // Removed: overallValid &= validateBpmnDocumentation(doc, result);
-            // Add more BPMN specific validations here
-        } else if ("DMN".equalsIgnoreCase(diagramType)) {
-            overallValid &= validateDmnStructuralIssues(doc, result);
-            overallValid &= validateDmnNamingConventions(doc, result);
-            overallValid &= validateDmnDocumentation(doc, result);
-            // Add more DMN specific validations here
-        } else {
-            result.addIssue(new ValidationIssue(IssueType.ERROR, "Unsupported or unrecognized diagram type for file: " + diagramName));
-            overallValid = false;
+    public DiagramValidationResult validateDiagram(String diagramName, byte[] content) {
+        String diagramType;
+        try {
+            diagramType = determineDiagramType(content, diagramName);
+        } catch (XMLStreamException e) {
+            DiagramValidationResult result = ArchiveValidationPipeline.entryError(diagramName,
+                    "Error processing ZIP file or its contents: " + e.getMessage());
+            // The content could not be read, so only the extension tells which validator it was meant for
+            metrics.recordIssues(metricsValidator(diagramTypeByExtension(diagramName)), result);
+            return result;
         }
+        return validateDiagram(diagramName, content, diagramType);
+    }
 
-        result.setValid(overallValid && result.getIssues().stream().noneMatch(issue -> issue.getType() == IssueType.ERROR));
+    /**
+     * Validates a diagram whose type is already known, see {@link #determineDiagramType}.
+     */
+    DiagramValidationResult validateDiagram(String diagramName, byte[] content, String diagramType) {
+        String validator = metricsValidator(diagramType);
+        DiagramValidationResult result;
+        try {
+            if (BPMN.equals(diagramType)) {
+                result = metrics.timeCheck(validator, "stream", () -> bpmnValidator.validate(diagramName, content));
+            } else {
+                long parseStart = System.nanoTime();
+                Document doc = parseDocument(content);
+                metrics.recordParse(validator, System.nanoTime() - parseStart);
+                result = validateSingleDiagram(doc, diagramName, diagramType);
+            }
+        } catch (IOException | ParserConfigurationException | SAXException | XMLStreamException e) {
+            result = ArchiveValidationPipeline.entryError(diagramName, "Error processing ZIP file or its contents: " + e.getMessage());
+        } catch (ValidationBudget.ExceededException e) {
+            result = ArchiveValidationPipeline.entryError(diagramName, e.getMessage() + " while validating " + diagramName + "; the file was not fully checked.");
+        }
+        metrics.recordIssues(validator, result);
         return result;
     }
 
+    private static Document parseDocument(byte[] content) throws IOException, ParserConfigurationException, SAXException {
+        try (InputStream diagramInputStream = new ByteArrayInputStream(content)) {
+            DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
+            // No DTDs: rules out entity expansion bombs and external entity lookups
+            dbFactory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            dbFactory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
+            Document doc = dBuilder.parse(diagramInputStream);
+            doc.getDocumentElement().normalize();
+            return doc;
+        }
+    }
+
     /**
-     * Validates structural issues for BPMN diagrams.
-     * Checks for presence of start and end events, and valid sequence flows.
+     * Determines the type of the diagram (BPMN or DMN) from the namespace of its root element,
+     * whatever prefix the modeler chose. Only the first start element is read. Files whose root
+     * is in neither namespace fall back to their extension.
      *
-     * @param doc The parsed XML Document.
-     * @param result The DiagramValidationResult to add issues to.
-     * @return true if no critical structural errors found, false otherwise.
+     * @param content The raw XML bytes of the diagram.
+     * @param fileName The name of the file (for fallback if root element is generic).
+     * @return "BPMN", "DMN", or "UNKNOWN".
+     * @throws XMLStreamException if the content does not start like an XML document.
      */
-    private boolean validateBpmnStructuralIssues(Document doc, DiagramValidationResult result) {
-        boolean valid = true;
-        NodeList startEvents = doc.getElementsByTagName("bpmn:startEvent");
-        if (startEvents.getLength() == 0) {
-            result.addIssue(new ValidationIssue(IssueType.ERROR, "BPMN diagram must have at least one start event."));
-            valid = false;
+    String determineDiagramType(byte[] content, String fileName) throws XMLStreamException {
+        String rootNamespace = readRootNamespace(content);
+        if (BpmnStreamValidator.BPMN_MODEL_NS.equals(rootNamespace)) {
+            return BPMN;
+        } else if (rootNamespace.startsWith(DMN_NAMESPACE_PREFIX) || rootNamespace.startsWith(LEGACY_DMN_NAMESPACE_PREFIX)) {
+            return DMN;
         }
+        return diagramTypeByExtension(fileName);
+    }
 
-        NodeList endEvents = doc.getElementsByTagName("bpmn:endEvent");
-        if (endEvents.getLength() == 0) {
-            result.addIssue(new ValidationIssue(IssueType.ERROR, "BPMN diagram must have at least one end event."));
-            valid = false;
+    private static String metricsValidator(String diagramType) {
+        if (BPMN.equals(diagramType)) {
+            return BPMN_VALIDATOR;
+        } else if (DMN.equals(diagramType)) {
+            return DMN_VALIDATOR;
         }
+        return UNKNOWN_VALIDATOR;
+    }
 
-        // Example: Check for sequence flows without source/target
-        NodeList sequenceFlows = doc.getElementsByTagName("bpmn:sequenceFlow");
-        for (int i = 0; i < sequenceFlows.getLength(); i++) {
-            Element flow = (Element) sequenceFlows.item(i);
-            if (!flow.hasAttribute("sourceRef") || !flow.hasAttribute("targetRef")) {
-                result.addIssue(new ValidationIssue(IssueType.ERROR, "Sequence flow '" + flow.getAttribute("id") + "' is missing sourceRef or targetRef.", flow.getAttribute("id"), flow.getAttribute("name")));
-                valid = false;
+    static String diagramTypeByExtension(String fileName) {
+        String lowerCaseName = fileName.toLowerCase();
+        if (lowerCaseName.endsWith(".bpmn")) {
+            return BPMN;
+        } else if (lowerCaseName.endsWith(".dmn")) {
+            return DMN;
+        }
+        return "UNKNOWN";
+    }
+
+    private String readRootNamespace(byte[] content) throws XMLStreamException {
+        XMLStreamReader reader = inputFactory.createXMLStreamReader(new ByteArrayInputStream(content));
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                    String namespace = reader.getNamespaceURI();
+                    return namespace == null ? "" : namespace;
+                }
             }
+            return "";
+        } finally {
+            reader.close();
         }
-        return valid;
     }
 
     /**
-     * Validates naming conventions for BPMN elements.
-     * Example: Checks if task names are capitalized.
+     * Validates a single DMN diagram XML document.
      *
-     * @param doc The parsed XML Document.
-     * @param result The DiagramValidationResult to add issues to.
-     * @return true if no critical naming convention errors found.
+     * @param doc The parsed XML Document of the diagram.
+     * @param diagramName The name of the diagram file.
+     * @param diagramType The determined type of the diagram (e.g., "DMN").
+     * @return A DiagramValidationResult containing validation status and issues for this single diagram.
      */
-    private boolean validateBpmnNamingConventions(Document doc, DiagramValidationResult result) {
-        boolean valid = true;
-        // Example: All tasks should start with an uppercase letter
-        NodeList tasks = doc.getElementsByTagName("bpmn:task");
-        for (int i = 0; i < tasks.getLength(); i++) {
-            Element task = (Element) tasks.item(i);
-            String taskName = task.getAttribute("name");
-            if (taskName != null && !taskName.isEmpty() && !Character.isUpperCase(taskName.charAt(0))) {
-                result.addIssue(new ValidationIssue(IssueType.WARNING, "BPMN Task name '" + taskName + "' should start with an uppercase letter.", task.getAttribute("id"), taskName));
-            }
-        }
+    private DiagramValidationResult validateSingleDiagram(Document doc, String diagramName, String diagramType) {
+        DiagramValidationResult result = new DiagramValidationResult();
+        result.setDiagramName(diagramName);
+        boolean overallValid = true;
 
-        // Example: Event names should follow a specific pattern (e.g., "Start <Action>")
-        NodeList events = doc.getElementsByTagName("bpmn:event"); // General event tag
-        for (int i = 0; i < events.getLength(); i++) {
-            Element event = (Element) events.item(i);
-            String eventName = event.getAttribute("name");
-            if (eventName != null && !eventName.isEmpty()) {
-                // Regex: Starts with "Start ", "End ", or "Intermediate " followed by any characters
-                Pattern pattern = Pattern.compile("^(Start|End|Intermediate) .*");
-                Matcher matcher = pattern.matcher(eventName);
-                if (!matcher.matches()) {
-                    result.addIssue(new ValidationIssue(IssueType.WARNING, "BPMN Event name '" + eventName + "' does not follow recommended pattern (e.g., 'Start <Action>').", event.getAttribute("id"), eventName));
-                }
-            }
+        // BPMN diagrams are handled by BpmnStreamValidator before a DOM is ever built
+        if (DMN.equals(diagramType)) {
+            overallValid &= metrics.timeCheck(DMN_VALIDATOR, "structure", () -> validateDmnStructuralIssues(doc, result));
+            overallValid &= metrics.timeCheck(DMN_VALIDATOR, "naming", () -> validateDmnNamingConventions(doc, result));
+            overallValid &= metrics.timeCheck(DMN_VALIDATOR, "documentation", () -> validateDmnDocumentation(doc, result));
+            // Add more DMN specific validations here
+        } else {
+            result.addIssue(new ValidationIssue(IssueType.ERROR, "Unsupported or unrecognized diagram type for file: " + diagramName));
+            overallValid = false;
         }
-        return valid;
+
+        result.setValid(overallValid && result.getIssues().stream().noneMatch(issue -> issue.getType() == IssueType.ERROR));
+        return result;
     }
 
     /**
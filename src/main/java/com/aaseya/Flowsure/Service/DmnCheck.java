@@ -0,0 +1,61 @@
+package com.aaseya.Flowsure.Service;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * A check run against every DMN file by {@link DmnValidationService}.
+ * <p>
+ * The built-in checks are registered by the service itself; further checks are picked up
+ * from the application context, so an in-house rule only needs to be declared as a Spring
+ * bean. Each check states the inputs it reads and the ids of the checks it depends on.
+ * Checks without a dependency between them may run concurrently on the same file, so
+ * implementations must be thread-safe and write only to their own {@link DmnCheckContext}.
+ */
+public interface DmnCheck {
+
+	/**
+	 * What a check reads. Checks that need the parsed model are skipped when the file does
+	 * not parse.
+	 */
+	enum Input {
+		/** The raw file content. */
+		SOURCE,
+		/** The parsed {@link com.aaseya.Flowsure.Model.DmnDefinitions}. */
+		MODEL,
+		/** The {@link DmnRuleIndex} of every decision table; implies {@link #MODEL}. */
+		RULE_INDEX
+	}
+
+	/**
+	 * Unique id, used for dependencies and as the {@code check} tag of the check timer.
+	 */
+	String getId();
+
+	/**
+	 * Names the analysis in issue messages, e.g. "rule overlap" in "Error during rule overlap
+	 * analysis for ...".
+	 */
+	default String getDescription() {
+		return getId();
+	}
+
+	default Set<Input> getInputs() {
+		return EnumSet.of(Input.MODEL);
+	}
+
+	/**
+	 * Ids of the checks that must pass before this one runs. A dependency passes if it
+	 * neither failed nor marked the file invalid; otherwise this check is skipped.
+	 */
+	default Set<String> getDependencies() {
+		return Set.of();
+	}
+
+	/**
+	 * Runs the check. Issues go to {@link DmnCheckContext#getIssues()}; marking
+	 * {@link DmnCheckContext#getResult()} invalid fails the file. Long loops should call
+	 * {@link ValidationBudget#checkpoint()}.
+	 */
+	void check(DmnCheckContext context) throws Exception;
+}
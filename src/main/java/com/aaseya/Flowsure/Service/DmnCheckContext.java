@@ -0,0 +1,91 @@
+package com.aaseya.Flowsure.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.aaseya.Flowsure.Model.DiagramValidationResult;
+import com.aaseya.Flowsure.Model.DmnDecisionTable;
+import com.aaseya.Flowsure.Model.DmnDefinitions;
+import com.aaseya.Flowsure.Model.ValidationIssue;
+
+/**
+ * What one {@link DmnCheck} sees of one file. Every check gets its own context, so
+ * checks running concurrently never share an issue list; {@link DmnCheckScheduler} merges
+ * the issues in check registration order once all checks are done.
+ */
+public final class DmnCheckContext {
+
+	private final String fileName;
+	private final byte[] source;
+	private final DmnDefinitions model;
+	private final Map<DmnDecisionTable, DmnRuleIndex> ruleIndexes;
+	private final FeelUnaryTestCompiler feelCompiler;
+	private final List<ValidationIssue> issues = new ArrayList<>();
+	private final DiagramValidationResult result;
+
+	DmnCheckContext(String fileName, byte[] source, DmnDefinitions model,
+			Map<DmnDecisionTable, DmnRuleIndex> ruleIndexes, FeelUnaryTestCompiler feelCompiler) {
+		this.fileName = fileName;
+		this.source = source;
+		this.model = model;
+		this.ruleIndexes = ruleIndexes;
+		this.feelCompiler = feelCompiler;
+		this.result = new DiagramValidationResult(fileName, true, issues);
+	}
+
+	public String getFileName() {
+		return fileName;
+	}
+
+	/**
+	 * The raw file content. Must not be modified.
+	 */
+	public byte[] getSource() {
+		return source;
+	}
+
+	/**
+	 * The parsed model; null unless the check declared {@link DmnCheck.Input#MODEL} or
+	 * {@link DmnCheck.Input#RULE_INDEX}.
+	 */
+	public DmnDefinitions getModel() {
+		return model;
+	}
+
+	/**
+	 * Rule indexes of all decision tables of the model. Shared by all checks of the file
+	 * and must not be modified.
+	 *
+	 * @throws IllegalStateException if the check did not declare {@link DmnCheck.Input#RULE_INDEX}.
+	 */
+	public Map<DmnDecisionTable, DmnRuleIndex> getRuleIndexes() {
+		if (ruleIndexes == null) {
+			throw new IllegalStateException("Rule indexes are only available to checks that declare RULE_INDEX");
+		}
+		return ruleIndexes;
+	}
+
+	public DmnRuleIndex getRuleIndex(DmnDecisionTable table) {
+		return getRuleIndexes().get(table);
+	}
+
+	/**
+	 * The compiler shared by all checks of the service, with its cache of compiled entries.
+	 */
+	public FeelUnaryTestCompiler getFeelCompiler() {
+		return feelCompiler;
+	}
+
+	public List<ValidationIssue> getIssues() {
+		return issues;
+	}
+
+	/**
+	 * This check's share of the file's result; its issue list is {@link #getIssues()}.
+	 * Setting it invalid fails the file and skips the checks depending on this one.
+	 */
+	public DiagramValidationResult getResult() {
+		return result;
+	}
+}
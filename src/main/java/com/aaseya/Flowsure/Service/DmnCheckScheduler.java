@@ -0,0 +1,304 @@
+package com.aaseya.Flowsure.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.aaseya.Flowsure.Model.DiagramValidationResult;
+import com.aaseya.Flowsure.Model.DmnDecisionTable;
+import com.aaseya.Flowsure.Model.DmnDefinitions;
+import com.aaseya.Flowsure.Model.ValidationIssue;
+
+/**
+ * Runs the {@link DmnCheck}s of one file in dependency order.
+ * <p>
+ * Each check starts as soon as its dependencies have passed and the inputs it declared
+ * are available, so independent checks run side by side on the check executor. Rule
+ * indexes are built once per file, one task per decision table, before the first check
+ * that declared {@link DmnCheck.Input#RULE_INDEX}. Files with fewer than
+ * {@code parallelMinRules} rules run all checks on the calling thread, where handing them
+ * to other threads would cost more than it saves; the pipeline already keeps the cores
+ * busy with other files then. Either way issues are reported in check registration order,
+ * so results do not depend on thread timing.
+ * <p>
+ * A check that fails, or marks the file invalid, skips only the checks that depend on it,
+ * directly or through other checks. Checks without such a dependency still run and report
+ * on an invalid file; before checks declared their dependencies, every check after the
+ * first failure was skipped. Once the file's time budget is exceeded, checks that have not
+ * started yet are skipped, and the budget is reported once for the file.
+ */
+public final class DmnCheckScheduler {
+
+	private static final Logger log = LoggerFactory.getLogger(DmnCheckScheduler.class);
+
+	private static final Executor CALLER = Runnable::run;
+	private static final String RULE_INDEX_CHECK = "rule-index";
+
+	private final List<DmnCheck> checks;
+	private final List<DmnCheck> executionOrder;
+	private final Executor executor;
+	private final int parallelMinRules;
+	private final FeelUnaryTestCompiler feelCompiler;
+	private final ValidationMetrics metrics;
+	private final String metricsValidator;
+	private final boolean ruleIndexesNeeded;
+
+	/**
+	 * @param checks The checks in registration order.
+	 * @throws IllegalStateException if check ids are not unique, or dependencies are unknown
+	 *                               or cyclic.
+	 */
+	DmnCheckScheduler(List<DmnCheck> checks, Executor executor, int parallelMinRules,
+			FeelUnaryTestCompiler feelCompiler, ValidationMetrics metrics, String metricsValidator) {
+		this.checks = List.copyOf(checks);
+		this.executionOrder = executionOrder(this.checks);
+		this.executor = executor;
+		this.parallelMinRules = parallelMinRules;
+		this.feelCompiler = feelCompiler;
+		this.metrics = metrics;
+		this.metricsValidator = metricsValidator;
+		this.ruleIndexesNeeded = this.checks.stream()
+				.anyMatch(check -> check.getInputs().contains(DmnCheck.Input.RULE_INDEX));
+	}
+
+	public List<DmnCheck> getChecks() {
+		return checks;
+	}
+
+	/**
+	 * Runs every check on the file and adds their issues to {@code issues}. The result is
+	 * marked invalid if any check failed or marked it invalid.
+	 *
+	 * @param model The parsed model, or null if the file did not parse.
+	 */
+	void run(String fileName, byte[] source, DmnDefinitions model, DiagramValidationResult result,
+			List<ValidationIssue> issues) {
+		Run run = new Run(fileName, source, model, ValidationBudget.current(),
+				model != null && ruleCount(model) >= parallelMinRules ? executor : CALLER);
+
+		CompletableFuture<Map<DmnDecisionTable, DmnRuleIndex>> ruleIndexes = model != null && ruleIndexesNeeded
+				? run.buildRuleIndexes()
+				: CompletableFuture.completedFuture(null);
+		Map<String, CompletableFuture<Outcome>> outcomes = new HashMap<>();
+		for (DmnCheck check : executionOrder) {
+			List<CompletableFuture<Outcome>> dependencies = new ArrayList<>();
+			for (String dependency : check.getDependencies()) {
+				dependencies.add(outcomes.get(dependency));
+			}
+			List<CompletableFuture<?>> prerequisites = new ArrayList<>(dependencies);
+			prerequisites.add(ruleIndexes);
+			CompletableFuture<Outcome> outcome = CompletableFuture
+					.allOf(prerequisites.toArray(CompletableFuture[]::new))
+					.thenApplyAsync(ignored -> {
+						for (CompletableFuture<Outcome> dependency : dependencies) {
+							if (!dependency.join().passed) {
+								return Outcome.SKIPPED;
+							}
+						}
+						return run.execute(check, ruleIndexes.join());
+					}, run.executor);
+			outcomes.put(check.getId(), outcome);
+		}
+
+		CompletableFuture.allOf(outcomes.values().toArray(CompletableFuture[]::new)).join();
+		for (DmnCheck check : checks) {
+			Outcome outcome = outcomes.get(check.getId()).join();
+			if (outcome.context != null) {
+				issues.addAll(outcome.context.getIssues());
+			}
+			if (!outcome.passed && outcome != Outcome.SKIPPED) {
+				result.setValid(false);
+			}
+		}
+		if (!run.runIssues.isEmpty()) {
+			issues.addAll(run.runIssues);
+			result.setValid(false);
+		}
+	}
+
+	private static int ruleCount(DmnDefinitions model) {
+		int rules = 0;
+		for (DmnDecisionTable table : model.getDecisionTables()) {
+			rules += table.getRules().size();
+		}
+		return rules;
+	}
+
+	/**
+	 * Orders the checks so that every check comes after its dependencies, keeping
+	 * registration order otherwise.
+	 */
+	private static List<DmnCheck> executionOrder(List<DmnCheck> checks) {
+		Map<String, DmnCheck> byId = new LinkedHashMap<>();
+		for (DmnCheck check : checks) {
+			if (byId.put(check.getId(), check) != null) {
+				throw new IllegalStateException("Duplicate DMN check id '" + check.getId() + "'");
+			}
+		}
+		for (DmnCheck check : checks) {
+			for (String dependency : check.getDependencies()) {
+				if (!byId.containsKey(dependency)) {
+					throw new IllegalStateException(
+							"DMN check '" + check.getId() + "' depends on unknown check '" + dependency + "'");
+				}
+			}
+		}
+		List<DmnCheck> order = new ArrayList<>(checks.size());
+		Set<String> placed = new HashSet<>();
+		while (order.size() < checks.size()) {
+			boolean progress = false;
+			for (DmnCheck check : checks) {
+				if (!placed.contains(check.getId()) && placed.containsAll(check.getDependencies())) {
+					order.add(check);
+					placed.add(check.getId());
+					progress = true;
+				}
+			}
+			if (!progress) {
+				List<String> cyclic = new ArrayList<>(byId.keySet());
+				cyclic.removeAll(placed);
+				throw new IllegalStateException("DMN checks have cyclic dependencies: " + cyclic);
+			}
+		}
+		return order;
+	}
+
+	private static Throwable unwrap(Throwable e) {
+		return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+	}
+
+	/**
+	 * The state of one file's checks.
+	 */
+	private final class Run {
+		private final String fileName;
+		private final byte[] source;
+		private final DmnDefinitions model;
+		private final ValidationBudget budget;
+		private final Executor executor;
+		private final List<ValidationIssue> runIssues = Collections.synchronizedList(new ArrayList<>());
+		private final AtomicBoolean budgetReported = new AtomicBoolean();
+
+		Run(String fileName, byte[] source, DmnDefinitions model, ValidationBudget budget, Executor executor) {
+			this.fileName = fileName;
+			this.source = source;
+			this.model = model;
+			this.budget = budget;
+			this.executor = executor;
+		}
+
+		/**
+		 * Builds the rule index of every table, one task per table. Completes with null if
+		 * any of them failed; the failure is reported once for the file.
+		 */
+		CompletableFuture<Map<DmnDecisionTable, DmnRuleIndex>> buildRuleIndexes() {
+			List<DmnDecisionTable> tables = model.getDecisionTables();
+			List<CompletableFuture<DmnRuleIndex>> builds = new ArrayList<>(tables.size());
+			for (DmnDecisionTable table : tables) {
+				builds.add(CompletableFuture.supplyAsync(() -> withBudget(() -> metrics.timeCheck(metricsValidator,
+						RULE_INDEX_CHECK, () -> DmnRuleIndex.build(table, feelCompiler))), executor));
+			}
+			return CompletableFuture.allOf(builds.toArray(CompletableFuture[]::new)).handle((ignored, e) -> {
+				if (e != null) {
+					reportFailure("rule index", unwrap(e), runIssues);
+					return null;
+				}
+				Map<DmnDecisionTable, DmnRuleIndex> indexes = new IdentityHashMap<>();
+				for (int i = 0; i < tables.size(); i++) {
+					indexes.put(tables.get(i), builds.get(i).join());
+				}
+				return indexes;
+			});
+		}
+
+		Outcome execute(DmnCheck check, Map<DmnDecisionTable, DmnRuleIndex> ruleIndexes) {
+			Set<DmnCheck.Input> inputs = check.getInputs();
+			boolean needsModel = inputs.contains(DmnCheck.Input.MODEL) || inputs.contains(DmnCheck.Input.RULE_INDEX);
+			if ((needsModel && model == null)
+					|| (inputs.contains(DmnCheck.Input.RULE_INDEX) && ruleIndexes == null)) {
+				return Outcome.SKIPPED;
+			}
+			if (budget != null && budget.isExceeded()) {
+				return Outcome.SKIPPED;
+			}
+			DmnCheckContext context = new DmnCheckContext(fileName, source, needsModel ? model : null,
+					inputs.contains(DmnCheck.Input.RULE_INDEX) ? ruleIndexes : null, feelCompiler);
+			try {
+				withBudget(() -> metrics.timeCheck(metricsValidator, check.getId(), () -> {
+					check.check(context);
+					return null;
+				}));
+			} catch (RuntimeException e) {
+				reportFailure(check.getDescription(), e, context.getIssues());
+				return new Outcome(context, false);
+			}
+			return new Outcome(context, context.getResult().isValid());
+		}
+
+		private <T> T withBudget(ThrowingSupplier<T> work) {
+			ValidationBudget previous = ValidationBudget.current();
+			ValidationBudget.resume(budget);
+			try {
+				return work.get();
+			} catch (RuntimeException e) {
+				throw e;
+			} catch (Exception e) {
+				throw new CompletionException(e);
+			} finally {
+				ValidationBudget.resume(previous);
+			}
+		}
+
+		/**
+		 * A check that ran out of time ends the file, and is reported once however many
+		 * concurrent checks notice it.
+		 */
+		private void reportFailure(String analysis, Throwable e, List<ValidationIssue> target) {
+			Throwable cause = unwrap(e);
+			if (cause instanceof ValidationBudget.ExceededException) {
+				if (budgetReported.compareAndSet(false, true)) {
+					runIssues.add(new ValidationIssue(ValidationIssue.IssueType.ERROR, String.format(
+							"%s during %s analysis for %s; the remaining checks were skipped and the results are partial.",
+							cause.getMessage(), analysis, fileName)));
+				}
+				return;
+			}
+			target.add(new ValidationIssue(ValidationIssue.IssueType.ERROR,
+					"Error during " + analysis + " analysis for " + fileName + ": " + cause.getMessage()));
+			log.error("Error during {} analysis for {}", analysis, fileName, cause);
+		}
+	}
+
+	@FunctionalInterface
+	private interface ThrowingSupplier<T> {
+		T get() throws Exception;
+	}
+
+	/**
+	 * How a check ended: skipped (no context), failed, or passed.
+	 */
+	private static final class Outcome {
+		static final Outcome SKIPPED = new Outcome(null, false);
+
+		final DmnCheckContext context;
+		final boolean passed;
+
+		Outcome(DmnCheckContext context, boolean passed) {
+			this.context = context;
+			this.passed = passed;
+		}
+	}
+}
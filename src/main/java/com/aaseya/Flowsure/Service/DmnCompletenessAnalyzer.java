@@ -0,0 +1,621 @@
+package com.aaseya.Flowsure.Service;
+
+import com.aaseya.Flowsure.Model.DmnClause;
+import com.aaseya.Flowsure.Model.DmnDecisionTable;
+import com.aaseya.Flowsure.Model.DmnRule;
+import com.aaseya.Flowsure.Service.FeelUnaryTest.Domain;
+import com.aaseya.Flowsure.Service.FeelUnaryTest.Interval;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+
+/**
+ * Finds input combinations that no rule of a decision table matches.
+ * <p>
+ * Every input column is partitioned into cells: the points and open intervals between all
+ * range endpoints used in the column for numbers and dates, one cell per literal plus
+ * "any other" for strings, and true/false for booleans. Each rule then covers a box of
+ * cells. The search walks the columns one at a time, sweeping the cells of the current
+ * column to split the remaining rules into groups that match exactly the same cells; a
+ * cell range no remaining rule covers is a gap. Only distinct rule groups are explored,
+ * subtrees whose rules include one matching anything in the remaining columns are
+ * skipped, and rule groups already proven complete are remembered, so large tables stay
+ * fast. The search stops after a fixed number of gaps or steps.
+ * <p>
+ * Opaque entries (anything the FEEL compiler cannot reduce) are assumed to match every
+ * cell, so they never cause a reported gap.
+ */
+public final class DmnCompletenessAnalyzer {
+
+	public static final int DEFAULT_MAX_GAPS = 10;
+	public static final int DEFAULT_MAX_STEPS = 100_000;
+
+	private final FeelUnaryTestCompiler compiler;
+	private final int maxGaps;
+	private final int maxSteps;
+
+	public DmnCompletenessAnalyzer(FeelUnaryTestCompiler compiler) {
+		this(compiler, DEFAULT_MAX_GAPS, DEFAULT_MAX_STEPS);
+	}
+
+	public DmnCompletenessAnalyzer(FeelUnaryTestCompiler compiler, int maxGaps, int maxSteps) {
+		this.compiler = compiler;
+		this.maxGaps = maxGaps;
+		this.maxSteps = maxSteps;
+	}
+
+	/**
+	 * An input combination no rule matches, one example value per column in table order;
+	 * {@code null} stands for any value.
+	 */
+	public static final class Gap {
+		private final List<String> example;
+
+		Gap(List<String> example) {
+			this.example = example;
+		}
+
+		public List<String> getExample() {
+			return example;
+		}
+	}
+
+	public static final class Report {
+		private final List<String> columnNames;
+		private final List<Gap> gaps;
+		private final boolean moreGaps;
+		private final boolean stepLimitReached;
+		private final int steps;
+
+		Report(List<String> columnNames, List<Gap> gaps, boolean moreGaps, boolean stepLimitReached, int steps) {
+			this.columnNames = columnNames;
+			this.gaps = gaps;
+			this.moreGaps = moreGaps;
+			this.stepLimitReached = stepLimitReached;
+			this.steps = steps;
+		}
+
+		public List<String> getColumnNames() {
+			return columnNames;
+		}
+
+		public List<Gap> getGaps() {
+			return gaps;
+		}
+
+		/** The gap limit was reached; further gaps were not listed. */
+		public boolean hasMoreGaps() {
+			return moreGaps;
+		}
+
+		/** The step limit was reached before the whole input space was explored. */
+		public boolean isStepLimitReached() {
+			return stepLimitReached;
+		}
+
+		/** The search steps taken, at most the step limit. */
+		public int getSteps() {
+			return steps;
+		}
+
+		/**
+		 * "Age = 17, Tier = any" for a gap.
+		 */
+		public String describe(Gap gap) {
+			StringBuilder text = new StringBuilder();
+			for (int c = 0; c < columnNames.size(); c++) {
+				if (c > 0) {
+					text.append(", ");
+				}
+				String value = gap.getExample().get(c);
+				text.append(columnNames.get(c)).append(" = ").append(value != null ? value : "any");
+			}
+			return text.toString();
+		}
+	}
+
+	public Report analyze(DmnDecisionTable table) {
+		List<DmnRule> rules = table.getRules();
+		int columnCount = table.getInputs().size();
+		for (DmnRule rule : rules) {
+			columnCount = Math.max(columnCount, rule.getInputEntries().size());
+		}
+		List<String> columnNames = new ArrayList<>(columnCount);
+		if (columnCount == 0) {
+			return new Report(columnNames, Collections.emptyList(), false, false, 0);
+		}
+
+		Column[] columns = new Column[columnCount];
+		for (int c = 0; c < columnCount; c++) {
+			DmnClause clause = c < table.getInputs().size() ? table.getInputs().get(c) : null;
+			columnNames.add(columnName(clause, c));
+			columns[c] = new Column(clause != null ? clause.getTypeRef() : null, compiledColumn(rules, c));
+		}
+
+		// Finest-grained columns first: they split the rules into the smallest groups, and
+		// a gap found early leaves the remaining columns as "any"
+		Integer[] order = new Integer[columnCount];
+		for (int c = 0; c < columnCount; c++) {
+			order[c] = c;
+		}
+		Arrays.sort(order, (a, b) -> Integer.compare(columns[b].cellCount, columns[a].cellCount));
+
+		Search search = new Search(columns, order, rules.size());
+		search.explore(0, search.allRules());
+		return new Report(columnNames, search.gaps, search.moreGaps, search.stepLimitReached, search.steps);
+	}
+
+	private List<FeelUnaryTest> compiledColumn(List<DmnRule> rules, int column) {
+		List<FeelUnaryTest> tests = new ArrayList<>(rules.size());
+		for (DmnRule rule : rules) {
+			List<String> entries = rule.getInputEntries();
+			// A missing entry is treated like a wildcard
+			tests.add(compiler.compile(column < entries.size() ? entries.get(column) : "-"));
+		}
+		return tests;
+	}
+
+	private static String columnName(DmnClause clause, int column) {
+		if (clause != null && clause.getLabel() != null && !clause.getLabel().isEmpty()) {
+			return clause.getLabel();
+		}
+		if (clause != null && clause.getId() != null && !clause.getId().isEmpty()) {
+			return clause.getId();
+		}
+		return "Input " + (column + 1);
+	}
+
+	private final class Search {
+		private final Column[] columns;
+		private final Integer[] order;
+		private final int[] restDepth; // [rule] depth from which the rule matches every remaining cell
+		private final long[] ruleHash; // [rule] random bits; a rule group's hash is the XOR over its rules
+		private final List<Set<GroupKey>> complete; // [depth] rule groups already proven gap-free
+		private final int[] chosenCells; // [column] example cell on the current path
+		private final List<Gap> gaps = new ArrayList<>();
+		private boolean moreGaps;
+		private boolean stepLimitReached;
+		private int steps;
+
+		// Sweep scratch: the rules covering the current cell as an indexed set. Sweeps do
+		// not nest, so one set is reused for the whole search.
+		private final int[] activeRules;
+		private final int[] activePosition;
+
+		Search(Column[] columns, Integer[] order, int ruleCount) {
+			this.columns = columns;
+			this.order = order;
+			this.chosenCells = new int[columns.length];
+			Arrays.fill(chosenCells, -1);
+			this.restDepth = new int[ruleCount];
+			this.ruleHash = new long[ruleCount];
+			this.activeRules = new int[ruleCount];
+			this.activePosition = new int[ruleCount];
+			SplittableRandom random = new SplittableRandom(ruleCount);
+			for (int r = 0; r < ruleCount; r++) {
+				int depth = columns.length;
+				while (depth > 0 && columns[order[depth - 1]].matchesAll.get(r)) {
+					depth--;
+				}
+				restDepth[r] = depth;
+				ruleHash[r] = random.nextLong();
+			}
+			this.complete = new ArrayList<>(columns.length);
+			for (int depth = 0; depth < columns.length; depth++) {
+				complete.add(new HashSet<>());
+			}
+		}
+
+		Group allRules() {
+			int[] rules = new int[ruleHash.length];
+			long hash = 0;
+			for (int r = 0; r < rules.length; r++) {
+				rules[r] = r;
+				hash ^= ruleHash[r];
+			}
+			return new Group(new GroupKey(hash, rules.length), rules, -1);
+		}
+
+		/**
+		 * Explores the cells of the columns from {@code depth} on that the group's rules
+		 * match on every earlier column. Returns true if no gap was found below.
+		 */
+		boolean explore(int depth, Group group) {
+			if (stopped()) {
+				return false;
+			}
+			if (depth == columns.length) {
+				return true;
+			}
+			for (int r : group.rules) {
+				if (restDepth[r] <= depth) {
+					return true; // this rule alone covers everything that is left
+				}
+			}
+			if (complete.get(depth).contains(group.key)) {
+				return true;
+			}
+			steps++;
+			ValidationBudget.checkpoint();
+
+			int c = order[depth];
+			List<Integer> uncovered = new ArrayList<>();
+			Collection<Group> groups = split(columns[c], group.rules, uncovered);
+			boolean gapFree = uncovered.isEmpty();
+			for (int cell : uncovered) {
+				if (stopped()) {
+					return false;
+				}
+				chosenCells[c] = cell;
+				recordGap();
+			}
+			for (Group next : groups) {
+				if (stopped()) {
+					return false;
+				}
+				chosenCells[c] = next.cell;
+				if (!explore(depth + 1, next)) {
+					gapFree = false;
+				}
+			}
+			chosenCells[c] = -1;
+			if (gapFree) {
+				complete.get(depth).add(group.key);
+			}
+			return gapFree;
+		}
+
+		/**
+		 * Sweeps the cells of the column and splits the rules by the cells they cover.
+		 * Each distinct non-empty set of covering rules becomes one group with an example
+		 * cell; every run of cells no rule covers adds one example cell to {@code uncovered}.
+		 */
+		private Collection<Group> split(Column column, int[] rules, List<Integer> uncovered) {
+			int eventCount = 0;
+			for (int r : rules) {
+				eventCount += column.coverage[r].length / 2;
+			}
+			long[] starts = new long[eventCount];
+			long[] ends = new long[eventCount];
+			int k = 0;
+			for (int r : rules) {
+				int[] ranges = column.coverage[r];
+				for (int i = 0; i < ranges.length; i += 2, k++) {
+					starts[k] = ((long) ranges[i] << 32) | r;
+					ends[k] = ((long) ranges[i + 1] << 32) | r;
+				}
+			}
+			Arrays.sort(starts);
+			Arrays.sort(ends);
+
+			Map<GroupKey, Group> groups = new LinkedHashMap<>();
+			int activeCount = 0;
+			long activeHash = 0;
+			int s = 0;
+			int e = 0;
+			int cell = 0;
+			while (cell < column.cellCount) {
+				while (e < eventCount && (int) (ends[e] >>> 32) == cell) {
+					int r = (int) ends[e++];
+					int last = activeRules[--activeCount];
+					activeRules[activePosition[r]] = last;
+					activePosition[last] = activePosition[r];
+					activeHash ^= ruleHash[r];
+				}
+				while (s < eventCount && (int) (starts[s] >>> 32) == cell) {
+					int r = (int) starts[s++];
+					activePosition[r] = activeCount;
+					activeRules[activeCount++] = r;
+					activeHash ^= ruleHash[r];
+				}
+				int next = column.cellCount;
+				if (s < eventCount) {
+					next = Math.min(next, (int) (starts[s] >>> 32));
+				}
+				if (e < eventCount) {
+					next = Math.min(next, (int) (ends[e] >>> 32));
+				}
+				for (int candidate = cell; candidate < next; candidate++) {
+					if (!column.isVoid(candidate)) {
+						if (activeCount == 0) {
+							uncovered.add(candidate);
+						} else {
+							GroupKey key = new GroupKey(activeHash, activeCount);
+							if (!groups.containsKey(key)) {
+								groups.put(key, new Group(key, Arrays.copyOf(activeRules, activeCount), candidate));
+							}
+						}
+						break;
+					}
+				}
+				cell = next;
+			}
+			return groups.values();
+		}
+
+		private boolean stopped() {
+			if (moreGaps || stepLimitReached) {
+				return true;
+			}
+			if (steps >= maxSteps) {
+				stepLimitReached = true;
+				return true;
+			}
+			return false;
+		}
+
+		private void recordGap() {
+			if (gaps.size() == maxGaps) {
+				moreGaps = true;
+				return;
+			}
+			List<String> example = new ArrayList<>(columns.length);
+			for (int c = 0; c < columns.length; c++) {
+				example.add(chosenCells[c] >= 0 ? columns[c].example(chosenCells[c]) : null);
+			}
+			gaps.add(new Gap(example));
+		}
+	}
+
+	/**
+	 * Identifies a rule group by the XOR of random per-rule bits plus its size, so groups
+	 * are compared without materializing them; with 64 random bits a collision between
+	 * two different groups is practically impossible.
+	 */
+	private static final class GroupKey {
+		private final long hash;
+		private final int size;
+
+		GroupKey(long hash, int size) {
+			this.hash = hash;
+			this.size = size;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof GroupKey)) {
+				return false;
+			}
+			GroupKey other = (GroupKey) o;
+			return hash == other.hash && size == other.size;
+		}
+
+		@Override
+		public int hashCode() {
+			return Long.hashCode(hash) * 31 + size;
+		}
+	}
+
+	/**
+	 * Rules that match the same cells on the path so far, with an example cell of the
+	 * column that produced the group.
+	 */
+	private static final class Group {
+		final GroupKey key;
+		final int[] rules;
+		final int cell;
+
+		Group(GroupKey key, int[] rules, int cell) {
+			this.key = key;
+			this.rules = rules;
+			this.cell = cell;
+		}
+	}
+
+	/**
+	 * One input column, partitioned into cells, with the cell ranges each rule covers.
+	 */
+	private static final class Column {
+		private final Domain domain; // null when the column cannot be partitioned
+		private final boolean discrete; // integers and dates: open cells without a whole value are void
+		private final double[] endpoints; // NUMBER and DATE
+		private final String[] literals; // STRING and BOOLEAN
+		private final int cellCount;
+		private final int[][] coverage; // [rule] flattened half-open cell ranges
+		private final BitSet matchesAll; // rules covering every cell
+
+		Column(String typeRef, List<FeelUnaryTest> tests) {
+			this.domain = columnDomain(typeRef, tests);
+			String type = typeRef != null ? typeRef.trim().toLowerCase() : "";
+			this.discrete = domain == Domain.DATE || type.equals("integer") || type.equals("long");
+
+			TreeSet<Double> points = new TreeSet<>();
+			TreeSet<String> values = new TreeSet<>();
+			for (FeelUnaryTest test : tests) {
+				if (test.getDomain() != domain) {
+					continue;
+				}
+				for (Interval interval : test.getIntervals()) {
+					if (!Double.isInfinite(interval.getLow())) {
+						points.add(interval.getLow());
+					}
+					if (!Double.isInfinite(interval.getHigh())) {
+						points.add(interval.getHigh());
+					}
+				}
+				values.addAll(test.getValues());
+			}
+			if (domain == Domain.BOOLEAN) {
+				values.addAll(FeelUnaryTest.BOOLEAN_VALUES);
+			}
+			this.endpoints = points.stream().mapToDouble(Double::doubleValue).toArray();
+			this.literals = values.toArray(new String[0]);
+			if (domain == Domain.NUMBER || domain == Domain.DATE) {
+				cellCount = 2 * endpoints.length + 1;
+			} else if (domain == Domain.STRING) {
+				cellCount = literals.length + 1; // last cell: any other string
+			} else if (domain == Domain.BOOLEAN) {
+				cellCount = literals.length;
+			} else {
+				cellCount = 1;
+			}
+
+			this.coverage = new int[tests.size()][];
+			this.matchesAll = new BitSet(tests.size());
+			for (int r = 0; r < tests.size(); r++) {
+				coverage[r] = cover(tests.get(r));
+				if (coverage[r].length == 2 && coverage[r][0] == 0 && coverage[r][1] == cellCount) {
+					matchesAll.set(r);
+				}
+			}
+		}
+
+		private static Domain columnDomain(String typeRef, List<FeelUnaryTest> tests) {
+			String type = typeRef != null ? typeRef.trim().toLowerCase() : "";
+			switch (type) {
+			case "number":
+			case "integer":
+			case "long":
+			case "double":
+				return Domain.NUMBER;
+			case "string":
+				return Domain.STRING;
+			case "boolean":
+				return Domain.BOOLEAN;
+			case "date":
+				return Domain.DATE;
+			default:
+				break;
+			}
+			// No usable typeRef: go with the domain most entries use
+			Map<Domain, Integer> counts = new EnumMap<>(Domain.class);
+			for (FeelUnaryTest test : tests) {
+				if (test.getDomain() != Domain.ANY && test.getDomain() != Domain.OPAQUE) {
+					counts.merge(test.getDomain(), 1, Integer::sum);
+				}
+			}
+			Domain best = null;
+			for (Map.Entry<Domain, Integer> count : counts.entrySet()) {
+				if (best == null || count.getValue() > counts.get(best)) {
+					best = count.getKey();
+				}
+			}
+			return best;
+		}
+
+		private int[] cover(FeelUnaryTest test) {
+			if (domain == null || test.isAny() || test.getDomain() == Domain.OPAQUE) {
+				return new int[] { 0, cellCount };
+			}
+			if (test.getDomain() != domain) {
+				return new int[0]; // e.g. a string entry in a number column never matches
+			}
+			if (domain == Domain.NUMBER || domain == Domain.DATE) {
+				int[] ranges = new int[test.getIntervals().size() * 2];
+				int k = 0;
+				for (Interval interval : test.getIntervals()) {
+					ranges[k++] = Double.isInfinite(interval.getLow()) ? 0
+							: 2 * indexOf(interval.getLow()) + (interval.isLowClosed() ? 1 : 2);
+					ranges[k++] = Double.isInfinite(interval.getHigh()) ? cellCount
+							: 2 * indexOf(interval.getHigh()) + (interval.isHighClosed() ? 2 : 1);
+				}
+				return ranges;
+			}
+			boolean[] covered = new boolean[cellCount];
+			for (String value : test.getValues()) {
+				covered[Arrays.binarySearch(literals, value)] = true;
+			}
+			if (test.isNegated()) {
+				for (int cell = 0; cell < cellCount; cell++) {
+					covered[cell] = !covered[cell];
+				}
+			}
+			int[] ranges = new int[cellCount * 2];
+			int k = 0;
+			for (int cell = 0; cell < cellCount; cell++) {
+				if (!covered[cell]) {
+					continue;
+				}
+				if (k > 0 && ranges[k - 1] == cell) {
+					ranges[k - 1] = cell + 1; // extend the previous run
+				} else {
+					ranges[k++] = cell;
+					ranges[k++] = cell + 1;
+				}
+			}
+			return Arrays.copyOf(ranges, k);
+		}
+
+		private int indexOf(double endpoint) {
+			return Arrays.binarySearch(endpoints, endpoint);
+		}
+
+		/**
+		 * Cells that contain no possible input, such as the open interval between two
+		 * consecutive dates.
+		 */
+		boolean isVoid(int cell) {
+			if (!discrete || (domain != Domain.NUMBER && domain != Domain.DATE)) {
+				return false;
+			}
+			if (cell % 2 == 1) {
+				double point = endpoints[cell / 2];
+				return point != Math.floor(point);
+			}
+			int right = cell / 2;
+			if (right == 0 || right == endpoints.length) {
+				return false;
+			}
+			return Math.floor(endpoints[right - 1]) + 1 >= endpoints[right];
+		}
+
+		String example(int cell) {
+			if (domain == null) {
+				return null;
+			}
+			switch (domain) {
+			case STRING:
+				return cell < literals.length ? "\"" + literals[cell] + "\"" : "any other string";
+			case BOOLEAN:
+				return literals[cell];
+			case NUMBER:
+			case DATE:
+				return format(exampleValue(cell));
+			default:
+				return null;
+			}
+		}
+
+		private double exampleValue(int cell) {
+			if (cell % 2 == 1) {
+				return endpoints[cell / 2];
+			}
+			int right = cell / 2;
+			if (endpoints.length == 0) {
+				return 0;
+			}
+			if (right == 0) {
+				return discrete ? Math.ceil(endpoints[0]) - 1 : endpoints[0] - 1;
+			}
+			double low = endpoints[right - 1];
+			if (right == endpoints.length) {
+				return Math.floor(low) + 1;
+			}
+			double high = endpoints[right];
+			double next = Math.floor(low) + 1;
+			return next < high ? next : (low + high) / 2;
+		}
+
+		private String format(double value) {
+			if (domain == Domain.DATE) {
+				return "date(\"" + LocalDate.ofEpochDay((long) value) + "\")";
+			}
+			if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+				return Long.toString((long) value);
+			}
+			return Double.toString(value);
+		}
+	}
+}
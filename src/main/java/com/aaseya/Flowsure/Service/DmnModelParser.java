@@ -0,0 +1,342 @@
+package com.aaseya.Flowsure.Service;
+
+import com.aaseya.Flowsure.Model.DmnClause;
+import com.aaseya.Flowsure.Model.DmnDecisionTable;
+import com.aaseya.Flowsure.Model.DmnDefinitions;
+import com.aaseya.Flowsure.Model.DmnElement;
+import com.aaseya.Flowsure.Model.DmnRequirement;
+import com.aaseya.Flowsure.Model.DmnRule;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Builds a {@link DmnDefinitions} model from DMN XML in a single streaming pass.
+ * Elements are matched by local name, so prefixed and default-namespace files are
+ * read the same way. An element's description is the text of the first
+ * {@code description} found inside it at any depth. Malformed XML surfaces as an
+ * {@link XMLStreamException}.
+ */
+public class DmnModelParser {
+
+	private final XMLInputFactory inputFactory;
+
+	public DmnModelParser() {
+		this.inputFactory = XMLInputFactory.newInstance();
+		this.inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		this.inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		this.inputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+	}
+
+	public DmnDefinitions parse(byte[] dmnBytes) throws XMLStreamException {
+		return parse(dmnBytes, true);
+	}
+
+	/**
+	 * Reads only what the requirements graph needs: the definitions and the DRG elements with
+	 * their requirements. Decision tables are skipped, so no rules or entries are built.
+	 */
+	public DmnDefinitions parseRequirements(byte[] dmnBytes) throws XMLStreamException {
+		return parse(dmnBytes, false);
+	}
+
+	private DmnDefinitions parse(byte[] dmnBytes, boolean withTables) throws XMLStreamException {
+		XMLStreamReader reader = inputFactory.createXMLStreamReader(new ByteArrayInputStream(dmnBytes));
+		try {
+			return read(reader, withTables);
+		} finally {
+			reader.close();
+		}
+	}
+
+	private DmnDefinitions read(XMLStreamReader reader, boolean withTables) throws XMLStreamException {
+		String definitionsId = null;
+		String definitionsName = null;
+		String namespace = null;
+		List<DmnElement> elements = new ArrayList<>();
+		List<DmnElement> supportingElements = new ArrayList<>();
+		List<DmnDecisionTable> tables = new ArrayList<>();
+
+		// Open DRG elements, innermost first
+		Deque<ElementBuilder> openElements = new ArrayDeque<>();
+		TableBuilder table = null;
+		RuleBuilder rule = null;
+		List<String> currentEntries = null; // input or output entries of the current rule
+		int entryTextIndex = -1; // index in currentEntries awaiting its <text>
+		int depth = 0;
+
+		while (reader.hasNext()) {
+			int event = reader.next();
+			if (event == XMLStreamConstants.END_ELEMENT) {
+				String localName = reader.getLocalName();
+				if (!openElements.isEmpty() && openElements.peek().requirementDepth == depth) {
+					openElements.peek().requirementType = null;
+					openElements.peek().requirementDepth = -1;
+				}
+				if (!openElements.isEmpty() && openElements.peek().depth == depth) {
+					ElementBuilder done = openElements.pop();
+					(done.supporting ? supportingElements : elements).set(done.position, done.build());
+				}
+				if (table != null) {
+					if ("decisionTable".equals(localName) && table.depth == depth) {
+						tables.add(table.build());
+						table = null;
+					} else if ("rule".equals(localName) && rule != null) {
+						table.rules.add(rule.build());
+						rule = null;
+					} else if ("inputEntry".equals(localName) || "outputEntry".equals(localName)) {
+						currentEntries = null;
+						entryTextIndex = -1;
+					}
+				}
+				depth--;
+				continue;
+			}
+			if (event != XMLStreamConstants.START_ELEMENT) {
+				continue;
+			}
+			depth++;
+			String localName = reader.getLocalName();
+
+			if (depth == 1 && "definitions".equals(localName)) {
+				definitionsId = attribute(reader, "id");
+				definitionsName = attribute(reader, "name");
+				namespace = attribute(reader, "namespace");
+				continue;
+			}
+
+			switch (localName) {
+			case "decision":
+			case "inputData":
+			case "businessKnowledgeModel":
+				ElementBuilder element = new ElementBuilder(localName, attribute(reader, "id"),
+						attribute(reader, "name"), depth, elements.size(), false);
+				elements.add(null); // placeholder keeps document order; filled in on END_ELEMENT
+				openElements.push(element);
+				break;
+			case "decisionService":
+			case "knowledgeSource":
+				ElementBuilder supporting = new ElementBuilder(localName, attribute(reader, "id"),
+						attribute(reader, "name"), depth, supportingElements.size(), true);
+				supportingElements.add(null);
+				openElements.push(supporting);
+				break;
+			case "informationRequirement":
+			case "knowledgeRequirement":
+			case "authorityRequirement":
+				ElementBuilder requirer = openElements.peek();
+				if (requirer != null && requirer.depth == depth - 1) {
+					requirer.requirementType = localName;
+					requirer.requirementDepth = depth;
+				}
+				break;
+			case "requiredDecision":
+			case "requiredInput":
+			case "requiredKnowledge":
+			case "requiredAuthority":
+				ElementBuilder required = openElements.peek();
+				if (required != null && required.requirementType != null && required.requirementDepth == depth - 1) {
+					required.requirements.add(
+							new DmnRequirement(required.requirementType, localName, attribute(reader, "href")));
+				}
+				break;
+			case "description":
+				// Like the DOM lookup this replaces, the first description anywhere inside an
+				// element counts, not only a direct child
+				if (needsDescription(openElements)) {
+					String description = readText(reader);
+					depth--; // readText consumed the matching END_ELEMENT
+					for (ElementBuilder open : openElements) {
+						if (open.description == null) {
+							open.description = description;
+						}
+					}
+				}
+				break;
+			case "decisionTable":
+				if (withTables && table == null) {
+					table = new TableBuilder(attribute(reader, "id"), attribute(reader, "hitPolicy"), depth);
+				}
+				break;
+			case "input":
+				if (table != null && depth == table.depth + 1) {
+					table.inputs.add(new ClauseBuilder(attribute(reader, "id"), attribute(reader, "label"), ""));
+				}
+				break;
+			case "inputExpression":
+				if (table != null && !table.inputs.isEmpty() && depth == table.depth + 2) {
+					table.inputs.get(table.inputs.size() - 1).typeRef = attribute(reader, "typeRef");
+				}
+				break;
+			case "output":
+				if (table != null && depth == table.depth + 1) {
+					table.outputs.add(new ClauseBuilder(attribute(reader, "id"), attribute(reader, "name"),
+							attribute(reader, "typeRef")));
+				}
+				break;
+			case "rule":
+				if (table != null && rule == null) {
+					rule = new RuleBuilder(attribute(reader, "id"), table.rules.size());
+				}
+				break;
+			case "inputEntry":
+			case "outputEntry":
+				if (rule != null) {
+					currentEntries = "inputEntry".equals(localName) ? rule.inputEntries : rule.outputEntries;
+					currentEntries.add("");
+					entryTextIndex = currentEntries.size() - 1;
+				}
+				break;
+			case "text":
+				if (currentEntries != null && entryTextIndex >= 0) {
+					currentEntries.set(entryTextIndex, readText(reader));
+					entryTextIndex = -1; // only the first <text> of an entry counts
+					depth--;
+				}
+				break;
+			default:
+				break;
+			}
+		}
+		return new DmnDefinitions(definitionsId, definitionsName, namespace, elements, supportingElements, tables);
+	}
+
+	/**
+	 * Reads all character data up to the end of the current element, including text of
+	 * nested elements, and leaves the reader on the matching END_ELEMENT.
+	 */
+	private static String readText(XMLStreamReader reader) throws XMLStreamException {
+		StringBuilder text = new StringBuilder();
+		int nested = 0;
+		while (reader.hasNext()) {
+			int event = reader.next();
+			switch (event) {
+			case XMLStreamConstants.CHARACTERS:
+			case XMLStreamConstants.CDATA:
+			case XMLStreamConstants.SPACE:
+			case XMLStreamConstants.ENTITY_REFERENCE:
+				text.append(reader.getText());
+				break;
+			case XMLStreamConstants.START_ELEMENT:
+				nested++;
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+				if (nested == 0) {
+					return text.toString();
+				}
+				nested--;
+				break;
+			default:
+				break;
+			}
+		}
+		return text.toString();
+	}
+
+	private static boolean needsDescription(Deque<ElementBuilder> openElements) {
+		for (ElementBuilder open : openElements) {
+			if (open.description == null) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static String attribute(XMLStreamReader reader, String localName) {
+		String value = reader.getAttributeValue(null, localName);
+		return value != null ? value : "";
+	}
+
+	private static class ElementBuilder {
+		final String kind;
+		final String id;
+		final String name;
+		final int depth;
+		final int position;
+		final boolean supporting;
+		final List<DmnRequirement> requirements = new ArrayList<>();
+		String description;
+		String requirementType; // the open requirement element, if any
+		int requirementDepth = -1;
+
+		ElementBuilder(String kind, String id, String name, int depth, int position, boolean supporting) {
+			this.kind = kind;
+			this.id = id;
+			this.name = name;
+			this.depth = depth;
+			this.position = position;
+			this.supporting = supporting;
+		}
+
+		DmnElement build() {
+			return new DmnElement(kind, id, name, description, requirements);
+		}
+	}
+
+	private static class ClauseBuilder {
+		final String id;
+		final String label;
+		String typeRef;
+
+		ClauseBuilder(String id, String label, String typeRef) {
+			this.id = id;
+			this.label = label;
+			this.typeRef = typeRef;
+		}
+
+		DmnClause build() {
+			return new DmnClause(id, label, typeRef);
+		}
+	}
+
+	private static class RuleBuilder {
+		final String id;
+		final int index;
+		final List<String> inputEntries = new ArrayList<>();
+		final List<String> outputEntries = new ArrayList<>();
+
+		RuleBuilder(String id, int index) {
+			this.id = id;
+			this.index = index;
+		}
+
+		DmnRule build() {
+			return new DmnRule(id, index, inputEntries, outputEntries);
+		}
+	}
+
+	private static class TableBuilder {
+		final String id;
+		final String hitPolicy;
+		final int depth;
+		final List<ClauseBuilder> inputs = new ArrayList<>();
+		final List<ClauseBuilder> outputs = new ArrayList<>();
+		final List<DmnRule> rules = new ArrayList<>();
+
+		TableBuilder(String id, String hitPolicy, int depth) {
+			this.id = id;
+			this.hitPolicy = hitPolicy;
+			this.depth = depth;
+		}
+
+		DmnDecisionTable build() {
+			List<DmnClause> inputClauses = new ArrayList<>(inputs.size());
+			for (ClauseBuilder input : inputs) {
+				inputClauses.add(input.build());
+			}
+			List<DmnClause> outputClauses = new ArrayList<>(outputs.size());
+			for (ClauseBuilder output : outputs) {
+				outputClauses.add(output.build());
+			}
+			return new DmnDecisionTable(id, hitPolicy, inputClauses, outputClauses, rules);
+		}
+	}
+}
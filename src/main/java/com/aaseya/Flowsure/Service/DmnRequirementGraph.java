@@ -0,0 +1,269 @@
+package com.aaseya.Flowsure.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.aaseya.Flowsure.Model.DiagramValidationResult;
+import com.aaseya.Flowsure.Model.DmnDefinitions;
+import com.aaseya.Flowsure.Model.DmnElement;
+import com.aaseya.Flowsure.Model.DmnRequirement;
+import com.aaseya.Flowsure.Model.ValidationIssue;
+
+/**
+ * The decision requirements graph (DRG) of a whole archive.
+ * <p>
+ * Every DMN file contributes its decisions, inputData, business knowledge models, decision
+ * services and knowledge sources, keyed by {@code namespace#id}, so a requirement href is
+ * resolved with one hash lookup whichever file defines its target. Once all files are in,
+ * {@link #analyze()} reports elements defined twice, requirements that resolve to nothing or
+ * to the wrong kind of element, and cycles among information and knowledge requirements.
+ * Cycles are found with Tarjan's algorithm over the resolved requirements (see
+ * {@link CsrGraph}), so the analysis is linear in elements plus requirements and never
+ * compares files pairwise.
+ * <p>
+ * Files are added from the worker threads that validate them; {@link #track} moves them
+ * into archive order as their results arrive, so issues come out the same on every run.
+ */
+public final class DmnRequirementGraph {
+
+	/**
+	 * Name of the archive-level result produced by {@link #analyze()}.
+	 */
+	public static final String RESULT_NAME = "Decision Requirements Graph";
+
+	private static final int MAX_CYCLE_MEMBERS_LISTED = 10;
+
+	private static final Map<String, Set<String>> TARGET_KINDS = Map.of(
+			"requiredDecision", Set.of("decision"),
+			"requiredInput", Set.of("inputData"),
+			"requiredKnowledge", Set.of("businessKnowledgeModel", "decisionService"),
+			"requiredAuthority", Set.of("knowledgeSource"));
+
+	private final Map<String, Fragment> added = new ConcurrentHashMap<>();
+	private final List<Fragment> fragments = new ArrayList<>();
+	private int unreadFiles;
+	private boolean stoppedEarly;
+
+	/**
+	 * Adds the elements of a parsed file. May be called from any thread; the file joins the
+	 * graph once its result passes the listener returned by {@link #track}.
+	 */
+	public void add(String fileName, DmnDefinitions model) {
+		List<DmnElement> elements = new ArrayList<>(model.getElements().size() + model.getSupportingElements().size());
+		elements.addAll(model.getElements());
+		elements.addAll(model.getSupportingElements());
+		// Only the DRG elements are kept, not the decision tables
+		added.put(fileName, new Fragment(fileName, model.getNamespace(), elements));
+	}
+
+	public boolean contains(String fileName) {
+		return added.containsKey(fileName);
+	}
+
+	/**
+	 * Wraps the listener of a validation run. Files join the graph in the order their results
+	 * arrive. DMN files that did not parse and limits that stopped the run early are noted, so
+	 * unresolved references are then reported as warnings instead of errors.
+	 */
+	public ValidationResultListener track(ValidationResultListener listener) {
+		return new ValidationResultListener() {
+			@Override
+			public void onResult(DiagramValidationResult result) throws IOException {
+				String name = result.getDiagramName();
+				Fragment fragment = name != null ? added.remove(name) : null;
+				if (fragment != null) {
+					fragments.add(fragment);
+				} else if (ArchiveValidationPipeline.ARCHIVE_RESULT_NAME.equals(name)
+						|| ArchiveValidationPipeline.FILES_RESULT_NAME.equals(name)) {
+					stoppedEarly = true;
+				} else if (name != null && DmnValidationService.isDmnEntry(name)) {
+					unreadFiles++;
+				}
+				listener.onResult(result);
+			}
+
+			@Override
+			public void onArchiveOpened(int entryCount) throws IOException {
+				listener.onArchiveOpened(entryCount);
+			}
+		};
+	}
+
+	/**
+	 * Hands the result of {@link #analyze()} to the listener, if there is one.
+	 */
+	public void report(ValidationResultListener listener) throws IOException {
+		DiagramValidationResult result = analyze();
+		if (result != null) {
+			listener.onResult(result);
+		}
+	}
+
+	/**
+	 * Resolves every requirement of the tracked files and looks for cycles.
+	 *
+	 * @return the archive-level result, or null if the graph has nothing to report.
+	 */
+	public DiagramValidationResult analyze() {
+		List<ValidationIssue> issues = new ArrayList<>();
+
+		// Index every element by namespace and id; the first definition wins
+		Map<String, Integer> byKey = new HashMap<>();
+		Set<String> namespaces = new HashSet<>();
+		List<Node> nodes = new ArrayList<>();
+		for (Fragment fragment : fragments) {
+			namespaces.add(fragment.namespace);
+			for (DmnElement element : fragment.elements) {
+				if (element.getId().isEmpty()) {
+					continue;
+				}
+				Integer previous = byKey.putIfAbsent(key(fragment.namespace, element.getId()), nodes.size());
+				if (previous != null) {
+					Node first = nodes.get(previous);
+					issues.add(new ValidationIssue(ValidationIssue.IssueType.ERROR, String.format(
+							"%s is defined again in file '%s' with the same ID and namespace; requirements on it are ambiguous.",
+							first.describe(), fragment.fileName)));
+					continue;
+				}
+				nodes.add(new Node(fragment, element));
+			}
+		}
+
+		// Resolve requirements into adjacency arrays. Authority requirements only record where
+		// knowledge comes from, so they are left out of cycle detection.
+		boolean incomplete = stoppedEarly || unreadFiles > 0;
+		int unresolved = 0;
+		CsrGraph.Builder edges = new CsrGraph.Builder(nodes.size());
+		for (int i = 0; i < nodes.size(); i++) {
+			Node node = nodes.get(i);
+			for (DmnRequirement requirement : node.element.getRequirements()) {
+				String href = requirement.getHref();
+				int hash = href.indexOf('#');
+				String namespace = hash > 0 ? href.substring(0, hash) : node.fragment.namespace;
+				String id = href.substring(hash + 1);
+				Integer target = id.isEmpty() ? null : byKey.get(key(namespace, id));
+				if (target == null) {
+					unresolved++;
+					String where = hash > 0 && !namespaces.contains(namespace)
+							? "no DMN file in the archive has namespace '" + namespace + "'"
+							: "no DMN file in the archive defines it";
+					issues.add(new ValidationIssue(
+							incomplete ? ValidationIssue.IssueType.WARNING : ValidationIssue.IssueType.ERROR,
+							String.format("%s has a %s reference to '%s', but %s.", node.describe(),
+									requirement.getKind(), href, where)));
+					continue;
+				}
+				Node targetNode = nodes.get(target);
+				Set<String> kinds = TARGET_KINDS.get(requirement.getKind());
+				if (kinds != null && !kinds.contains(targetNode.element.getKind())) {
+					issues.add(new ValidationIssue(ValidationIssue.IssueType.ERROR,
+							String.format("%s has a %s reference to '%s', which is %s.", node.describe(),
+									requirement.getKind(), href, targetNode.describe())));
+					continue;
+				}
+				if (!"authorityRequirement".equals(requirement.getType())) {
+					edges.addEdge(i, target);
+				}
+			}
+		}
+		if (unresolved > 0 && incomplete) {
+			issues.add(new ValidationIssue(ValidationIssue.IssueType.INFO, String.format(
+					"%d requirements could not be resolved, but not every DMN file of the archive was read, so their targets may exist.",
+					unresolved)));
+		}
+
+		for (int[] cycle : cycles(edges.build())) {
+			issues.add(new ValidationIssue(ValidationIssue.IssueType.ERROR, describeCycle(nodes, cycle)));
+		}
+
+		if (issues.isEmpty()) {
+			return null;
+		}
+		boolean valid = issues.stream().noneMatch(issue -> issue.getType() == ValidationIssue.IssueType.ERROR);
+		return new DiagramValidationResult(RESULT_NAME, valid, issues);
+	}
+
+	/**
+	 * Strongly connected components with more than one node, or with a node requiring itself,
+	 * each sorted and ordered by their first node.
+	 */
+	private static List<int[]> cycles(CsrGraph graph) {
+		int[] component = graph.stronglyConnectedComponents();
+		int[] sizes = new int[graph.nodeCount()];
+		for (int node = 0; node < graph.nodeCount(); node++) {
+			sizes[component[node]]++;
+		}
+		// Nodes are visited in order, so every cycle is filled in sorted and found by its first node
+		int[][] members = new int[graph.nodeCount()][];
+		int[] filled = new int[graph.nodeCount()];
+		List<int[]> cycles = new ArrayList<>();
+		for (int node = 0; node < graph.nodeCount(); node++) {
+			int c = component[node];
+			if (sizes[c] == 1 && !graph.hasEdge(node, node)) {
+				continue;
+			}
+			if (members[c] == null) {
+				members[c] = new int[sizes[c]];
+				cycles.add(members[c]);
+			}
+			members[c][filled[c]++] = node;
+		}
+		return cycles;
+	}
+
+	private static String describeCycle(List<Node> nodes, int[] cycle) {
+		if (cycle.length == 1) {
+			return nodes.get(cycle[0]).describe() + " requires itself; DMN requirements must not form cycles.";
+		}
+		StringBuilder members = new StringBuilder();
+		for (int i = 0; i < cycle.length && i < MAX_CYCLE_MEMBERS_LISTED; i++) {
+			if (i > 0) {
+				members.append(", ");
+			}
+			members.append(nodes.get(cycle[i]).describe());
+		}
+		if (cycle.length > MAX_CYCLE_MEMBERS_LISTED) {
+			members.append(" and ").append(cycle.length - MAX_CYCLE_MEMBERS_LISTED).append(" more");
+		}
+		return String.format("Requirements form a cycle among %d elements: %s. DMN requirements must not form cycles.",
+				cycle.length, members);
+	}
+
+	private static String key(String namespace, String id) {
+		return namespace + "#" + id;
+	}
+
+	private static final class Fragment {
+		final String fileName;
+		final String namespace;
+		final List<DmnElement> elements;
+
+		Fragment(String fileName, String namespace, List<DmnElement> elements) {
+			this.fileName = fileName;
+			this.namespace = namespace;
+			this.elements = elements;
+		}
+	}
+
+	private static final class Node {
+		final Fragment fragment;
+		final DmnElement element;
+
+		Node(Fragment fragment, DmnElement element) {
+			this.fragment = fragment;
+			this.element = element;
+		}
+
+		String describe() {
+			String name = element.getName().isEmpty() ? element.getId() : element.getName();
+			return String.format("DMN %s '%s' (ID: %s, file: %s)", element.getKind(), name, element.getId(),
+					fragment.fileName);
+		}
+	}
+}
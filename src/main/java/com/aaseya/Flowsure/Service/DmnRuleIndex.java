@@ -0,0 +1,435 @@
+package com.aaseya.Flowsure.Service;
+
+import com.aaseya.Flowsure.Model.DmnDecisionTable;
+import com.aaseya.Flowsure.Model.DmnRule;
+import com.aaseya.Flowsure.Service.FeelUnaryTest.Domain;
+import com.aaseya.Flowsure.Service.FeelUnaryTest.Interval;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-table inverted index over compiled rule input entries. For every column it keeps
+ * the rules per distinct entry, a bitset of wildcard rules, and for every entry the list
+ * of entries it can match a common input with (found by an interval sweep for numbers and
+ * dates, and by shared values for strings and booleans). The rules that may overlap a
+ * given rule are then collected from its most selective column and verified against the
+ * remaining columns, instead of comparing it against every other rule.
+ * <p>
+ * Overlapping pairs are not stored: a wildcard-heavy table has on the order of the square
+ * of its rule count, far more than fits in memory. Each check walks them again instead, one
+ * bitset row per rule, so a walk holds a single row at a time, and checks that only count
+ * pairs can do so a row at a time with {@link BitSet#cardinality()}.
+ */
+public final class DmnRuleIndex {
+
+	/**
+	 * Receives overlapping rule pairs as 0-based rule indexes, first &lt; second.
+	 */
+	@FunctionalInterface
+	public interface OverlapConsumer {
+		void accept(int first, int second);
+	}
+
+	/**
+	 * Receives, for one rule, every later rule that may overlap it.
+	 */
+	@FunctionalInterface
+	public interface OverlapRowConsumer {
+		/**
+		 * @param seconds 0-based indexes of rules after {@code first}, never empty. The set is
+		 *                reused for the next row, so the consumer may modify it but must not
+		 *                keep it.
+		 */
+		void accept(int first, BitSet seconds);
+	}
+
+	private static final int WILDCARD = -1;
+	// Beyond this many compatible entry pairs a column is checked test by test instead
+	private static final long MAX_COMPATIBLE_PAIRS_PER_COLUMN = 4_000_000L;
+
+	private final int ruleCount;
+	private final int[][] valueIds; // [rule][column], WILDCARD for "-", empty or match-all entries
+	private final FeelUnaryTest[][] tests; // [column][valueId]
+	private final int[][][] rulesOfValue; // [column][valueId] ascending rule indexes
+	private final int[][][] compatible; // [column][valueId] ascending valueIds, null if the column is too dense
+	private final BitSet[] wildcards; // [column]
+	private final int[][] matchCounts; // [column][valueId] rules possibly matching with the value, wildcards included
+	private final Map<Integer, BitSet> rulesByArity; // pairs only overlap within the same column count
+	private final BitSet matchingNothing; // rules with an entry such as [10..1], which overlap no rule
+
+	private DmnRuleIndex(int ruleCount, int[][] valueIds, FeelUnaryTest[][] tests, int[][][] rulesOfValue,
+			BitSet[] wildcards, Map<Integer, BitSet> rulesByArity, BitSet matchingNothing) {
+		this.ruleCount = ruleCount;
+		this.valueIds = valueIds;
+		this.tests = tests;
+		this.rulesOfValue = rulesOfValue;
+		this.wildcards = wildcards;
+		this.rulesByArity = rulesByArity;
+		this.matchingNothing = matchingNothing;
+		this.compatible = new int[tests.length][][];
+		this.matchCounts = new int[tests.length][];
+		for (int c = 0; c < tests.length; c++) {
+			compatible[c] = compatibleValues(tests[c]);
+			int wildcardCount = wildcards[c].cardinality();
+			matchCounts[c] = new int[tests[c].length];
+			for (int v = 0; v < tests[c].length; v++) {
+				if (compatible[c] == null) {
+					matchCounts[c][v] = ruleCount;
+					continue;
+				}
+				int count = wildcardCount;
+				for (int other : compatible[c][v]) {
+					count += rulesOfValue[c][other].length;
+				}
+				matchCounts[c][v] = count;
+			}
+		}
+	}
+
+	public static DmnRuleIndex build(DmnDecisionTable table, FeelUnaryTestCompiler compiler) {
+		List<DmnRule> rules = table.getRules();
+		int columnCount = 0;
+		for (DmnRule rule : rules) {
+			columnCount = Math.max(columnCount, rule.getInputEntries().size());
+		}
+
+		List<Map<String, Integer>> dictionaries = new ArrayList<>(columnCount);
+		List<List<FeelUnaryTest>> columnTests = new ArrayList<>(columnCount);
+		List<List<IntList>> columnRules = new ArrayList<>(columnCount);
+		BitSet[] wildcards = new BitSet[columnCount];
+		for (int c = 0; c < columnCount; c++) {
+			dictionaries.add(new HashMap<>());
+			columnTests.add(new ArrayList<>());
+			columnRules.add(new ArrayList<>());
+			wildcards[c] = new BitSet(rules.size());
+		}
+
+		int[][] valueIds = new int[rules.size()][];
+		Map<Integer, BitSet> rulesByArity = new HashMap<>();
+		BitSet matchingNothing = new BitSet(rules.size());
+		for (int r = 0; r < rules.size(); r++) {
+			ValidationBudget.checkpoint();
+			List<String> entries = rules.get(r).getInputEntries();
+			rulesByArity.computeIfAbsent(entries.size(), size -> new BitSet(rules.size())).set(r);
+			int[] ids = new int[entries.size()];
+			for (int c = 0; c < entries.size(); c++) {
+				FeelUnaryTest test = compiler.compile(entries.get(c));
+				if (test.isAny()) {
+					ids[c] = WILDCARD;
+					wildcards[c].set(r);
+					continue;
+				}
+				if (test.isEmpty()) {
+					matchingNothing.set(r);
+				}
+				List<FeelUnaryTest> testsOfColumn = columnTests.get(c);
+				List<IntList> rulesOfColumn = columnRules.get(c);
+				Integer id = dictionaries.get(c).computeIfAbsent(test.getText(), key -> {
+					testsOfColumn.add(test);
+					rulesOfColumn.add(new IntList());
+					return testsOfColumn.size() - 1;
+				});
+				ids[c] = id;
+				rulesOfColumn.get(id).add(r);
+			}
+			valueIds[r] = ids;
+		}
+
+		FeelUnaryTest[][] tests = new FeelUnaryTest[columnCount][];
+		int[][][] rulesOfValue = new int[columnCount][][];
+		for (int c = 0; c < columnCount; c++) {
+			tests[c] = columnTests.get(c).toArray(new FeelUnaryTest[0]);
+			List<IntList> rulesOfColumn = columnRules.get(c);
+			rulesOfValue[c] = new int[rulesOfColumn.size()][];
+			for (int v = 0; v < rulesOfColumn.size(); v++) {
+				rulesOfValue[c][v] = rulesOfColumn.get(v).toArray();
+			}
+		}
+		return new DmnRuleIndex(rules.size(), valueIds, tests, rulesOfValue, wildcards, rulesByArity, matchingNothing);
+	}
+
+	/**
+	 * Visits every pair of rules whose input entries may match the same input, ordered
+	 * by first rule and then second rule. Pairs are generated as they are visited.
+	 */
+	public void forEachOverlap(OverlapConsumer consumer) {
+		forEachOverlapRow((first, seconds) -> {
+			for (int j = seconds.nextSetBit(0); j >= 0; j = seconds.nextSetBit(j + 1)) {
+				consumer.accept(first, j);
+			}
+		});
+	}
+
+	/**
+	 * Visits the overlapping pairs one row at a time, ordered by first rule: the same pairs
+	 * as {@link #forEachOverlap}, but a consumer can count or filter a row with bitset
+	 * operations instead of pair by pair. Rules that overlap no later rule are not visited.
+	 */
+	public void forEachOverlapRow(OverlapRowConsumer consumer) {
+		BitSet scratch = new BitSet(ruleCount);
+		for (int i = 0; i < ruleCount - 1; i++) {
+			ValidationBudget.checkpoint();
+			BitSet candidates = candidatesAfter(i, scratch);
+			if (!candidates.isEmpty()) {
+				consumer.accept(i, candidates);
+			}
+		}
+	}
+
+	/**
+	 * Whether rule {@code outer} matches every input rule {@code inner} matches. Rules that
+	 * share an entry are compared by value id, without looking at the tests.
+	 */
+	public boolean contains(int outer, int inner) {
+		int[] outerIds = valueIds[outer];
+		int[] innerIds = valueIds[inner];
+		if (outerIds.length != innerIds.length) {
+			return false;
+		}
+		for (int c = 0; c < outerIds.length; c++) {
+			int value = outerIds[c];
+			int other = innerIds[c];
+			if (value == WILDCARD || value == other) {
+				continue;
+			}
+			if (other == WILDCARD || !tests[c][value].contains(tests[c][other])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Whether some entry of the rule could not be reduced to the values it matches.
+	 */
+	public boolean hasOpaqueEntry(int rule) {
+		int[] ids = valueIds[rule];
+		for (int c = 0; c < ids.length; c++) {
+			if (ids[c] != WILDCARD && tests[c][ids[c]].getDomain() == Domain.OPAQUE) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Rules after {@code i} whose entries intersect its entries in every column, where a
+	 * wildcard on either side matches anything. Candidates come from the most selective
+	 * column and are then verified column by column, most selective first.
+	 */
+	private BitSet candidatesAfter(int i, BitSet candidates) {
+		candidates.clear();
+		if (matchingNothing.get(i)) {
+			return candidates;
+		}
+		int[] ids = valueIds[i];
+		int[] columns = new int[ids.length];
+		int constrained = 0;
+		for (int c = 0; c < ids.length; c++) {
+			if (ids[c] == WILDCARD) {
+				continue;
+			}
+			// insertion sort by match count; tables have few columns
+			int k = constrained++;
+			while (k > 0 && matchCounts[columns[k - 1]][ids[columns[k - 1]]] > matchCounts[c][ids[c]]) {
+				columns[k] = columns[k - 1];
+				k--;
+			}
+			columns[k] = c;
+		}
+
+		int verifyFrom = 0;
+		if (constrained > 0 && compatible[columns[0]] != null) {
+			int c = columns[0];
+			for (int value : compatible[c][ids[c]]) {
+				for (int r : rulesOfValue[c][value]) {
+					candidates.set(r);
+				}
+			}
+			candidates.or(wildcards[c]);
+			candidates.and(rulesByArity.get(ids.length));
+			verifyFrom = 1;
+		} else {
+			candidates.or(rulesByArity.get(ids.length));
+		}
+		candidates.clear(0, i + 1);
+		candidates.andNot(matchingNothing); // a wildcard column alone would let them through
+
+		for (int k = verifyFrom; k < constrained && !candidates.isEmpty(); k++) {
+			int c = columns[k];
+			int value = ids[c];
+			for (int j = candidates.nextSetBit(0); j >= 0; j = candidates.nextSetBit(j + 1)) {
+				int other = valueIds[j][c];
+				if (other != WILDCARD && !isCompatible(c, value, other)) {
+					candidates.clear(j);
+				}
+			}
+		}
+		return candidates;
+	}
+
+	private boolean isCompatible(int column, int value, int other) {
+		if (compatible[column] != null) {
+			return Arrays.binarySearch(compatible[column][value], other) >= 0;
+		}
+		return tests[column][value].intersects(tests[column][other]);
+	}
+
+	/**
+	 * For each distinct entry of a column, the entries it shares at least one input value
+	 * with (itself included unless it matches nothing). Returns null when the column has
+	 * too many such pairs to be worth tabulating.
+	 */
+	private static int[][] compatibleValues(FeelUnaryTest[] tests) {
+		IntList[] pairs = new IntList[tests.length];
+		for (int v = 0; v < tests.length; v++) {
+			pairs[v] = new IntList();
+			if (!tests[v].isEmpty()) {
+				pairs[v].add(v);
+			}
+		}
+		long total = 0;
+		total += sweepIntervals(tests, Domain.NUMBER, pairs);
+		total += sweepIntervals(tests, Domain.DATE, pairs);
+		total += matchValues(tests, Domain.STRING, pairs);
+		total += matchValues(tests, Domain.BOOLEAN, pairs);
+		if (total > MAX_COMPATIBLE_PAIRS_PER_COLUMN) {
+			return null;
+		}
+		int[][] compatible = new int[tests.length][];
+		for (int v = 0; v < tests.length; v++) {
+			compatible[v] = pairs[v].toSortedDistinctArray();
+		}
+		return compatible;
+	}
+
+	/**
+	 * Sorts every interval of the domain by lower bound; each interval then intersects
+	 * exactly the following intervals that start before it ends.
+	 */
+	private static long sweepIntervals(FeelUnaryTest[] tests, Domain domain, IntList[] pairs) {
+		List<Interval> intervals = new ArrayList<>();
+		IntList owners = new IntList();
+		for (int v = 0; v < tests.length; v++) {
+			if (tests[v].getDomain() == domain) {
+				for (Interval interval : tests[v].getIntervals()) {
+					intervals.add(interval);
+					owners.add(v);
+				}
+			}
+		}
+		Integer[] order = new Integer[intervals.size()];
+		for (int k = 0; k < order.length; k++) {
+			order[k] = k;
+		}
+		Arrays.sort(order, (a, b) -> Interval.BY_LOW.compare(intervals.get(a), intervals.get(b)));
+
+		long found = 0;
+		for (int k = 0; k < order.length && found <= MAX_COMPATIBLE_PAIRS_PER_COLUMN; k++) {
+			ValidationBudget.checkpoint();
+			Interval current = intervals.get(order[k]);
+			int owner = owners.get(order[k]);
+			for (int m = k + 1; m < order.length; m++) {
+				Interval next = intervals.get(order[m]);
+				if (!current.intersects(next)) {
+					break; // next starts at or after the end of current, and so does every later interval
+				}
+				int nextOwner = owners.get(order[m]);
+				if (nextOwner != owner) {
+					pairs[owner].add(nextOwner);
+					pairs[nextOwner].add(owner);
+					found++;
+				}
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Pairs string or boolean entries that share a value; negated entries are compared
+	 * against every entry of the domain.
+	 */
+	private static long matchValues(FeelUnaryTest[] tests, Domain domain, IntList[] pairs) {
+		Map<String, IntList> byValue = new HashMap<>();
+		IntList negated = new IntList();
+		IntList all = new IntList();
+		for (int v = 0; v < tests.length; v++) {
+			if (tests[v].getDomain() != domain) {
+				continue;
+			}
+			all.add(v);
+			if (tests[v].isNegated()) {
+				negated.add(v);
+			} else {
+				for (String value : tests[v].getValues()) {
+					byValue.computeIfAbsent(value, key -> new IntList()).add(v);
+				}
+			}
+		}
+		long found = 0;
+		for (IntList sharing : byValue.values()) {
+			for (int a = 0; a < sharing.size() && found <= MAX_COMPATIBLE_PAIRS_PER_COLUMN; a++) {
+				ValidationBudget.checkpoint();
+				for (int b = a + 1; b < sharing.size(); b++) {
+					pairs[sharing.get(a)].add(sharing.get(b));
+					pairs[sharing.get(b)].add(sharing.get(a));
+					found++;
+				}
+			}
+		}
+		for (int n = 0; n < negated.size(); n++) {
+			ValidationBudget.checkpoint();
+			int v = negated.get(n);
+			for (int a = 0; a < all.size(); a++) {
+				int other = all.get(a);
+				if (other != v && !(tests[other].isNegated() && other < v) && tests[v].intersects(tests[other])) {
+					pairs[v].add(other);
+					pairs[other].add(v);
+					found++;
+				}
+			}
+		}
+		return found;
+	}
+
+	private static final class IntList {
+		private int[] items = new int[4];
+		private int size;
+
+		void add(int value) {
+			if (size == items.length) {
+				items = Arrays.copyOf(items, size * 2);
+			}
+			items[size++] = value;
+		}
+
+		int get(int index) {
+			return items[index];
+		}
+
+		int size() {
+			return size;
+		}
+
+		int[] toArray() {
+			return Arrays.copyOf(items, size);
+		}
+
+		int[] toSortedDistinctArray() {
+			int[] sorted = toArray();
+			Arrays.sort(sorted);
+			int distinct = 0;
+			for (int k = 0; k < sorted.length; k++) {
+				if (k == 0 || sorted[k] != sorted[k - 1]) {
+					sorted[distinct++] = sorted[k];
+				}
+			}
+			return Arrays.copyOf(sorted, distinct);
+		}
+	}
+}
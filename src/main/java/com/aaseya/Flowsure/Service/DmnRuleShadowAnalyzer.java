@@ -0,0 +1,296 @@
+package com.aaseya.Flowsure.Service;
+
+import com.aaseya.Flowsure.Model.DmnDecisionTable;
+import com.aaseya.Flowsure.Model.DmnRule;
+import com.aaseya.Flowsure.Service.FeelUnaryTest.Domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds rules of FIRST and PRIORITY decision tables that never decide the outcome.
+ * <ul>
+ * <li>Shadowed (FIRST): every input the rule matches is matched by one earlier rule, or by
+ * the union of several earlier rules, so the rule never fires.</li>
+ * <li>Redundant: another rule with the same output matches every input the rule does, so
+ * removing it changes no result. Under FIRST the other rule may come later, as long as no
+ * rule in between matches any of the same inputs with a different output. Under PRIORITY
+ * it may be anywhere, since equal outputs have equal priority.</li>
+ * </ul>
+ * A rule can only be contained in rules it overlaps, so candidates are the overlapping
+ * pairs of the {@link DmnRuleIndex}, found by its interval sweep rather than by comparing
+ * every pair. Coverage by a union of rules is proven with the {@link DmnCompletenessAnalyzer}:
+ * the rule is covered if the covering rules plus the complement of the rule, one column at
+ * a time, leave no gap. That search is only run for rules with few candidate covers, and
+ * stops after a fixed number of steps per rule and per table, each search being charged
+ * for its covering rules as well; a rule it cannot decide is not reported.
+ * <p>
+ * Opaque entries are only known to match what an identical entry matches, so rules with
+ * them never count as covered by a union, nor as part of one.
+ */
+public final class DmnRuleShadowAnalyzer {
+
+	public static final int DEFAULT_MAX_COVERING_RULES = 32;
+	public static final int DEFAULT_MAX_UNION_STEPS = 200;
+	public static final int DEFAULT_MAX_UNION_STEPS_PER_TABLE = 20_000;
+
+	private final FeelUnaryTestCompiler compiler;
+	private final DmnCompletenessAnalyzer unionAnalyzer;
+	private final int maxCoveringRules;
+	private final int maxUnionSteps;
+	private final int maxUnionStepsPerTable;
+
+	public DmnRuleShadowAnalyzer(FeelUnaryTestCompiler compiler) {
+		this(compiler, DEFAULT_MAX_COVERING_RULES, DEFAULT_MAX_UNION_STEPS, DEFAULT_MAX_UNION_STEPS_PER_TABLE);
+	}
+
+	public DmnRuleShadowAnalyzer(FeelUnaryTestCompiler compiler, int maxCoveringRules, int maxUnionSteps,
+			int maxUnionStepsPerTable) {
+		this.compiler = compiler;
+		this.unionAnalyzer = new DmnCompletenessAnalyzer(compiler, 1, maxUnionSteps);
+		this.maxCoveringRules = maxCoveringRules;
+		this.maxUnionSteps = maxUnionSteps;
+		this.maxUnionStepsPerTable = maxUnionStepsPerTable;
+	}
+
+	/**
+	 * The rules found, as 0-based rule indexes. A rule is listed under at most one finding.
+	 */
+	public static final class Report {
+		private final int[] shadowedBy;
+		private final BitSet coveredByUnion;
+		private final int[] redundantWith;
+		private final boolean unionLimitReached;
+
+		Report(int[] shadowedBy, BitSet coveredByUnion, int[] redundantWith, boolean unionLimitReached) {
+			this.shadowedBy = shadowedBy;
+			this.coveredByUnion = coveredByUnion;
+			this.redundantWith = redundantWith;
+			this.unionLimitReached = unionLimitReached;
+		}
+
+		/** The earliest rule that alone shadows the rule, or -1. FIRST only. */
+		public int getShadowedBy(int rule) {
+			return shadowedBy[rule];
+		}
+
+		/**
+		 * Rules covered by the union of earlier rules: shadowed under FIRST, redundant under
+		 * PRIORITY (the covering rules then have the same output).
+		 */
+		public BitSet getCoveredByUnion() {
+			return coveredByUnion;
+		}
+
+		/** A rule with the same output that matches every input the rule does, or -1. */
+		public int getRedundantWith(int rule) {
+			return redundantWith[rule];
+		}
+
+		/** The table's step budget ran out before every rule was checked against a union. */
+		public boolean isUnionLimitReached() {
+			return unionLimitReached;
+		}
+	}
+
+	/**
+	 * @param firstHit true for FIRST tables, false for PRIORITY tables.
+	 */
+	public Report analyze(DmnDecisionTable table, DmnRuleIndex index, boolean firstHit) {
+		List<DmnRule> rules = table.getRules();
+		int ruleCount = rules.size();
+		int[] shadowedBy = new int[ruleCount];
+		int[] redundantWith = new int[ruleCount];
+		int[] nextConflict = new int[ruleCount]; // FIRST: first later overlapping rule with another output
+		Arrays.fill(shadowedBy, -1);
+		Arrays.fill(redundantWith, -1);
+		Arrays.fill(nextConflict, ruleCount);
+		BitSet coveredByUnion = new BitSet(ruleCount);
+		if (ruleCount < 2) {
+			return new Report(shadowedBy, coveredByUnion, redundantWith, false);
+		}
+
+		// Candidate covers of every rule: earlier overlapping rules (with the same output
+		// under PRIORITY), dropped once there are too many to search
+		int[][] covers = new int[ruleCount][];
+		int[] coverCounts = new int[ruleCount];
+		BitSet opaque = new BitSet(ruleCount);
+		for (int r = 0; r < ruleCount; r++) {
+			if (index.hasOpaqueEntry(r)) {
+				opaque.set(r);
+			}
+		}
+
+		// Overlaps are walked a row at a time, and each row is narrowed with bitset operations
+		// to the rules that can still change a finding, so tables where most rules overlap
+		// cost little more than the size of the rows
+		BitSet[] sameOutput = sameOutputs(rules);
+		BitSet found = new BitSet(ruleCount); // FIRST: shadowed by one rule, PRIORITY: redundant
+		BitSet coversFull = new BitSet(ruleCount);
+		BitSet scratch = new BitSet(ruleCount);
+		index.forEachOverlapRow((i, seconds) -> {
+			if (firstHit) {
+				scratch.clear();
+				scratch.or(seconds);
+				scratch.andNot(sameOutput[i]);
+				int conflict = scratch.nextSetBit(0);
+				if (conflict >= 0) {
+					nextConflict[i] = conflict;
+				}
+			} else {
+				seconds.and(sameOutput[i]);
+			}
+			if (!opaque.get(i)) {
+				scratch.clear();
+				scratch.or(seconds);
+				scratch.andNot(coversFull);
+				for (int j = scratch.nextSetBit(0); j >= 0; j = scratch.nextSetBit(j + 1)) {
+					if (!addCover(covers, coverCounts, j, i)) {
+						coversFull.set(j);
+					}
+				}
+			}
+			if (firstHit) {
+				seconds.andNot(found);
+				for (int j = seconds.nextSetBit(0); j >= 0; j = seconds.nextSetBit(j + 1)) {
+					if (index.contains(i, j)) {
+						shadowedBy[j] = i; // rows come in rule order, so this is the earliest
+						found.set(j);
+					}
+				}
+				return;
+			}
+			if (redundantWith[i] >= 0) {
+				seconds.andNot(found);
+			}
+			for (int j = seconds.nextSetBit(0); j >= 0; j = seconds.nextSetBit(j + 1)) {
+				if (index.contains(i, j)) {
+					if (redundantWith[j] < 0) {
+						redundantWith[j] = i;
+						found.set(j);
+					}
+				} else if (redundantWith[i] < 0 && index.contains(j, i)) {
+					redundantWith[i] = j;
+					found.set(i);
+					seconds.andNot(found);
+				}
+			}
+		});
+
+		int remainingSteps = maxUnionStepsPerTable;
+		boolean unionLimitReached = false;
+		for (int r = 0; r < ruleCount; r++) {
+			ValidationBudget.checkpoint();
+			boolean decided = firstHit ? shadowedBy[r] >= 0 : redundantWith[r] >= 0;
+			if (decided || opaque.get(r) || coverCounts[r] == 0 || coverCounts[r] > maxCoveringRules) {
+				continue;
+			}
+			remainingSteps -= coverCounts[r];
+			if (remainingSteps <= 0) {
+				unionLimitReached = true;
+				break;
+			}
+			DmnCompletenessAnalyzer analyzer = remainingSteps >= maxUnionSteps ? unionAnalyzer
+					: new DmnCompletenessAnalyzer(compiler, 1, remainingSteps);
+			DmnCompletenessAnalyzer.Report union = coveredBy(analyzer, table, r, covers[r], coverCounts[r]);
+			if (union == null) {
+				continue;
+			}
+			remainingSteps -= union.getSteps();
+			if (union.getGaps().isEmpty() && !union.hasMoreGaps() && !union.isStepLimitReached()) {
+				coveredByUnion.set(r);
+			}
+		}
+
+		if (firstHit) {
+			// Rule i only decides inputs that no earlier rule takes; for each of them the
+			// next matching rule is j or a rule in between with the same output as i.
+			// A shadowed j never fires, and only does so because of i, e.g. when i and j are
+			// identical; the shadow finding on j is then the only one.
+			BitSet dead = (BitSet) found.clone();
+			dead.or(coveredByUnion);
+			index.forEachOverlapRow((i, seconds) -> {
+				if (redundantWith[i] >= 0 || dead.get(i)) {
+					return;
+				}
+				seconds.clear(nextConflict[i], ruleCount);
+				seconds.and(sameOutput[i]);
+				seconds.andNot(dead);
+				for (int j = seconds.nextSetBit(0); j >= 0; j = seconds.nextSetBit(j + 1)) {
+					if (index.contains(j, i)) {
+						redundantWith[i] = j;
+						break;
+					}
+				}
+			});
+		}
+		return new Report(shadowedBy, coveredByUnion, redundantWith, unionLimitReached);
+	}
+
+	/**
+	 * @return false if the rule already has more candidate covers than are searched.
+	 */
+	private boolean addCover(int[][] covers, int[] coverCounts, int rule, int cover) {
+		int count = coverCounts[rule];
+		if (count > maxCoveringRules) {
+			return false;
+		}
+		if (covers[rule] == null) {
+			covers[rule] = new int[4];
+		} else if (count == covers[rule].length) {
+			covers[rule] = Arrays.copyOf(covers[rule], Math.min(count * 2, maxCoveringRules + 1));
+		}
+		covers[rule][count] = cover;
+		coverCounts[rule] = count + 1;
+		return true;
+	}
+
+	/**
+	 * Searches for an input the rule matches but none of the covering rules does: a gap
+	 * left by the covering rules together with one rule per constrained column that matches
+	 * the complement of the rule's entry. Returns null if the rule cannot be complemented.
+	 */
+	private DmnCompletenessAnalyzer.Report coveredBy(DmnCompletenessAnalyzer analyzer, DmnDecisionTable table,
+			int rule, int[] covers, int coverCount) {
+		List<DmnRule> rules = table.getRules();
+		List<DmnRule> union = new ArrayList<>(coverCount + 4);
+		for (int k = 0; k < coverCount; k++) {
+			union.add(rules.get(covers[k]));
+		}
+		List<String> entries = rules.get(rule).getInputEntries();
+		for (int c = 0; c < entries.size(); c++) {
+			if (compiler.compile(entries.get(c)).isAny()) {
+				continue;
+			}
+			String complement = "not(" + entries.get(c).trim() + ")";
+			Domain domain = compiler.compile(complement).getDomain();
+			if (domain == Domain.OPAQUE || domain == Domain.ANY) {
+				return null; // e.g. a negated entry; the analyzer would take it to match anything
+			}
+			List<String> complementEntries = new ArrayList<>(Collections.nCopies(entries.size(), "-"));
+			complementEntries.set(c, complement);
+			union.add(new DmnRule(null, union.size(), complementEntries, Collections.emptyList()));
+		}
+		return analyzer.analyze(new DmnDecisionTable(table.getId(), table.getHitPolicy(), table.getInputs(),
+				table.getOutputs(), union));
+	}
+
+	/**
+	 * For every rule, the rules with equal output entries; rules with equal outputs share one set.
+	 */
+	static BitSet[] sameOutputs(List<DmnRule> rules) {
+		Map<List<String>, BitSet> byOutput = new HashMap<>();
+		BitSet[] sameOutput = new BitSet[rules.size()];
+		for (int r = 0; r < rules.size(); r++) {
+			sameOutput[r] = byOutput.computeIfAbsent(rules.get(r).getOutputEntries(),
+					outputs -> new BitSet(rules.size()));
+			sameOutput[r].set(r);
+		}
+		return sameOutput;
+	}
+}
@@ -1,565 +1,504 @@
 package com.aaseya.Flowsure.Service;
 
 import com.aaseya.Flowsure.Model.DiagramValidationResult;
+import com.aaseya.Flowsure.Model.DmnClause;
+import com.aaseya.Flowsure.Model.DmnDecisionTable;
+import com.aaseya.Flowsure.Model.DmnDefinitions;
+import com.aaseya.Flowsure.Model.DmnElement;
+import com.aaseya.Flowsure.Model.DmnRule;
 import com.aaseya.Flowsure.Model.ValidationIssue;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLStreamException;
 
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
-import org.w3c.dom.Node;
-
-import org.xml.sax.SAXParseException;
-import org.xml.sax.helpers.DefaultHandler;
-import org.xml.sax.SAXException; // Import the SAXException
-
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.file.Path;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.Objects;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
 
 @Service
 public class DmnValidationService {
 
+	private static final Logger log = LoggerFactory.getLogger(DmnValidationService.class);
+
+	static final String CACHE_NAMESPACE = "dmn";
+	private static final String METRICS_VALIDATOR = "dmn";
+	private static final String REQUIREMENTS_GRAPH_CHECK = "requirements-graph";
+	private static final List<String> DESCRIBED_KINDS = List.of("decision", "inputData", "businessKnowledgeModel");
+
+	private final DmnModelParser modelParser = new DmnModelParser();
+	// Compiled input entries are shared by every rule, table and file validated by this service
+	private final FeelUnaryTestCompiler feelCompiler = new FeelUnaryTestCompiler();
+	private final DmnCompletenessAnalyzer completenessAnalyzer = new DmnCompletenessAnalyzer(feelCompiler);
+	private final DmnRuleShadowAnalyzer shadowAnalyzer = new DmnRuleShadowAnalyzer(feelCompiler);
+	private final ArchiveValidationPipeline pipeline;
+	private final ValidationResultCache resultCache;
+	private final ValidationMetrics metrics;
+	private final DmnCheckScheduler checkScheduler;
+	private final IssueLimits issueLimits;
+
+	/**
+	 * Runs the built-in checks followed by every {@link DmnCheck} bean, in bean order.
+	 */
+	@Autowired
+	public DmnValidationService(ArchiveValidationPipeline pipeline, ValidationResultCache resultCache,
+			ValidationMetrics metrics, @Qualifier("dmnCheckExecutor") ExecutorService checkExecutor,
+			ObjectProvider<DmnCheck> additionalChecks,
+			@Value("${flowsure.validation.checks.parallel-min-rules:2000}") int parallelMinRules,
+			IssueLimits issueLimits) {
+		this(pipeline, resultCache, metrics, checkExecutor, additionalChecks.orderedStream().toList(),
+				parallelMinRules, issueLimits);
+	}
+
+	/**
+	 * @param additionalChecks Checks to run after the built-in ones.
+	 * @param parallelMinRules Files with fewer rules run their checks one after another on
+	 *                         the calling thread.
+	 * @throws IllegalStateException if check ids clash or dependencies are unknown or cyclic.
+	 */
+	public DmnValidationService(ArchiveValidationPipeline pipeline, ValidationResultCache resultCache,
+			ValidationMetrics metrics, Executor checkExecutor, List<DmnCheck> additionalChecks, int parallelMinRules) {
+		this(pipeline, resultCache, metrics, checkExecutor, additionalChecks, parallelMinRules, IssueLimits.defaults());
+	}
+
+	/**
+	 * @param issueLimits Bounds on the issues reported for overlapping rule pairs.
+	 */
+	public DmnValidationService(ArchiveValidationPipeline pipeline, ValidationResultCache resultCache,
+			ValidationMetrics metrics, Executor checkExecutor, List<DmnCheck> additionalChecks, int parallelMinRules,
+			IssueLimits issueLimits) {
+		this.pipeline = pipeline;
+		this.resultCache = resultCache;
+		this.metrics = metrics;
+		this.issueLimits = issueLimits;
+		List<DmnCheck> checks = new ArrayList<>(builtInChecks());
+		checks.addAll(additionalChecks);
+		this.checkScheduler = new DmnCheckScheduler(checks, checkExecutor, parallelMinRules, feelCompiler, metrics,
+				METRICS_VALIDATOR);
+	}
+
+	/**
+	 * Validates every .dmn entry of the archive on the shared worker pool. Results are
+	 * returned in archive order; unchanged files are served from the result cache. Requirements
+	 * between files are checked once all files are done; see {@link DmnRequirementGraph}.
+	 */
 	public List<DiagramValidationResult> validateDmnZip(MultipartFile zipFile) throws IOException {
 		List<DiagramValidationResult> allResults = new ArrayList<>();
-		try (ZipInputStream zis = new ZipInputStream(zipFile.getInputStream())) {
-			ZipEntry zipEntry = zis.getNextEntry();
-			while (zipEntry != null) {
-				if (!zipEntry.isDirectory() && zipEntry.getName().toLowerCase().endsWith(".dmn")) {
-					String fileName = zipEntry.getName();
-					byte[] dmnBytes = zis.readAllBytes();
-
-					DiagramValidationResult result = new DiagramValidationResult(fileName, true, new ArrayList<>());
-					List<ValidationIssue> issues = new ArrayList<>();
-
-					// 1. Validate XML Syntax/Structure
-					validateXmlSyntax(new ByteArrayInputStream(dmnBytes), issues, result, fileName);
-
-					// 2. Check for Rule Overlaps if XML is valid so far
-					if (result.isValid()) {
-						try (InputStream dmnInputStreamForOverlap = new ByteArrayInputStream(dmnBytes)) {
-							checkForRuleOverlapsInDmnFile(dmnInputStreamForOverlap, issues, fileName, result);
-						} catch (Exception e) {
-							result.setValid(false);
-							issues.add(new ValidationIssue(ValidationIssue.IssueType.ERROR,
-									"Error during rule overlap analysis for " + fileName + ": " + e.getMessage()));
-							System.err.println(
-									"Error during rule overlap analysis for " + fileName + ": " + e.getMessage());
-							e.printStackTrace();
-						}
-					}
-
-					// 3. Check for Missing Descriptions
-					if (result.isValid()) {
-						try (InputStream dmnInputStreamForDescription = new ByteArrayInputStream(dmnBytes)) {
-							checkForMissingDescriptions(dmnInputStreamForDescription, issues, fileName, result);
-						} catch (Exception e) {
-							result.setValid(false);
-							issues.add(new ValidationIssue(ValidationIssue.IssueType.ERROR,
-									"Error during missing description analysis for " + fileName + ": "
-											+ e.getMessage()));
-							System.err.println("Error during missing description analysis for " + fileName + ": "
-									+ e.getMessage());
-							e.printStackTrace();
-						}
-					}
-
-					// 4. Check for Type Consistency
-					if (result.isValid()) { // Or based on your logic for when to run this check
-						try (InputStream dmnInputStreamForTypeConsistency = new ByteArrayInputStream(dmnBytes)) {
-							checkForTypeConsistency(dmnInputStreamForTypeConsistency, issues, fileName, result);
-						} catch (Exception e) {
-							// Potentially mark result as invalid or add a general error for this check
-							issues.add(new ValidationIssue(ValidationIssue.IssueType.ERROR,
-									"Error during type consistency analysis for " + fileName + ": " + e.getMessage()));
-							System.err.println(
-									"Error during type consistency analysis for " + fileName + ": " + e.getMessage());
-							e.printStackTrace();
-						}
-					}
-
-					// 5. Check Hit Policy Compatibility
-					if (result.isValid()) {
-						try (InputStream dmnInputStreamForHitPolicy = new ByteArrayInputStream(dmnBytes)) {
-							checkHitPolicyCompatibility(dmnInputStreamForHitPolicy, issues, fileName, result);
-						} catch (Exception e) {
-							// Potentially mark result as invalid
-							issues.add(new ValidationIssue(ValidationIssue.IssueType.ERROR,
-									"Error during hit policy compatibility analysis: " + e.getMessage()));
-							System.err.println("Error during hit policy compatibility analysis: " + e.getMessage());
-							e.printStackTrace();
-						}
-					}
-
-					// 6.RuleGap
-
-					if (result.isValid()) {
-						try (InputStream dmnInputStreamForRuleGap = new ByteArrayInputStream(dmnBytes)) {
-							checkRuleGaps(dmnInputStreamForRuleGap, issues, fileName, result);
-						} catch (Exception e) {
-							issues.add(new ValidationIssue(ValidationIssue.IssueType.ERROR,
-									"Error during rule gap analysis for " + fileName + ": " + e.getMessage()));
-							System.err
-									.println("Error during rule gap analysis for " + fileName + ": " + e.getMessage());
-							e.printStackTrace();
-						}
-					}
-
-					////// add from here/////
-
-					result.setIssues(issues);
-					allResults.add(result);
-				}
-				zis.closeEntry();
-				zipEntry = zis.getNextEntry();
-			}
-		}
+		validateDmnZip(zipFile, allResults::add);
 		return allResults;
 	}
 
-	private void checkRuleGaps(InputStream dmnInputStream, List<ValidationIssue> issues, String fileName,
-			DiagramValidationResult result) throws Exception {
-		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-		DocumentBuilder builder = factory.newDocumentBuilder();
-		Document document = builder.parse(dmnInputStream);
-		NodeList ruleList = document.getElementsByTagName("rule");
-
-		List<Double[]> ranges = new ArrayList<>();
-
-		for (int i = 0; i < ruleList.getLength(); i++) {
-			Element rule = (Element) ruleList.item(i);
-			NodeList inputEntries = rule.getElementsByTagName("inputEntry");
-			if (inputEntries.getLength() == 0)
-				continue;
-
-			// Only checking the first input column for numeric ranges
-			String inputText = inputEntries.item(0).getTextContent().replaceAll("[\\[\\]]", "").trim();
-			String[] bounds = inputText.split("\\.\\.");
-			if (bounds.length == 2) {
-				try {
-					double lower = Double.parseDouble(bounds[0].trim());
-					double upper = Double.parseDouble(bounds[1].trim());
-					ranges.add(new Double[] { lower, upper });
-				} catch (NumberFormatException e) {
-					// skip non-numeric ranges
-				}
-			}
-		}
+	/**
+	 * Streaming variant of {@link #validateDmnZip(MultipartFile)}: each result is handed to
+	 * the listener as soon as it is available, in archive order.
+	 */
+	public void validateDmnZip(MultipartFile zipFile, ValidationResultListener listener) throws IOException {
+		DmnRequirementGraph requirements = new DmnRequirementGraph();
+		pipeline.validate(zipFile, DmnValidationService::isDmnEntry,
+				(entryName, content) -> validateCached(entryName, content, requirements), requirements.track(listener));
+		reportRequirements(requirements, listener);
+	}
+
+	/**
+	 * Variant of {@link #validateDmnZip(MultipartFile, ValidationResultListener)} for an
+	 * archive that is already on disk, such as a queued validation job.
+	 */
+	public void validateDmnZip(Path archive, ValidationResultListener listener) throws IOException {
+		DmnRequirementGraph requirements = new DmnRequirementGraph();
+		pipeline.validate(archive, DmnValidationService::isDmnEntry,
+				(entryName, content) -> validateCached(entryName, content, requirements), requirements.track(listener));
+		reportRequirements(requirements, listener);
+	}
+
+	/**
+	 * Validates each .dmn entry of the archive on its own, without resolving requirements
+	 * between files. For archives that hold only part of a project, such as a delta upload.
+	 */
+	public void validateDmnEntries(MultipartFile zipFile, ValidationResultListener listener) throws IOException {
+		pipeline.validate(zipFile, DmnValidationService::isDmnEntry,
+				(entryName, content) -> validateCached(entryName, content, null), listener);
+	}
 
-		// Sort ranges by lower bound
-		ranges.sort((a, b) -> Double.compare(a[0], b[0]));
+	public static boolean isDmnEntry(String entryName) {
+		return entryName.toLowerCase().endsWith(".dmn");
+	}
 
-		for (int i = 1; i < ranges.size(); i++) {
-			Double[] prev = ranges.get(i - 1);
-			Double[] curr = ranges.get(i);
-			if (curr[0] > prev[1]) {
-				issues.add(new ValidationIssue(ValidationIssue.IssueType.WARNING,
-						"Potential rule gap detected between " + prev[1] + " and " + curr[0] + " in " + fileName));
+	DiagramValidationResult validateCached(String entryName, byte[] content, DmnRequirementGraph requirements)
+			throws Exception {
+		DiagramValidationResult result = resultCache.getOrValidate(CACHE_NAMESPACE, entryName, content,
+				(name, bytes) -> validateDmnFile(name, bytes, requirements));
+		if (requirements != null && !requirements.contains(entryName)) {
+			// Served from the cache, so the file still has to be read for its requirements. That
+			// is one more pass over the XML per cached file, but decision tables are skipped,
+			// so it costs a fraction of validating the file
+			try {
+				requirements.add(entryName,
+						metrics.timeParse(METRICS_VALIDATOR, () -> modelParser.parseRequirements(content)));
+			} catch (XMLStreamException e) {
+				// The cached result already reports the parse error
 			}
 		}
+		return result;
 	}
 
-	private void validateXmlSyntax(InputStream dmnInputStream, List<ValidationIssue> issues,
-			DiagramValidationResult result, String fileName) {
-		try {
-			DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-			factory.setNamespaceAware(true);
-			DocumentBuilder builder = factory.newDocumentBuilder();
-
-			builder.setErrorHandler(new DefaultHandler() {
-				private void addIssue(SAXParseException e, ValidationIssue.IssueType type, String severity) {
-					String message = String.format("XML %s in %s: %s (Line: %d, Column: %d)", severity, fileName,
-							e.getMessage(), e.getLineNumber(), e.getColumnNumber());
-					issues.add(new ValidationIssue(type, message, e.getSystemId(), null));
-					if (type == ValidationIssue.IssueType.ERROR) {
-						result.setValid(false);
-					}
-				}
-
-				@Override
-				public void warning(SAXParseException e) {
-					addIssue(e, ValidationIssue.IssueType.WARNING, "Warning");
-				}
+	void reportRequirements(DmnRequirementGraph requirements, ValidationResultListener listener)
+			throws IOException {
+		DiagramValidationResult result = metrics.timeCheck(METRICS_VALIDATOR, REQUIREMENTS_GRAPH_CHECK,
+				requirements::analyze);
+		if (result != null) {
+			metrics.recordIssues(METRICS_VALIDATOR, result);
+			listener.onResult(result);
+		}
+	}
 
-				@Override
-				public void error(SAXParseException e) {
-					addIssue(e, ValidationIssue.IssueType.ERROR, "Error");
-				}
+	/**
+	 * Validates a single DMN file. The XML is parsed exactly once into a
+	 * {@link DmnDefinitions} model and every check runs against that model, independent
+	 * checks concurrently for large files; see {@link DmnCheckScheduler}. Parsing and each
+	 * check are timed through {@link ValidationMetrics}.
+	 */
+	public DiagramValidationResult validateDmnFile(String fileName, byte[] dmnBytes) {
+		return validateDmnFile(fileName, dmnBytes, null);
+	}
 
-				@Override
-				public void fatalError(SAXParseException e) {
-					addIssue(e, ValidationIssue.IssueType.ERROR, "Fatal Error");
-				}
-			});
+	/**
+	 * Validates a single DMN file and adds its elements to the requirements graph of the
+	 * run, if there is one and the file parsed.
+	 */
+	public DiagramValidationResult validateDmnFile(String fileName, byte[] dmnBytes,
+			DmnRequirementGraph requirements) {
+		DiagramValidationResult result = new DiagramValidationResult(fileName, true, new ArrayList<>());
+		List<ValidationIssue> issues = new ArrayList<>();
+
+		// Parse once; this also validates XML syntax/structure
+		DmnDefinitions model = parseModel(dmnBytes, issues, result, fileName);
+		if (model != null && requirements != null) {
+			requirements.add(fileName, model);
+		}
+		checkScheduler.run(fileName, dmnBytes, model, result, issues);
 
-			builder.parse(dmnInputStream); // This checks for well-formedness.
-			if (result.isValid()
-					&& issues.stream().noneMatch(issue -> issue.getType() == ValidationIssue.IssueType.ERROR)) {
-				issues.add(new ValidationIssue(ValidationIssue.IssueType.INFO,
-						"XML is well-formed for " + fileName + "."));
-			}
+		result.setIssues(issues);
+		metrics.recordIssues(METRICS_VALIDATOR, result);
+		return result;
+	}
 
-		} catch (SAXException e) {
-			result.setValid(false);
-			String message = (e instanceof SAXParseException)
-					? String.format("XML Parsing Error in %s: %s at line %d, column %d", fileName, e.getMessage(),
-							((SAXParseException) e).getLineNumber(), ((SAXParseException) e).getColumnNumber())
-					: "XML Parsing SAXException for " + fileName + ": " + e.getMessage();
-			issues.add(new ValidationIssue(ValidationIssue.IssueType.ERROR, message));
-		} catch (ParserConfigurationException e) {
-			result.setValid(false);
-			issues.add(new ValidationIssue(ValidationIssue.IssueType.ERROR,
-					"XML Parser Configuration Error for " + fileName + ": " + e.getMessage()));
-		} catch (IOException e) {
-			result.setValid(false);
-			issues.add(new ValidationIssue(ValidationIssue.IssueType.ERROR,
-					"IO Error during XML parsing for " + fileName + ": " + e.getMessage()));
-		}
+	/**
+	 * The checks run on every file, built-in ones first, in the order their issues are reported.
+	 */
+	public List<DmnCheck> getChecks() {
+		return checkScheduler.getChecks();
 	}
 
-	private static class ParsedDmnRule {
-		String id;
-		int originalIndex; // 0-based index in the table
-		List<String> inputEntryTexts = new ArrayList<>();
-		List<String> outputEntryTexts = new ArrayList<>();
+	private List<DmnCheck> builtInChecks() {
+		return List.of(
+				new BuiltInCheck("rule-overlaps", "rule overlap", EnumSet.of(DmnCheck.Input.RULE_INDEX), Set.of(),
+						context -> checkForRuleOverlapsInDmnFile(context.getModel(), context.getRuleIndexes(),
+								context.getIssues(), context.getFileName(), context.getResult())),
+				new BuiltInCheck("missing-descriptions", "missing description", EnumSet.of(DmnCheck.Input.MODEL),
+						Set.of(), context -> checkForMissingDescriptions(context.getModel(), context.getIssues(),
+								context.getFileName(), context.getResult())),
+				new BuiltInCheck("type-consistency", "type consistency", EnumSet.of(DmnCheck.Input.MODEL), Set.of(),
+						context -> checkForTypeConsistency(context.getModel(), context.getIssues(),
+								context.getFileName(), context.getResult())),
+				// Restates overlap violations for UNIQUE and ANY, so it only runs once the overlap check
+				// passed; for FIRST and PRIORITY it reports shadowed and redundant rules. The other
+				// checks do not depend on each other and report even when an earlier one failed
+				new BuiltInCheck("hit-policy", "hit policy compatibility", EnumSet.of(DmnCheck.Input.RULE_INDEX),
+						Set.of("rule-overlaps"), context -> checkHitPolicyCompatibility(context.getModel(),
+								context.getRuleIndexes(), context.getIssues(), context.getFileName(),
+								context.getResult())),
+				new BuiltInCheck("rule-gaps", "rule gap", EnumSet.of(DmnCheck.Input.MODEL), Set.of(),
+						context -> checkRuleGaps(context.getModel(), context.getIssues(), context.getFileName(),
+								context.getResult())));
+	}
 
-		ParsedDmnRule(String id, int originalIndex) {
+	/**
+	 * A check implemented by one of the public check methods of this service.
+	 */
+	private static final class BuiltInCheck implements DmnCheck {
+		private final String id;
+		private final String description;
+		private final Set<Input> inputs;
+		private final Set<String> dependencies;
+		private final Consumer<DmnCheckContext> body;
+
+		BuiltInCheck(String id, String description, Set<Input> inputs, Set<String> dependencies,
+				Consumer<DmnCheckContext> body) {
 			this.id = id;
-			this.originalIndex = originalIndex;
+			this.description = description;
+			this.inputs = inputs;
+			this.dependencies = dependencies;
+			this.body = body;
 		}
-	}
 
-	private void checkForRuleOverlapsInDmnFile(InputStream dmnInputStream, List<ValidationIssue> issues,
-			String fileName, DiagramValidationResult overallResult)
-			throws ParserConfigurationException, SAXException, IOException {
-		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-		factory.setNamespaceAware(true);
-		DocumentBuilder builder = factory.newDocumentBuilder();
-		Document doc = builder.parse(dmnInputStream);
+		@Override
+		public String getId() {
+			return id;
+		}
 
-		NodeList decisionTableNodes = doc.getElementsByTagNameNS("*", "decisionTable");
-		if (decisionTableNodes.getLength() == 0) {
-			decisionTableNodes = doc.getElementsByTagName("decisionTable");
+		@Override
+		public String getDescription() {
+			return description;
 		}
 
-		for (int i = 0; i < decisionTableNodes.getLength(); i++) {
-			Node decisionTableNode = decisionTableNodes.item(i);
-			if (decisionTableNode.getNodeType() == Node.ELEMENT_NODE) {
-				Element decisionTableElement = (Element) decisionTableNode;
-				String tableId = decisionTableElement.getAttribute("id");
-				String hitPolicy = decisionTableElement.getAttribute("hitPolicy");
-				if (hitPolicy == null || hitPolicy.isEmpty()) {
-					hitPolicy = "UNIQUE"; // Default hit policy [2]
-				}
+		@Override
+		public Set<Input> getInputs() {
+			return inputs;
+		}
 
-				List<ParsedDmnRule> rules = new ArrayList<>();
-				NodeList ruleNodes = decisionTableElement.getElementsByTagNameNS("*", "rule");
-				if (ruleNodes.getLength() == 0) {
-					ruleNodes = decisionTableElement.getElementsByTagName("rule");
-				}
+		@Override
+		public Set<String> getDependencies() {
+			return dependencies;
+		}
 
-				for (int r = 0; r < ruleNodes.getLength(); r++) {
-					Node ruleNode = ruleNodes.item(r);
-					if (ruleNode.getNodeType() == Node.ELEMENT_NODE) {
-						Element ruleElement = (Element) ruleNode;
-						ParsedDmnRule parsedRule = new ParsedDmnRule(ruleElement.getAttribute("id"), r);
-
-						NodeList inputEntryNodes = ruleElement.getElementsByTagNameNS("*", "inputEntry");
-						if (inputEntryNodes.getLength() == 0) {
-							inputEntryNodes = ruleElement.getElementsByTagName("inputEntry");
-						}
-						for (int ie = 0; ie < inputEntryNodes.getLength(); ie++) {
-							Element inputEntryElement = (Element) inputEntryNodes.item(ie);
-							Node textNode = inputEntryElement.getElementsByTagNameNS("*", "text").item(0);
-							if (textNode == null)
-								textNode = inputEntryElement.getElementsByTagName("text").item(0);
-							parsedRule.inputEntryTexts.add(textNode != null ? textNode.getTextContent() : "");
-						}
-
-						NodeList outputEntryNodes = ruleElement.getElementsByTagNameNS("*", "outputEntry");
-						if (outputEntryNodes.getLength() == 0) {
-							outputEntryNodes = ruleElement.getElementsByTagName("outputEntry");
-						}
-						for (int oe = 0; oe < outputEntryNodes.getLength(); oe++) {
-							Element outputEntryElement = (Element) outputEntryNodes.item(oe);
-							Node textNode = outputEntryElement.getElementsByTagNameNS("*", "text").item(0);
-							if (textNode == null)
-								textNode = outputEntryElement.getElementsByTagName("text").item(0);
-							parsedRule.outputEntryTexts.add(textNode != null ? textNode.getTextContent() : "");
-						}
-						rules.add(parsedRule);
-					}
-				}
-				analyzeOverlapsForTable(rules, hitPolicy, tableId, issues, fileName, overallResult);
-			}
+		@Override
+		public void check(DmnCheckContext context) {
+			body.accept(context);
 		}
 	}
 
-	private void analyzeOverlapsForTable(List<ParsedDmnRule> rules, String hitPolicy, String tableId,
-			List<ValidationIssue> issues, String fileName, DiagramValidationResult overallResult) {
-		if (rules.size() < 2)
-			return; // No overlaps possible with less than 2 rules
-
-		for (int i = 0; i < rules.size(); i++) {
-			for (int j = i + 1; j < rules.size(); j++) {
-				ParsedDmnRule rule1 = rules.get(i);
-				ParsedDmnRule rule2 = rules.get(j);
-
-				if (rulesMightOverlap(rule1, rule2)) {
-					// Determine if outputs are the same
-					boolean outputsAreSame = compareOutputs(rule1.outputEntryTexts, rule2.outputEntryTexts);
-					String rule1Desc = "Rule " + (rule1.originalIndex + 1)
-							+ (rule1.id != null && !rule1.id.isEmpty() ? " (ID: " + rule1.id + ")" : "") + ")";
-					String rule2Desc = "Rule " + (rule2.originalIndex + 1)
-							+ (rule2.id != null && !rule2.id.isEmpty() ? " (ID: " + rule2.id + ")" : "") + ")";
-					String overlapMessage = String.format("%s and %s in table '%s' (file: %s) overlap.", rule1Desc,
-							rule2Desc, tableId, fileName);
-
-					if ("UNIQUE".equalsIgnoreCase(hitPolicy)) {
-						issues.add(new ValidationIssue(ValidationIssue.IssueType.ERROR,
-								overlapMessage + " This violates UNIQUE hit policy."));
-						overallResult.setValid(false);
-					} else if ("ANY".equalsIgnoreCase(hitPolicy) && !outputsAreSame) {
-						issues.add(new ValidationIssue(ValidationIssue.IssueType.ERROR,
-								overlapMessage + " They have different outputs, which violates ANY hit policy."));
-						overallResult.setValid(false);
-					} else {
-						// For other hit policies (FIRST, PRIORITY, COLLECT etc.), an overlap isn't
-						// necessarily an error.
-						// It could be an INFO or WARNING based on specific requirements.
-						issues.add(new ValidationIssue(ValidationIssue.IssueType.INFO, overlapMessage
-								+ " Hit policy is '" + hitPolicy + "'. Check if this overlap is intended."));
-					}
-				}
+	private DmnDefinitions parseModel(byte[] dmnBytes, List<ValidationIssue> issues, DiagramValidationResult result,
+			String fileName) {
+		try {
+			DmnDefinitions model = metrics.timeParse(METRICS_VALIDATOR, () -> modelParser.parse(dmnBytes));
+			for (DmnDecisionTable table : model.getDecisionTables()) {
+				metrics.recordRulesPerTable(table.getRules().size());
 			}
+			issues.add(new ValidationIssue(ValidationIssue.IssueType.INFO, "XML is well-formed for " + fileName + "."));
+			return model;
+		} catch (XMLStreamException e) {
+			result.setValid(false);
+			Location location = e.getLocation();
+			String message = location != null
+					? String.format("XML Parsing Error in %s: %s at line %d, column %d", fileName,
+							parseErrorMessage(e), location.getLineNumber(), location.getColumnNumber())
+					: "XML Parsing Error in " + fileName + ": " + parseErrorMessage(e);
+			issues.add(new ValidationIssue(ValidationIssue.IssueType.ERROR, message));
+			return null;
 		}
 	}
 
-	private boolean rulesMightOverlap(ParsedDmnRule rule1, ParsedDmnRule rule2) {
-		if (rule1.inputEntryTexts.size() != rule2.inputEntryTexts.size()) {
-			return false; // Should not happen in a well-formed table
+	/**
+	 * StAX prefixes its messages with "ParseError at [row,col]:[..]"; the location is
+	 * reported separately, so only the message part is kept.
+	 */
+	private static String parseErrorMessage(XMLStreamException e) {
+		String message = e.getMessage();
+		if (message == null) {
+			return "Malformed XML";
 		}
-		for (int k = 0; k < rule1.inputEntryTexts.size(); k++) {
-			String entry1Text = rule1.inputEntryTexts.get(k).trim();
-			String entry2Text = rule2.inputEntryTexts.get(k).trim();
+		int index = message.indexOf("Message: ");
+		return index >= 0 ? message.substring(index + "Message: ".length()) : message;
+	}
 
-			boolean isEntry1Wildcard = entry1Text.isEmpty() || entry1Text.equals("-");
-			boolean isEntry2Wildcard = entry2Text.isEmpty() || entry2Text.equals("-");
+	/**
+	 * Reports input combinations that no rule matches, per decision table and over all
+	 * input columns; see {@link DmnCompletenessAnalyzer}.
+	 */
+	public void checkRuleGaps(DmnDefinitions model, List<ValidationIssue> issues, String fileName,
+			DiagramValidationResult result) {
+		List<DmnDecisionTable> tables = model.getDecisionTables();
+		for (int i = 0; i < tables.size(); i++) {
+			DmnDecisionTable table = tables.get(i);
+			String tableId = table.getId();
+			if (tableId == null || tableId.isEmpty()) {
+				tableId = "UnnamedTable" + i;
+			}
 
-			if (isEntry1Wildcard || isEntry2Wildcard) {
-				continue; // This input condition overlaps
+			DmnCompletenessAnalyzer.Report report = completenessAnalyzer.analyze(table);
+			for (DmnCompletenessAnalyzer.Gap gap : report.getGaps()) {
+				issues.add(new ValidationIssue(ValidationIssue.IssueType.WARNING, String.format(
+						"Rule gap in table '%s' (file: %s): no rule matches %s.", tableId, fileName, report.describe(gap))));
 			}
-			if (!entry1Text.equals(entry2Text)) {
-				return false;
+			if (report.hasMoreGaps()) {
+				issues.add(new ValidationIssue(ValidationIssue.IssueType.INFO, String.format(
+						"Table '%s' (file: %s) has further rule gaps; only the first %d are listed.", tableId, fileName,
+						report.getGaps().size())));
+			}
+			if (report.isStepLimitReached()) {
+				issues.add(new ValidationIssue(ValidationIssue.IssueType.INFO, String.format(
+						"Rule gap analysis for table '%s' (file: %s) stopped early; the table may have further gaps.",
+						tableId, fileName)));
 			}
 		}
-		return true; // All input entries (conditions) found to be compatible/overlapping.
 	}
 
-	private boolean compareOutputs(List<String> outputs1, List<String> outputs2) {
-		if (outputs1.size() != outputs2.size())
-			return false; // Different number of output columns
-		for (int i = 0; i < outputs1.size(); i++) {
-			if (!Objects.equals(outputs1.get(i), outputs2.get(i))) {
-				return false;
-			}
+	public void checkForRuleOverlapsInDmnFile(DmnDefinitions model, Map<DmnDecisionTable, DmnRuleIndex> ruleIndexes,
+			List<ValidationIssue> issues, String fileName, DiagramValidationResult overallResult) {
+		RulePairIssues pairs = new RulePairIssues(issueLimits, fileName);
+		for (DmnDecisionTable table : model.getDecisionTables()) {
+			analyzeOverlapsForTable(table, ruleIndex(ruleIndexes, table), pairs, overallResult);
 		}
-		return true;
+		pairs.flush(issues);
 	}
 
-	private void checkForMissingDescriptions(InputStream dmnInputStream, List<ValidationIssue> issues, String fileName,
-			DiagramValidationResult overallResult) throws ParserConfigurationException, SAXException, IOException {
-		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-		factory.setNamespaceAware(true);
-		DocumentBuilder builder = factory.newDocumentBuilder();
-		Document doc = builder.parse(dmnInputStream);
-
-		// Define the DMN elements that should have descriptions
-		String[] elementsToCheck = { "decision", "inputData", "businessKnowledgeModel" };
+	private DmnRuleIndex ruleIndex(Map<DmnDecisionTable, DmnRuleIndex> ruleIndexes, DmnDecisionTable table) {
+		return ruleIndexes.computeIfAbsent(table, key -> DmnRuleIndex.build(key, feelCompiler));
+	}
 
-		for (String elementName : elementsToCheck) {
-			NodeList nodeList = doc.getElementsByTagNameNS("*", elementName);
-			if (nodeList.getLength() == 0) {
-				nodeList = doc.getElementsByTagName(elementName);
+	private void analyzeOverlapsForTable(DmnDecisionTable table, DmnRuleIndex index, RulePairIssues pairs,
+			DiagramValidationResult overallResult) {
+		List<DmnRule> rules = table.getRules();
+		if (rules.size() < 2)
+			return; // No overlaps possible with less than 2 rules
+		String hitPolicy = table.getEffectiveHitPolicy();
+
+		// Pairs are only counted here; messages are built for the few that get reported
+		if ("UNIQUE".equalsIgnoreCase(hitPolicy)) {
+			RulePairIssues.Group violations = pairs.group(table, ValidationIssue.IssueType.ERROR,
+					"overlap. This violates UNIQUE hit policy.");
+			index.forEachOverlapRow(violations::addAll);
+			if (violations.getCount() > 0) {
+				overallResult.setValid(false);
 			}
-			for (int i = 0; i < nodeList.getLength(); i++) {
-				Node node = nodeList.item(i);
-				if (node.getNodeType() == Node.ELEMENT_NODE) {
-					Element element = (Element) node;
-					String elementId = element.getAttribute("id");
-					String elementNameValue = element.getAttribute("name"); // Or fetch from <name> tag if it exists
-
-					// Check for description element
-					NodeList descriptionNodes = element.getElementsByTagNameNS("*", "description");
-					if (descriptionNodes.getLength() == 0) {
-						descriptionNodes = element.getElementsByTagName("description");
-					}
-
-					if (descriptionNodes.getLength() == 0) {
-						// No <description> tag. Report issue.
-						String message = String.format(
-								"DMN Element '%s' (ID: %s, Name: '%s') in file '%s' is missing a description.",
-								elementName, elementId, elementNameValue, fileName);
-						issues.add(new ValidationIssue(ValidationIssue.IssueType.WARNING, message));
-					} else {
-						// Description tag exists, check if it's empty.
-						Node descriptionNode = descriptionNodes.item(0);
-						if (descriptionNode.getTextContent() == null
-								|| descriptionNode.getTextContent().trim().isEmpty()) {
-							String message = String.format(
-									"DMN Element '%s' (ID: %s, Name: '%s') in file '%s' has an empty description.",
-									elementName, elementId, elementNameValue, fileName);
-							issues.add(new ValidationIssue(ValidationIssue.IssueType.WARNING, message));
-						}
-					}
-				}
+		} else if ("ANY".equalsIgnoreCase(hitPolicy)) {
+			RulePairIssues.Group violations = pairs.group(table, ValidationIssue.IssueType.ERROR,
+					"overlap. They have different outputs, which violates ANY hit policy.");
+			addPairsWithDifferentOutputs(index, rules, violations);
+			if (violations.getCount() > 0) {
+				overallResult.setValid(false);
 			}
+		} else {
+			// For other hit policies (FIRST, PRIORITY, COLLECT etc.), an overlap isn't
+			// necessarily an error.
+			index.forEachOverlapRow(pairs.group(table, ValidationIssue.IssueType.INFO,
+					"overlap. Hit policy is '" + hitPolicy + "'. Check if this overlap is intended.")::addAll);
 		}
 	}
 
-	private void checkForTypeConsistency(InputStream dmnInputStream, List<ValidationIssue> issues, String fileName,
-			DiagramValidationResult overallResult) throws ParserConfigurationException, SAXException, IOException {
-		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-		factory.setNamespaceAware(true);
-		DocumentBuilder builder = factory.newDocumentBuilder();
-		Document doc = builder.parse(dmnInputStream);
+	/**
+	 * Adds the overlapping pairs whose output entries differ, a row at a time.
+	 */
+	private static void addPairsWithDifferentOutputs(DmnRuleIndex index, List<DmnRule> rules,
+			RulePairIssues.Group group) {
+		BitSet[] sameOutput = DmnRuleShadowAnalyzer.sameOutputs(rules);
+		index.forEachOverlapRow((first, seconds) -> {
+			seconds.andNot(sameOutput[first]);
+			group.addAll(first, seconds);
+		});
+	}
 
-		NodeList decisionTableNodes = doc.getElementsByTagNameNS("*", "decisionTable");
-		if (decisionTableNodes.getLength() == 0) {
-			decisionTableNodes = doc.getElementsByTagName("decisionTable"); // Fallback
+	public void checkForMissingDescriptions(DmnDefinitions model, List<ValidationIssue> issues, String fileName,
+			DiagramValidationResult overallResult) {
+		// decision, inputData and businessKnowledgeModel elements should have descriptions;
+		// all decisions are reported first, then inputData, then businessKnowledgeModels
+		for (String kind : DESCRIBED_KINDS) {
+			for (DmnElement element : model.getElements()) {
+				if (kind.equals(element.getKind())) {
+					checkDescription(element, issues, fileName);
+				}
+			}
 		}
+	}
 
-		for (int i = 0; i < decisionTableNodes.getLength(); i++) {
-			Node decisionTableNode = decisionTableNodes.item(i);
-			if (decisionTableNode.getNodeType() == Node.ELEMENT_NODE) {
-				Element decisionTableElement = (Element) decisionTableNode;
-				String tableId = decisionTableElement.getAttribute("id");
-				if (tableId == null || tableId.isEmpty()) {
-					tableId = "UnnamedTable" + i;
-				}
+	private static void checkDescription(DmnElement element, List<ValidationIssue> issues, String fileName) {
+		String description = element.getDescription();
+		if (description == null) {
+			// No <description> tag. Report issue.
+			String message = String.format(
+					"DMN Element '%s' (ID: %s, Name: '%s') in file '%s' is missing a description.",
+					element.getKind(), element.getId(), element.getName(), fileName);
+			issues.add(new ValidationIssue(ValidationIssue.IssueType.WARNING, message));
+		} else if (description.trim().isEmpty()) {
+			// Description tag exists but is empty.
+			String message = String.format(
+					"DMN Element '%s' (ID: %s, Name: '%s') in file '%s' has an empty description.",
+					element.getKind(), element.getId(), element.getName(), fileName);
+			issues.add(new ValidationIssue(ValidationIssue.IssueType.WARNING, message));
+		}
+	}
 
-				// Extract input typeRefs
-				List<String> inputTypeRefs = new ArrayList<>();
-				NodeList inputNodes = decisionTableElement.getElementsByTagNameNS("*", "input");
-				if (inputNodes.getLength() == 0) {
-					inputNodes = decisionTableElement.getElementsByTagName("input");
-				}
-				for (int j = 0; j < inputNodes.getLength(); j++) {
-					Element inputElement = (Element) inputNodes.item(j);
-					NodeList inputExpressionNodes = inputElement.getElementsByTagNameNS("*", "inputExpression");
-					if (inputExpressionNodes.getLength() == 0) {
-						inputExpressionNodes = inputElement.getElementsByTagName("inputExpression");
-					}
-					if (inputExpressionNodes.getLength() > 0) {
-						Element inputExpressionElement = (Element) inputExpressionNodes.item(0);
-						inputTypeRefs.add(inputExpressionElement.getAttribute("typeRef"));
-					} else {
-						inputTypeRefs.add(null); // No typeRef specified
-					}
-				}
+	public void checkForTypeConsistency(DmnDefinitions model, List<ValidationIssue> issues, String fileName,
+			DiagramValidationResult overallResult) {
+		List<DmnDecisionTable> tables = model.getDecisionTables();
+		for (int i = 0; i < tables.size(); i++) {
+			DmnDecisionTable table = tables.get(i);
+			String tableId = table.getId();
+			if (tableId == null || tableId.isEmpty()) {
+				tableId = "UnnamedTable" + i;
+			}
 
-				// Extract output typeRefs
-				List<String> outputTypeRefs = new ArrayList<>();
-				NodeList outputNodes = decisionTableElement.getElementsByTagNameNS("*", "output");
-				if (outputNodes.getLength() == 0) {
-					outputNodes = decisionTableElement.getElementsByTagName("output");
-				}
-				for (int j = 0; j < outputNodes.getLength(); j++) {
-					Element outputElement = (Element) outputNodes.item(j);
-					outputTypeRefs.add(outputElement.getAttribute("typeRef"));
+			for (DmnRule rule : table.getRules()) {
+				ValidationBudget.checkpoint();
+				String ruleId = rule.getId();
+				if (ruleId == null || ruleId.isEmpty()) {
+					ruleId = "UnnamedRule" + rule.getIndex();
 				}
+				checkEntryTypes(rule.getInputEntries(), table.getInputs(), true, tableId, ruleId, fileName, issues);
+				checkEntryTypes(rule.getOutputEntries(), table.getOutputs(), false, tableId, ruleId, fileName, issues);
+			}
+		}
+	}
 
-				// Check rules
-				NodeList ruleNodes = decisionTableElement.getElementsByTagNameNS("*", "rule");
-				if (ruleNodes.getLength() == 0) {
-					ruleNodes = decisionTableElement.getElementsByTagName("rule");
-				}
-				for (int r = 0; r < ruleNodes.getLength(); r++) {
-					Node ruleNode = ruleNodes.item(r);
-					if (ruleNode.getNodeType() == Node.ELEMENT_NODE) {
-						Element ruleElement = (Element) ruleNode;
-						String ruleId = ruleElement.getAttribute("id");
-						if (ruleId == null || ruleId.isEmpty()) {
-							ruleId = "UnnamedRule" + r;
-						}
-
-						// Check input entries
-						NodeList inputEntryNodes = ruleElement.getElementsByTagNameNS("*", "inputEntry");
-						if (inputEntryNodes.getLength() == 0) {
-							inputEntryNodes = ruleElement.getElementsByTagName("inputEntry");
-						}
-						for (int ie = 0; ie < inputEntryNodes.getLength(); ie++) {
-							if (ie < inputTypeRefs.size()) {
-								String expectedType = inputTypeRefs.get(ie);
-								Element inputEntryElement = (Element) inputEntryNodes.item(ie);
-								NodeList textNodes = inputEntryElement.getElementsByTagNameNS("*", "text");
-								if (textNodes.getLength() == 0) {
-									textNodes = inputEntryElement.getElementsByTagName("text");
-								}
-								if (textNodes.getLength() > 0) {
-									String actualText = textNodes.item(0).getTextContent();
-									if (expectedType != null && !expectedType.trim().isEmpty() && actualText != null
-											&& !actualText.trim().isEmpty() && !actualText.trim().equals("-")) { // Skip
-																													// wildcards
-										if (!isLiteralTypeConsistent(actualText.trim(), expectedType.trim())) {
-											String message = String.format(
-													"Type inconsistency in Table '%s', Rule '%s' (File: %s): Input Entry %d expected type '%s' but found literal '%s' which appears to be of a different type.",
-													tableId, ruleId, fileName, ie + 1, expectedType, actualText);
-											issues.add(new ValidationIssue(ValidationIssue.IssueType.WARNING, message,
-													ruleId, "Input Entry " + (ie + 1)));
-										}
-									}
-								}
-							}
-						}
-
-						// Check output entries
-						NodeList outputEntryNodes = ruleElement.getElementsByTagNameNS("*", "outputEntry");
-						if (outputEntryNodes.getLength() == 0) {
-							outputEntryNodes = ruleElement.getElementsByTagName("outputEntry");
-						}
-						for (int oe = 0; oe < outputEntryNodes.getLength(); oe++) {
-							if (oe < outputTypeRefs.size()) {
-								String expectedType = outputTypeRefs.get(oe);
-								Element outputEntryElement = (Element) outputEntryNodes.item(oe);
-								NodeList textNodes = outputEntryElement.getElementsByTagNameNS("*", "text");
-								if (textNodes.getLength() == 0) {
-									textNodes = outputEntryElement.getElementsByTagName("text");
-								}
-								if (textNodes.getLength() > 0) {
-									String actualText = textNodes.item(0).getTextContent();
-									if (expectedType != null && !expectedType.trim().isEmpty() && actualText != null
-											&& !actualText.trim().isEmpty() && !actualText.trim().equals("-")) { // Skip
-																													// wildcards
-										if (!isLiteralTypeConsistent(actualText.trim(), expectedType.trim())) {
-											String message = String.format(
-													"Type inconsistency in Table '%s', Rule '%s' (File: %s): Output Entry %d expected type '%s' but found literal '%s' which appears to be of a different type.",
-													tableId, ruleId, fileName, oe + 1, expectedType, actualText);
-											issues.add(new ValidationIssue(ValidationIssue.IssueType.WARNING, message,
-													ruleId, "Output Entry " + (oe + 1)));
-										}
-									}
-								}
-							}
-						}
-					}
+	private void checkEntryTypes(List<String> entries, List<DmnClause> clauses, boolean inputEntries,
+			String tableId, String ruleId, String fileName, List<ValidationIssue> issues) {
+		String entryKind = inputEntries ? "Input" : "Output";
+		for (int e = 0; e < entries.size() && e < clauses.size(); e++) {
+			String expectedType = clauses.get(e).getTypeRef();
+			String actualText = entries.get(e);
+			if (expectedType != null && !expectedType.trim().isEmpty() && !actualText.trim().isEmpty()
+					&& !actualText.trim().equals("-")) { // Skip wildcards
+				boolean consistent = inputEntries ? isUnaryTestTypeConsistent(actualText, expectedType.trim())
+						: isLiteralTypeConsistent(actualText.trim(), expectedType.trim());
+				if (!consistent) {
+					String message = String.format(
+							"Type inconsistency in Table '%s', Rule '%s' (File: %s): %s Entry %d expected type '%s' but found literal '%s' which appears to be of a different type.",
+							tableId, ruleId, fileName, entryKind, e + 1, expectedType, actualText);
+					issues.add(new ValidationIssue(ValidationIssue.IssueType.WARNING, message, ruleId,
+							entryKind + " Entry " + (e + 1)));
 				}
 			}
 		}
 	}
 
+	/**
+	 * Input entries are unary tests, so {@code [18..65]} or {@code < 18} are numbers too.
+	 * Entries the compiler cannot reduce fall back to the literal check.
+	 */
+	private boolean isUnaryTestTypeConsistent(String entryText, String typeRef) {
+		FeelUnaryTest test = feelCompiler.compile(entryText);
+		switch (test.getDomain()) {
+		case ANY:
+			return true;
+		case OPAQUE:
+			return isLiteralTypeConsistent(test.getText(), typeRef);
+		default:
+			break;
+		}
+		switch (typeRef.toLowerCase()) {
+		case "number":
+		case "integer":
+		case "long":
+		case "double":
+			return test.getDomain() == FeelUnaryTest.Domain.NUMBER;
+		case "boolean":
+			return test.getDomain() == FeelUnaryTest.Domain.BOOLEAN;
+		case "string":
+			return test.getDomain() == FeelUnaryTest.Domain.STRING;
+		case "date":
+			return test.getDomain() == FeelUnaryTest.Domain.DATE;
+		default:
+			return isLiteralTypeConsistent(test.getText(), typeRef);
+		}
+	}
+
 	private boolean isLiteralTypeConsistent(String textContent, String typeRef) {
 		// Normalize typeRef for common FEEL types
 		String normalizedTypeRef = typeRef.toLowerCase();
@@ -640,133 +579,147 @@ public class DmnValidationService {
 		}
 	}
 
-	private void checkHitPolicyCompatibility(InputStream dmnInputStream, List<ValidationIssue> issues, String fileName,
-			DiagramValidationResult overallResult) throws ParserConfigurationException, SAXException, IOException {
-		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-		factory.setNamespaceAware(true);
-		DocumentBuilder builder = factory.newDocumentBuilder();
-		Document doc = builder.parse(dmnInputStream);
-
-		NodeList decisionTableNodes = doc.getElementsByTagNameNS("*", "decisionTable");
-		if (decisionTableNodes.getLength() == 0) {
-			decisionTableNodes = doc.getElementsByTagName("decisionTable");
+	public void checkHitPolicyCompatibility(DmnDefinitions model, Map<DmnDecisionTable, DmnRuleIndex> ruleIndexes,
+			List<ValidationIssue> issues, String fileName, DiagramValidationResult overallResult) {
+		RulePairIssues pairs = new RulePairIssues(issueLimits, fileName);
+		for (DmnDecisionTable table : model.getDecisionTables()) {
+			String tableId = table.getId();
+			String hitPolicy = table.getEffectiveHitPolicy();
+
+			switch (hitPolicy.toUpperCase()) {
+			case "UNIQUE":
+				checkUniqueHitPolicy(table.getRules(), ruleIndex(ruleIndexes, table), table, pairs);
+				break;
+			case "ANY":
+				checkAnyHitPolicy(table.getRules(), ruleIndex(ruleIndexes, table), table, pairs);
+				break;
+			case "FIRST":
+				checkFirstHitPolicy(ruleIndex(ruleIndexes, table), table, pairs, issues, fileName);
+				break;
+			case "PRIORITY":
+				checkPriorityHitPolicy(ruleIndex(ruleIndexes, table), table, pairs, issues, fileName);
+				break;
+			// Implement other hit policy checks here: RULE ORDER, COLLECT, etc.
+			default:
+				// If the hit policy is not supported or recognized, provide a warning.
+				issues.add(new ValidationIssue(ValidationIssue.IssueType.INFO,
+						"Hit policy '" + hitPolicy + "' is not explicitly validated, manual review recommended for table '"
+								+ tableId + "' in file '" + fileName + "'."));
+				break;
+			}
 		}
+		pairs.flush(issues);
+	}
 
-		for (int i = 0; i < decisionTableNodes.getLength(); i++) {
-			Node decisionTableNode = decisionTableNodes.item(i);
-			if (decisionTableNode.getNodeType() == Node.ELEMENT_NODE) {
-				Element decisionTableElement = (Element) decisionTableNode;
-				String tableId = decisionTableElement.getAttribute("id");
-				String hitPolicy = decisionTableElement.getAttribute("hitPolicy");
-				if (hitPolicy == null || hitPolicy.isEmpty()) {
-					hitPolicy = "UNIQUE"; // Default hit policy
-				}
-				List<ParsedDmnRule> rules = new ArrayList<>();
-				NodeList ruleNodes = decisionTableElement.getElementsByTagNameNS("*", "rule");
-				if (ruleNodes.getLength() == 0) {
-					ruleNodes = decisionTableElement.getElementsByTagName("rule");
-				}
+	private void checkUniqueHitPolicy(List<DmnRule> rules, DmnRuleIndex index, DmnDecisionTable table,
+			RulePairIssues pairs) {
+		if (rules.size() < 2)
+			return; // No conflicts possible with fewer than 2 rules
 
-				for (int r = 0; r < ruleNodes.getLength(); r++) {
-					Node ruleNode = ruleNodes.item(r);
-					if (ruleNode.getNodeType() == Node.ELEMENT_NODE) {
-						Element ruleElement = (Element) ruleNode;
-						ParsedDmnRule parsedRule = new ParsedDmnRule(ruleElement.getAttribute("id"), r);
-
-						NodeList inputEntryNodes = ruleElement.getElementsByTagNameNS("*", "inputEntry");
-						if (inputEntryNodes.getLength() == 0) {
-							inputEntryNodes = ruleElement.getElementsByTagName("inputEntry");
-						}
-						for (int ie = 0; ie < inputEntryNodes.getLength(); ie++) {
-							Element inputEntryElement = (Element) inputEntryNodes.item(ie);
-							Node textNode = inputEntryElement.getElementsByTagNameNS("*", "text").item(0);
-							if (textNode == null)
-								textNode = inputEntryElement.getElementsByTagName("text").item(0);
-							parsedRule.inputEntryTexts.add(textNode != null ? textNode.getTextContent() : "");
-						}
-
-						NodeList outputEntryNodes = ruleElement.getElementsByTagNameNS("*", "outputEntry");
-						if (outputEntryNodes.getLength() == 0) {
-							outputEntryNodes = ruleElement.getElementsByTagName("outputEntry");
-						}
-						for (int oe = 0; oe < outputEntryNodes.getLength(); oe++) {
-							Element outputEntryElement = (Element) outputEntryNodes.item(oe);
-							Node textNode = outputEntryElement.getElementsByTagNameNS("*", "text").item(0);
-							if (textNode == null)
-								textNode = outputEntryElement.getElementsByTagName("text").item(0);
-							parsedRule.outputEntryTexts.add(textNode != null ? textNode.getTextContent() : "");
-						}
-						rules.add(parsedRule);
-					}
-				}
+		index.forEachOverlapRow(pairs.group(table, ValidationIssue.IssueType.ERROR,
+				"overlap, which violates UNIQUE hit policy.")::addAll);
+	}
 
-				switch (hitPolicy.toUpperCase()) {
-				case "UNIQUE":
-					checkUniqueHitPolicy(rules, tableId, issues, fileName);
-					break;
-				case "ANY":
-					checkAnyHitPolicy(rules, tableId, issues, fileName);
-					break;
-				// Implement other hit policy checks here: FIRST, PRIORITY, COLLECT, etc.
-				default:
-					// If the hit policy is not supported or recognized, provide a warning.
-					issues.add(new ValidationIssue(ValidationIssue.IssueType.INFO,
-							"Hit policy '" + hitPolicy
-									+ "' is not explicitly validated, manual review recommended for table '" + tableId
-									+ "' in file '" + fileName + "'."));
-					break;
-				}
+	private void checkAnyHitPolicy(List<DmnRule> rules, DmnRuleIndex index, DmnDecisionTable table,
+			RulePairIssues pairs) {
+		if (rules.size() < 2)
+			return; // Need at least two rules to potentially violate ANY
+
+		addPairsWithDifferentOutputs(index, rules, pairs.group(table, ValidationIssue.IssueType.ERROR,
+				"overlap but have different outputs, which violates ANY hit policy."));
+	}
+
+	/**
+	 * Reports rules that never fire because earlier rules take all of their inputs, and rules
+	 * a later rule with the same output could stand in for; see {@link DmnRuleShadowAnalyzer}.
+	 */
+	private void checkFirstHitPolicy(DmnRuleIndex index, DmnDecisionTable table, RulePairIssues pairs,
+			List<ValidationIssue> issues, String fileName) {
+		DmnRuleShadowAnalyzer.Report report = shadowAnalyzer.analyze(table, index, true);
+		RulePairIssues.Group shadowed = pairs.group(table, ValidationIssue.IssueType.WARNING,
+				"overlap, and the first matches every input the second does, so the second never fires under FIRST hit policy.");
+		RulePairIssues.Group redundant = pairs.group(table, ValidationIssue.IssueType.WARNING,
+				"have the same output, and the second matches every input the first does, so the first can be removed"
+						+ " without changing any result under FIRST hit policy.");
+		for (int r = 0; r < table.getRules().size(); r++) {
+			if (report.getShadowedBy(r) >= 0) {
+				shadowed.add(report.getShadowedBy(r), r);
+			} else if (report.getRedundantWith(r) >= 0) {
+				redundant.add(r, report.getRedundantWith(r));
 			}
 		}
+		reportUnionLimit(table, report, issues, fileName);
+		reportCoveredRules(table, report.getCoveredByUnion(), ValidationIssue.IssueType.WARNING,
+				"never fires under FIRST hit policy: every input it matches is matched by earlier rules.",
+				"never fire under FIRST hit policy: every input they match is matched by earlier rules.", issues,
+				fileName);
 	}
 
-	private void checkUniqueHitPolicy(List<ParsedDmnRule> rules, String tableId, List<ValidationIssue> issues,
-			String fileName) {
-		if (rules.size() < 2)
-			return; // No conflicts possible with fewer than 2 rules
-
-		for (int i = 0; i < rules.size(); i++) {
-			for (int j = i + 1; j < rules.size(); j++) {
-				ParsedDmnRule rule1 = rules.get(i);
-				ParsedDmnRule rule2 = rules.get(j);
-
-				if (rulesMightOverlap(rule1, rule2)) {
-					String rule1Desc = "Rule " + (rule1.originalIndex + 1)
-							+ (rule1.id != null && !rule1.id.isEmpty() ? " (ID: " + rule1.id + ")" : "");
-					String rule2Desc = "Rule " + (rule2.originalIndex + 1)
-							+ (rule2.id != null && !rule2.id.isEmpty() ? " (ID: " + rule2.id + ")" : "");
-					String overlapMessage = String.format(
-							"%s and %s in table '%s' (file: %s) overlap, which violates UNIQUE hit policy.", rule1Desc,
-							rule2Desc, tableId, fileName);
-					issues.add(new ValidationIssue(ValidationIssue.IssueType.ERROR, overlapMessage));
-				}
+	/**
+	 * Reports rules another rule with the same output could stand in for. Which rule wins
+	 * between different outputs depends on output value priorities, so only rules with equal
+	 * outputs are compared.
+	 */
+	private void checkPriorityHitPolicy(DmnRuleIndex index, DmnDecisionTable table, RulePairIssues pairs,
+			List<ValidationIssue> issues, String fileName) {
+		DmnRuleShadowAnalyzer.Report report = shadowAnalyzer.analyze(table, index, false);
+		RulePairIssues.Group secondRedundant = pairs.group(table, ValidationIssue.IssueType.WARNING,
+				"have the same output, and the first matches every input the second does, so the second can be removed"
+						+ " without changing any result under PRIORITY hit policy.");
+		RulePairIssues.Group firstRedundant = pairs.group(table, ValidationIssue.IssueType.WARNING,
+				"have the same output, and the second matches every input the first does, so the first can be removed"
+						+ " without changing any result under PRIORITY hit policy.");
+		for (int r = 0; r < table.getRules().size(); r++) {
+			int other = report.getRedundantWith(r);
+			if (other >= 0 && other < r) {
+				secondRedundant.add(other, r);
+			} else if (other > r) {
+				firstRedundant.add(r, other);
 			}
 		}
+		reportUnionLimit(table, report, issues, fileName);
+		reportCoveredRules(table, report.getCoveredByUnion(), ValidationIssue.IssueType.WARNING,
+				"can be removed without changing any result under PRIORITY hit policy: every input it matches is"
+						+ " matched by earlier rules with the same output.",
+				"can be removed without changing any result under PRIORITY hit policy: every input they match is"
+						+ " matched by earlier rules with the same output.",
+				issues, fileName);
 	}
 
-	private void checkAnyHitPolicy(List<ParsedDmnRule> rules, String tableId, List<ValidationIssue> issues,
-			String fileName) {
-		if (rules.size() < 2)
-			return; // Need at least two rules to potentially violate ANY
+	private static void reportUnionLimit(DmnDecisionTable table, DmnRuleShadowAnalyzer.Report report,
+			List<ValidationIssue> issues, String fileName) {
+		if (report.isUnionLimitReached()) {
+			issues.add(new ValidationIssue(ValidationIssue.IssueType.INFO, String.format(
+					"Shadowed rule analysis for table '%s' (file: %s) stopped early; rules covered only by several"
+							+ " other rules together may not all be reported.",
+					table.getId(), fileName)));
+		}
+	}
 
-		for (int i = 0; i < rules.size(); i++) {
-			for (int j = i + 1; j < rules.size(); j++) {
-				ParsedDmnRule rule1 = rules.get(i);
-				ParsedDmnRule rule2 = rules.get(j);
-
-				if (rulesMightOverlap(rule1, rule2)
-						&& !compareOutputs(rule1.outputEntryTexts, rule2.outputEntryTexts)) {
-					String rule1Desc = "Rule " + (rule1.originalIndex + 1)
-							+ (rule1.id != null && !rule1.id.isEmpty() ? " (ID: " + rule1.id + ")" : "");
-					String rule2Desc = "Rule " + (rule2.originalIndex + 1)
-							+ (rule2.id != null && !rule2.id.isEmpty() ? " (ID: " + rule2.id + ")" : "");
-					String overlapMessage = String.format(
-							"%s and %s in table '%s' (file: %s) overlap but have different outputs, which violates ANY hit policy.",
-							rule1Desc, rule2Desc, tableId, fileName);
-					issues.add(new ValidationIssue(ValidationIssue.IssueType.ERROR, overlapMessage));
-				}
+	/**
+	 * One issue per table for the rules covered by a union of other rules, listing at most
+	 * {@link IssueLimits#getMaxPairsPerTable()} of them.
+	 */
+	private void reportCoveredRules(DmnDecisionTable table, BitSet covered, ValidationIssue.IssueType type,
+			String problem, String problemOfSeveral, List<ValidationIssue> issues, String fileName) {
+		int count = covered.cardinality();
+		if (count == 0) {
+			return;
+		}
+		StringBuilder rules = new StringBuilder();
+		int listed = 0;
+		for (int r = covered.nextSetBit(0); r >= 0 && listed < Math.max(1, issueLimits.getMaxPairsPerTable());
+				r = covered.nextSetBit(r + 1), listed++) {
+			if (listed > 0) {
+				rules.append(", ");
 			}
+			rules.append(RulePairIssues.describe(table, r));
+		}
+		if (listed < count) {
+			rules.append(" and ").append(count - listed).append(" more rules");
 		}
+		issues.add(new ValidationIssue(type, String.format("%s in table '%s' (file: %s) %s", rules, table.getId(),
+				fileName, count == 1 ? problem : problemOfSeveral), table.getId(), null));
 	}
 
 }
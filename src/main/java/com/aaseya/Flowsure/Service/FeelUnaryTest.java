@@ -0,0 +1,416 @@
+package com.aaseya.Flowsure.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A compiled FEEL unary test (a decision table input entry), reduced to the set of input
+ * values it matches.
+ * <p>
+ * Numbers and dates become sorted, disjoint intervals; strings and booleans become a
+ * finite set of values, possibly negated. Entries that cannot be reduced this way (for
+ * example comparisons against other variables) are {@link Domain#OPAQUE} and are only
+ * known to match the same values as an identical entry. Instances are immutable and are
+ * shared between rules and tables through {@link FeelUnaryTestCompiler}.
+ */
+public final class FeelUnaryTest {
+
+	public enum Domain {
+		ANY, NUMBER, DATE, STRING, BOOLEAN, OPAQUE
+	}
+
+	static final Set<String> BOOLEAN_VALUES = Set.of("true", "false");
+
+	private final String text;
+	private final Domain domain;
+	private final List<Interval> intervals; // NUMBER and DATE, sorted and disjoint
+	private final Set<String> values; // STRING and BOOLEAN
+	private final boolean negated; // STRING: matches every string except values
+
+	private FeelUnaryTest(String text, Domain domain, List<Interval> intervals, Set<String> values, boolean negated) {
+		this.text = text;
+		this.domain = domain;
+		this.intervals = intervals;
+		this.values = values;
+		this.negated = negated;
+	}
+
+	static FeelUnaryTest any(String text) {
+		return new FeelUnaryTest(text, Domain.ANY, Collections.emptyList(), Collections.emptySet(), false);
+	}
+
+	static FeelUnaryTest opaque(String text) {
+		return new FeelUnaryTest(text, Domain.OPAQUE, Collections.emptyList(), Collections.emptySet(), false);
+	}
+
+	static FeelUnaryTest ranges(String text, Domain domain, List<Interval> intervals) {
+		return new FeelUnaryTest(text, domain, normalize(intervals), Collections.emptySet(), false);
+	}
+
+	static FeelUnaryTest values(String text, Domain domain, Set<String> values, boolean negated) {
+		if (domain == Domain.BOOLEAN && negated) {
+			// The boolean domain is finite, so a negation is just the remaining values
+			Set<String> remaining = new HashSet<>(BOOLEAN_VALUES);
+			remaining.removeAll(values);
+			return new FeelUnaryTest(text, domain, Collections.emptyList(), Set.copyOf(remaining), false);
+		}
+		return new FeelUnaryTest(text, domain, Collections.emptyList(), Set.copyOf(values), negated);
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	public Domain getDomain() {
+		return domain;
+	}
+
+	public List<Interval> getIntervals() {
+		return intervals;
+	}
+
+	public Set<String> getValues() {
+		return values;
+	}
+
+	public boolean isNegated() {
+		return negated;
+	}
+
+	public boolean isAny() {
+		return domain == Domain.ANY;
+	}
+
+	/**
+	 * Whether some input value is matched by both tests. Tests over different domains never
+	 * intersect; opaque tests only intersect an identical entry. A test that matches nothing
+	 * intersects nothing, not even a wildcard.
+	 */
+	public boolean intersects(FeelUnaryTest other) {
+		if (isEmpty() || other.isEmpty()) {
+			return false;
+		}
+		if (domain == Domain.ANY || other.domain == Domain.ANY) {
+			return true;
+		}
+		if (domain != other.domain) {
+			return false;
+		}
+		switch (domain) {
+		case NUMBER:
+		case DATE:
+			return intervalsIntersect(intervals, other.intervals);
+		case STRING:
+		case BOOLEAN:
+			if (negated && other.negated) {
+				return true; // both exclude finitely many strings
+			}
+			if (negated) {
+				return !values.containsAll(other.values);
+			}
+			if (other.negated) {
+				return !other.values.containsAll(values);
+			}
+			for (String value : values) {
+				if (other.values.contains(value)) {
+					return true;
+				}
+			}
+			return false;
+		default:
+			return text.equals(other.text);
+		}
+	}
+
+	/**
+	 * Whether this test matches every input value the other test matches. Like
+	 * {@link #intersects}, an opaque test is only known to contain an identical entry.
+	 */
+	public boolean contains(FeelUnaryTest other) {
+		if (domain == Domain.ANY || other.isEmpty()) {
+			return true;
+		}
+		if (other.domain == Domain.ANY || domain != other.domain) {
+			return false;
+		}
+		switch (domain) {
+		case NUMBER:
+		case DATE:
+			return intervalsContain(intervals, other.intervals);
+		case STRING:
+		case BOOLEAN:
+			if (negated && other.negated) {
+				return other.values.containsAll(values);
+			}
+			if (negated) {
+				for (String value : other.values) {
+					if (values.contains(value)) {
+						return false;
+					}
+				}
+				return true;
+			}
+			return !other.negated && values.containsAll(other.values);
+		default:
+			return text.equals(other.text);
+		}
+	}
+
+	/**
+	 * Whether this test matches nothing at all, e.g. {@code [10..1]}.
+	 */
+	public boolean isEmpty() {
+		switch (domain) {
+		case NUMBER:
+		case DATE:
+			return intervals.isEmpty();
+		case STRING:
+		case BOOLEAN:
+			return !negated && values.isEmpty();
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * The values of the domain this test does not match. Only defined for interval and
+	 * value domains.
+	 */
+	FeelUnaryTest negate(String negatedText) {
+		switch (domain) {
+		case NUMBER:
+		case DATE:
+			return new FeelUnaryTest(negatedText, domain, complement(intervals), Collections.emptySet(), false);
+		case STRING:
+		case BOOLEAN:
+			return values(negatedText, domain, values, !negated);
+		default:
+			return opaque(negatedText);
+		}
+	}
+
+	/**
+	 * Union of tests over the same domain, as written in a disjunction {@code a, b, c}.
+	 */
+	static FeelUnaryTest union(String text, List<FeelUnaryTest> parts) {
+		Domain domain = parts.get(0).domain;
+		for (FeelUnaryTest part : parts) {
+			if (part.domain == Domain.ANY) {
+				return any(text);
+			}
+			if (part.domain != domain || domain == Domain.OPAQUE) {
+				return opaque(text);
+			}
+		}
+		if (domain == Domain.NUMBER || domain == Domain.DATE) {
+			List<Interval> all = new ArrayList<>();
+			for (FeelUnaryTest part : parts) {
+				all.addAll(part.intervals);
+			}
+			return ranges(text, domain, all);
+		}
+		// Strings: a negated part absorbs the others, minus what they add back
+		Set<String> positive = new HashSet<>();
+		Set<String> excluded = null;
+		for (FeelUnaryTest part : parts) {
+			if (part.negated) {
+				if (excluded == null) {
+					excluded = new HashSet<>(part.values);
+				} else {
+					excluded.retainAll(part.values);
+				}
+			} else {
+				positive.addAll(part.values);
+			}
+		}
+		if (excluded == null) {
+			return values(text, domain, positive, false);
+		}
+		excluded.removeAll(positive);
+		return values(text, domain, excluded, true);
+	}
+
+	private static boolean intervalsIntersect(List<Interval> a, List<Interval> b) {
+		int i = 0;
+		int j = 0;
+		while (i < a.size() && j < b.size()) {
+			Interval x = a.get(i);
+			Interval y = b.get(j);
+			if (x.intersects(y)) {
+				return true;
+			}
+			if (x.high < y.high || (x.high == y.high && !x.highClosed)) {
+				i++;
+			} else {
+				j++;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Both lists are sorted and disjoint, so each inner interval can only lie within the
+	 * first outer interval that does not end before it.
+	 */
+	private static boolean intervalsContain(List<Interval> outer, List<Interval> inner) {
+		int i = 0;
+		for (Interval y : inner) {
+			while (i < outer.size() && outer.get(i).endsBefore(y)) {
+				i++;
+			}
+			if (i == outer.size() || !outer.get(i).contains(y)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static List<Interval> normalize(List<Interval> intervals) {
+		List<Interval> sorted = new ArrayList<>(intervals.size());
+		for (Interval interval : intervals) {
+			if (!interval.isEmpty()) {
+				sorted.add(interval);
+			}
+		}
+		if (sorted.size() < 2) {
+			return List.copyOf(sorted);
+		}
+		sorted.sort(Interval.BY_LOW);
+		List<Interval> merged = new ArrayList<>(sorted.size());
+		Interval current = sorted.get(0);
+		for (int k = 1; k < sorted.size(); k++) {
+			Interval next = sorted.get(k);
+			boolean touches = next.low < current.high
+					|| (next.low == current.high && (next.lowClosed || current.highClosed));
+			if (!touches) {
+				merged.add(current);
+				current = next;
+			} else if (next.high > current.high || (next.high == current.high && next.highClosed)) {
+				current = new Interval(current.low, current.lowClosed, next.high, next.highClosed);
+			}
+		}
+		merged.add(current);
+		return List.copyOf(merged);
+	}
+
+	private static List<Interval> complement(List<Interval> intervals) {
+		List<Interval> gaps = new ArrayList<>(intervals.size() + 1);
+		double low = Double.NEGATIVE_INFINITY;
+		boolean lowClosed = false;
+		for (Interval interval : intervals) {
+			Interval gap = new Interval(low, lowClosed, interval.low, !interval.lowClosed);
+			if (!gap.isEmpty()) {
+				gaps.add(gap);
+			}
+			low = interval.high;
+			lowClosed = !interval.highClosed;
+		}
+		Interval tail = new Interval(low, lowClosed, Double.POSITIVE_INFINITY, false);
+		if (!tail.isEmpty()) {
+			gaps.add(tail);
+		}
+		return List.copyOf(gaps);
+	}
+
+	@Override
+	public String toString() {
+		return domain + " " + text;
+	}
+
+	/**
+	 * An interval of numbers, or of dates as epoch days. Unbounded ends are infinite and open.
+	 */
+	public static final class Interval {
+
+		static final Comparator<Interval> BY_LOW = (a, b) -> {
+			int byLow = Double.compare(a.low, b.low);
+			if (byLow != 0) {
+				return byLow;
+			}
+			return Boolean.compare(b.lowClosed, a.lowClosed); // closed first
+		};
+
+		private final double low;
+		private final boolean lowClosed;
+		private final double high;
+		private final boolean highClosed;
+
+		Interval(double low, boolean lowClosed, double high, boolean highClosed) {
+			this.low = low;
+			this.lowClosed = lowClosed && low != Double.NEGATIVE_INFINITY;
+			this.high = high;
+			this.highClosed = highClosed && high != Double.POSITIVE_INFINITY;
+		}
+
+		static Interval point(double value) {
+			return new Interval(value, true, value, true);
+		}
+
+		public double getLow() {
+			return low;
+		}
+
+		public boolean isLowClosed() {
+			return lowClosed;
+		}
+
+		public double getHigh() {
+			return high;
+		}
+
+		public boolean isHighClosed() {
+			return highClosed;
+		}
+
+		public boolean isEmpty() {
+			return low > high || (low == high && !(lowClosed && highClosed));
+		}
+
+		public boolean intersects(Interval other) {
+			double maxLow;
+			boolean maxLowClosed;
+			if (low != other.low) {
+				maxLow = Math.max(low, other.low);
+				maxLowClosed = low > other.low ? lowClosed : other.lowClosed;
+			} else {
+				maxLow = low;
+				maxLowClosed = lowClosed && other.lowClosed;
+			}
+			double minHigh;
+			boolean minHighClosed;
+			if (high != other.high) {
+				minHigh = Math.min(high, other.high);
+				minHighClosed = high < other.high ? highClosed : other.highClosed;
+			} else {
+				minHigh = high;
+				minHighClosed = highClosed && other.highClosed;
+			}
+			return maxLow < minHigh || (maxLow == minHigh && maxLowClosed && minHighClosed);
+		}
+
+		/**
+		 * Whether every value of this interval is below every value of the other.
+		 */
+		boolean endsBefore(Interval other) {
+			return high < other.low || (high == other.low && !(highClosed && other.lowClosed));
+		}
+
+		/**
+		 * Whether every value of the other interval lies in this one.
+		 */
+		boolean contains(Interval other) {
+			boolean lowOk = low < other.low || (low == other.low && (lowClosed || !other.lowClosed));
+			boolean highOk = high > other.high || (high == other.high && (highClosed || !other.highClosed));
+			return lowOk && highOk;
+		}
+
+		@Override
+		public String toString() {
+			return (lowClosed ? "[" : "(") + low + ".." + high + (highClosed ? "]" : ")");
+		}
+	}
+}
@@ -0,0 +1,249 @@
+package com.aaseya.Flowsure.Service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.aaseya.Flowsure.Service.FeelUnaryTest.Domain;
+import com.aaseya.Flowsure.Service.FeelUnaryTest.Interval;
+
+/**
+ * Compiles decision table input entries (FEEL unary tests) into {@link FeelUnaryTest}s.
+ * <p>
+ * Supported are wildcards ({@code -} or empty), literals (numbers, quoted strings,
+ * booleans, {@code date("...")}), comparisons ({@code < 18}, {@code >= date("2024-01-01")}),
+ * ranges with open or closed ends ({@code [18..65[}, {@code (1..10]}), disjunctions
+ * ({@code "GOLD", "SILVER"}) and {@code not(...)}. Anything else compiles to an opaque
+ * test. Compiled tests are cached by entry text, so a value repeated across rules and
+ * tables is parsed once; the cache is thread-safe and is cleared when it grows past its
+ * limit.
+ */
+public final class FeelUnaryTestCompiler {
+
+	private static final int DEFAULT_CACHE_SIZE = 50_000;
+
+	private static final Pattern NUMBER = Pattern.compile("-?\\d+(\\.\\d+)?");
+	private static final Pattern DATE_LITERAL = Pattern.compile("\\d{4}-\\d{2}-\\d{2}");
+	private static final Pattern DATE_FUNCTION = Pattern.compile("date\\s*\\(\\s*\"(\\d{4}-\\d{2}-\\d{2})\"\\s*\\)");
+
+	private final Map<String, FeelUnaryTest> cache = new ConcurrentHashMap<>();
+	private final int maxCacheSize;
+
+	public FeelUnaryTestCompiler() {
+		this(DEFAULT_CACHE_SIZE);
+	}
+
+	public FeelUnaryTestCompiler(int maxCacheSize) {
+		this.maxCacheSize = maxCacheSize;
+	}
+
+	public FeelUnaryTest compile(String entryText) {
+		String text = entryText.trim();
+		FeelUnaryTest compiled = cache.get(text);
+		if (compiled == null) {
+			compiled = compileTests(text);
+			if (cache.size() >= maxCacheSize) {
+				cache.clear();
+			}
+			cache.put(text, compiled);
+		}
+		return compiled;
+	}
+
+	private static FeelUnaryTest compileTests(String text) {
+		if (text.isEmpty() || text.equals("-")) {
+			return FeelUnaryTest.any(text);
+		}
+		if (text.startsWith("not") && text.endsWith(")")) {
+			int open = text.indexOf('(');
+			if (open > 0 && text.substring(3, open).isBlank() && closingParen(text, open) == text.length() - 1) {
+				FeelUnaryTest inner = compileDisjunction(text.substring(open + 1, text.length() - 1).trim());
+				if (inner.getDomain() == Domain.ANY || inner.getDomain() == Domain.OPAQUE) {
+					return FeelUnaryTest.opaque(text);
+				}
+				return inner.negate(text);
+			}
+		}
+		return compileDisjunction(text);
+	}
+
+	private static FeelUnaryTest compileDisjunction(String text) {
+		List<String> parts = splitTopLevel(text);
+		if (parts == null) {
+			return FeelUnaryTest.opaque(text);
+		}
+		if (parts.size() == 1) {
+			return compileTest(text);
+		}
+		List<FeelUnaryTest> tests = new ArrayList<>(parts.size());
+		for (String part : parts) {
+			if (part.equals("-")) {
+				return FeelUnaryTest.opaque(text);
+			}
+			tests.add(compileTest(part));
+		}
+		return FeelUnaryTest.union(text, tests);
+	}
+
+	private static FeelUnaryTest compileTest(String text) {
+		if (text.isEmpty()) {
+			return FeelUnaryTest.opaque(text);
+		}
+		// Comparisons: < e, <= e, > e, >= e
+		char first = text.charAt(0);
+		if (first == '<' || first == '>') {
+			boolean inclusive = text.length() > 1 && text.charAt(1) == '=';
+			Value endpoint = parseValue(text.substring(inclusive ? 2 : 1).trim());
+			if (endpoint == null || !endpoint.isOrdered()) {
+				return FeelUnaryTest.opaque(text);
+			}
+			Interval interval = first == '<'
+					? new Interval(Double.NEGATIVE_INFINITY, false, endpoint.number, inclusive)
+					: new Interval(endpoint.number, inclusive, Double.POSITIVE_INFINITY, false);
+			return FeelUnaryTest.ranges(text, endpoint.domain, List.of(interval));
+		}
+		// Ranges: [a..b], (a..b), ]a..b[ and mixed ends
+		char last = text.charAt(text.length() - 1);
+		if ((first == '[' || first == '(' || first == ']') && (last == ']' || last == ')' || last == '[')) {
+			int dots = indexOutsideQuotes(text, "..");
+			if (dots < 0) {
+				return FeelUnaryTest.opaque(text);
+			}
+			Value low = parseValue(text.substring(1, dots).trim());
+			Value high = parseValue(text.substring(dots + 2, text.length() - 1).trim());
+			if (low == null || high == null || !low.isOrdered() || low.domain != high.domain) {
+				return FeelUnaryTest.opaque(text);
+			}
+			return FeelUnaryTest.ranges(text, low.domain,
+					List.of(new Interval(low.number, first == '[', high.number, last == ']')));
+		}
+		// Plain literal
+		Value value = parseValue(text);
+		if (value == null) {
+			return FeelUnaryTest.opaque(text);
+		}
+		if (value.isOrdered()) {
+			return FeelUnaryTest.ranges(text, value.domain, List.of(Interval.point(value.number)));
+		}
+		return FeelUnaryTest.values(text, value.domain, Set.of(value.string), false);
+	}
+
+	/**
+	 * Parses a literal endpoint, or returns null if it is not a literal.
+	 */
+	private static Value parseValue(String text) {
+		if (text.length() >= 2 && text.startsWith("\"") && text.endsWith("\"")
+				&& text.substring(1, text.length() - 1).replace("\\\"", "").indexOf('"') < 0) {
+			return new Value(Domain.STRING, 0, text.substring(1, text.length() - 1).replace("\\\"", "\""));
+		}
+		if (text.equals("true") || text.equals("false")) {
+			return new Value(Domain.BOOLEAN, 0, text);
+		}
+		if (NUMBER.matcher(text).matches()) {
+			return new Value(Domain.NUMBER, Double.parseDouble(text), null);
+		}
+		String date = null;
+		Matcher function = DATE_FUNCTION.matcher(text);
+		if (function.matches()) {
+			date = function.group(1);
+		} else if (DATE_LITERAL.matcher(text).matches()) {
+			date = text;
+		}
+		if (date != null) {
+			try {
+				return new Value(Domain.DATE, LocalDate.parse(date).toEpochDay(), null);
+			} catch (DateTimeParseException e) {
+				return null;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Splits on commas outside quotes and function-call parentheses; null if quotes are
+	 * unbalanced. Parentheses used as open range ends are not counted.
+	 */
+	private static List<String> splitTopLevel(String text) {
+		List<String> parts = new ArrayList<>();
+		int depth = 0;
+		boolean quoted = false;
+		int start = 0;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c == '"' && (i == 0 || text.charAt(i - 1) != '\\')) {
+				quoted = !quoted;
+			} else if (!quoted && c == '(' && isCall(text, i)) {
+				depth++;
+			} else if (!quoted && c == ')' && depth > 0) {
+				depth--;
+			} else if (!quoted && depth == 0 && c == ',') {
+				parts.add(text.substring(start, i).trim());
+				start = i + 1;
+			}
+		}
+		if (quoted) {
+			return null;
+		}
+		parts.add(text.substring(start).trim());
+		return parts;
+	}
+
+	private static int closingParen(String text, int open) {
+		int depth = 0;
+		boolean quoted = false;
+		for (int i = open; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c == '"' && text.charAt(i - 1) != '\\') {
+				quoted = !quoted;
+			} else if (!quoted && c == '(' && isCall(text, i)) {
+				depth++;
+			} else if (!quoted && c == ')' && depth > 0 && --depth == 0) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static boolean isCall(String text, int paren) {
+		int i = paren - 1;
+		while (i >= 0 && Character.isWhitespace(text.charAt(i))) {
+			i--;
+		}
+		return i >= 0 && Character.isLetter(text.charAt(i));
+	}
+
+	private static int indexOutsideQuotes(String text, String token) {
+		boolean quoted = false;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c == '"' && (i == 0 || text.charAt(i - 1) != '\\')) {
+				quoted = !quoted;
+			} else if (!quoted && text.startsWith(token, i)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static final class Value {
+		final Domain domain;
+		final double number; // NUMBER, or epoch day for DATE
+		final String string; // STRING and BOOLEAN
+
+		Value(Domain domain, double number, String string) {
+			this.domain = domain;
+			this.number = number;
+			this.string = string;
+		}
+
+		boolean isOrdered() {
+			return domain == Domain.NUMBER || domain == Domain.DATE;
+		}
+	}
+}
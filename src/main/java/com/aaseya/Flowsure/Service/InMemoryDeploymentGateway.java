@@ -0,0 +1,66 @@
+package com.aaseya.Flowsure.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records deployments in memory instead of sending them to a cluster; for tests and local
+ * runs with {@code flowsure.deploy.gateway=in-memory}. Every deployment succeeds.
+ */
+@Component
+@ConditionalOnProperty(name = "flowsure.deploy.gateway", havingValue = "in-memory")
+public class InMemoryDeploymentGateway implements DeploymentGateway {
+
+    private final AtomicLong nextKey = new AtomicLong(1);
+    private final List<Deployment> deployments = new ArrayList<>();
+
+    @Override
+    public CompletableFuture<Long> deploy(String archiveName, List<Resource> resources) {
+        if (resources.isEmpty()) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Nothing to deploy from " + archiveName));
+        }
+        Deployment deployment = new Deployment(nextKey.getAndIncrement(), archiveName, List.copyOf(resources));
+        synchronized (deployments) {
+            deployments.add(deployment);
+        }
+        return CompletableFuture.completedFuture(deployment.getKey());
+    }
+
+    /**
+     * Every deployment so far, oldest first.
+     */
+    public List<Deployment> getDeployments() {
+        synchronized (deployments) {
+            return new ArrayList<>(deployments);
+        }
+    }
+
+    public static final class Deployment {
+        private final long key;
+        private final String archiveName;
+        private final List<Resource> resources;
+
+        Deployment(long key, String archiveName, List<Resource> resources) {
+            this.key = key;
+            this.archiveName = archiveName;
+            this.resources = resources;
+        }
+
+        public long getKey() {
+            return key;
+        }
+
+        public String getArchiveName() {
+            return archiveName;
+        }
+
+        public List<Resource> getResources() {
+            return resources;
+        }
+    }
+}
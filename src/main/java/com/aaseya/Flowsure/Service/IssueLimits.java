@@ -0,0 +1,52 @@
+package com.aaseya.Flowsure.Service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounds on the issues reported for rule pairs, such as overlapping rules, so the size of a
+ * result follows what it tells rather than the square of the rule count. See {@link RulePairIssues}.
+ * <ul>
+ * <li>{@code max-pairs-per-table} - pairs one check reports one by one for a decision table;
+ * a table with more pairs gets a single summary issue</li>
+ * <li>{@code max-pairs-per-file} - pairs one check reports one by one across all tables of a
+ * file; further tables get summary issues only</li>
+ * <li>{@code sample-pairs} - pairs listed in a summary issue</li>
+ * </ul>
+ */
+@Component
+public class IssueLimits {
+
+    private final int maxPairsPerTable;
+    private final int maxPairsPerFile;
+    private final int samplePairs;
+
+    @Autowired
+    public IssueLimits(@Value("${flowsure.validation.issues.max-pairs-per-table:20}") int maxPairsPerTable,
+            @Value("${flowsure.validation.issues.max-pairs-per-file:200}") int maxPairsPerFile,
+            @Value("${flowsure.validation.issues.sample-pairs:5}") int samplePairs) {
+        this.maxPairsPerTable = Math.max(0, maxPairsPerTable);
+        this.maxPairsPerFile = Math.max(0, maxPairsPerFile);
+        this.samplePairs = Math.max(0, samplePairs);
+    }
+
+    /**
+     * The limits as configured by default, for running the validators outside the application context.
+     */
+    public static IssueLimits defaults() {
+        return new IssueLimits(20, 200, 5);
+    }
+
+    public int getMaxPairsPerTable() {
+        return maxPairsPerTable;
+    }
+
+    public int getMaxPairsPerFile() {
+        return maxPairsPerFile;
+    }
+
+    public int getSamplePairs() {
+        return samplePairs;
+    }
+}
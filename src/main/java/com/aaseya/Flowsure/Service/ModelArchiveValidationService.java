@@ -0,0 +1,140 @@
+package com.aaseya.Flowsure.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.aaseya.Flowsure.Model.DiagramValidationResult;
+
+/**
+ * Validates archives that mix BPMN and DMN files in a single pass.
+ * <p>
+ * Every diagram entry is inflated once by the {@link ArchiveValidationPipeline}. Its type is
+ * then taken from the namespace of its root element, reading only the first start element,
+ * and the bytes go to exactly one validator: BPMN files to the streaming BPMN checks of
+ * {@link DiagramValidationService}, DMN files to the full decision table analysis of
+ * {@link DmnValidationService}. Each file is parsed once, and results are cached under the
+ * same keys as on the single-type endpoints. Requirements between the DMN files are resolved
+ * once all files are done; see {@link DmnRequirementGraph}.
+ */
+@Service
+public class ModelArchiveValidationService {
+
+    /**
+     * Receives the content of every BPMN and DMN entry as it is validated, e.g. to deploy the
+     * archive afterwards without inflating it again. Called from the worker threads.
+     */
+    @FunctionalInterface
+    public interface EntrySink {
+        /**
+         * @param diagramType "BPMN" or "DMN", as sniffed from the root element.
+         */
+        void accept(String entryName, String diagramType, byte[] content);
+    }
+
+    private final ArchiveValidationPipeline pipeline;
+    private final ValidationResultCache resultCache;
+    private final DiagramValidationService diagramValidationService;
+    private final DmnValidationService dmnValidationService;
+
+    public ModelArchiveValidationService(ArchiveValidationPipeline pipeline, ValidationResultCache resultCache,
+            DiagramValidationService diagramValidationService, DmnValidationService dmnValidationService) {
+        this.pipeline = pipeline;
+        this.resultCache = resultCache;
+        this.diagramValidationService = diagramValidationService;
+        this.dmnValidationService = dmnValidationService;
+    }
+
+    /**
+     * Validates every .bpmn, .dmn and .xml entry of the archive on the shared worker pool.
+     *
+     * @return one result per diagram in archive order, followed by the requirements graph
+     *         result if it has anything to report.
+     */
+    public List<DiagramValidationResult> validateZip(MultipartFile zipFile) {
+        List<DiagramValidationResult> allResults = new ArrayList<>();
+        try {
+            validateZip(zipFile, allResults::add);
+        } catch (IOException e) {
+            // Adding to a list cannot fail; archive errors are reported as results
+            throw new UncheckedIOException(e);
+        }
+        return allResults;
+    }
+
+    /**
+     * Streaming variant of {@link #validateZip(MultipartFile)}: each result is handed to the
+     * listener as soon as it is available, in archive order. Archive-level problems are
+     * reported as error results as well.
+     *
+     * @throws IOException only if the listener fails.
+     */
+    public void validateZip(MultipartFile zipFile, ValidationResultListener listener) throws IOException {
+        validateZip(zipFile, listener, null);
+    }
+
+    /**
+     * Variant of {@link #validateZip(MultipartFile, ValidationResultListener)} that also hands
+     * the content of every BPMN and DMN entry to the sink.
+     */
+    public void validateZip(MultipartFile zipFile, ValidationResultListener listener, EntrySink sink)
+            throws IOException {
+        DmnRequirementGraph requirements = new DmnRequirementGraph();
+        try {
+            pipeline.validate(zipFile, DiagramValidationService::isDiagramEntry,
+                    (entryName, content) -> validateEntry(entryName, content, requirements, sink),
+                    requirements.track(listener));
+        } catch (IOException e) {
+            listener.onResult(DiagramValidationService.archiveError(zipFile.getOriginalFilename(), e));
+            return;
+        }
+        dmnValidationService.reportRequirements(requirements, listener);
+    }
+
+    /**
+     * Variant of {@link #validateZip(MultipartFile, ValidationResultListener)} for an archive
+     * that is already on disk.
+     *
+     * @param archiveName The name reported if the archive itself cannot be read.
+     */
+    public void validateZip(Path archive, String archiveName, ValidationResultListener listener) throws IOException {
+        DmnRequirementGraph requirements = new DmnRequirementGraph();
+        try {
+            pipeline.validate(archive, DiagramValidationService::isDiagramEntry,
+                    (entryName, content) -> validateEntry(entryName, content, requirements, null),
+                    requirements.track(listener));
+        } catch (IOException e) {
+            listener.onResult(DiagramValidationService.archiveError(archiveName, e));
+            return;
+        }
+        dmnValidationService.reportRequirements(requirements, listener);
+    }
+
+    private DiagramValidationResult validateEntry(String entryName, byte[] content, DmnRequirementGraph requirements,
+            EntrySink sink) throws Exception {
+        String diagramType;
+        try {
+            diagramType = diagramValidationService.determineDiagramType(content, entryName);
+        } catch (XMLStreamException e) {
+            // Not even a root element; the validator for the extension reports the syntax error
+            diagramType = DiagramValidationService.diagramTypeByExtension(entryName);
+        }
+        if (sink != null && (DiagramValidationService.BPMN.equals(diagramType)
+                || DiagramValidationService.DMN.equals(diagramType))) {
+            sink.accept(entryName, diagramType, content);
+        }
+        if (DiagramValidationService.DMN.equals(diagramType)) {
+            return dmnValidationService.validateCached(entryName, content, requirements);
+        }
+        String type = diagramType;
+        return resultCache.getOrValidate(DiagramValidationService.CACHE_NAMESPACE, entryName, content,
+                (name, bytes) -> diagramValidationService.validateDiagram(name, bytes, type));
+    }
+}
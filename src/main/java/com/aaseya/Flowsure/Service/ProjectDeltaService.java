@@ -0,0 +1,237 @@
+package com.aaseya.Flowsure.Service;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.aaseya.Flowsure.DTO.ManifestDiff;
+import com.aaseya.Flowsure.DTO.ManifestRequest;
+import com.aaseya.Flowsure.Entity.ProjectManifest;
+import com.aaseya.Flowsure.Model.DiagramValidationResult;
+import com.aaseya.Flowsure.Model.ValidationIssue;
+import com.aaseya.Flowsure.Model.ValidationIssue.IssueType;
+import com.aaseya.Flowsure.Repository.ProjectManifestRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Project-scoped delta validation.
+ * <p>
+ * The client first submits a manifest of entry names and SHA-256 hashes. Entries that are
+ * unchanged since the project's last validated run need not be sent, and neither do entries
+ * whose exact bytes already have a result in the {@link ValidationResultCache}; the rest are
+ * listed as missing. The client then uploads a ZIP holding only the missing entries, and the
+ * server answers with results for the whole manifest: fresh ones for the uploaded entries,
+ * the last run's for unchanged ones, and cached ones for everything else. Upload size and
+ * validation work thus follow the size of the change.
+ * <p>
+ * The manifest and results of the last validated run are kept per project, so unchanged
+ * entries do not depend on the cache keeping their rows. They are only reused under the
+ * ruleset version they were found under; after a ruleset bump every entry is validated
+ * again. Submissions for a project are serialized by a database lock.
+ */
+@Service
+@ConditionalOnProperty(name = "flowsure.persistence.enabled", havingValue = "true", matchIfMissing = true)
+public class ProjectDeltaService {
+
+    private static final TypeReference<LinkedHashMap<String, String>> MANIFEST = new TypeReference<>() {};
+    private static final TypeReference<LinkedHashMap<String, DiagramValidationResult>> RESULTS = new TypeReference<>() {};
+
+    private final ProjectManifestRepository manifestRepository;
+    private final ValidationResultCache resultCache;
+    private final DiagramValidationService diagramValidationService;
+    private final DmnValidationService dmnValidationService;
+    private final ObjectMapper objectMapper;
+
+    public ProjectDeltaService(ProjectManifestRepository manifestRepository, ValidationResultCache resultCache,
+            DiagramValidationService diagramValidationService, DmnValidationService dmnValidationService,
+            ObjectMapper objectMapper) {
+        this.manifestRepository = manifestRepository;
+        this.resultCache = resultCache;
+        this.diagramValidationService = diagramValidationService;
+        this.dmnValidationService = dmnValidationService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Stores the manifest as the project's pending manifest and lists the entries that must
+     * be uploaded. Entries the validator would not look at (e.g. images) are dropped.
+     *
+     * @throws IllegalArgumentException if the type is neither "diagram" nor "dmn".
+     */
+    @Transactional
+    public ManifestDiff submitManifest(String project, ManifestRequest manifest) throws JsonProcessingException {
+        String type = normalizeType(manifest.getType());
+        Map<String, String> entries = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : manifest.getEntries().entrySet()) {
+            String name = entry.getKey();
+            if (entryFilter(type).test(name) && entry.getValue() != null) {
+                entries.put(name, entry.getValue().toLowerCase());
+            }
+        }
+
+        manifestRepository.lockProject(project);
+        ProjectManifest stored = manifestRepository.findById(project).orElseGet(() -> new ProjectManifest(project, type));
+        if (!type.equals(stored.getType())) {
+            // A project switching validators starts over
+            stored.setType(type);
+            stored.setEntriesJson(null);
+            stored.setResultsJson(null);
+            stored.setRulesetVersion(null);
+        }
+        Map<String, String> previous = previousEntries(stored);
+        Map<String, String> changed = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            if (!entry.getValue().equals(previous.get(entry.getKey()))) {
+                changed.put(entry.getKey(), entry.getValue());
+            }
+        }
+        Set<String> cached = resultCache.cachedEntries(cacheNamespace(type), changed);
+        List<String> missing = new ArrayList<>();
+        for (String name : changed.keySet()) {
+            if (!cached.contains(name)) {
+                missing.add(name);
+            }
+        }
+
+        stored.setPendingJson(objectMapper.writeValueAsString(entries));
+        stored.setUpdatedAt(Instant.now());
+        manifestRepository.save(stored);
+        return new ManifestDiff(project, entries.size(), entries.size() - missing.size(), missing);
+    }
+
+    /**
+     * Validates the uploaded entries and merges them with the last run's results for
+     * unchanged entries and cached results for the rest of the pending manifest, in manifest
+     * order. Entries that were neither uploaded nor known are reported as errors and left
+     * out of the stored manifest, so they are requested again.
+     *
+     * @param delta ZIP with the missing entries; may be null or empty if nothing is missing.
+     * @throws IllegalStateException if no manifest was submitted for the project.
+     */
+    public List<DiagramValidationResult> validateDelta(String project, MultipartFile delta) throws IOException {
+        ProjectManifest stored = manifestRepository.findById(project)
+                .filter(manifest -> manifest.getPendingJson() != null)
+                .orElseThrow(() -> new IllegalStateException(
+                        "No manifest was submitted for project '" + project + "'. Submit a manifest first."));
+        String type = stored.getType();
+        String pendingJson = stored.getPendingJson();
+        Map<String, String> pending = objectMapper.readValue(pendingJson, MANIFEST);
+        Map<String, String> previous = previousEntries(stored);
+        Map<String, DiagramValidationResult> previousResults = previous.isEmpty() ? Map.of()
+                : objectMapper.readValue(stored.getResultsJson(), RESULTS);
+
+        Map<String, DiagramValidationResult> uploaded = new LinkedHashMap<>();
+        if (delta != null && !delta.isEmpty()) {
+            ValidationResultListener collect = result -> uploaded.put(result.getDiagramName(), result);
+            if ("dmn".equals(type)) {
+                // The delta holds only the changed files, so requirements between files cannot be resolved
+                dmnValidationService.validateDmnEntries(delta, collect);
+            } else {
+                diagramValidationService.validateZip(delta, collect);
+            }
+        }
+
+        Map<String, String> notUploaded = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : pending.entrySet()) {
+            String name = entry.getKey();
+            if (!uploaded.containsKey(name)
+                    && !(entry.getValue().equals(previous.get(name)) && previousResults.containsKey(name))) {
+                notUploaded.put(name, entry.getValue());
+            }
+        }
+        Map<String, DiagramValidationResult> cached = resultCache.lookupAll(cacheNamespace(type), notUploaded);
+
+        List<DiagramValidationResult> results = new ArrayList<>(pending.size() + uploaded.size());
+        Map<String, String> current = new LinkedHashMap<>();
+        Map<String, DiagramValidationResult> currentResults = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : pending.entrySet()) {
+            String name = entry.getKey();
+            DiagramValidationResult result = uploaded.remove(name);
+            if (result == null) {
+                result = notUploaded.containsKey(name) ? cached.get(name) : previousResults.get(name);
+            }
+            if (result == null) {
+                result = notUploaded(name);
+            }
+            if (result.getContentHash() != null) {
+                current.put(name, result.getContentHash());
+                currentResults.put(name, result);
+            }
+            results.add(result);
+        }
+        // Entries uploaded without being listed, and archive-level errors
+        for (DiagramValidationResult result : uploaded.values()) {
+            if (result.getContentHash() != null) {
+                current.put(result.getDiagramName(), result.getContentHash());
+                currentResults.put(result.getDiagramName(), result);
+            }
+            results.add(result);
+        }
+
+        manifestRepository.recordRun(project, type, pendingJson, objectMapper.writeValueAsString(current),
+                objectMapper.writeValueAsString(currentResults), resultCache.getRulesetVersion(), Instant.now());
+        return results;
+    }
+
+    /**
+     * The manifest of the project's last validated run.
+     */
+    public Optional<ManifestRequest> currentManifest(String project) throws JsonProcessingException {
+        Optional<ProjectManifest> stored = manifestRepository.findById(project);
+        if (stored.isEmpty() || stored.get().getEntriesJson() == null) {
+            return Optional.empty();
+        }
+        Map<String, String> entries = objectMapper.readValue(stored.get().getEntriesJson(), MANIFEST);
+        return Optional.of(new ManifestRequest(stored.get().getType(), entries, stored.get().getUpdatedAt()));
+    }
+
+    /**
+     * The entries of the last validated run, if its results may be reused: same ruleset
+     * version, and the project did not switch type since.
+     */
+    private Map<String, String> previousEntries(ProjectManifest stored) throws JsonProcessingException {
+        if (stored.getEntriesJson() == null || stored.getResultsJson() == null
+                || !resultCache.getRulesetVersion().equals(stored.getRulesetVersion())) {
+            return Map.of();
+        }
+        return objectMapper.readValue(stored.getEntriesJson(), MANIFEST);
+    }
+
+    private static DiagramValidationResult notUploaded(String entryName) {
+        DiagramValidationResult result = new DiagramValidationResult();
+        result.setDiagramName(entryName);
+        result.addIssue(new ValidationIssue(IssueType.ERROR,
+                "Entry was not uploaded and no cached result is available; include it in the next delta upload."));
+        result.setValid(false);
+        return result;
+    }
+
+    private static String normalizeType(String type) {
+        String normalized = type == null ? "diagram" : type.toLowerCase();
+        if (!normalized.equals("diagram") && !normalized.equals("dmn")) {
+            throw new IllegalArgumentException("Invalid manifest type '" + type + "'. Use 'diagram' or 'dmn'.");
+        }
+        return normalized;
+    }
+
+    private static Predicate<String> entryFilter(String type) {
+        return "dmn".equals(type) ? DmnValidationService::isDmnEntry : DiagramValidationService::isDiagramEntry;
+    }
+
+    private static String cacheNamespace(String type) {
+        return "dmn".equals(type) ? DmnValidationService.CACHE_NAMESPACE : DiagramValidationService.CACHE_NAMESPACE;
+    }
+}
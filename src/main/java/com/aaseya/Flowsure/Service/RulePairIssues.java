@@ -0,0 +1,147 @@
+package com.aaseya.Flowsure.Service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import com.aaseya.Flowsure.Model.DmnDecisionTable;
+import com.aaseya.Flowsure.Model.DmnRule;
+import com.aaseya.Flowsure.Model.ValidationIssue;
+
+/**
+ * The rule pairs one check finds in one file, such as overlapping rules, reported with a
+ * bounded number of issues. A wildcard-heavy table can have millions of overlapping pairs;
+ * one issue each would cost hundreds of megabytes of heap and JSON while telling no more
+ * than a count and a few examples.
+ * <p>
+ * Pairs are grouped per decision table and problem. A group only counts its pairs and keeps
+ * the first few as rule indexes; no message is formatted until {@link #flush}. A group then
+ * becomes one issue per pair if it is within {@link IssueLimits#getMaxPairsPerTable()} and
+ * the file still has room under {@link IssueLimits#getMaxPairsPerFile()}, or else a single
+ * summary issue with the count and a sample of pairs. Checks add whole rows of
+ * {@link DmnRuleIndex#forEachOverlapRow} where they can, which are counted with one bitset
+ * operation, so the work as well as the output stays small when almost every pair overlaps.
+ */
+public final class RulePairIssues {
+
+	private final IssueLimits limits;
+	private final String fileName;
+	private final List<Group> groups = new ArrayList<>();
+
+	public RulePairIssues(IssueLimits limits, String fileName) {
+		this.limits = limits;
+		this.fileName = fileName;
+	}
+
+	/**
+	 * Starts a group of pairs of the table that share a problem.
+	 *
+	 * @param problem Completes "Rule 1 and Rule 2 in table 't' (file: f) ...", e.g.
+	 *                "overlap, which violates UNIQUE hit policy."
+	 */
+	public Group group(DmnDecisionTable table, ValidationIssue.IssueType type, String problem) {
+		Group group = new Group(table, type, problem,
+				new int[2 * Math.max(limits.getMaxPairsPerTable(), limits.getSamplePairs())]);
+		groups.add(group);
+		return group;
+	}
+
+	/**
+	 * Adds the issues of every group, in the order the groups were started.
+	 */
+	public void flush(List<ValidationIssue> issues) {
+		long remaining = limits.getMaxPairsPerFile();
+		for (Group group : groups) {
+			if (group.count == 0) {
+				continue;
+			}
+			if (group.count <= limits.getMaxPairsPerTable() && group.count <= remaining) {
+				remaining -= group.count;
+				for (int i = 0; i < group.count; i++) {
+					int first = group.sample[2 * i];
+					int second = group.sample[2 * i + 1];
+					issues.add(new ValidationIssue(group.type, String.format("%s and %s in table '%s' (file: %s) %s",
+							describe(group.table, first), describe(group.table, second), group.table.getId(), fileName,
+							group.problem)));
+				}
+			} else {
+				issues.add(summary(group));
+			}
+		}
+		groups.clear();
+	}
+
+	private ValidationIssue summary(Group group) {
+		StringBuilder message = new StringBuilder(String.format("%d pairs of rules in table '%s' (file: %s) %s",
+				group.count, group.table.getId(), fileName, group.problem));
+		int listed = (int) Math.min(group.count, limits.getSamplePairs());
+		if (listed > 0) {
+			message.append(listed == group.count ? " They are: " : " The first " + listed + " are: ");
+			for (int i = 0; i < listed; i++) {
+				if (i > 0) {
+					message.append("; ");
+				}
+				message.append(describe(group.table, group.sample[2 * i])).append(" and ")
+						.append(describe(group.table, group.sample[2 * i + 1]));
+			}
+			message.append('.');
+		}
+		return new ValidationIssue(group.type, message.toString(), group.table.getId(), null);
+	}
+
+	/**
+	 * "Rule 3 (ID: r3)" for a rule index of the table.
+	 */
+	static String describe(DmnDecisionTable table, int ruleIndex) {
+		DmnRule rule = table.getRules().get(ruleIndex);
+		return "Rule " + (rule.getIndex() + 1)
+				+ (rule.getId() != null && !rule.getId().isEmpty() ? " (ID: " + rule.getId() + ")" : "");
+	}
+
+	/**
+	 * The pairs of one table that share a problem.
+	 */
+	public static final class Group {
+		private final DmnDecisionTable table;
+		private final ValidationIssue.IssueType type;
+		private final String problem;
+		private final int[] sample;
+		private long count;
+
+		private Group(DmnDecisionTable table, ValidationIssue.IssueType type, String problem, int[] sample) {
+			this.table = table;
+			this.type = type;
+			this.problem = problem;
+			this.sample = sample;
+		}
+
+		/**
+		 * Adds a pair, given as indexes into the rules of the table.
+		 */
+		public void add(int first, int second) {
+			if (count < sample.length / 2) {
+				sample[2 * (int) count] = first;
+				sample[2 * (int) count + 1] = second;
+			}
+			count++;
+		}
+
+		/**
+		 * Adds the pairs of {@code first} with every rule in {@code seconds}, e.g. one row of
+		 * {@link DmnRuleIndex#forEachOverlapRow}. Only the pairs that fit the sample are visited.
+		 */
+		public void addAll(int first, BitSet seconds) {
+			int sampled = (int) Math.min(count, sample.length / 2);
+			for (int j = seconds.nextSetBit(0); j >= 0 && sampled < sample.length / 2; j = seconds.nextSetBit(j + 1)) {
+				sample[2 * sampled] = first;
+				sample[2 * sampled + 1] = j;
+				sampled++;
+			}
+			count += seconds.cardinality();
+		}
+
+		public long getCount() {
+			return count;
+		}
+	}
+}
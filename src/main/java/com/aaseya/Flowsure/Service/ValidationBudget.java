@@ -0,0 +1,92 @@
+package com.aaseya.Flowsure.Service;
+
+/**
+ * Cooperative time budget for validating one file.
+ * <p>
+ * {@link ArchiveValidationPipeline} opens a budget on the worker thread before a file is
+ * validated. Long-running checks call {@link #checkpoint()} in their outer loops; once the
+ * deadline has passed it throws {@link ExceededException}, which the services turn into a
+ * "budget exceeded" issue while keeping the issues found so far. Outside a budget,
+ * checkpoints do nothing. Work handed to other threads carries the budget along via
+ * {@link #current()} and {@link #resume(ValidationBudget)}.
+ */
+public final class ValidationBudget {
+
+    private static final ThreadLocal<ValidationBudget> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+    private final long budgetMillis;
+    private volatile boolean exceeded;
+
+    private ValidationBudget(long deadlineNanos, long budgetMillis) {
+        this.deadlineNanos = deadlineNanos;
+        this.budgetMillis = budgetMillis;
+    }
+
+    /**
+     * Starts a budget on the current thread.
+     *
+     * @param deadlineNanos Deadline in {@link System#nanoTime()} terms.
+     * @param budgetMillis The budget as configured, for messages.
+     */
+    static void begin(long deadlineNanos, long budgetMillis) {
+        CURRENT.set(new ValidationBudget(deadlineNanos, budgetMillis));
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * The budget of the current thread, or null outside a budget.
+     */
+    static ValidationBudget current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Makes the given budget, typically taken from another thread, the current one; null
+     * leaves the current thread without a budget.
+     */
+    static void resume(ValidationBudget budget) {
+        if (budget == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(budget);
+        }
+    }
+
+    /**
+     * Throws {@link ExceededException} if the current file has run out of time.
+     */
+    public static void checkpoint() {
+        ValidationBudget budget = CURRENT.get();
+        if (budget != null && System.nanoTime() - budget.deadlineNanos > 0) {
+            budget.exceeded = true;
+            throw new ExceededException(budget.budgetMillis);
+        }
+    }
+
+    /**
+     * Whether a checkpoint of the current file has tripped, i.e. its result is partial.
+     */
+    public static boolean wasExceeded() {
+        ValidationBudget budget = CURRENT.get();
+        return budget != null && budget.exceeded;
+    }
+
+    boolean isExceeded() {
+        return exceeded;
+    }
+
+    /**
+     * Thrown by {@link ValidationBudget#checkpoint()}; carries no stack trace.
+     */
+    public static final class ExceededException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        ExceededException(long budgetMillis) {
+            super("Validation time budget of " + budgetMillis + " ms exceeded", null, false, false);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.aaseya.Flowsure.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.aaseya.Flowsure.DTO.ValidationSummary;
+import com.aaseya.Flowsure.Entity.ValidationRun;
+import com.aaseya.Flowsure.Entity.ValidationRunIssue;
+import com.aaseya.Flowsure.Entity.ValidationRunResult;
+import com.aaseya.Flowsure.Model.DiagramValidationResult;
+import com.aaseya.Flowsure.Model.ValidationIssue;
+import com.aaseya.Flowsure.Model.ValidationIssue.IssueType;
+import com.aaseya.Flowsure.Repository.ValidationRunIssueRepository;
+import com.aaseya.Flowsure.Repository.ValidationRunRepository;
+import com.aaseya.Flowsure.Repository.ValidationRunResultRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Persists validation runs, their per-diagram results and issues.
+ * <p>
+ * Results are written in chunks of about {@code flowsure.history.chunk-issues} issues per
+ * transaction. Together with pooled sequences (allocation size 50) and
+ * {@code hibernate.jdbc.batch_size}, a run with tens of thousands of issues becomes a few
+ * hundred batched statements instead of one round trip per row, and the persistence
+ * context is cleared after every chunk so memory stays flat. History is best effort: a
+ * failed write is logged and the rest of that run is not recorded.
+ */
+@Service
+@ConditionalOnProperty(name = "flowsure.persistence.enabled", havingValue = "true", matchIfMissing = true)
+public class ValidationHistoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(ValidationHistoryService.class);
+
+    private static final int MAX_QUERY_ROWS = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ValidationRunRepository runRepository;
+    private final ValidationRunResultRepository resultRepository;
+    private final ValidationRunIssueRepository issueRepository;
+    private final TransactionTemplate transactions;
+    private final boolean enabled;
+    private final int chunkIssues;
+
+    public ValidationHistoryService(ValidationRunRepository runRepository,
+            ValidationRunResultRepository resultRepository, ValidationRunIssueRepository issueRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${flowsure.history.enabled:true}") boolean enabled,
+            @Value("${flowsure.history.chunk-issues:2000}") int chunkIssues) {
+        this.runRepository = runRepository;
+        this.resultRepository = resultRepository;
+        this.issueRepository = issueRepository;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.chunkIssues = Math.max(1, chunkIssues);
+    }
+
+    /**
+     * Starts recording a run. Feed every result to the returned recorder and call
+     * {@link RunRecorder#finish()} at the end.
+     *
+     * @param source The endpoint or job that produced the run.
+     * @param archiveName The uploaded archive.
+     */
+    public RunRecorder startRun(String source, String archiveName) {
+        return new RunRecorder(source, archiveName);
+    }
+
+    /**
+     * Records a completed run in one go.
+     */
+    public void record(String source, String archiveName, List<DiagramValidationResult> results) {
+        RunRecorder recorder = startRun(source, archiveName);
+        for (DiagramValidationResult result : results) {
+            recorder.onResult(result);
+        }
+        recorder.finish();
+    }
+
+    /**
+     * Issues of one severity recorded for a diagram within the last {@code days} days, newest first.
+     */
+    @Transactional(readOnly = true)
+    public List<ValidationRunIssue> findIssues(String diagramName, IssueType severity, int days, int limit) {
+        Instant since = Instant.now().minus(Duration.ofDays(Math.max(0, days)));
+        return issueRepository.findByDiagramNameAndSeverityAndCreatedAtAfterOrderByCreatedAtDesc(diagramName,
+                severity, since, PageRequest.of(0, Math.min(Math.max(1, limit), MAX_QUERY_ROWS)));
+    }
+
+    /**
+     * Results recorded for a given file content, newest first.
+     */
+    @Transactional(readOnly = true)
+    public List<ValidationRunResult> findResultsByContentHash(String contentHash, int limit) {
+        return resultRepository.findByContentHashOrderByValidatedAtDesc(contentHash,
+                PageRequest.of(0, Math.min(Math.max(1, limit), MAX_QUERY_ROWS)));
+    }
+
+    /**
+     * Buffers the results of one run and writes them in chunks. Not thread-safe; results are
+     * expected from the single thread that emits them in archive order.
+     */
+    public final class RunRecorder implements ValidationResultListener {
+        private final ValidationSummary totals = new ValidationSummary();
+        private final List<DiagramValidationResult> buffer = new ArrayList<>();
+        private int bufferedIssues;
+        private Long runId;
+        private boolean failed;
+
+        private RunRecorder(String source, String archiveName) {
+            if (!enabled) {
+                failed = true;
+                return;
+            }
+            write(() -> runId = runRepository.save(new ValidationRun(source, archiveName)).getId());
+        }
+
+        @Override
+        public void onResult(DiagramValidationResult result) {
+            if (failed) {
+                return;
+            }
+            totals.add(result);
+            buffer.add(result);
+            bufferedIssues += result.getIssues().size() + 1;
+            if (bufferedIssues >= chunkIssues) {
+                flush();
+            }
+        }
+
+        /**
+         * Writes what is still buffered and the run's totals.
+         */
+        public void finish() {
+            if (failed) {
+                return;
+            }
+            flush();
+            write(() -> runRepository.findById(runId).ifPresent(run -> {
+                run.setFinishedAt(Instant.now());
+                run.setTotalFiles(totals.getTotalFiles());
+                run.setInvalidFiles(totals.getInvalidFiles());
+                run.setErrorCount(totals.getErrors());
+                run.setWarningCount(totals.getWarnings());
+                run.setInfoCount(totals.getInfos());
+            }));
+        }
+
+        private void flush() {
+            if (buffer.isEmpty() || failed) {
+                return;
+            }
+            List<DiagramValidationResult> chunk = new ArrayList<>(buffer);
+            buffer.clear();
+            bufferedIssues = 0;
+            write(() -> {
+                ValidationRun run = entityManager.getReference(ValidationRun.class, runId);
+                Instant now = Instant.now();
+                List<ValidationRunResult> results = new ArrayList<>(chunk.size());
+                List<ValidationRunIssue> issues = new ArrayList<>();
+                for (DiagramValidationResult result : chunk) {
+                    ValidationRunResult row = new ValidationRunResult(run, result.getDiagramName(),
+                            result.getContentHash(), result.isValid(), result.getIssues().size(), now);
+                    results.add(row);
+                    for (ValidationIssue issue : result.getIssues()) {
+                        issues.add(new ValidationRunIssue(row, issue.getType(), issue.getMessage(),
+                                issue.getElementId(), issue.getElementName(), issue.getLine(), issue.getColumn()));
+                    }
+                }
+                resultRepository.saveAll(results);
+                issueRepository.saveAll(issues);
+            });
+        }
+
+        private void write(Runnable work) {
+            try {
+                transactions.executeWithoutResult(status -> {
+                    work.run();
+                    // Batch the inserts now and drop the rows from the persistence context,
+                    // which outlives this transaction when the request keeps it open
+                    entityManager.flush();
+                    entityManager.clear();
+                });
+            } catch (RuntimeException e) {
+                failed = true;
+                log.warn("Validation history could not be written: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.aaseya.Flowsure.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.aaseya.Flowsure.Entity.ValidationJob;
+import com.aaseya.Flowsure.Entity.ValidationJobData;
+import com.aaseya.Flowsure.Model.DiagramValidationResult;
+import com.aaseya.Flowsure.Repository.ValidationJobDataRepository;
+import com.aaseya.Flowsure.Repository.ValidationJobRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Persistent, bounded queue of archives waiting for asynchronous validation.
+ * <p>
+ * Jobs are stored in the configured datasource, so any node can pick them up and a
+ * restart loses nothing. Uploads are streamed to a file in {@code flowsure.jobs.spool-dir}
+ * and only its path is stored, so with several nodes that directory must be shared storage.
+ * Workers claim the oldest queued job with {@code SELECT ... FOR UPDATE SKIP LOCKED}; a
+ * running job whose worker has not heartbeated for {@code flowsure.jobs.stale-after-ms} is
+ * claimed again, up to {@code flowsure.jobs.max-attempts} times. Once queued and running
+ * jobs reach {@code flowsure.jobs.queue-capacity}, new submissions are refused.
+ */
+@Service
+@ConditionalOnProperty(name = "flowsure.persistence.enabled", havingValue = "true", matchIfMissing = true)
+public class ValidationJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ValidationJobService.class);
+
+    private static final EnumSet<ValidationJob.Status> ACTIVE = EnumSet.of(ValidationJob.Status.QUEUED,
+            ValidationJob.Status.RUNNING);
+    private static final EnumSet<ValidationJob.Status> FINISHED = EnumSet.of(ValidationJob.Status.COMPLETED,
+            ValidationJob.Status.FAILED);
+    private static final int MAX_ERROR_LENGTH = 2048; // validation_job.error_message
+    private static final TypeReference<List<DiagramValidationResult>> RESULT_LIST = new TypeReference<>() {};
+    private static final long SUBMISSION_LOCK_KEY = 0x466C6F77734A6F62L; // "FlowsJob"
+
+    private final ValidationJobRepository jobRepository;
+    private final ValidationJobDataRepository dataRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactions;
+    private final Path spoolDirectory;
+    private final int queueCapacity;
+    private final Duration staleAfter;
+    private final int maxAttempts;
+    private final Duration retention;
+
+    public ValidationJobService(ValidationJobRepository jobRepository, ValidationJobDataRepository dataRepository,
+            ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+            @Value("${flowsure.jobs.spool-dir:${java.io.tmpdir}/flowsure-jobs}") String spoolDirectory,
+            @Value("${flowsure.jobs.queue-capacity:100}") int queueCapacity,
+            @Value("${flowsure.jobs.stale-after-ms:300000}") long staleAfterMillis,
+            @Value("${flowsure.jobs.max-attempts:3}") int maxAttempts,
+            @Value("${flowsure.jobs.retention-hours:24}") long retentionHours) {
+        this.jobRepository = jobRepository;
+        this.dataRepository = dataRepository;
+        this.objectMapper = objectMapper;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.spoolDirectory = Path.of(spoolDirectory);
+        this.queueCapacity = queueCapacity;
+        this.staleAfter = Duration.ofMillis(staleAfterMillis);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retention = Duration.ofHours(retentionHours);
+    }
+
+    /**
+     * Queues an archive for validation. The upload is spooled before the queue is checked,
+     * so the capacity lock is never held while a large archive is copied.
+     *
+     * @return The queued job, or empty if the queue is full.
+     */
+    public Optional<ValidationJob> submit(ValidationJob.Kind kind, String archiveName, MultipartFile archive)
+            throws IOException {
+        Files.createDirectories(spoolDirectory);
+        Path spooled = Files.createTempFile(spoolDirectory, "job-", ".zip");
+        Optional<ValidationJob> job = Optional.empty();
+        try {
+            archive.transferTo(spooled);
+            job = transactions.execute(status -> {
+                jobRepository.lockForSubmission(SUBMISSION_LOCK_KEY);
+                if (jobRepository.countByStatusIn(ACTIVE) >= queueCapacity) {
+                    return Optional.<ValidationJob>empty();
+                }
+                ValidationJob queued = jobRepository.save(new ValidationJob(kind, archiveName, archive.getSize()));
+                dataRepository.save(new ValidationJobData(queued.getId(), spooled.toString()));
+                return Optional.of(queued);
+            });
+            return job;
+        } finally {
+            if (job.isEmpty()) {
+                deleteSpooled(spooled.toString());
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<ValidationJob> findJob(UUID jobId) {
+        return jobRepository.findById(jobId);
+    }
+
+    /**
+     * The results of a completed job, in archive order; empty if the job has not completed.
+     */
+    @Transactional(readOnly = true)
+    public Optional<List<DiagramValidationResult>> findResults(UUID jobId) {
+        return dataRepository.findById(jobId)
+                .map(ValidationJobData::getResultJson)
+                .map(json -> {
+                    try {
+                        return objectMapper.readValue(json, RESULT_LIST);
+                    } catch (JsonProcessingException e) {
+                        throw new IllegalStateException("Stored results of job " + jobId + " are unreadable", e);
+                    }
+                });
+    }
+
+    /**
+     * Claims the oldest runnable job for the calling worker. Jobs that were already claimed
+     * {@code max-attempts} times are failed instead of being run again.
+     *
+     * @return The claimed job with its archive, or empty if there is nothing to do.
+     */
+    @Transactional
+    public Optional<ClaimedJob> claimNext() {
+        Instant now = Instant.now();
+        while (true) {
+            Optional<UUID> next = jobRepository.lockNextClaimable(now.minus(staleAfter));
+            if (next.isEmpty()) {
+                return Optional.empty();
+            }
+            ValidationJob job = jobRepository.findById(next.get()).orElseThrow();
+            Optional<ValidationJobData> data = dataRepository.findById(job.getId());
+            if (job.getAttempts() >= maxAttempts) {
+                job.setStatus(ValidationJob.Status.FAILED);
+                job.setErrorMessage("Abandoned after " + job.getAttempts() + " attempts without completing.");
+                job.setFinishedAt(now);
+                data.ifPresent(this::releaseArchive);
+                // The next native query does not see pending changes; without the flush it
+                // would return this job again
+                jobRepository.saveAndFlush(job);
+                continue;
+            }
+            job.setStatus(ValidationJob.Status.RUNNING);
+            job.setAttempts(job.getAttempts() + 1);
+            job.setClaimToken(UUID.randomUUID());
+            job.setEntriesDone(0);
+            job.setStartedAt(now);
+            job.setHeartbeatAt(now);
+            Path archive = data
+                    .map(ValidationJobData::getArchivePath)
+                    .map(Path::of)
+                    .orElse(null);
+            return Optional.of(new ClaimedJob(job.getId(), job.getClaimToken(), job.getKind(), job.getArchiveName(),
+                    archive));
+        }
+    }
+
+    /**
+     * Records progress, which also serves as the claim's heartbeat.
+     *
+     * @return false if the claim was lost to another worker.
+     */
+    @Transactional
+    public boolean reportProgress(ClaimedJob claim, int entriesDone, Integer entriesTotal) {
+        return jobRepository.updateProgress(claim.getJobId(), claim.getClaimToken(), entriesDone, entriesTotal,
+                Instant.now()) > 0;
+    }
+
+    @Transactional
+    public void complete(ClaimedJob claim, List<DiagramValidationResult> results) throws JsonProcessingException {
+        String json = objectMapper.writeValueAsString(results);
+        finish(claim, ValidationJob.Status.COMPLETED, null, results.size(), json);
+    }
+
+    @Transactional
+    public void fail(ClaimedJob claim, String errorMessage) {
+        finish(claim, ValidationJob.Status.FAILED, errorMessage, null, null);
+    }
+
+    private void finish(ClaimedJob claim, ValidationJob.Status status, String errorMessage, Integer entriesDone,
+            String resultJson) {
+        ValidationJob job = jobRepository.findById(claim.getJobId()).orElse(null);
+        if (job == null || !claim.getClaimToken().equals(job.getClaimToken()) || job.isFinished()) {
+            return; // reclaimed by another worker, or purged
+        }
+        job.setStatus(status);
+        job.setErrorMessage(errorMessage != null && errorMessage.length() > MAX_ERROR_LENGTH
+                ? errorMessage.substring(0, MAX_ERROR_LENGTH) : errorMessage);
+        job.setFinishedAt(Instant.now());
+        if (entriesDone != null) {
+            job.setEntriesDone(entriesDone);
+        }
+        dataRepository.findById(job.getId()).ifPresent(data -> {
+            releaseArchive(data);
+            data.setResultJson(resultJson);
+        });
+    }
+
+    private void releaseArchive(ValidationJobData data) {
+        if (data.getArchivePath() != null) {
+            deleteSpooled(data.getArchivePath());
+            data.setArchivePath(null);
+        }
+    }
+
+    private static void deleteSpooled(String archivePath) {
+        try {
+            Files.deleteIfExists(Path.of(archivePath));
+        } catch (IOException e) {
+            log.warn("Could not delete spooled archive {}: {}", archivePath, e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes finished jobs and their results once they are older than the retention period.
+     */
+    @Transactional
+    public int purgeExpired() {
+        List<UUID> expired = jobRepository.findFinishedBefore(FINISHED, Instant.now().minus(retention));
+        if (expired.isEmpty()) {
+            return 0;
+        }
+        dataRepository.deleteByJobIds(expired);
+        return jobRepository.deleteByIds(expired);
+    }
+
+    /**
+     * A job claimed by a worker, together with the spooled archive to validate.
+     */
+    public static final class ClaimedJob {
+        private final UUID jobId;
+        private final UUID claimToken;
+        private final ValidationJob.Kind kind;
+        private final String archiveName;
+        private final Path archive;
+
+        ClaimedJob(UUID jobId, UUID claimToken, ValidationJob.Kind kind, String archiveName, Path archive) {
+            this.jobId = jobId;
+            this.claimToken = claimToken;
+            this.kind = kind;
+            this.archiveName = archiveName;
+            this.archive = archive;
+        }
+
+        public UUID getJobId() {
+            return jobId;
+        }
+
+        public UUID getClaimToken() {
+            return claimToken;
+        }
+
+        public ValidationJob.Kind getKind() {
+            return kind;
+        }
+
+        public String getArchiveName() {
+            return archiveName;
+        }
+
+        public Path getArchive() {
+            return archive;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.aaseya.Flowsure.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.aaseya.Flowsure.Entity.ValidationJob;
+import com.aaseya.Flowsure.Model.DiagramValidationResult;
+import com.aaseya.Flowsure.Service.ValidationJobService.ClaimedJob;
+
+/**
+ * Runs queued validation jobs. A fixed number of worker threads each claim one job at a
+ * time and hand its entries to the shared validation pool, so bursts of submissions wait
+ * in the queue instead of multiplying the work in flight. Idle workers poll the queue
+ * every {@code flowsure.jobs.poll-interval-ms}.
+ */
+@Component
+@ConditionalOnProperty(name = "flowsure.persistence.enabled", havingValue = "true", matchIfMissing = true)
+public class ValidationJobWorker implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ValidationJobWorker.class);
+
+    // Progress doubles as the heartbeat, so it is written at least this often while entries complete
+    private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long PURGE_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private final ValidationJobService jobService;
+    private final DiagramValidationService diagramValidationService;
+    private final DmnValidationService dmnValidationService;
+    private final ValidationHistoryService historyService;
+    private final int workers;
+    private final long pollIntervalMillis;
+    private final Object idle = new Object();
+    private volatile boolean running;
+    private volatile long lastPurge = System.nanoTime() - PURGE_INTERVAL_NANOS;
+    private ExecutorService threads;
+
+    public ValidationJobWorker(ValidationJobService jobService, DiagramValidationService diagramValidationService,
+            DmnValidationService dmnValidationService, ValidationHistoryService historyService,
+            @Value("${flowsure.jobs.workers:2}") int workers,
+            @Value("${flowsure.jobs.poll-interval-ms:1000}") long pollIntervalMillis) {
+        this.jobService = jobService;
+        this.diagramValidationService = diagramValidationService;
+        this.dmnValidationService = dmnValidationService;
+        this.historyService = historyService;
+        this.workers = workers;
+        this.pollIntervalMillis = pollIntervalMillis;
+    }
+
+    @Override
+    public void start() {
+        if (workers <= 0) {
+            return;
+        }
+        running = true;
+        AtomicInteger counter = new AtomicInteger();
+        threads = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "flowsure-job-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workers; i++) {
+            threads.execute(this::pollLoop);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        wakeUp();
+        if (threads != null) {
+            // Jobs interrupted here are claimed again once their heartbeat goes stale
+            threads.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Lets an idle worker look at the queue right away, e.g. after a job was submitted on this node.
+     */
+    public void wakeUp() {
+        synchronized (idle) {
+            idle.notifyAll();
+        }
+    }
+
+    private void pollLoop() {
+        while (running) {
+            try {
+                Optional<ClaimedJob> claim = jobService.claimNext();
+                if (claim.isPresent()) {
+                    run(claim.get());
+                    continue;
+                }
+                purgeIfDue();
+            } catch (RuntimeException e) {
+                log.warn("Validation job polling failed: {}", e.getMessage());
+            }
+            synchronized (idle) {
+                try {
+                    idle.wait(pollIntervalMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void run(ClaimedJob claim) {
+        if (claim.getArchive() == null || !Files.isRegularFile(claim.getArchive())) {
+            jobService.fail(claim, "The archive of this job is no longer available.");
+            return;
+        }
+        try {
+            List<DiagramValidationResult> results = validate(claim);
+            jobService.complete(claim, results);
+            historyService.record("job", claim.getArchiveName(), results);
+        } catch (IOException | RuntimeException e) {
+            log.error("Validation job {} failed", claim.getJobId(), e);
+            jobService.fail(claim, "An error occurred during ZIP file processing: " + e.getMessage());
+        }
+    }
+
+    // The spooled archive is read in place; the job service deletes it once the job is finished
+    private List<DiagramValidationResult> validate(ClaimedJob claim) throws IOException {
+        ProgressListener listener = new ProgressListener(claim);
+        if (claim.getKind() == ValidationJob.Kind.DMN) {
+            dmnValidationService.validateDmnZip(claim.getArchive(), listener);
+        } else {
+            diagramValidationService.validateZip(claim.getArchive(), claim.getArchiveName(), listener);
+        }
+        return listener.results;
+    }
+
+    private void purgeIfDue() {
+        long now = System.nanoTime();
+        if (now - lastPurge < PURGE_INTERVAL_NANOS) {
+            return;
+        }
+        lastPurge = now;
+        int purged = jobService.purgeExpired();
+        if (purged > 0) {
+            log.info("Purged {} expired validation jobs", purged);
+        }
+    }
+
+    /**
+     * Collects the results of one job and reports its progress.
+     */
+    private final class ProgressListener implements ValidationResultListener {
+        private final ClaimedJob claim;
+        private final List<DiagramValidationResult> results = new ArrayList<>();
+        private Integer total;
+        private long lastReport = System.nanoTime();
+
+        ProgressListener(ClaimedJob claim) {
+            this.claim = claim;
+        }
+
+        @Override
+        public void onArchiveOpened(int entryCount) {
+            total = entryCount;
+            jobService.reportProgress(claim, 0, total);
+        }
+
+        @Override
+        public void onResult(DiagramValidationResult result) throws IOException {
+            results.add(result);
+            long now = System.nanoTime();
+            if (now - lastReport >= PROGRESS_INTERVAL_NANOS) {
+                lastReport = now;
+                if (!jobService.reportProgress(claim, results.size(), total)) {
+                    // Another worker has taken the job over; stop spending time on it
+                    throw new IOException("Claim on validation job " + claim.getJobId() + " was lost");
+                }
+            }
+        }
+    }
+}
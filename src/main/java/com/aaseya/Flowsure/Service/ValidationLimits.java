@@ -0,0 +1,75 @@
+package com.aaseya.Flowsure.Service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resource limits applied to every uploaded archive, so one hostile or pathological upload
+ * cannot exhaust heap or hold workers indefinitely.
+ * <ul>
+ * <li>{@code max-entries} - diagram entries validated per archive</li>
+ * <li>{@code max-entry-bytes} - inflated size of a single entry</li>
+ * <li>{@code max-total-bytes} - inflated size of all validated entries together</li>
+ * <li>{@code max-compression-ratio} - inflated to compressed size of an entry (zip bombs)</li>
+ * <li>{@code file-budget-ms} - time to validate one file</li>
+ * <li>{@code request-budget-ms} - time to validate one archive</li>
+ * </ul>
+ * Values of zero or less disable a limit.
+ */
+@Component
+public class ValidationLimits {
+
+    private final int maxEntries;
+    private final long maxEntryBytes;
+    private final long maxTotalBytes;
+    private final int maxCompressionRatio;
+    private final long fileBudgetMillis;
+    private final long requestBudgetMillis;
+
+    @Autowired
+    public ValidationLimits(@Value("${flowsure.limits.max-entries:10000}") int maxEntries,
+            @Value("${flowsure.limits.max-entry-bytes:67108864}") long maxEntryBytes,
+            @Value("${flowsure.limits.max-total-bytes:1073741824}") long maxTotalBytes,
+            @Value("${flowsure.limits.max-compression-ratio:200}") int maxCompressionRatio,
+            @Value("${flowsure.limits.file-budget-ms:30000}") long fileBudgetMillis,
+            @Value("${flowsure.limits.request-budget-ms:600000}") long requestBudgetMillis) {
+        this.maxEntries = maxEntries;
+        this.maxEntryBytes = maxEntryBytes;
+        this.maxTotalBytes = maxTotalBytes;
+        this.maxCompressionRatio = maxCompressionRatio;
+        this.fileBudgetMillis = fileBudgetMillis;
+        this.requestBudgetMillis = requestBudgetMillis;
+    }
+
+    /**
+     * The limits as configured by default, for running the validators outside the application context.
+     */
+    public static ValidationLimits defaults() {
+        return new ValidationLimits(10_000, 64L << 20, 1L << 30, 200, 30_000, 600_000);
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getMaxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    public long getMaxTotalBytes() {
+        return maxTotalBytes;
+    }
+
+    public int getMaxCompressionRatio() {
+        return maxCompressionRatio;
+    }
+
+    public long getFileBudgetMillis() {
+        return fileBudgetMillis;
+    }
+
+    public long getRequestBudgetMillis() {
+        return requestBudgetMillis;
+    }
+}
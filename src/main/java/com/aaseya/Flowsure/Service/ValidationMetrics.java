@@ -0,0 +1,143 @@
+package com.aaseya.Flowsure.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.aaseya.Flowsure.Model.DiagramValidationResult;
+import com.aaseya.Flowsure.Model.ValidationIssue;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+/**
+ * Micrometer meters for the validation pipeline, exposed through Actuator
+ * ({@code /actuator/metrics}, {@code /actuator/prometheus}).
+ * <ul>
+ * <li>{@code flowsure.validation.inflate} - inflating one archive entry</li>
+ * <li>{@code flowsure.validation.file.size} - inflated entry size in bytes</li>
+ * <li>{@code flowsure.validation.parse} - XML parsing, tagged by validator</li>
+ * <li>{@code flowsure.validation.check} - each named check, tagged by validator and check</li>
+ * <li>{@code flowsure.validation.dmn.table.rules} - rules per decision table</li>
+ * <li>{@code flowsure.validation.issues} - issues found, tagged by validator and severity</li>
+ * </ul>
+ * Timers and summaries publish percentile histograms, so p99 per check can be computed
+ * and alerted on in the monitoring backend.
+ */
+@Component
+public class ValidationMetrics {
+
+    /**
+     * A timed piece of work that may throw.
+     */
+    @FunctionalInterface
+    public interface Work<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    private final MeterRegistry registry;
+    private final Timer inflateTimer;
+    private final DistributionSummary fileSize;
+    private final DistributionSummary rulesPerTable;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> issueCounters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ValidationMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.inflateTimer = Timer.builder("flowsure.validation.inflate")
+                .description("Time to inflate one archive entry")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.fileSize = DistributionSummary.builder("flowsure.validation.file.size")
+                .description("Inflated size of validated archive entries")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.rulesPerTable = DistributionSummary.builder("flowsure.validation.dmn.table.rules")
+                .description("Rules per DMN decision table")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Metrics that are recorded nowhere, for running the validators outside the application context.
+     */
+    public static ValidationMetrics disabled() {
+        return new ValidationMetrics(new CompositeMeterRegistry());
+    }
+
+    public void recordInflate(long nanos, int bytes) {
+        inflateTimer.record(nanos, TimeUnit.NANOSECONDS);
+        fileSize.record(bytes);
+    }
+
+    public void recordRulesPerTable(int rules) {
+        rulesPerTable.record(rules);
+    }
+
+    public void recordParse(String validator, long nanos) {
+        timer("flowsure.validation.parse", validator, null).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public <T, E extends Exception> T timeParse(String validator, Work<T, E> work) throws E {
+        return time(timer("flowsure.validation.parse", validator, null), work);
+    }
+
+    public <T, E extends Exception> T timeCheck(String validator, String check, Work<T, E> work) throws E {
+        return time(timer("flowsure.validation.check", validator, check), work);
+    }
+
+    public void timeCheck(String validator, String check, Runnable work) {
+        Timer timer = timer("flowsure.validation.check", validator, check);
+        long start = System.nanoTime();
+        try {
+            work.run();
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Counts the issues of a freshly validated file by severity. Results served from the
+     * cache are not counted again.
+     */
+    public void recordIssues(String validator, DiagramValidationResult result) {
+        for (ValidationIssue issue : result.getIssues()) {
+            String severity = issue.getType().name();
+            issueCounters.computeIfAbsent(validator + ":" + severity, key -> Counter.builder("flowsure.validation.issues")
+                    .description("Validation issues found, by severity")
+                    .tag("validator", validator)
+                    .tag("severity", severity)
+                    .register(registry))
+                    .increment();
+        }
+    }
+
+    private static <T, E extends Exception> T time(Timer timer, Work<T, E> work) throws E {
+        long start = System.nanoTime();
+        try {
+            return work.call();
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(String name, String validator, String check) {
+        return timers.computeIfAbsent(name + ":" + validator + ":" + check, key -> {
+            Timer.Builder builder = Timer.builder(name)
+                    .tag("validator", validator)
+                    .publishPercentileHistogram();
+            if (check != null) {
+                builder.tag("check", check);
+            }
+            return builder.register(registry);
+        });
+    }
+}
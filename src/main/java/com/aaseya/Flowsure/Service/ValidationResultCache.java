@@ -0,0 +1,346 @@
+package com.aaseya.Flowsure.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.aaseya.Flowsure.Entity.ValidationResultCacheEntry;
+import com.aaseya.Flowsure.Model.DiagramValidationResult;
+import com.aaseya.Flowsure.Repository.ValidationResultCacheRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Content-addressed cache of per-file validation results.
+ * <p>
+ * Results are keyed by validator, ruleset version, the SHA-256 of the file bytes and the
+ * entry name, so an unchanged file skips parsing and checking entirely. Messages embed the
+ * entry name, so identical files under different names are cached side by side instead of
+ * replacing each other. A size-bounded in-memory LRU (L1)
+ * sits in front of the {@code validation_result_cache} table (L2), which lets a restarted
+ * or second node reuse results. The cache is best effort: L2 failures are logged and the
+ * file is simply validated again.
+ * <p>
+ * Bump {@code flowsure.validation.ruleset-version} whenever checks change, so stale results
+ * are no longer served. Rows of other ruleset versions, and rows without a hit for
+ * {@code flowsure.cache.ttl-hours}, are deleted by {@link #purgeStale()}. Hits served from
+ * L1 refresh the row's last hit at most once per {@link #TOUCH_INTERVAL}.
+ */
+@Component
+public class ValidationResultCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ValidationResultCache.class);
+
+    static final Duration TOUCH_INTERVAL = Duration.ofHours(1);
+    private static final int BATCH_SIZE = 500;
+    private static final int NAME_HASH_LENGTH = 16;
+
+    private final ObjectMapper objectMapper;
+    private final ValidationResultCacheRepository repository; // null when there is no L2
+    private final boolean enabled;
+    private final String rulesetVersion;
+    private final Duration ttl;
+    private final Map<String, CachedResult> memory;
+
+    @Autowired
+    public ValidationResultCache(ObjectMapper objectMapper,
+            ObjectProvider<ValidationResultCacheRepository> repository,
+            @Value("${flowsure.cache.enabled:true}") boolean enabled,
+            @Value("${flowsure.cache.max-entries:10000}") int maxEntries,
+            @Value("${flowsure.validation.ruleset-version:1}") String rulesetVersion,
+            @Value("${flowsure.cache.ttl-hours:720}") long ttlHours) {
+        this(objectMapper, repository.getIfAvailable(), enabled, maxEntries, rulesetVersion, Duration.ofHours(ttlHours));
+    }
+
+    public ValidationResultCache(ObjectMapper objectMapper, ValidationResultCacheRepository repository,
+            boolean enabled, int maxEntries, String rulesetVersion, Duration ttl) {
+        this.objectMapper = objectMapper;
+        this.repository = repository;
+        this.enabled = enabled;
+        this.rulesetVersion = rulesetVersion;
+        this.ttl = ttl;
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResult> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached result for this file, or validates it and caches the outcome.
+     * The returned result always carries the file's content hash.
+     *
+     * @param validator Name of the validation pipeline; the same bytes validate differently per pipeline.
+     * @param entryName The name of the file in the archive.
+     * @param content The raw file bytes.
+     * @param compute Validates the file on a cache miss.
+     */
+    public DiagramValidationResult getOrValidate(String validator, String entryName, byte[] content,
+            ArchiveValidationPipeline.EntryValidator compute) throws Exception {
+        String contentHash = sha256(content);
+        if (!enabled) {
+            DiagramValidationResult result = compute.validate(entryName, content);
+            result.setContentHash(contentHash);
+            return result;
+        }
+        Optional<DiagramValidationResult> cached = lookup(validator, entryName, contentHash);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        DiagramValidationResult result = compute.validate(entryName, content);
+        result.setContentHash(contentHash);
+        if (!ValidationBudget.wasExceeded()) {
+            // Partial results from a file that ran out of time are not worth keeping
+            store(validator, entryName, contentHash, result);
+        }
+        return result;
+    }
+
+    /**
+     * Looks up a previously validated file by its name and content hash.
+     */
+    public Optional<DiagramValidationResult> lookup(String validator, String entryName, String contentHash) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        String key = cacheKey(validator, entryName, contentHash);
+        CachedResult cached;
+        synchronized (memory) {
+            cached = memory.get(key);
+        }
+        if (cached == null && repository != null) {
+            try {
+                cached = repository.findById(key)
+                        .map(entry -> new CachedResult(entry.getDiagramName(), entry.getResultJson(),
+                                entry.getLastHitAt()))
+                        .orElse(null);
+            } catch (RuntimeException e) {
+                log.warn("Validation cache lookup failed for {}: {}", entryName, e.getMessage());
+            }
+            if (cached != null) {
+                synchronized (memory) {
+                    memory.put(key, cached);
+                }
+            }
+        }
+        if (cached == null || !entryName.equals(cached.diagramName)) {
+            return Optional.empty();
+        }
+        touch(key, cached);
+        return read(entryName, cached);
+    }
+
+    /**
+     * {@link #lookup} for many files at once. Entries not held in memory are read from the
+     * table with one query per {@value #BATCH_SIZE} entries.
+     *
+     * @param entries Content hashes by entry name.
+     * @return The cached results by entry name, in the order of {@code entries}; entries
+     *         without one are left out.
+     */
+    public Map<String, DiagramValidationResult> lookupAll(String validator, Map<String, String> entries) {
+        Map<String, DiagramValidationResult> results = new LinkedHashMap<>();
+        for (Map.Entry<String, CachedResult> hit : findAll(validator, entries).entrySet()) {
+            read(hit.getKey(), hit.getValue()).ifPresent(result -> results.put(hit.getKey(), result));
+        }
+        return results;
+    }
+
+    /**
+     * The entries of {@code entries} that have a cached result, like {@link #lookupAll} but
+     * without reading the results. A hit counts as use, so the row is not purged meanwhile.
+     */
+    public Set<String> cachedEntries(String validator, Map<String, String> entries) {
+        return findAll(validator, entries).keySet();
+    }
+
+    /**
+     * The version of the checks whose results this cache serves.
+     */
+    public String getRulesetVersion() {
+        return rulesetVersion;
+    }
+
+    private Map<String, CachedResult> findAll(String validator, Map<String, String> entries) {
+        Map<String, CachedResult> hits = new LinkedHashMap<>();
+        if (!enabled || entries.isEmpty()) {
+            return hits;
+        }
+        Map<String, String> keys = new LinkedHashMap<>(); // cache key by entry name
+        Set<String> toLoad = new LinkedHashSet<>();
+        Map<String, CachedResult> found = new HashMap<>();
+        synchronized (memory) {
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                String key = cacheKey(validator, entry.getKey(), entry.getValue());
+                keys.put(entry.getKey(), key);
+                CachedResult cached = memory.get(key);
+                if (cached != null) {
+                    found.put(key, cached);
+                } else {
+                    toLoad.add(key);
+                }
+            }
+        }
+        if (repository != null && !toLoad.isEmpty()) {
+            List<String> batch = new ArrayList<>(Math.min(toLoad.size(), BATCH_SIZE));
+            for (Iterator<String> it = toLoad.iterator(); it.hasNext();) {
+                batch.add(it.next());
+                if (batch.size() == BATCH_SIZE || !it.hasNext()) {
+                    load(batch, found);
+                    batch.clear();
+                }
+            }
+        }
+
+        List<String> stale = new ArrayList<>();
+        Instant now = Instant.now();
+        for (Map.Entry<String, String> entry : keys.entrySet()) {
+            CachedResult cached = found.get(entry.getValue());
+            if (cached != null && entry.getKey().equals(cached.diagramName)) {
+                hits.put(entry.getKey(), cached);
+                if (repository != null && !cached.lastHitAt.plus(TOUCH_INTERVAL).isAfter(now)) {
+                    cached.lastHitAt = now;
+                    stale.add(entry.getValue());
+                }
+            }
+        }
+        for (int from = 0; from < stale.size(); from += BATCH_SIZE) {
+            List<String> batch = stale.subList(from, Math.min(stale.size(), from + BATCH_SIZE));
+            try {
+                repository.touchAll(batch, now);
+            } catch (RuntimeException e) {
+                log.warn("Validation cache touch failed for {} entries: {}", batch.size(), e.getMessage());
+            }
+        }
+        return hits;
+    }
+
+    private void load(List<String> keys, Map<String, CachedResult> found) {
+        List<ValidationResultCacheEntry> rows;
+        try {
+            rows = repository.findAllById(keys);
+        } catch (RuntimeException e) {
+            log.warn("Validation cache lookup failed for {} entries: {}", keys.size(), e.getMessage());
+            return;
+        }
+        synchronized (memory) {
+            for (ValidationResultCacheEntry row : rows) {
+                CachedResult cached = new CachedResult(row.getDiagramName(), row.getResultJson(), row.getLastHitAt());
+                memory.put(row.getCacheKey(), cached);
+                found.put(row.getCacheKey(), cached);
+            }
+        }
+    }
+
+    private Optional<DiagramValidationResult> read(String entryName, CachedResult cached) {
+        try {
+            return Optional.of(objectMapper.readValue(cached.json, DiagramValidationResult.class));
+        } catch (JsonProcessingException e) {
+            log.warn("Discarding unreadable cached validation result for {}: {}", entryName, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void store(String validator, String entryName, String contentHash, DiagramValidationResult result) {
+        String key = cacheKey(validator, entryName, contentHash);
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(result);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not cache validation result for {}: {}", entryName, e.getMessage());
+            return;
+        }
+        synchronized (memory) {
+            memory.put(key, new CachedResult(entryName, json, Instant.now()));
+        }
+        if (repository != null) {
+            try {
+                repository.save(new ValidationResultCacheEntry(key, rulesetVersion, entryName, json));
+            } catch (RuntimeException e) {
+                log.warn("Validation cache write failed for {}: {}", entryName, e.getMessage());
+            }
+        }
+    }
+
+    // Keeps the row's last hit roughly current without writing to the table on every hit
+    private void touch(String key, CachedResult cached) {
+        Instant now = Instant.now();
+        if (repository == null || cached.lastHitAt.plus(TOUCH_INTERVAL).isAfter(now)) {
+            return;
+        }
+        cached.lastHitAt = now;
+        try {
+            repository.touch(key, now);
+        } catch (RuntimeException e) {
+            log.warn("Validation cache touch failed for {}: {}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes table rows of other ruleset versions and rows without a hit within the TTL.
+     *
+     * @return The number of rows deleted.
+     */
+    public int purgeStale() {
+        if (repository == null) {
+            return 0;
+        }
+        int otherVersions = repository.deleteOtherRulesetVersions(rulesetVersion);
+        int expired = repository.deleteLastHitBefore(Instant.now().minus(ttl));
+        return otherVersions + expired;
+    }
+
+    /**
+     * A cache without the database tier, for running the validators outside the application context.
+     */
+    public static ValidationResultCache inMemory(ObjectMapper objectMapper, int maxEntries, String rulesetVersion) {
+        return new ValidationResultCache(objectMapper, (ValidationResultCacheRepository) null, true, maxEntries,
+                rulesetVersion, Duration.ZERO);
+    }
+
+    // The name hash keeps the key within the column; the stored name still guards against collisions
+    String cacheKey(String validator, String entryName, String contentHash) {
+        String nameHash = sha256(entryName.getBytes(StandardCharsets.UTF_8)).substring(0, NAME_HASH_LENGTH);
+        return validator + ":" + rulesetVersion + ":" + contentHash + ":" + nameHash;
+    }
+
+    public static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static final class CachedResult {
+        final String diagramName;
+        final String json;
+        volatile Instant lastHitAt; // as last written to the table
+
+        CachedResult(String diagramName, String json, Instant lastHitAt) {
+            this.diagramName = diagramName;
+            this.json = json;
+            this.lastHitAt = lastHitAt != null ? lastHitAt : Instant.EPOCH;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.aaseya.Flowsure.Service;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the {@code validation_result_cache} table from growing without bound: purges it once
+ * at startup, which drops the rows orphaned by a ruleset version bump, and then every
+ * {@code flowsure.cache.purge-interval-ms}.
+ */
+@Component
+@ConditionalOnProperty(name = "flowsure.persistence.enabled", havingValue = "true", matchIfMissing = true)
+public class ValidationResultCachePurger implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ValidationResultCachePurger.class);
+
+    private final ValidationResultCache cache;
+    private final long purgeIntervalMillis;
+    private volatile boolean running;
+    private ScheduledExecutorService thread;
+
+    public ValidationResultCachePurger(ValidationResultCache cache,
+            @Value("${flowsure.cache.purge-interval-ms:3600000}") long purgeIntervalMillis) {
+        this.cache = cache;
+        this.purgeIntervalMillis = purgeIntervalMillis;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        thread = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread purger = new Thread(runnable, "flowsure-cache-purge");
+            purger.setDaemon(true);
+            return purger;
+        });
+        thread.scheduleWithFixedDelay(this::purge, 0, Math.max(1, purgeIntervalMillis), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void purge() {
+        try {
+            int purged = cache.purgeStale();
+            if (purged > 0) {
+                log.info("Purged {} stale validation cache rows", purged);
+            }
+        } catch (RuntimeException e) {
+            // Best effort, like the cache itself; the next run tries again
+            log.warn("Validation cache purge failed: {}", e.getMessage());
+        }
+    }
+}
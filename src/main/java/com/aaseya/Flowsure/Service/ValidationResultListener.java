@@ -0,0 +1,20 @@
+package com.aaseya.Flowsure.Service;
+
+import java.io.IOException;
+
+import com.aaseya.Flowsure.Model.DiagramValidationResult;
+
+/**
+ * Receives per-file validation results as soon as they are available, in archive order.
+ */
+@FunctionalInterface
+public interface ValidationResultListener {
+
+    void onResult(DiagramValidationResult result) throws IOException;
+
+    /**
+     * Called once before the first result, with the number of entries that will be validated.
+     */
+    default void onArchiveOpened(int entryCount) throws IOException {
+    }
+}
@@ -0,0 +1,45 @@
+package com.aaseya.Flowsure.Service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import io.camunda.zeebe.client.ZeebeClient;
+import io.camunda.zeebe.client.api.command.DeployResourceCommandStep1.DeployResourceCommandStep2;
+import io.camunda.zeebe.client.api.response.DeploymentEvent;
+
+/**
+ * Deploys through the {@link ZeebeClient} of the Camunda starter, one deploy resource
+ * command per archive. The client is looked up on first use, so instances without a
+ * cluster connection still start and only fail deployments.
+ */
+@Component
+@ConditionalOnProperty(name = "flowsure.deploy.gateway", havingValue = "zeebe", matchIfMissing = true)
+public class ZeebeDeploymentGateway implements DeploymentGateway {
+
+    private final ObjectProvider<ZeebeClient> zeebeClient;
+
+    public ZeebeDeploymentGateway(ObjectProvider<ZeebeClient> zeebeClient) {
+        this.zeebeClient = zeebeClient;
+    }
+
+    @Override
+    public CompletableFuture<Long> deploy(String archiveName, List<Resource> resources) {
+        if (resources.isEmpty()) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Nothing to deploy from " + archiveName));
+        }
+        ZeebeClient client = zeebeClient.getIfAvailable();
+        if (client == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("No Zeebe client is configured"));
+        }
+        DeployResourceCommandStep2 command = client.newDeployResourceCommand()
+                .addResourceBytes(resources.get(0).getContent(), resources.get(0).getName());
+        for (Resource resource : resources.subList(1, resources.size())) {
+            command = command.addResourceBytes(resource.getContent(), resource.getName());
+        }
+        return command.send().toCompletableFuture().thenApply(DeploymentEvent::getKey);
+    }
+}
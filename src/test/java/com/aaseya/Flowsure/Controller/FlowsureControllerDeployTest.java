@@ -0,0 +1,117 @@
+package com.aaseya.Flowsure.Controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.aaseya.Flowsure.TestArchives;
+import com.aaseya.Flowsure.Service.DeploymentGateway;
+import com.aaseya.Flowsure.Service.InMemoryDeploymentGateway;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Validate-then-deploy through both upload endpoints, against the in-memory gateway.
+ */
+@SpringBootTest(properties = "flowsure.deploy.gateway=in-memory")
+@AutoConfigureMockMvc
+@ActiveProfiles("validation-only")
+class FlowsureControllerDeployTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private InMemoryDeploymentGateway gateway;
+
+    @Test
+    void cleanArchiveIsDeployedOnce() throws Exception {
+        int before = gateway.getDeployments().size();
+        MockMultipartFile file = TestArchives.upload("clean.zip",
+                "process.bpmn", TestArchives.VALID_BPMN,
+                "rules.xml", TestArchives.validDmn("http://example/a"));
+
+        mockMvc.perform(multipart("/api/validate/upload").file(file).param("deploy", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deployment.status").value("DEPLOYED"))
+                .andExpect(jsonPath("$.results.length()").value(2));
+
+        List<InMemoryDeploymentGateway.Deployment> deployments = gateway.getDeployments();
+        assertThat(deployments).hasSize(before + 1);
+        InMemoryDeploymentGateway.Deployment deployment = deployments.get(deployments.size() - 1);
+        assertThat(deployment.getArchiveName()).isEqualTo("clean.zip");
+        assertThat(deployment.getResources()).extracting(DeploymentGateway.Resource::getName)
+                .containsExactlyInAnyOrder("process.bpmn", "rules.xml.dmn");
+    }
+
+    @Test
+    void archiveWithErrorIsSkipped() throws Exception {
+        int before = gateway.getDeployments().size();
+        MockMultipartFile file = TestArchives.upload("broken.zip",
+                "process.bpmn", TestArchives.VALID_BPMN,
+                "broken.bpmn", TestArchives.INVALID_BPMN);
+
+        mockMvc.perform(multipart("/api/validate/upload").file(file).param("deploy", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deployment.status").value("SKIPPED"));
+
+        assertThat(gateway.getDeployments()).hasSize(before);
+    }
+
+    @Test
+    void cleanArchiveIsDeployedOnceWhenStreamed() throws Exception {
+        int before = gateway.getDeployments().size();
+        MockMultipartFile file = TestArchives.upload("clean.zip",
+                "process.bpmn", TestArchives.VALID_BPMN,
+                "rules.dmn", TestArchives.validDmn("http://example/a"));
+
+        JsonNode summary = streamSummary(file);
+
+        assertThat(summary.get("totalFiles").asInt()).isEqualTo(2);
+        assertThat(summary.at("/deployment/status").asText()).isEqualTo("DEPLOYED");
+        assertThat(gateway.getDeployments()).hasSize(before + 1);
+    }
+
+    @Test
+    void archiveWithErrorIsSkippedWhenStreamed() throws Exception {
+        int before = gateway.getDeployments().size();
+        MockMultipartFile file = TestArchives.upload("broken.zip",
+                "process.bpmn", TestArchives.VALID_BPMN,
+                "broken.bpmn", TestArchives.INVALID_BPMN);
+
+        JsonNode summary = streamSummary(file);
+
+        assertThat(summary.get("invalidFiles").asInt()).isEqualTo(1);
+        assertThat(summary.at("/deployment/status").asText()).isEqualTo("SKIPPED");
+        assertThat(gateway.getDeployments()).hasSize(before);
+    }
+
+    JsonNode streamSummary(MockMultipartFile file) throws Exception {
+        MvcResult started = mockMvc.perform(multipart("/api/validate/upload/stream").file(file)
+                        .param("deploy", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.strip().split("\n");
+        return objectMapper.readTree(lines[lines.length - 1]);
+    }
+}
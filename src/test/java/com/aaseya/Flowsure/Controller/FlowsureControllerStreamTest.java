@@ -0,0 +1,205 @@
+package com.aaseya.Flowsure.Controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.aaseya.Flowsure.TestArchives;
+import com.aaseya.Flowsure.Service.ValidationHistoryService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The NDJSON endpoints: one line per validated file, then a summary line.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("validation-only")
+class FlowsureControllerStreamTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private FlowsureController controller;
+
+    @MockitoBean
+    private ValidationHistoryService validationHistoryService;
+
+    @Test
+    void diagramStreamRejectsEmptyUploadWithJsonError() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "diagrams.zip", "application/zip", new byte[0]);
+
+        stream(file, "/api/validate/upload-zip/stream")
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.message").value("File is empty. Please upload a valid ZIP file."));
+        verifyNoInteractions(validationHistoryService);
+    }
+
+    @Test
+    void diagramStreamRejectsFileThatIsNotZip() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "process.bpmn", "application/xml",
+                TestArchives.VALID_BPMN.getBytes());
+
+        stream(file, "/api/validate/upload-zip/stream")
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid file type. Please upload a ZIP file."));
+    }
+
+    @Test
+    void streamsFinishTheirHistoryRunWhenTheClientHangsUp() throws Exception {
+        MockMultipartFile diagrams = TestArchives.upload("diagrams.zip", "process.bpmn", TestArchives.VALID_BPMN);
+        MockMultipartFile rules = TestArchives.upload("rules.zip", "a.dmn", TestArchives.validDmn("http://example/a"));
+        List<StreamingResponseBody> bodies = List.of(
+                controller.streamDiagramsInZip(diagrams).getBody(),
+                controller.streamDmnFilesInZip(rules).getBody(),
+                controller.streamModelsInZip(diagrams, false).getBody());
+
+        for (StreamingResponseBody body : bodies) {
+            ValidationHistoryService.RunRecorder recorder = mock(ValidationHistoryService.RunRecorder.class);
+            when(validationHistoryService.startRun(anyString(), anyString())).thenReturn(recorder);
+            OutputStream disconnected = new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    throw new IOException("Broken pipe");
+                }
+            };
+
+            assertThatThrownBy(() -> body.writeTo(disconnected)).isInstanceOf(IOException.class);
+            verify(recorder).finish();
+        }
+    }
+
+    @Test
+    void dmnStreamWritesOneLinePerFileThenSummary() throws Exception {
+        MockMultipartFile file = TestArchives.upload("rules.zip",
+                "a.dmn", TestArchives.validDmn("http://example/a"),
+                "b.dmn", TestArchives.validDmn("http://example/b"));
+
+        List<JsonNode> lines = readLines(stream(file, "/api/validate/upload-dmn-zip/stream")
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)));
+
+        assertThat(lines).hasSize(3);
+        assertThat(lines.subList(0, 2)).extracting(line -> line.get("diagramName").asText())
+                .containsExactlyInAnyOrder("a.dmn", "b.dmn");
+        JsonNode summary = lines.get(2);
+        assertThat(summary.get("status").asText()).isEqualTo("SUCCESS");
+        assertThat(summary.get("totalFiles").asInt()).isEqualTo(2);
+        assertThat(summary.get("validFiles").asInt()).isEqualTo(2);
+    }
+
+    @Test
+    void dmnStreamRejectsEmptyUploadWithJsonError() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "rules.zip", "application/zip", new byte[0]);
+
+        stream(file, "/api/validate/upload-dmn-zip/stream")
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.status").value("FAILURE"))
+                .andExpect(jsonPath("$.message").value("File is empty. Please upload a valid ZIP file."));
+    }
+
+    @Test
+    void dmnStreamRejectsFileThatIsNotZip() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "rules.dmn", "application/xml",
+                TestArchives.validDmn("http://example/a").getBytes());
+
+        stream(file, "/api/validate/upload-dmn-zip/stream")
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid file type. Please upload a ZIP file."));
+    }
+
+    @Test
+    void mixedStreamRoutesBpmnAndDmnEntries() throws Exception {
+        MockMultipartFile file = TestArchives.upload("models.zip",
+                "process.bpmn", TestArchives.VALID_BPMN,
+                "rules.dmn", TestArchives.validDmn("http://example/a"));
+
+        List<JsonNode> lines = readLines(stream(file, "/api/validate/upload/stream")
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)));
+
+        assertThat(lines).hasSize(3);
+        assertThat(lines.subList(0, 2)).extracting(line -> line.get("diagramName").asText())
+                .containsExactlyInAnyOrder("process.bpmn", "rules.dmn");
+        JsonNode summary = lines.get(2);
+        assertThat(summary.get("status").asText()).isEqualTo("SUCCESS");
+        assertThat(summary.get("totalFiles").asInt()).isEqualTo(2);
+        assertThat(summary.get("invalidFiles").asInt()).isZero();
+        assertThat(summary.has("deployment")).isFalse();
+    }
+
+    @Test
+    void mixedStreamRejectsFileThatIsNotZip() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "process.bpmn", "application/xml",
+                TestArchives.VALID_BPMN.getBytes());
+
+        stream(file, "/api/validate/upload/stream")
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.message").value("Invalid file type. Please upload a ZIP file."));
+    }
+
+    @Test
+    void mixedStreamAnswers503WhenDeploymentIsDisabled() throws Exception {
+        MockMultipartFile file = TestArchives.upload("models.zip", "process.bpmn", TestArchives.VALID_BPMN);
+
+        MvcResult started = mockMvc.perform(multipart("/api/validate/upload/stream").file(file)
+                        .param("deploy", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.message").value("Deployment is disabled on this instance."));
+    }
+
+    ResultActions stream(MockMultipartFile file, String path) throws Exception {
+        MvcResult started = mockMvc.perform(multipart(path).file(file))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started));
+    }
+
+    List<JsonNode> readLines(ResultActions response) throws Exception {
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : response.andReturn().getResponse().getContentAsString().split("\n")) {
+            if (!line.isBlank()) {
+                lines.add(objectMapper.readTree(line));
+            }
+        }
+        return lines;
+    }
+}
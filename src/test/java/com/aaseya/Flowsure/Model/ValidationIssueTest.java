@@ -0,0 +1,31 @@
+package com.aaseya.Flowsure.Model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.aaseya.Flowsure.Model.ValidationIssue.IssueType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class ValidationIssueTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void issueWithoutLocationOmitsLineAndColumn() throws Exception {
+        String json = mapper.writeValueAsString(new ValidationIssue(IssueType.ERROR, "Broken", "task", null));
+
+        assertThat(json).doesNotContain("line", "column").contains("\"elementName\":null");
+        assertThat(mapper.readValue(json, ValidationIssue.class).getLine()).isNull();
+    }
+
+    @Test
+    void issueWithLocationKeepsLineAndColumn() throws Exception {
+        String json = mapper.writeValueAsString(new ValidationIssue(IssueType.WARNING, "Odd", "task", "Task", 12, 5));
+
+        assertThat(json).contains("\"line\":12", "\"column\":5");
+        ValidationIssue read = mapper.readValue(json, ValidationIssue.class);
+        assertThat(read.getLine()).isEqualTo(12);
+        assertThat(read.getColumn()).isEqualTo(5);
+    }
+}
@@ -0,0 +1,93 @@
+package com.aaseya.Flowsure.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.aaseya.Flowsure.TestArchives;
+import com.aaseya.Flowsure.Model.DiagramValidationResult;
+import com.aaseya.Flowsure.Model.ValidationIssue;
+
+class ArchiveValidationPipelineTest {
+
+    @TempDir
+    Path directory;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void entryCapAndSizeLimitAreBothReported() throws Exception {
+        // 10 entries of 100 bytes; the cap keeps 6, the size limit stops after 4 of those
+        List<DiagramValidationResult> results = validate(archive(10, 100), new ValidationLimits(6, 0, 450, 0, 0, 0));
+
+        assertThat(results).hasSize(5);
+        DiagramValidationResult stopped = results.get(4);
+        assertThat(stopped.getDiagramName()).isEqualTo(ArchiveValidationPipeline.ARCHIVE_RESULT_NAME);
+        assertThat(messages(stopped)).containsExactly(
+                "Archive contains 10 diagram entries; entries after the first 6 were not validated."
+                        + " Archive exceeds the inflated size limit of 450 bytes; 2 of 6 diagram entries were not validated.");
+    }
+
+    @Test
+    void sizeLimitCountsAgainstAllEntriesWithoutCap() throws Exception {
+        List<DiagramValidationResult> results = validate(archive(10, 100), new ValidationLimits(0, 0, 450, 0, 0, 0));
+
+        assertThat(results).hasSize(5);
+        assertThat(messages(results.get(4))).containsExactly(
+                "Archive exceeds the inflated size limit of 450 bytes; 6 of 10 diagram entries were not validated.");
+    }
+
+    @Test
+    void entryCapAloneIsReported() throws Exception {
+        List<DiagramValidationResult> results = validate(archive(10, 100), new ValidationLimits(6, 0, 0, 0, 0, 0));
+
+        assertThat(results).hasSize(7);
+        assertThat(messages(results.get(6))).containsExactly(
+                "Archive contains 10 diagram entries; entries after the first 6 were not validated.");
+    }
+
+    @Test
+    void archiveWithinLimitsHasNoStopResult() throws Exception {
+        List<DiagramValidationResult> results = validate(archive(3, 100), new ValidationLimits(6, 0, 450, 0, 0, 0));
+
+        assertThat(results).extracting(DiagramValidationResult::getDiagramName)
+                .containsExactly("entry0.bpmn", "entry1.bpmn", "entry2.bpmn");
+    }
+
+    private List<DiagramValidationResult> validate(Path archive, ValidationLimits limits) throws Exception {
+        ArchiveValidationPipeline pipeline = new ArchiveValidationPipeline(executor, 4, ValidationMetrics.disabled(),
+                limits);
+        List<DiagramValidationResult> results = new ArrayList<>();
+        pipeline.validate(archive, name -> true,
+                (name, content) -> new DiagramValidationResult(name, true, new ArrayList<>()), results::add);
+        return results;
+    }
+
+    private Path archive(int entryCount, int entrySize) throws Exception {
+        Map<String, String> entries = new LinkedHashMap<>();
+        for (int i = 0; i < entryCount; i++) {
+            entries.put("entry" + i + ".bpmn", "x".repeat(entrySize));
+        }
+        return Files.write(directory.resolve("archive.zip"), TestArchives.zip(entries));
+    }
+
+    private static List<String> messages(DiagramValidationResult result) {
+        return result.getIssues().stream().map(ValidationIssue::getMessage).toList();
+    }
+}
@@ -0,0 +1,173 @@
+package com.aaseya.Flowsure.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.aaseya.Flowsure.Model.ValidationIssue;
+import com.aaseya.Flowsure.Model.ValidationIssue.IssueType;
+
+class BpmnFlowGraphTest {
+
+    private final BpmnFlowGraph graph = new BpmnFlowGraph();
+    private final int process = graph.openScope(-1);
+    private int line;
+
+    @Test
+    void connectedProcessHasNoIssues() {
+        node("startEvent", "start", process);
+        node("task", "work", process);
+        node("endEvent", "end", process);
+        flow("start", "work", process);
+        flow("work", "end", process);
+
+        assertThat(graph.analyze()).isEmpty();
+    }
+
+    @Test
+    void loopWithAnExitIsFine() {
+        node("startEvent", "start", process);
+        node("task", "loopA", process);
+        node("exclusiveGateway", "loopB", process);
+        node("endEvent", "end", process);
+        flow("start", "loopA", process);
+        flow("loopA", "loopB", process);
+        flow("loopB", "loopA", process);
+        flow("loopB", "end", process);
+
+        assertThat(graph.analyze()).isEmpty();
+    }
+
+    @Test
+    void loopWithoutAnExitIsAnError() {
+        node("startEvent", "start", process);
+        node("task", "loopA", process);
+        node("task", "loopB", process);
+        flow("start", "loopA", process);
+        flow("loopA", "loopB", process);
+        flow("loopB", "loopA", process);
+
+        List<ValidationIssue> issues = graph.analyze();
+
+        assertThat(issues).extracting(ValidationIssue::getType).containsExactly(IssueType.ERROR, IssueType.WARNING);
+        assertThat(issues.get(0).getElementId()).isEqualTo("loopA");
+        assertThat(issues.get(0).getMessage()).startsWith("Loop through 2 flow nodes has no exit")
+                .contains("'loopA'", "'loopB'");
+        // The start event leads only into the loop
+        assertThat(issues.get(1).getElementId()).isEqualTo("start");
+        assertThat(issues.get(1).getMessage()).contains("cannot reach an end event");
+    }
+
+    @Test
+    void nodeFlowingOnlyToItselfIsAnError() {
+        node("startEvent", "start", process);
+        node("task", "spin", process);
+        flow("start", "spin", process);
+        flow("spin", "spin", process);
+
+        List<ValidationIssue> issues = graph.analyze();
+
+        assertThat(issues.get(0).getType()).isEqualTo(IssueType.ERROR);
+        assertThat(issues.get(0).getMessage()).contains("'spin' only flows back to itself");
+    }
+
+    @Test
+    void longLoopWithoutAnExitIsOneErrorListingTheFirstMembers() {
+        int length = 200_000;
+        node("startEvent", "start", process);
+        for (int i = 0; i < length; i++) {
+            node("task", "t" + i, process);
+        }
+        flow("start", "t0", process);
+        for (int i = 0; i < length; i++) {
+            flow("t" + i, "t" + ((i + 1) % length), process);
+        }
+
+        List<ValidationIssue> errors = graph.analyze().stream().filter(issue -> issue.getType() == IssueType.ERROR)
+                .toList();
+
+        assertThat(errors).hasSize(1);
+        assertThat(errors.get(0).getMessage()).startsWith("Loop through 200000 flow nodes has no exit")
+                .contains("and 199990 more");
+    }
+
+    @Test
+    void nodeWithoutIncomingFlowInProcessWithStartEventIsUnreachable() {
+        node("startEvent", "start", process);
+        node("endEvent", "end", process);
+        node("task", "orphan", process);
+        flow("start", "end", process);
+
+        List<ValidationIssue> issues = graph.analyze();
+
+        assertThat(issues).hasSize(1);
+        assertThat(issues.get(0).getType()).isEqualTo(IssueType.WARNING);
+        assertThat(issues.get(0).getElementId()).isEqualTo("orphan");
+        assertThat(issues.get(0).getMessage()).contains("is not reachable from a start event");
+    }
+
+    @Test
+    void subprocessIsEnteredThroughItsStartEvent() {
+        node("startEvent", "start", process);
+        int sub = node("subProcess", "sub", process);
+        node("endEvent", "end", process);
+        flow("start", "sub", process);
+        flow("sub", "end", process);
+        int inner = graph.openScope(sub);
+        node("startEvent", "innerStart", inner);
+        node("task", "innerTask", inner);
+        node("task", "innerOrphan", inner);
+        flow("innerStart", "innerTask", inner);
+
+        List<ValidationIssue> issues = graph.analyze();
+
+        assertThat(issues).extracting(ValidationIssue::getElementId).containsExactly("innerOrphan");
+    }
+
+    @Test
+    void unresolvedAndCrossScopeReferencesAreErrors() {
+        node("startEvent", "start", process);
+        int sub = node("subProcess", "sub", process);
+        node("endEvent", "end", process);
+        flow("start", "sub", process);
+        flow("sub", "end", process);
+        flow("sub", "ghost", process);
+        int inner = graph.openScope(sub);
+        node("startEvent", "innerStart", inner);
+        flow("innerStart", "end", inner);
+
+        List<ValidationIssue> issues = graph.analyze();
+
+        assertThat(issues).filteredOn(issue -> issue.getType() == IssueType.ERROR)
+                .extracting(ValidationIssue::getMessage).containsExactly(
+                        "Sequence flow 'flow-6' has targetRef 'ghost', which is not a flow node.",
+                        "Sequence flow 'flow-8' has targetRef 'end', which is in a different process or subprocess.");
+    }
+
+    @Test
+    void duplicateIdsAreErrorsAtTheSecondUse() {
+        node("startEvent", "start", process);
+        node("endEvent", "start", process);
+
+        List<ValidationIssue> issues = graph.analyze();
+
+        assertThat(issues.get(0).getType()).isEqualTo(IssueType.ERROR);
+        assertThat(issues.get(0).getLine()).isEqualTo(2);
+        assertThat(issues.get(0).getMessage()).contains("already used by the element at line 1");
+    }
+
+    private int node(String kind, String id, int scope) {
+        line++;
+        graph.recordId(id, kind, line, 1);
+        return graph.addNode(kind, id, "", scope, line, 1);
+    }
+
+    private void flow(String source, String target, int scope) {
+        line++;
+        String id = "flow-" + line;
+        graph.recordId(id, "sequenceFlow", line, 1);
+        graph.addFlow(id, "", source, target, scope, line, 1);
+    }
+}
@@ -0,0 +1,83 @@
+package com.aaseya.Flowsure.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class CsrGraphTest {
+
+    @Test
+    void keepsEdgesOfEveryNodeInInsertionOrder() {
+        CsrGraph graph = new CsrGraph.Builder(3).addEdge(2, 0).addEdge(0, 2).addEdge(0, 1).build();
+
+        assertThat(graph.nodeCount()).isEqualTo(3);
+        assertThat(graph.target(graph.firstEdge(0))).isEqualTo(2);
+        assertThat(graph.target(graph.firstEdge(0) + 1)).isEqualTo(1);
+        assertThat(graph.endEdge(1) - graph.firstEdge(1)).isZero();
+        assertThat(graph.hasEdge(2, 0)).isTrue();
+        assertThat(graph.hasEdge(0, 0)).isFalse();
+        assertThat(graph.reversed().hasEdge(0, 2)).isTrue();
+        assertThat(graph.reversed().hasEdge(1, 0)).isTrue();
+    }
+
+    @Test
+    void growsPastTheExpectedEdgeCount() {
+        CsrGraph.Builder builder = new CsrGraph.Builder(100, 1);
+        for (int i = 0; i < 99; i++) {
+            builder.addEdge(i, i + 1);
+        }
+        CsrGraph graph = builder.build();
+
+        assertThat(graph.reachableFrom(new int[] { 0 }, 1)).containsOnly(true);
+    }
+
+    @Test
+    void reachesOnlyWhatTheRootsLeadTo() {
+        // 0 -> 1 -> 2, 3 -> 2, 4 alone
+        CsrGraph graph = new CsrGraph.Builder(5).addEdge(0, 1).addEdge(1, 2).addEdge(3, 2).build();
+
+        assertThat(graph.reachableFrom(new int[] { 0 }, 1)).containsExactly(true, true, true, false, false);
+        assertThat(graph.reachableFrom(new int[] { 3, 4, 0 }, 2)).containsExactly(false, false, true, true, true);
+        assertThat(graph.reversed().reachableFrom(new int[] { 2 }, 1)).containsExactly(true, true, true, true,
+                false);
+    }
+
+    @Test
+    void numbersComponentsInReverseTopologicalOrder() {
+        // {0, 1} -> {2, 3, 4} -> {5}, 6 loops on itself
+        CsrGraph graph = new CsrGraph.Builder(7).addEdge(0, 1).addEdge(1, 0).addEdge(1, 2).addEdge(2, 3)
+                .addEdge(3, 4).addEdge(4, 2).addEdge(4, 5).addEdge(6, 6).build();
+
+        int[] component = graph.stronglyConnectedComponents();
+
+        assertThat(component[0]).isEqualTo(component[1]);
+        assertThat(component[2]).isEqualTo(component[3]).isEqualTo(component[4]);
+        assertThat(component[0]).isNotEqualTo(component[2]);
+        assertThat(component[5]).isNotEqualTo(component[2]).isNotEqualTo(component[6]);
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            for (int edge = graph.firstEdge(node); edge < graph.endEdge(node); edge++) {
+                assertThat(component[graph.target(edge)]).isLessThanOrEqualTo(component[node]);
+            }
+        }
+    }
+
+    @Test
+    void findsComponentsOfLongChainsWithoutRecursion() {
+        // A chain far deeper than the thread stack would allow recursively, closed into one cycle
+        int nodeCount = 1_000_000;
+        CsrGraph.Builder builder = new CsrGraph.Builder(nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            builder.addEdge(i, (i + 1) % nodeCount);
+        }
+        int[] cycle = builder.build().stronglyConnectedComponents();
+        assertThat(cycle).containsOnly(0);
+
+        builder = new CsrGraph.Builder(nodeCount);
+        for (int i = 0; i + 1 < nodeCount; i++) {
+            builder.addEdge(i, i + 1);
+        }
+        int[] chain = builder.build().stronglyConnectedComponents();
+        assertThat(chain[nodeCount - 1]).isZero();
+        assertThat(chain[0]).isEqualTo(nodeCount - 1);
+    }
+}
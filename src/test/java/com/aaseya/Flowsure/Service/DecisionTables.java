@@ -0,0 +1,44 @@
+package com.aaseya.Flowsure.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.aaseya.Flowsure.Model.DmnClause;
+import com.aaseya.Flowsure.Model.DmnDecisionTable;
+import com.aaseya.Flowsure.Model.DmnRule;
+
+/**
+ * Decision tables written row by row for tests.
+ */
+final class DecisionTables {
+
+	private DecisionTables() {
+	}
+
+	/**
+	 * A table with one string output and untyped inputs x0, x1, ...; every row is its input
+	 * entries followed by the output entry.
+	 */
+	static DmnDecisionTable table(String hitPolicy, int inputCount, String... cells) {
+		List<DmnClause> inputs = new ArrayList<>();
+		for (int c = 0; c < inputCount; c++) {
+			inputs.add(new DmnClause("input" + c, "x" + c, null));
+		}
+		return table(hitPolicy, inputs, cells);
+	}
+
+	static DmnDecisionTable table(String hitPolicy, List<DmnClause> inputs, String... cells) {
+		int inputCount = inputs.size();
+		List<DmnRule> rules = new ArrayList<>();
+		for (int k = 0; k < cells.length; k += inputCount + 1) {
+			List<String> inputEntries = Arrays.asList(Arrays.copyOfRange(cells, k, k + inputCount));
+			rules.add(new DmnRule("rule" + rules.size(), rules.size(), inputEntries, List.of(cells[k + inputCount])));
+		}
+		return new DmnDecisionTable("table", hitPolicy, inputs, List.of(new DmnClause("output", "y", "string")), rules);
+	}
+
+	static DmnClause input(String label, String typeRef) {
+		return new DmnClause(label, label, typeRef);
+	}
+}
@@ -0,0 +1,50 @@
+package com.aaseya.Flowsure.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import com.aaseya.Flowsure.Model.DiagramValidationResult;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class DiagramValidationServiceTest {
+
+    private static final byte[] NOT_XML = "not xml".getBytes(StandardCharsets.UTF_8);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final DiagramValidationService service = new DiagramValidationService(null, null,
+            new ValidationMetrics(registry));
+
+    @Test
+    void unreadableFileIsCountedForTheValidatorItsExtensionNames() {
+        DiagramValidationResult bpmn = service.validateDiagram("broken.bpmn", NOT_XML);
+        service.validateDiagram("broken.dmn", NOT_XML);
+        service.validateDiagram("broken.xml", NOT_XML);
+
+        assertThat(bpmn.isValid()).isFalse();
+        assertThat(errors("bpmn")).isEqualTo(1);
+        assertThat(errors("dmn-dom")).isEqualTo(1);
+        assertThat(errors("unknown")).isEqualTo(1);
+    }
+
+    @Test
+    void fileOfNoKnownTypeIsCountedAsUnknown() {
+        byte[] content = "<note xmlns=\"http://example/notes\"/>".getBytes(StandardCharsets.UTF_8);
+
+        DiagramValidationResult result = service.validateDiagram("note.xml", content);
+
+        assertThat(result.isValid()).isFalse();
+        assertThat(errors("unknown")).isEqualTo(1);
+        assertThat(registry.find("flowsure.validation.issues").tag("validator", "dmn-dom").counter()).isNull();
+    }
+
+    private double errors(String validator) {
+        Counter counter = registry.find("flowsure.validation.issues").tag("validator", validator)
+                .tag("severity", "ERROR").counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
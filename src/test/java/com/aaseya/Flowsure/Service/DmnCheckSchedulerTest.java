@@ -0,0 +1,214 @@
+package com.aaseya.Flowsure.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.aaseya.Flowsure.Model.DiagramValidationResult;
+import com.aaseya.Flowsure.Model.DmnDefinitions;
+import com.aaseya.Flowsure.Model.ValidationIssue;
+import com.aaseya.Flowsure.Model.ValidationIssue.IssueType;
+
+class DmnCheckSchedulerTest {
+
+	// Two tables of two rules each
+	private static final DmnDefinitions MODEL = new DmnDefinitions("definitions", "d", "ns", List.of(),
+			List.of(DecisionTables.table("UNIQUE", 1, "< 1", "\"a\"", "> 1", "\"b\""),
+					DecisionTables.table("UNIQUE", 1, "< 1", "\"a\"", "> 1", "\"b\"")));
+
+	private final ExecutorService pool = Executors.newFixedThreadPool(4);
+	private final AtomicInteger pooledTasks = new AtomicInteger();
+	private final List<String> ran = Collections.synchronizedList(new ArrayList<>());
+	private final List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+
+	@AfterEach
+	void tearDown() {
+		ValidationBudget.end();
+		pool.shutdownNow();
+	}
+
+	@Test
+	void checksRunAfterTheirDependenciesAndReportInRegistrationOrder() {
+		DmnCheckScheduler scheduler = scheduler(4,
+				check("last", Set.of("middle"), context -> {}),
+				check("middle", Set.of("first"), context -> {}),
+				check("first", Set.of(), context -> {}));
+
+		List<ValidationIssue> issues = run(scheduler, MODEL).getIssues();
+
+		assertThat(ran).containsExactly("first", "middle", "last");
+		assertThat(issues).extracting(ValidationIssue::getMessage).containsExactly("last", "middle", "first");
+	}
+
+	@Test
+	void failureSkipsOnlyTheChecksThatDependOnIt() {
+		DmnCheckScheduler scheduler = scheduler(4,
+				check("overlaps", Set.of(), context -> context.getResult().setValid(false)),
+				check("descriptions", Set.of(), context -> {}),
+				check("hit-policy", Set.of("overlaps"), context -> {}),
+				check("after-hit-policy", Set.of("hit-policy"), context -> {}),
+				check("throws", Set.of(), context -> {
+					throw new IllegalArgumentException("boom");
+				}),
+				check("after-throws", Set.of("throws"), context -> {}));
+
+		DiagramValidationResult result = run(scheduler, MODEL);
+
+		assertThat(result.isValid()).isFalse();
+		assertThat(ran).containsExactlyInAnyOrder("overlaps", "descriptions", "throws");
+		assertThat(result.getIssues()).extracting(ValidationIssue::getMessage).containsExactly("overlaps",
+				"descriptions", "throws", "Error during throws analysis for f.dmn: boom");
+	}
+
+	@Test
+	void smallFileRunsEveryCheckOnTheCallingThread() {
+		DmnCheckScheduler scheduler = scheduler(5, check("a", Set.of(), context -> {}),
+				check("b", Set.of(), context -> {}), check("rules", EnumSet.of(DmnCheck.Input.RULE_INDEX)));
+
+		run(scheduler, MODEL);
+
+		assertThat(ran).containsExactly("a", "b", "rules");
+		assertThat(threads).containsOnly(Thread.currentThread());
+		assertThat(pooledTasks).hasValue(0);
+	}
+
+	@Test
+	void largeFileRunsChecksAndIndexBuildsOnTheExecutor() {
+		DmnCheckScheduler scheduler = scheduler(4, check("a", Set.of(), context -> {}),
+				check("b", Set.of(), context -> {}), check("rules", EnumSet.of(DmnCheck.Input.RULE_INDEX)));
+
+		DiagramValidationResult result = run(scheduler, MODEL);
+
+		assertThat(result.isValid()).isTrue();
+		assertThat(ran).containsExactlyInAnyOrder("a", "b", "rules");
+		assertThat(threads).doesNotContain(Thread.currentThread());
+		// One index build per table, then one task per check
+		assertThat(pooledTasks).hasValue(5);
+	}
+
+	@Test
+	void exceededBudgetSkipsTheChecksNotYetStartedAndIsReportedOnce() {
+		ValidationBudget.begin(System.nanoTime() - 1, 5);
+		DmnCheckScheduler scheduler = scheduler(5,
+				check("slow", Set.of(), context -> ValidationBudget.checkpoint()),
+				check("also-slow", Set.of(), context -> ValidationBudget.checkpoint()),
+				check("later", Set.of(), context -> {}));
+
+		DiagramValidationResult result = run(scheduler, MODEL);
+
+		assertThat(ran).containsExactly("slow");
+		assertThat(result.isValid()).isFalse();
+		assertThat(result.getIssues()).filteredOn(issue -> issue.getType() == IssueType.ERROR)
+				.extracting(ValidationIssue::getMessage).containsExactly(
+						"Validation time budget of 5 ms exceeded during slow analysis for f.dmn;"
+								+ " the remaining checks were skipped and the results are partial.");
+	}
+
+	@Test
+	void exceededBudgetOnTheExecutorIsReportedOnce() {
+		ValidationBudget.begin(System.nanoTime() - 1, 5);
+		DmnCheckScheduler scheduler = scheduler(1,
+				check("slow", Set.of(), context -> ValidationBudget.checkpoint()),
+				check("also-slow", Set.of(), context -> ValidationBudget.checkpoint()),
+				check("after-slow", Set.of("slow"), context -> {}));
+
+		DiagramValidationResult result = run(scheduler, MODEL);
+
+		assertThat(ran).doesNotContain("after-slow");
+		assertThat(result.isValid()).isFalse();
+		assertThat(result.getIssues()).filteredOn(issue -> issue.getType() == IssueType.ERROR).hasSize(1)
+				.allMatch(issue -> issue.getMessage().startsWith("Validation time budget of 5 ms exceeded"));
+	}
+
+	@Test
+	void unparsedFileRunsOnlyTheChecksOnTheSource() {
+		DmnCheckScheduler scheduler = scheduler(1, check("model", EnumSet.of(DmnCheck.Input.MODEL)),
+				check("rules", EnumSet.of(DmnCheck.Input.RULE_INDEX)),
+				check("source", EnumSet.of(DmnCheck.Input.SOURCE)));
+
+		DiagramValidationResult result = run(scheduler, null);
+
+		assertThat(ran).containsExactly("source");
+		assertThat(result.isValid()).isTrue();
+	}
+
+	@Test
+	void duplicateUnknownAndCyclicDependenciesAreRejected() {
+		assertThatThrownBy(() -> scheduler(1, check("a", Set.of(), context -> {}), check("a", Set.of(), context -> {})))
+				.isInstanceOf(IllegalStateException.class).hasMessageContaining("Duplicate DMN check id 'a'");
+		assertThatThrownBy(() -> scheduler(1, check("a", Set.of("ghost"), context -> {})))
+				.isInstanceOf(IllegalStateException.class).hasMessageContaining("unknown check 'ghost'");
+		assertThatThrownBy(() -> scheduler(1, check("a", Set.of("b"), context -> {}),
+				check("b", Set.of("a"), context -> {}), check("c", Set.of(), context -> {})))
+				.isInstanceOf(IllegalStateException.class).hasMessage("DMN checks have cyclic dependencies: [a, b]");
+	}
+
+	private DmnCheckScheduler scheduler(int parallelMinRules, DmnCheck... checks) {
+		return new DmnCheckScheduler(List.of(checks), command -> {
+			pooledTasks.incrementAndGet();
+			pool.execute(command);
+		}, parallelMinRules, new FeelUnaryTestCompiler(), ValidationMetrics.disabled(), "dmn");
+	}
+
+	private static DiagramValidationResult run(DmnCheckScheduler scheduler, DmnDefinitions model) {
+		DiagramValidationResult result = new DiagramValidationResult("f.dmn", true, new ArrayList<>());
+		List<ValidationIssue> issues = new ArrayList<>();
+		scheduler.run("f.dmn", new byte[0], model, result, issues);
+		result.setIssues(issues);
+		return result;
+	}
+
+	/**
+	 * A check reading the model that records its run and reports its id as an issue.
+	 */
+	private DmnCheck check(String id, Set<String> dependencies, CheckBody body) {
+		return check(id, EnumSet.of(DmnCheck.Input.MODEL), dependencies, body);
+	}
+
+	private DmnCheck check(String id, Set<DmnCheck.Input> inputs) {
+		return check(id, inputs, Set.of(), context -> {});
+	}
+
+	private DmnCheck check(String id, Set<DmnCheck.Input> inputs, Set<String> dependencies, CheckBody body) {
+		return new DmnCheck() {
+			@Override
+			public String getId() {
+				return id;
+			}
+
+			@Override
+			public Set<Input> getInputs() {
+				return inputs;
+			}
+
+			@Override
+			public Set<String> getDependencies() {
+				return dependencies;
+			}
+
+			@Override
+			public void check(DmnCheckContext context) throws Exception {
+				ran.add(id);
+				threads.add(Thread.currentThread());
+				context.getIssues().add(new ValidationIssue(IssueType.INFO, id));
+				body.run(context);
+			}
+		};
+	}
+
+	@FunctionalInterface
+	private interface CheckBody {
+		void run(DmnCheckContext context) throws Exception;
+	}
+}
@@ -0,0 +1,199 @@
+package com.aaseya.Flowsure.Service;
+
+import static com.aaseya.Flowsure.Service.DecisionTables.input;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.aaseya.Flowsure.Model.DmnClause;
+import com.aaseya.Flowsure.Model.DmnDecisionTable;
+
+class DmnCompletenessAnalyzerTest {
+
+	private final FeelUnaryTestCompiler compiler = new FeelUnaryTestCompiler();
+	private final DmnCompletenessAnalyzer analyzer = new DmnCompletenessAnalyzer(compiler);
+
+	@Test
+	void complementaryComparisonsLeaveNoGap() {
+		DmnCompletenessAnalyzer.Report report = analyze(List.of(input("x", "number")),
+				"< 10", "\"low\"",
+				">= 10", "\"high\"");
+
+		assertThat(report.getGaps()).isEmpty();
+		assertThat(report.isStepLimitReached()).isFalse();
+	}
+
+	@Test
+	void missingBoundaryPointIsAGap() {
+		DmnCompletenessAnalyzer.Report report = analyze(List.of(input("x", "number")),
+				"< 10", "\"low\"",
+				"> 10", "\"high\"");
+
+		assertThat(examples(report)).containsExactly("x = 10");
+	}
+
+	@Test
+	void decimalGapBetweenIntegersIsReported() {
+		DmnCompletenessAnalyzer.Report report = analyze(List.of(input("x", "number")),
+				"<= 5", "\"low\"",
+				">= 6", "\"high\"");
+
+		assertThat(examples(report)).containsExactly("x = 5.5");
+	}
+
+	@Test
+	void decimalPointGapIsReported() {
+		DmnCompletenessAnalyzer.Report report = analyze(List.of(input("x", "number")),
+				"< 5.5", "\"low\"",
+				"> 5.5", "\"high\"");
+
+		assertThat(examples(report)).containsExactly("x = 5.5");
+	}
+
+	@Test
+	void integerColumnHasNoValuesBetweenConsecutiveIntegers() {
+		DmnCompletenessAnalyzer.Report report = analyze(List.of(input("x", "integer")),
+				"<= 5", "\"low\"",
+				">= 6", "\"high\"");
+
+		assertThat(report.getGaps()).isEmpty();
+	}
+
+	@Test
+	void integerColumnIgnoresFractionalPointGap() {
+		DmnCompletenessAnalyzer.Report report = analyze(List.of(input("x", "integer")),
+				"< 5.5", "\"low\"",
+				"> 5.5", "\"high\"");
+
+		assertThat(report.getGaps()).isEmpty();
+	}
+
+	@Test
+	void integerColumnReportsWholeNumberGap() {
+		DmnCompletenessAnalyzer.Report report = analyze(List.of(input("x", "integer")),
+				"<= 5", "\"low\"",
+				">= 7", "\"high\"");
+
+		assertThat(examples(report)).containsExactly("x = 6");
+	}
+
+	@Test
+	void datesAreDiscrete() {
+		List<String> gapFree = examples(analyze(List.of(input("day", "date")),
+				"<= date(\"2024-01-01\")", "\"old\"",
+				">= date(\"2024-01-02\")", "\"new\""));
+		List<String> gap = examples(analyze(List.of(input("day", "date")),
+				"< date(\"2024-01-01\")", "\"old\"",
+				"> date(\"2024-01-01\")", "\"new\""));
+
+		assertThat(gapFree).isEmpty();
+		assertThat(gap).containsExactly("day = date(\"2024-01-01\")");
+	}
+
+	@Test
+	void stringColumnsHaveAnOtherStringCell() {
+		DmnCompletenessAnalyzer.Report report = analyze(List.of(input("tier", "string")),
+				"\"GOLD\"", "\"a\"",
+				"\"SILVER\"", "\"b\"");
+
+		assertThat(examples(report)).containsExactly("tier = any other string");
+	}
+
+	@Test
+	void negatedStringCoversTheRest() {
+		DmnCompletenessAnalyzer.Report report = analyze(List.of(input("tier", "string")),
+				"\"GOLD\"", "\"a\"",
+				"not(\"GOLD\")", "\"b\"");
+
+		assertThat(report.getGaps()).isEmpty();
+	}
+
+	@Test
+	void partitionSearchFindsTheOneMissingCombination() {
+		DmnCompletenessAnalyzer.Report report = analyze(
+				List.of(input("amount", "number"), input("member", "boolean")),
+				"< 10", "true", "\"a\"",
+				"< 10", "false", "\"b\"",
+				">= 10", "true", "\"c\"");
+
+		assertThat(examples(report)).containsExactly("amount = 10, member = false");
+	}
+
+	@Test
+	void partitionSearchAcrossThreeColumnsWithWildcards() {
+		DmnCompletenessAnalyzer.Report report = analyze(
+				List.of(input("amount", "number"), input("member", "boolean"), input("tier", "string")),
+				"< 10", "-", "-", "\"a\"",
+				">= 10", "true", "-", "\"b\"",
+				">= 10", "false", "\"GOLD\"", "\"c\"",
+				">= 10", "false", "not(\"GOLD\")", "\"d\"");
+
+		assertThat(report.getGaps()).isEmpty();
+	}
+
+	@Test
+	void opaqueEntriesNeverCauseGaps() {
+		DmnCompletenessAnalyzer.Report report = analyze(List.of(input("x", "number")),
+				"< limit", "\"a\"",
+				"> 10", "\"b\"");
+
+		assertThat(report.getGaps()).isEmpty();
+	}
+
+	@Test
+	void missingTypeRefUsesDomainOfMostEntries() {
+		DmnCompletenessAnalyzer.Report report = analyze(List.of(input("x", null)),
+				"<= 5", "\"low\"",
+				">= 6", "\"high\"");
+
+		assertThat(examples(report)).containsExactly("x = 5.5");
+	}
+
+	@Test
+	void gapLimitStopsTheSearch() {
+		DmnCompletenessAnalyzer limited = new DmnCompletenessAnalyzer(compiler, 2, DmnCompletenessAnalyzer.DEFAULT_MAX_STEPS);
+		DmnDecisionTable table = DecisionTables.table("UNIQUE", List.of(input("x", "integer")),
+				"1", "\"a\"",
+				"3", "\"b\"",
+				"5", "\"c\"",
+				"7", "\"d\"");
+
+		DmnCompletenessAnalyzer.Report report = limited.analyze(table);
+
+		assertThat(report.getGaps()).hasSize(2);
+		assertThat(report.hasMoreGaps()).isTrue();
+	}
+
+	@Test
+	void stepLimitStopsTheSearch() {
+		List<String> cells = new ArrayList<>();
+		for (int r = 0; r < 50; r++) {
+			cells.add("[" + (r * 10) + ".." + (r * 10 + 9) + "]");
+			cells.add(r % 2 == 0 ? "true" : "false");
+			cells.add("\"" + r + "\"");
+		}
+		DmnDecisionTable table = DecisionTables.table("UNIQUE",
+				List.of(input("x", "integer"), input("flag", "boolean")), cells.toArray(new String[0]));
+		DmnCompletenessAnalyzer limited = new DmnCompletenessAnalyzer(compiler, 1_000, 5);
+
+		DmnCompletenessAnalyzer.Report report = limited.analyze(table);
+		DmnCompletenessAnalyzer.Report full = analyzer.analyze(table);
+
+		assertThat(report.isStepLimitReached()).isTrue();
+		assertThat(report.getSteps()).isEqualTo(5);
+		assertThat(full.isStepLimitReached()).isFalse();
+		assertThat(full.getSteps()).isGreaterThan(5);
+		assertThat(report.getGaps().size()).isLessThan(full.getGaps().size());
+	}
+
+	private DmnCompletenessAnalyzer.Report analyze(List<DmnClause> inputs, String... cells) {
+		return analyzer.analyze(DecisionTables.table("UNIQUE", inputs, cells));
+	}
+
+	private static List<String> examples(DmnCompletenessAnalyzer.Report report) {
+		return report.getGaps().stream().map(report::describe).toList();
+	}
+}
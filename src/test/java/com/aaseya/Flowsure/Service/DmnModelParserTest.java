@@ -0,0 +1,179 @@
+package com.aaseya.Flowsure.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.jupiter.api.Test;
+
+import com.aaseya.Flowsure.Model.DiagramValidationResult;
+import com.aaseya.Flowsure.Model.DmnClause;
+import com.aaseya.Flowsure.Model.DmnDecisionTable;
+import com.aaseya.Flowsure.Model.DmnDefinitions;
+import com.aaseya.Flowsure.Model.DmnElement;
+import com.aaseya.Flowsure.Model.DmnRule;
+import com.aaseya.Flowsure.Model.ValidationIssue;
+
+class DmnModelParserTest {
+
+	private static final String TABLE = """
+			<decisionTable id="table" hitPolicy="FIRST">
+			  <input id="in1" label="Age"><inputExpression typeRef="number"><text>age</text></inputExpression></input>
+			  <input id="in2" label="Tier"><inputExpression typeRef="string"><text>tier</text></inputExpression></input>
+			  <output id="out1" name="discount" typeRef="number"/>
+			  <rule id="r1">
+			    <inputEntry><text>&lt; 18</text></inputEntry>
+			    <inputEntry><text><![CDATA["gold"]]></text></inputEntry>
+			    <outputEntry><text>10</text></outputEntry>
+			  </rule>
+			  <rule id="r2">
+			    <inputEntry><description>any age</description><text>-</text></inputEntry>
+			    <inputEntry/>
+			    <outputEntry><text>0</text><text>ignored</text></outputEntry>
+			  </rule>
+			</decisionTable>
+			""";
+
+	private final DmnModelParser parser = new DmnModelParser();
+
+	@Test
+	void defaultNamespaceAndPrefixedFilesGiveTheSameModel() throws Exception {
+		DmnDefinitions plain = parse("""
+				<definitions xmlns="https://www.omg.org/spec/DMN/20191111/MODEL/" id="defs" name="Discounts"
+				    namespace="http://example/discounts">
+				  <decision id="d1" name="Discount">%s</decision>
+				</definitions>
+				""".formatted(TABLE));
+		DmnDefinitions prefixed = parse("""
+				<dmn:definitions xmlns:dmn="https://www.omg.org/spec/DMN/20191111/MODEL/" id="defs" name="Discounts"
+				    namespace="http://example/discounts">
+				  <dmn:decision id="d1" name="Discount">%s</dmn:decision>
+				</dmn:definitions>
+				""".formatted(TABLE.replace("<", "<dmn:").replace("<dmn:/", "</dmn:")
+				.replace("<dmn:![CDATA[", "<![CDATA[")));
+
+		for (DmnDefinitions model : List.of(plain, prefixed)) {
+			assertThat(model.getId()).isEqualTo("defs");
+			assertThat(model.getName()).isEqualTo("Discounts");
+			assertThat(model.getNamespace()).isEqualTo("http://example/discounts");
+			assertThat(model.getElements()).extracting(DmnElement::getId).containsExactly("d1");
+			DmnDecisionTable table = model.getDecisionTables().get(0);
+			assertThat(table.getHitPolicy()).isEqualTo("FIRST");
+			assertThat(table.getInputs()).extracting(DmnClause::getLabel, DmnClause::getTypeRef)
+					.containsExactly(tuple("Age", "number"), tuple("Tier", "string"));
+			assertThat(table.getOutputs()).extracting(DmnClause::getTypeRef).containsExactly("number");
+			assertThat(table.getRules()).extracting(DmnRule::getId).containsExactly("r1", "r2");
+		}
+	}
+
+	@Test
+	void entriesStayAlignedWithTheirClauses() throws Exception {
+		DmnDefinitions model = parse("""
+				<definitions xmlns="https://www.omg.org/spec/DMN/20191111/MODEL/" id="defs">
+				  <decision id="d1" name="Discount">%s</decision>
+				</definitions>
+				""".formatted(TABLE));
+
+		List<DmnRule> rules = model.getDecisionTables().get(0).getRules();
+		assertThat(rules.get(0).getInputEntries()).containsExactly("< 18", "\"gold\"");
+		assertThat(rules.get(0).getOutputEntries()).containsExactly("10");
+		// An entry without text keeps its column; only the first text of an entry counts
+		assertThat(rules.get(1).getInputEntries()).containsExactly("-", "");
+		assertThat(rules.get(1).getOutputEntries()).containsExactly("0");
+		assertThat(rules.get(1).getIndex()).isEqualTo(1);
+	}
+
+	@Test
+	void descriptionNestedInsideAnElementCounts() throws Exception {
+		DmnDefinitions model = parse("""
+				<definitions xmlns="https://www.omg.org/spec/DMN/20191111/MODEL/" id="defs">
+				  <decision id="nested" name="Nested">
+				    <extensionElements><description>from an extension</description></extensionElements>
+				    <description>direct</description>
+				  </decision>
+				  <decision id="direct" name="Direct"><description> Discounts by age </description></decision>
+				  <decision id="tableOnly" name="Table only">%s</decision>
+				  <inputData id="blank" name="Blank"><description>  </description></inputData>
+				  <inputData id="none" name="None"/>
+				</definitions>
+				""".formatted(TABLE));
+
+		assertThat(model.getElements()).extracting(DmnElement::getDescription)
+				.containsExactly("from an extension", " Discounts by age ", "any age", "  ", null);
+	}
+
+	@Test
+	void missingDescriptionsAreReportedByKindThenDocumentOrder() throws Exception {
+		DmnDefinitions model = parse("""
+				<definitions xmlns="https://www.omg.org/spec/DMN/20191111/MODEL/" id="defs">
+				  <inputData id="i1" name="Age"/>
+				  <businessKnowledgeModel id="b1" name="Rates"/>
+				  <decision id="d1" name="Discount"/>
+				  <inputData id="i2" name="Tier"><description/></inputData>
+				  <decision id="d2" name="Total"/>
+				</definitions>
+				""");
+		DmnValidationService service = new DmnValidationService(null, null, ValidationMetrics.disabled(),
+				Runnable::run, List.of(), 2000);
+		List<ValidationIssue> issues = new ArrayList<>();
+
+		service.checkForMissingDescriptions(model, issues, "f.dmn", new DiagramValidationResult("f.dmn", true,
+				new ArrayList<>()));
+
+		assertThat(issues).extracting(ValidationIssue::getMessage).containsExactly(
+				"DMN Element 'decision' (ID: d1, Name: 'Discount') in file 'f.dmn' is missing a description.",
+				"DMN Element 'decision' (ID: d2, Name: 'Total') in file 'f.dmn' is missing a description.",
+				"DMN Element 'inputData' (ID: i1, Name: 'Age') in file 'f.dmn' is missing a description.",
+				"DMN Element 'inputData' (ID: i2, Name: 'Tier') in file 'f.dmn' has an empty description.",
+				"DMN Element 'businessKnowledgeModel' (ID: b1, Name: 'Rates') in file 'f.dmn' is missing a description.");
+	}
+
+	@Test
+	void requirementsParseSkipsDecisionTables() throws Exception {
+		DmnDefinitions model = parser.parseRequirements("""
+				<definitions xmlns="https://www.omg.org/spec/DMN/20191111/MODEL/" id="defs" namespace="http://example/a">
+				  <decision id="d1" name="Discount">
+				    <informationRequirement><requiredInput href="#age"/></informationRequirement>
+				    %s
+				  </decision>
+				  <inputData id="age" name="Age"/>
+				  <knowledgeSource id="policy" name="Policy"/>
+				</definitions>
+				""".formatted(TABLE).getBytes(StandardCharsets.UTF_8));
+
+		assertThat(model.getNamespace()).isEqualTo("http://example/a");
+		assertThat(model.getDecisionTables()).isEmpty();
+		assertThat(model.getElements()).extracting(DmnElement::getId).containsExactly("d1", "age");
+		assertThat(model.getSupportingElements()).extracting(DmnElement::getId).containsExactly("policy");
+		assertThat(model.getElements().get(0).getRequirements()).singleElement()
+				.satisfies(requirement -> assertThat(requirement.getHref()).isEqualTo("#age"));
+	}
+
+	@Test
+	void malformedXmlIsAnXmlStreamException() {
+		assertThatThrownBy(() -> parse("<definitions><decision id=\"d1\"></definitions>"))
+				.isInstanceOf(XMLStreamException.class);
+		assertThatThrownBy(() -> parse("not xml at all")).isInstanceOf(XMLStreamException.class);
+	}
+
+	@Test
+	void documentTypeDeclarationsAreNotResolved() {
+		String xml = """
+				<?xml version="1.0"?>
+				<!DOCTYPE definitions [<!ENTITY secret SYSTEM "file:///etc/passwd">]>
+				<definitions id="defs"><decision id="d1" name="&secret;"/></definitions>
+				""";
+
+		assertThatThrownBy(() -> parse(xml)).isInstanceOf(XMLStreamException.class);
+	}
+
+	private DmnDefinitions parse(String xml) throws XMLStreamException {
+		return parser.parse(xml.getBytes(StandardCharsets.UTF_8));
+	}
+}
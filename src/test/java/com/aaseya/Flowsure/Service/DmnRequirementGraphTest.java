@@ -0,0 +1,265 @@
+package com.aaseya.Flowsure.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import com.aaseya.Flowsure.Model.DiagramValidationResult;
+import com.aaseya.Flowsure.Model.DmnDefinitions;
+import com.aaseya.Flowsure.Model.DmnElement;
+import com.aaseya.Flowsure.Model.DmnRequirement;
+import com.aaseya.Flowsure.Model.ValidationIssue;
+import com.aaseya.Flowsure.Model.ValidationIssue.IssueType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class DmnRequirementGraphTest {
+
+	private static final String NS_A = "http://example/a";
+	private static final String NS_B = "http://example/b";
+
+	private final DmnRequirementGraph graph = new DmnRequirementGraph();
+	private final List<DiagramValidationResult> passedOn = new ArrayList<>();
+
+	@Test
+	void requirementsResolveAcrossFiles() throws Exception {
+		graph.add("a.dmn", model(NS_A,
+				element("decision", "price", information("requiredDecision", "#discount"),
+						information("requiredInput", NS_B + "#age")),
+				element("decision", "discount", knowledge("requiredKnowledge", NS_B + "#rates")),
+				element("knowledgeSource", "policy")));
+		graph.add("b.dmn", model(NS_B,
+				element("inputData", "age"),
+				element("businessKnowledgeModel", "rates", authority("requiredAuthority", NS_A + "#policy"))));
+		track("a.dmn", "b.dmn");
+
+		assertThat(graph.analyze()).isNull();
+		assertThat(passedOn).extracting(DiagramValidationResult::getDiagramName).containsExactly("a.dmn", "b.dmn");
+	}
+
+	@Test
+	void sameIdInTheSameNamespaceIsDefinedTwice() throws Exception {
+		graph.add("a.dmn", model(NS_A, element("decision", "price")));
+		graph.add("b.dmn", model(NS_A, element("decision", "price")));
+		graph.add("c.dmn", model(NS_B, element("decision", "price")));
+		track("a.dmn", "b.dmn", "c.dmn");
+
+		assertThat(messages(IssueType.ERROR)).containsExactly("DMN decision 'price' (ID: price, file: a.dmn) is"
+				+ " defined again in file 'b.dmn' with the same ID and namespace; requirements on it are ambiguous.");
+	}
+
+	@Test
+	void requirementOnTheWrongKindOfElementIsAnError() throws Exception {
+		graph.add("a.dmn", model(NS_A,
+				element("decision", "price", information("requiredDecision", "#age")),
+				element("inputData", "age"),
+				element("decisionService", "service"),
+				element("decision", "total", knowledge("requiredKnowledge", "#service"))));
+		track("a.dmn");
+
+		DiagramValidationResult result = graph.analyze();
+
+		assertThat(result.getDiagramName()).isEqualTo(DmnRequirementGraph.RESULT_NAME);
+		assertThat(result.isValid()).isFalse();
+		assertThat(result.getIssues()).extracting(ValidationIssue::getMessage).containsExactly(
+				"DMN decision 'price' (ID: price, file: a.dmn) has a requiredDecision reference to '#age',"
+						+ " which is DMN inputData 'age' (ID: age, file: a.dmn).");
+	}
+
+	@Test
+	void unresolvedRequirementIsAnErrorWhenEveryFileWasRead() throws Exception {
+		graph.add("a.dmn", model(NS_A,
+				element("decision", "price", information("requiredDecision", "#missing"),
+						information("requiredInput", "http://example/unknown#age"))));
+		track("a.dmn", "process.bpmn");
+
+		DiagramValidationResult result = graph.analyze();
+
+		assertThat(result.isValid()).isFalse();
+		assertThat(result.getIssues()).extracting(ValidationIssue::getType, ValidationIssue::getMessage)
+				.containsExactly(
+						tuple(IssueType.ERROR, "DMN decision 'price' (ID: price, file: a.dmn) has a requiredDecision"
+								+ " reference to '#missing', but no DMN file in the archive defines it."),
+						tuple(IssueType.ERROR, "DMN decision 'price' (ID: price, file: a.dmn) has a requiredInput"
+								+ " reference to 'http://example/unknown#age', but no DMN file in the archive has"
+								+ " namespace 'http://example/unknown'."));
+	}
+
+	@Test
+	void unresolvedRequirementIsAWarningWhenADmnFileWasNotRead() throws Exception {
+		graph.add("a.dmn", model(NS_A, element("decision", "price", information("requiredDecision", NS_B + "#d"))));
+		// broken.dmn did not parse, so it never joined the graph
+		track("a.dmn", "broken.dmn");
+
+		assertIncompleteRun();
+	}
+
+	@Test
+	void unresolvedRequirementIsAWarningWhenLimitsStoppedTheRun() throws Exception {
+		graph.add("a.dmn", model(NS_A, element("decision", "price", information("requiredDecision", NS_B + "#d"))));
+		track("a.dmn", ArchiveValidationPipeline.FILES_RESULT_NAME);
+
+		assertIncompleteRun();
+	}
+
+	@Test
+	void cyclesAmongInformationAndKnowledgeRequirementsAreErrors() throws Exception {
+		graph.add("a.dmn", model(NS_A,
+				element("decision", "first", information("requiredDecision", NS_B + "#second")),
+				element("decision", "loop", information("requiredDecision", "#loop")),
+				element("decision", "authorized", authority("requiredAuthority", "#source")),
+				element("knowledgeSource", "source", authority("requiredDecision", "#authorized"))));
+		graph.add("b.dmn", model(NS_B,
+				element("decision", "second", knowledge("requiredKnowledge", "#model")),
+				element("businessKnowledgeModel", "model", information("requiredDecision", NS_A + "#first"))));
+		track("a.dmn", "b.dmn");
+
+		// The authority requirements between 'authorized' and 'source' are not a cycle
+		assertThat(messages(IssueType.ERROR)).containsExactly(
+				"Requirements form a cycle among 3 elements: DMN decision 'first' (ID: first, file: a.dmn),"
+						+ " DMN decision 'second' (ID: second, file: b.dmn), DMN businessKnowledgeModel 'model'"
+						+ " (ID: model, file: b.dmn). DMN requirements must not form cycles.",
+				"DMN decision 'loop' (ID: loop, file: a.dmn) requires itself; DMN requirements must not form cycles.");
+	}
+
+	@Test
+	void longCycleListsItsFirstMembers() throws Exception {
+		List<DmnElement> elements = new ArrayList<>();
+		for (int i = 0; i < 12; i++) {
+			elements.add(element("decision", "d" + i, information("requiredDecision", "#d" + ((i + 1) % 12))));
+		}
+		graph.add("a.dmn", new DmnDefinitions("definitions", "d", NS_A, elements, List.of()));
+		track("a.dmn");
+
+		assertThat(messages(IssueType.ERROR)).singleElement().asString()
+				.startsWith("Requirements form a cycle among 12 elements: DMN decision 'd0'")
+				.contains("'d9'", " and 2 more.")
+				.doesNotContain("'d10'");
+	}
+
+	@Test
+	void issuesFollowTheOrderResultsArriveInNotTheOrderFilesWereAdded() throws Exception {
+		DmnRequirementGraph first = new DmnRequirementGraph();
+		DmnRequirementGraph second = new DmnRequirementGraph();
+		List<String> files = List.of("a.dmn", "b.dmn", "c.dmn", "d.dmn");
+
+		// Worker threads add the files in whatever order they finish parsing
+		addConcurrently(first, files);
+		addConcurrently(second, List.of("d.dmn", "c.dmn", "b.dmn", "a.dmn"));
+		for (DmnRequirementGraph graph : List.of(first, second)) {
+			ValidationResultListener tracked = graph.track(passedOn::add);
+			for (String file : files) {
+				tracked.onResult(new DiagramValidationResult(file, true, new ArrayList<>()));
+			}
+		}
+
+		List<String> issues = first.analyze().getIssues().stream().map(ValidationIssue::getMessage).toList();
+		assertThat(second.analyze().getIssues()).extracting(ValidationIssue::getMessage).isEqualTo(issues);
+		// a.dmn and b.dmn share a namespace, as do c.dmn and d.dmn; the file tracked first wins
+		assertThat(issues).containsExactly(
+				"DMN decision 'price' (ID: price, file: a.dmn) is defined again in file 'b.dmn' with the same ID and"
+						+ " namespace; requirements on it are ambiguous.",
+				"DMN decision 'price' (ID: price, file: c.dmn) is defined again in file 'd.dmn' with the same ID and"
+						+ " namespace; requirements on it are ambiguous.",
+				"DMN decision 'price' (ID: price, file: a.dmn) has a requiredDecision reference to '#missing-a', but"
+						+ " no DMN file in the archive defines it.",
+				"DMN decision 'price' (ID: price, file: c.dmn) has a requiredDecision reference to '#missing-c', but"
+						+ " no DMN file in the archive defines it.");
+	}
+
+	@Test
+	void filesWithoutAResultDoNotJoinTheGraph() throws Exception {
+		graph.add("a.dmn", model(NS_A, element("decision", "price", information("requiredDecision", "#rate"))));
+		graph.add("late.dmn", model(NS_A, element("decision", "rate")));
+		track("a.dmn");
+
+		assertThat(graph.contains("late.dmn")).isTrue();
+		assertThat(messages(IssueType.ERROR)).singleElement().asString().contains("reference to '#rate'");
+	}
+
+	@Test
+	void fileServedFromTheResultCacheStillJoinsTheGraph() throws Exception {
+		DmnValidationService service = new DmnValidationService(null,
+				ValidationResultCache.inMemory(new ObjectMapper(), 10, "7"),
+				ValidationMetrics.disabled(), Runnable::run, List.of(), 2000);
+		byte[] content = """
+				<definitions xmlns="https://www.omg.org/spec/DMN/20191111/MODEL/" id="defs" namespace="http://example/a">
+				  <decision id="price" name="Price">
+				    <informationRequirement><requiredDecision href="#missing"/></informationRequirement>
+				  </decision>
+				</definitions>
+				""".getBytes(StandardCharsets.UTF_8);
+
+		List<String> runs = new ArrayList<>();
+		for (int run = 0; run < 2; run++) {
+			DmnRequirementGraph requirements = new DmnRequirementGraph();
+			DiagramValidationResult result = service.validateCached("a.dmn", content, requirements);
+			requirements.track(passedOn::add).onResult(result);
+			runs.add(requirements.analyze().getIssues().get(0).getMessage());
+		}
+
+		assertThat(runs.get(1)).isEqualTo(runs.get(0)).contains("reference to '#missing'");
+	}
+
+	private void assertIncompleteRun() {
+		DiagramValidationResult result = graph.analyze();
+
+		assertThat(result.isValid()).isTrue();
+		assertThat(result.getIssues()).extracting(ValidationIssue::getType).containsExactly(IssueType.WARNING,
+				IssueType.INFO);
+		assertThat(result.getIssues().get(1).getMessage()).isEqualTo("1 requirements could not be resolved, but not"
+				+ " every DMN file of the archive was read, so their targets may exist.");
+	}
+
+	private void addConcurrently(DmnRequirementGraph graph, List<String> files) {
+		CompletableFuture<?>[] adds = new CompletableFuture<?>[files.size()];
+		for (int i = 0; i < files.size(); i++) {
+			String file = files.get(i);
+			String namespace = file.compareTo("b.dmn") <= 0 ? NS_A : NS_B;
+			String suffix = file.substring(0, 1);
+			DmnDefinitions model = model(namespace,
+					element("decision", "price", information("requiredDecision", "#missing-" + suffix)),
+					element("inputData", "in-" + suffix));
+			adds[i] = CompletableFuture.runAsync(() -> graph.add(file, model));
+		}
+		CompletableFuture.allOf(adds).join();
+	}
+
+	private void track(String... names) throws Exception {
+		ValidationResultListener tracked = graph.track(passedOn::add);
+		for (String name : names) {
+			tracked.onResult(new DiagramValidationResult(name, true, new ArrayList<>()));
+		}
+	}
+
+	private List<String> messages(IssueType type) {
+		DiagramValidationResult result = graph.analyze();
+		return result.getIssues().stream().filter(issue -> issue.getType() == type).map(ValidationIssue::getMessage)
+				.toList();
+	}
+
+	private static DmnDefinitions model(String namespace, DmnElement... elements) {
+		return new DmnDefinitions("definitions", "d", namespace, List.of(elements), List.of());
+	}
+
+	private static DmnElement element(String kind, String id, DmnRequirement... requirements) {
+		return new DmnElement(kind, id, id, null, List.of(requirements));
+	}
+
+	private static DmnRequirement information(String kind, String href) {
+		return new DmnRequirement("informationRequirement", kind, href);
+	}
+
+	private static DmnRequirement knowledge(String kind, String href) {
+		return new DmnRequirement("knowledgeRequirement", kind, href);
+	}
+
+	private static DmnRequirement authority(String kind, String href) {
+		return new DmnRequirement("authorityRequirement", kind, href);
+	}
+}
@@ -0,0 +1,88 @@
+package com.aaseya.Flowsure.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.aaseya.Flowsure.Model.DmnDecisionTable;
+
+class DmnRuleIndexTest {
+
+	private static final int WILDCARD_RULES = 20_000;
+	// A stored pair list for the wildcard table would take 1.6 GB
+	private static final long MAX_ALLOCATED_BYTES = 64L * 1024 * 1024;
+
+	private final FeelUnaryTestCompiler compiler = new FeelUnaryTestCompiler();
+
+	@Test
+	void rowsHoldTheSamePairsAsTheSingleVisits() {
+		DmnDecisionTable table = DecisionTables.table("UNIQUE", 2,
+				"< 10", "-", "\"a\"",
+				"[5..20]", "\"x\"", "\"b\"",
+				"> 30", "-", "\"c\"",
+				"-", "\"y\"", "\"d\"",
+				"-", "-", "\"e\"");
+		DmnRuleIndex index = DmnRuleIndex.build(table, compiler);
+
+		List<String> pairs = new ArrayList<>();
+		index.forEachOverlap((first, second) -> pairs.add(first + "-" + second));
+		List<String> rowPairs = new ArrayList<>();
+		index.forEachOverlapRow((first, seconds) -> seconds.stream().forEach(j -> rowPairs.add(first + "-" + j)));
+
+		assertThat(pairs).containsExactly("0-1", "0-3", "0-4", "1-4", "2-3", "2-4", "3-4");
+		assertThat(rowPairs).isEqualTo(pairs);
+	}
+
+	@Test
+	void wildcardTableIsWalkedInBoundedMemory() {
+		DmnRuleIndex index = DmnRuleIndex.build(wildcardTable("UNIQUE"), compiler);
+		AtomicLong pairs = new AtomicLong();
+
+		long allocated = allocatedBytes(
+				() -> index.forEachOverlapRow((first, seconds) -> pairs.addAndGet(seconds.cardinality())));
+
+		assertThat(pairs.get()).isEqualTo((long) WILDCARD_RULES * (WILDCARD_RULES - 1) / 2);
+		assertThat(allocated).isLessThan(MAX_ALLOCATED_BYTES);
+	}
+
+	@Test
+	void wildcardTableIsAnalyzedForShadowsInBoundedMemory() {
+		DmnDecisionTable table = wildcardTable("FIRST");
+		DmnRuleIndex index = DmnRuleIndex.build(table, compiler);
+		DmnRuleShadowAnalyzer analyzer = new DmnRuleShadowAnalyzer(compiler);
+		DmnRuleShadowAnalyzer.Report[] report = new DmnRuleShadowAnalyzer.Report[1];
+
+		long allocated = allocatedBytes(() -> report[0] = analyzer.analyze(table, index, true));
+
+		assertThat(allocated).isLessThan(MAX_ALLOCATED_BYTES);
+		assertThat(report[0].getShadowedBy(1)).isZero();
+		assertThat(report[0].getShadowedBy(WILDCARD_RULES - 1)).isZero();
+		assertThat(report[0].getRedundantWith(0)).isEqualTo(-1);
+	}
+
+	private static DmnDecisionTable wildcardTable(String hitPolicy) {
+		String[] cells = new String[WILDCARD_RULES * 3];
+		for (int r = 0; r < WILDCARD_RULES; r++) {
+			cells[3 * r] = "-";
+			cells[3 * r + 1] = "-";
+			cells[3 * r + 2] = "\"out\"";
+		}
+		return DecisionTables.table(hitPolicy, 2, cells);
+	}
+
+	/**
+	 * Bytes allocated by the current thread while the work runs.
+	 */
+	private static long allocatedBytes(Runnable work) {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		long before = threads.getCurrentThreadAllocatedBytes();
+		work.run();
+		return threads.getCurrentThreadAllocatedBytes() - before;
+	}
+}
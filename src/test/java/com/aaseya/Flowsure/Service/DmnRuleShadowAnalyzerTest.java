@@ -0,0 +1,169 @@
+package com.aaseya.Flowsure.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.aaseya.Flowsure.Model.DmnDecisionTable;
+
+class DmnRuleShadowAnalyzerTest {
+
+	private final FeelUnaryTestCompiler compiler = new FeelUnaryTestCompiler();
+	private final DmnRuleShadowAnalyzer analyzer = new DmnRuleShadowAnalyzer(compiler);
+
+	@Test
+	void identicalFirstRulesGetOneFinding() {
+		DmnDecisionTable table = DecisionTables.table("FIRST", 1,
+				"< 10", "\"a\"",
+				"< 10", "\"a\"");
+
+		DmnRuleShadowAnalyzer.Report report = analyze(table, true);
+
+		assertThat(report.getShadowedBy(1)).isEqualTo(0);
+		assertThat(report.getRedundantWith(0)).isEqualTo(-1);
+		assertThat(report.getRedundantWith(1)).isEqualTo(-1);
+		assertThat(report.getCoveredByUnion().isEmpty()).isTrue();
+	}
+
+	@Test
+	void identicalFirstRulesAboveOtherRulesStayConsistent() {
+		DmnDecisionTable table = DecisionTables.table("FIRST", 1,
+				"[0..5]", "\"a\"",
+				"[0..5]", "\"a\"",
+				"< 10", "\"a\"");
+
+		DmnRuleShadowAnalyzer.Report report = analyze(table, true);
+
+		assertThat(report.getShadowedBy(1)).isEqualTo(0);
+		assertThat(report.getRedundantWith(1)).isEqualTo(-1);
+		// Rule 0 may still be dropped in favour of rule 2, which fires
+		assertThat(report.getRedundantWith(0)).isEqualTo(2);
+	}
+
+	@Test
+	void firstRuleContainedInEarlierRuleIsShadowed() {
+		DmnDecisionTable table = DecisionTables.table("FIRST", 1,
+				"< 10", "\"a\"",
+				"< 5", "\"b\"",
+				"[10..20]", "\"c\"");
+
+		DmnRuleShadowAnalyzer.Report report = analyze(table, true);
+
+		assertThat(report.getShadowedBy(1)).isEqualTo(0);
+		assertThat(report.getShadowedBy(2)).isEqualTo(-1);
+	}
+
+	@Test
+	void firstRuleCoveredByUnionOfEarlierRulesIsShadowed() {
+		DmnDecisionTable table = DecisionTables.table("FIRST", 1,
+				"< 10", "\"a\"",
+				"[10..20]", "\"c\"",
+				"[5..15]", "\"d\"");
+
+		DmnRuleShadowAnalyzer.Report report = analyze(table, true);
+
+		assertThat(report.getShadowedBy(2)).isEqualTo(-1);
+		assertThat(report.getCoveredByUnion().get(2)).isTrue();
+		assertThat(report.getRedundantWith(0)).isEqualTo(-1);
+	}
+
+	@Test
+	void unionMustCoverEveryColumn() {
+		DmnDecisionTable table = DecisionTables.table("FIRST", 2,
+				"< 10", "\"x\"", "\"a\"",
+				">= 10", "\"x\"", "\"b\"",
+				"-", "\"x\",\"y\"", "\"c\"");
+
+		DmnRuleShadowAnalyzer.Report report = analyze(table, true);
+
+		assertThat(report.getCoveredByUnion().get(2)).isFalse(); // "y" reaches rule 2
+	}
+
+	@Test
+	void firstRuleIsRedundantWithLaterRuleOfSameOutput() {
+		DmnDecisionTable table = DecisionTables.table("FIRST", 1,
+				"[31..40]", "\"g\"",
+				"> 30", "\"g\"");
+
+		DmnRuleShadowAnalyzer.Report report = analyze(table, true);
+
+		assertThat(report.getRedundantWith(0)).isEqualTo(1);
+		assertThat(report.getShadowedBy(1)).isEqualTo(-1);
+	}
+
+	@Test
+	void ruleInBetweenWithAnotherOutputBlocksRedundancy() {
+		DmnDecisionTable table = DecisionTables.table("FIRST", 1,
+				"[31..40]", "\"g\"",
+				"[35..38]", "\"h\"",
+				"> 30", "\"g\"");
+
+		DmnRuleShadowAnalyzer.Report report = analyze(table, true);
+
+		assertThat(report.getRedundantWith(0)).isEqualTo(-1);
+		assertThat(report.getShadowedBy(1)).isEqualTo(0);
+	}
+
+	@Test
+	void priorityRuleContainedInRuleWithSameOutputIsRedundant() {
+		DmnDecisionTable table = DecisionTables.table("PRIORITY", 1,
+				"[0..5]", "\"a\"",
+				"< 10", "\"a\"",
+				"[2..3]", "\"b\"");
+
+		DmnRuleShadowAnalyzer.Report report = analyze(table, false);
+
+		assertThat(report.getRedundantWith(0)).isEqualTo(1);
+		assertThat(report.getRedundantWith(1)).isEqualTo(-1);
+		assertThat(report.getRedundantWith(2)).isEqualTo(-1);
+		assertThat(report.getShadowedBy(0)).isEqualTo(-1);
+	}
+
+	@Test
+	void priorityRuleCoveredByUnionOfSameOutputIsRedundant() {
+		DmnDecisionTable table = DecisionTables.table("PRIORITY", 1,
+				"[10..20]", "\"b\"",
+				"[20..30]", "\"b\"",
+				"[15..25]", "\"b\"",
+				"[15..25]", "\"c\"");
+
+		DmnRuleShadowAnalyzer.Report report = analyze(table, false);
+
+		assertThat(report.getCoveredByUnion().get(2)).isTrue();
+		assertThat(report.getCoveredByUnion().get(3)).isFalse(); // other output
+	}
+
+	@Test
+	void opaqueEntriesAreOnlyShadowedByIdenticalEntries() {
+		DmnDecisionTable table = DecisionTables.table("FIRST", 1,
+				"< limit", "\"a\"",
+				"< limit", "\"b\"",
+				">= limit", "\"c\"",
+				"-", "\"d\"");
+
+		DmnRuleShadowAnalyzer.Report report = analyze(table, true);
+
+		assertThat(report.getShadowedBy(1)).isEqualTo(0);
+		assertThat(report.getShadowedBy(3)).isEqualTo(-1);
+		assertThat(report.getCoveredByUnion().get(3)).isFalse();
+	}
+
+	@Test
+	void tableBudgetStopsUnionSearch() {
+		DmnRuleShadowAnalyzer limited = new DmnRuleShadowAnalyzer(compiler,
+				DmnRuleShadowAnalyzer.DEFAULT_MAX_COVERING_RULES, DmnRuleShadowAnalyzer.DEFAULT_MAX_UNION_STEPS, 2);
+		DmnDecisionTable table = DecisionTables.table("FIRST", 1,
+				"< 10", "\"a\"",
+				"[10..20]", "\"c\"",
+				"[5..15]", "\"d\"");
+
+		DmnRuleShadowAnalyzer.Report report = limited.analyze(table, DmnRuleIndex.build(table, compiler), true);
+
+		assertThat(report.isUnionLimitReached()).isTrue();
+		assertThat(report.getCoveredByUnion().get(2)).isFalse();
+	}
+
+	private DmnRuleShadowAnalyzer.Report analyze(DmnDecisionTable table, boolean firstHit) {
+		return analyzer.analyze(table, DmnRuleIndex.build(table, compiler), firstHit);
+	}
+}
@@ -0,0 +1,188 @@
+package com.aaseya.Flowsure.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.aaseya.Flowsure.Model.DmnDecisionTable;
+import com.aaseya.Flowsure.Service.FeelUnaryTest.Domain;
+import com.aaseya.Flowsure.Service.FeelUnaryTest.Interval;
+
+class FeelUnaryTestCompilerTest {
+
+	private final FeelUnaryTestCompiler compiler = new FeelUnaryTestCompiler();
+
+	@Test
+	void wildcardsMatchAnything() {
+		assertThat(compiler.compile("-").isAny()).isTrue();
+		assertThat(compiler.compile("").isAny()).isTrue();
+		assertThat(compiler.compile("  ").isAny()).isTrue();
+	}
+
+	@Test
+	void comparisonsBecomeHalfOpenIntervals() {
+		assertThat(intervals("< 18")).containsExactly("(-Infinity..18.0)");
+		assertThat(intervals("<= 18")).containsExactly("(-Infinity..18.0]");
+		assertThat(intervals("> 18")).containsExactly("(18.0..Infinity)");
+		assertThat(intervals(">= -2.5")).containsExactly("[-2.5..Infinity)");
+	}
+
+	@Test
+	void rangesKeepTheirEnds() {
+		assertThat(intervals("[18..65]")).containsExactly("[18.0..65.0]");
+		assertThat(intervals("[18..65[")).containsExactly("[18.0..65.0)");
+		assertThat(intervals("]18..65]")).containsExactly("(18.0..65.0]");
+		assertThat(intervals("(18..65)")).containsExactly("(18.0..65.0)");
+	}
+
+	@Test
+	void literalsBecomePointsOrValues() {
+		assertThat(intervals("42")).containsExactly("[42.0..42.0]");
+		FeelUnaryTest string = compiler.compile("\"GOLD\"");
+		assertThat(string.getDomain()).isEqualTo(Domain.STRING);
+		assertThat(string.getValues()).containsExactly("GOLD");
+		FeelUnaryTest bool = compiler.compile("true");
+		assertThat(bool.getDomain()).isEqualTo(Domain.BOOLEAN);
+		assertThat(bool.getValues()).containsExactly("true");
+	}
+
+	@Test
+	void datesAreEpochDays() {
+		double day = LocalDate.parse("2024-01-01").toEpochDay();
+		FeelUnaryTest after = compiler.compile(">= date(\"2024-01-01\")");
+		assertThat(after.getDomain()).isEqualTo(Domain.DATE);
+		assertThat(after.getIntervals().get(0).getLow()).isEqualTo(day);
+		assertThat(after.getIntervals().get(0).isLowClosed()).isTrue();
+
+		FeelUnaryTest range = compiler.compile("[date(\"2024-01-01\")..date(\"2024-12-31\")]");
+		assertThat(range.getDomain()).isEqualTo(Domain.DATE);
+		assertThat(range.getIntervals()).hasSize(1);
+		assertThat(range.intersects(compiler.compile("date(\"2024-06-30\")"))).isTrue();
+		assertThat(range.intersects(compiler.compile("date(\"2025-01-01\")"))).isFalse();
+		// Dates never meet numbers, even at the same epoch day
+		assertThat(after.intersects(compiler.compile(">= " + (long) day))).isFalse();
+	}
+
+	@Test
+	void invalidDateIsOpaque() {
+		assertThat(compiler.compile("date(\"2024-02-30\")").getDomain()).isEqualTo(Domain.OPAQUE);
+	}
+
+	@Test
+	void disjunctionsAreNormalizedToSortedDisjointIntervals() {
+		assertThat(intervals("[10..20], [1..5], 7")).containsExactly("[1.0..5.0]", "[7.0..7.0]", "[10.0..20.0]");
+		// Overlapping and touching intervals merge; an open end meeting a closed one still touches
+		assertThat(intervals("[1..5], [3..8]")).containsExactly("[1.0..8.0]");
+		assertThat(intervals("[1..5[, [5..8]")).containsExactly("[1.0..8.0]");
+		assertThat(intervals("[1..5[, ]5..8]")).containsExactly("[1.0..5.0)", "(5.0..8.0]");
+		// Empty ranges disappear
+		assertThat(intervals("[10..1], [2..3]")).containsExactly("[2.0..3.0]");
+	}
+
+	@Test
+	void stringDisjunctionsCollectValues() {
+		FeelUnaryTest test = compiler.compile("\"GOLD\", \"SILVER\"");
+		assertThat(test.getValues()).containsExactlyInAnyOrder("GOLD", "SILVER");
+		assertThat(test.isNegated()).isFalse();
+	}
+
+	@Test
+	void wildcardOrMixedDomainsInDisjunctionAreOpaque() {
+		assertThat(compiler.compile("1, -").getDomain()).isEqualTo(Domain.OPAQUE);
+		assertThat(compiler.compile("1, \"a\"").getDomain()).isEqualTo(Domain.OPAQUE);
+	}
+
+	@Test
+	void notComplementsIntervals() {
+		assertThat(intervals("not([1..5])")).containsExactly("(-Infinity..1.0)", "(5.0..Infinity)");
+		assertThat(intervals("not(< 0)")).containsExactly("[0.0..Infinity)");
+		assertThat(intervals("not(1, [3..4[)"))
+				.containsExactly("(-Infinity..1.0)", "(1.0..3.0)", "[4.0..Infinity)");
+	}
+
+	@Test
+	void notNegatesStringsAndBooleans() {
+		FeelUnaryTest notGold = compiler.compile("not(\"GOLD\")");
+		assertThat(notGold.isNegated()).isTrue();
+		assertThat(notGold.getValues()).containsExactly("GOLD");
+		assertThat(notGold.intersects(compiler.compile("\"SILVER\""))).isTrue();
+		assertThat(notGold.intersects(compiler.compile("\"GOLD\""))).isFalse();
+
+		FeelUnaryTest notTrue = compiler.compile("not(true)");
+		assertThat(notTrue.isNegated()).isFalse();
+		assertThat(notTrue.getValues()).containsExactly("false");
+	}
+
+	@Test
+	void notOfWildcardOrUnknownIsOpaque() {
+		assertThat(compiler.compile("not(-)").getDomain()).isEqualTo(Domain.OPAQUE);
+		assertThat(compiler.compile("not(< limit)").getDomain()).isEqualTo(Domain.OPAQUE);
+	}
+
+	@Test
+	void expressionsAreOpaque() {
+		FeelUnaryTest test = compiler.compile("< limit");
+		assertThat(test.getDomain()).isEqualTo(Domain.OPAQUE);
+		assertThat(test.intersects(compiler.compile("< limit"))).isTrue();
+		assertThat(test.intersects(compiler.compile(">= limit"))).isFalse();
+	}
+
+	@Test
+	void intersectsComparesIntervalEnds() {
+		assertThat(compiler.compile("< 10").intersects(compiler.compile(">= 10"))).isFalse();
+		assertThat(compiler.compile("<= 10").intersects(compiler.compile(">= 10"))).isTrue();
+		assertThat(compiler.compile("[1..5]").intersects(compiler.compile("[5..8]"))).isTrue();
+		assertThat(compiler.compile("[1..5[").intersects(compiler.compile("[5..8]"))).isFalse();
+		assertThat(compiler.compile("[1..2], [8..9]").intersects(compiler.compile("[3..7]"))).isFalse();
+		assertThat(compiler.compile("1").intersects(compiler.compile("\"1\""))).isFalse();
+	}
+
+	@Test
+	void emptyTestIntersectsNothingNotEvenWildcard() {
+		FeelUnaryTest empty = compiler.compile("[10..1]");
+		assertThat(empty.isEmpty()).isTrue();
+		assertThat(empty.intersects(compiler.compile("-"))).isFalse();
+		assertThat(compiler.compile("-").intersects(empty)).isFalse();
+		assertThat(empty.intersects(compiler.compile("[0..20]"))).isFalse();
+		assertThat(empty.intersects(empty)).isFalse();
+	}
+
+	@Test
+	void containsComparesDomainsAndEnds() {
+		assertThat(compiler.compile("< 10").contains(compiler.compile("[1..5]"))).isTrue();
+		assertThat(compiler.compile("< 10").contains(compiler.compile("[1..10]"))).isFalse();
+		assertThat(compiler.compile("[1..2], [5..9]").contains(compiler.compile("[5..6], 9"))).isTrue();
+		assertThat(compiler.compile("[1..2], [5..9]").contains(compiler.compile("[2..5]"))).isFalse();
+		assertThat(compiler.compile("-").contains(compiler.compile("\"GOLD\""))).isTrue();
+		assertThat(compiler.compile("\"GOLD\"").contains(compiler.compile("-"))).isFalse();
+		assertThat(compiler.compile("not(\"GOLD\")").contains(compiler.compile("\"SILVER\""))).isTrue();
+		assertThat(compiler.compile("[1..5]").contains(compiler.compile("[10..1]"))).isTrue();
+	}
+
+	@Test
+	void compiledTestsAreShared() {
+		assertThat(compiler.compile(" < 10 ")).isSameAs(compiler.compile("< 10"));
+	}
+
+	@Test
+	void indexDoesNotPairEmptyEntryWithWildcard() {
+		DmnDecisionTable table = DecisionTables.table("UNIQUE", 2,
+				"[10..1]", "-", "\"a\"",
+				"-", "-", "\"b\"",
+				"< 5", "\"x\"", "\"c\"");
+		DmnRuleIndex index = DmnRuleIndex.build(table, compiler);
+
+		List<String> pairs = new ArrayList<>();
+		index.forEachOverlap((first, second) -> pairs.add(first + "-" + second));
+
+		assertThat(pairs).containsExactly("1-2");
+	}
+
+	private List<String> intervals(String entry) {
+		return compiler.compile(entry).getIntervals().stream().map(Interval::toString).toList();
+	}
+}
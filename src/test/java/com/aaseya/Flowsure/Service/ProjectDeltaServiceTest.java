@@ -0,0 +1,229 @@
+package com.aaseya.Flowsure.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.aaseya.Flowsure.DTO.ManifestDiff;
+import com.aaseya.Flowsure.DTO.ManifestRequest;
+import com.aaseya.Flowsure.Entity.ProjectManifest;
+import com.aaseya.Flowsure.Model.DiagramValidationResult;
+import com.aaseya.Flowsure.Repository.ProjectManifestRepository;
+import com.aaseya.Flowsure.Repository.ValidationResultCacheRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class ProjectDeltaServiceTest {
+
+    private static final String RULESET = "7";
+    private static final byte[] CACHED_BYTES = "<definitions/>".getBytes();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ProjectManifestRepository manifestRepository = mock(ProjectManifestRepository.class);
+    private final ValidationResultCacheRepository cacheRepository = mock(ValidationResultCacheRepository.class);
+    private final DiagramValidationService diagramValidationService = mock(DiagramValidationService.class);
+    private final DmnValidationService dmnValidationService = mock(DmnValidationService.class);
+    private final ValidationResultCache resultCache = new ValidationResultCache(objectMapper, cacheRepository, true,
+            100, RULESET, Duration.ofDays(1));
+    private ProjectDeltaService service;
+    private String cachedHash;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        service = new ProjectDeltaService(manifestRepository, resultCache, diagramValidationService,
+                dmnValidationService, objectMapper);
+        cachedHash = resultCache.getOrValidate(DiagramValidationService.CACHE_NAMESPACE, "c.bpmn", CACHED_BYTES,
+                (name, content) -> result(name, null)).getContentHash();
+        clearInvocations(cacheRepository);
+    }
+
+    @Test
+    void unchangedEntriesAreNotRequestedEvenWithoutACachedResult() throws Exception {
+        stored(manifest("diagram", RULESET, Map.of("a.bpmn", "aaa", "b.bpmn", "bbb")));
+
+        ManifestDiff diff = service.submitManifest("demo", request("diagram",
+                "a.bpmn", "AAA", "b.bpmn", "b2", "c.bpmn", cachedHash, "d.bpmn", "ddd", "logo.png", "ppp"));
+
+        assertThat(diff.getMissingEntries()).containsExactly("b.bpmn", "d.bpmn");
+        assertThat(diff.getTotalEntries()).isEqualTo(4);
+        assertThat(diff.getCachedEntries()).isEqualTo(2);
+        ProjectManifest saved = saved();
+        assertThat(objectMapper.readValue(saved.getPendingJson(), Map.class)).containsOnlyKeys("a.bpmn", "b.bpmn",
+                "c.bpmn", "d.bpmn");
+        assertThat(saved.getEntriesJson()).isNotNull();
+    }
+
+    @Test
+    void changedEntriesAreLookedUpInTheCacheInOneBatchUnderTheProjectLock() throws Exception {
+        stored(manifest("diagram", RULESET, Map.of("a.bpmn", "aaa")));
+
+        service.submitManifest("demo", request("diagram", "a.bpmn", "aaa", "b.bpmn", "bbb", "d.bpmn", "ddd"));
+
+        InOrder order = inOrder(manifestRepository, cacheRepository);
+        order.verify(manifestRepository).lockProject("demo");
+        order.verify(manifestRepository).findById("demo");
+        order.verify(cacheRepository).findAllById(anyIterable());
+        order.verify(manifestRepository).save(any());
+        verify(cacheRepository, times(1)).findAllById(anyIterable());
+        verify(cacheRepository, never()).findById(anyString());
+    }
+
+    @Test
+    void runOfAnotherRulesetVersionIsNotReused() throws Exception {
+        stored(manifest("diagram", "6", Map.of("a.bpmn", "aaa")));
+
+        ManifestDiff diff = service.submitManifest("demo", request("diagram", "a.bpmn", "aaa"));
+
+        assertThat(diff.getMissingEntries()).containsExactly("a.bpmn");
+    }
+
+    @Test
+    void switchingTypeStartsOver() throws Exception {
+        stored(manifest("dmn", RULESET, Map.of("a.dmn", "aaa")));
+
+        ManifestDiff diff = service.submitManifest("demo", request("diagram", "a.dmn", "aaa", "a.bpmn", "bbb"));
+
+        // The stored DMN run says nothing about how a.dmn fares in a diagram run
+        assertThat(diff.getMissingEntries()).containsExactly("a.dmn", "a.bpmn");
+        ProjectManifest saved = saved();
+        assertThat(saved.getType()).isEqualTo("diagram");
+        assertThat(saved.getEntriesJson()).isNull();
+        assertThat(saved.getResultsJson()).isNull();
+        assertThat(saved.getRulesetVersion()).isNull();
+    }
+
+    @Test
+    void firstSubmissionCreatesTheProject() throws Exception {
+        when(manifestRepository.findById("demo")).thenReturn(Optional.empty());
+
+        ManifestDiff diff = service.submitManifest("demo", request("dmn", "a.dmn", "aaa"));
+
+        assertThat(diff.getMissingEntries()).containsExactly("a.dmn");
+        assertThat(saved().getType()).isEqualTo("dmn");
+    }
+
+    @Test
+    void invalidTypeIsRejected() {
+        assertThatThrownBy(() -> service.submitManifest("demo", request("xml", "a.bpmn", "aaa")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void deltaMergesUploadedPreviousAndCachedResultsInManifestOrder() throws Exception {
+        ProjectManifest stored = manifest("diagram", RULESET, Map.of("a.bpmn", "aaa", "b.bpmn", "bbb"));
+        String pendingJson = objectMapper.writeValueAsString(ordered("a.bpmn", "aaa", "b.bpmn", "b2",
+                "c.bpmn", cachedHash, "d.bpmn", "ddd"));
+        stored.setPendingJson(pendingJson);
+        stored(stored);
+        doAnswer(invocation -> {
+            invocation.<ValidationResultListener>getArgument(1).onResult(result("b.bpmn", "b2"));
+            return null;
+        }).when(diagramValidationService).validateZip(any(MultipartFile.class), any(ValidationResultListener.class));
+
+        List<DiagramValidationResult> results = service.validateDelta("demo", delta());
+
+        assertThat(results).extracting(DiagramValidationResult::getDiagramName).containsExactly("a.bpmn", "b.bpmn",
+                "c.bpmn", "d.bpmn");
+        assertThat(results).extracting(DiagramValidationResult::getContentHash).containsExactly("aaa", "b2",
+                cachedHash, null);
+        assertThat(results.get(3).isValid()).isFalse();
+        ArgumentCaptor<String> entries = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<String> runResults = ArgumentCaptor.forClass(String.class);
+        verify(manifestRepository).recordRun(eq("demo"), eq("diagram"), eq(pendingJson), entries.capture(),
+                runResults.capture(), eq(RULESET), any());
+        assertThat(objectMapper.readValue(entries.getValue(), Map.class)).containsOnlyKeys("a.bpmn", "b.bpmn",
+                "c.bpmn");
+        assertThat(objectMapper.readValue(runResults.getValue(), Map.class)).containsOnlyKeys("a.bpmn", "b.bpmn",
+                "c.bpmn");
+        verify(manifestRepository, never()).save(any());
+    }
+
+    @Test
+    void dmnDeltaIsValidatedEntryByEntry() throws Exception {
+        ProjectManifest stored = manifest("dmn", RULESET, Map.of());
+        stored.setPendingJson(objectMapper.writeValueAsString(ordered("a.dmn", "aaa")));
+        stored(stored);
+
+        service.validateDelta("demo", delta());
+
+        verify(dmnValidationService).validateDmnEntries(any(MultipartFile.class), any(ValidationResultListener.class));
+        verify(diagramValidationService, never()).validateZip(any(MultipartFile.class),
+                any(ValidationResultListener.class));
+    }
+
+    @Test
+    void deltaWithoutSubmittedManifestIsRejected() {
+        stored(manifest("diagram", RULESET, Map.of("a.bpmn", "aaa")));
+
+        assertThatThrownBy(() -> service.validateDelta("demo", delta())).isInstanceOf(IllegalStateException.class);
+    }
+
+    private ProjectManifest manifest(String type, String rulesetVersion, Map<String, String> entries) {
+        ProjectManifest manifest = new ProjectManifest("demo", type);
+        Map<String, DiagramValidationResult> results = new LinkedHashMap<>();
+        entries.forEach((name, hash) -> results.put(name, result(name, hash)));
+        try {
+            manifest.setEntriesJson(objectMapper.writeValueAsString(entries));
+            manifest.setResultsJson(objectMapper.writeValueAsString(results));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        manifest.setRulesetVersion(rulesetVersion);
+        return manifest;
+    }
+
+    private void stored(ProjectManifest manifest) {
+        when(manifestRepository.findById("demo")).thenReturn(Optional.of(manifest));
+    }
+
+    private ProjectManifest saved() {
+        ArgumentCaptor<ProjectManifest> saved = ArgumentCaptor.forClass(ProjectManifest.class);
+        verify(manifestRepository).save(saved.capture());
+        return saved.getValue();
+    }
+
+    private static ManifestRequest request(String type, String... namesAndHashes) {
+        return new ManifestRequest(type, ordered(namesAndHashes), null);
+    }
+
+    private static Map<String, String> ordered(String... namesAndHashes) {
+        Map<String, String> entries = new LinkedHashMap<>();
+        for (int i = 0; i < namesAndHashes.length; i += 2) {
+            entries.put(namesAndHashes[i], namesAndHashes[i + 1]);
+        }
+        return entries;
+    }
+
+    private static DiagramValidationResult result(String name, String hash) {
+        DiagramValidationResult result = new DiagramValidationResult(name, true, new java.util.ArrayList<>());
+        result.setContentHash(hash);
+        return result;
+    }
+
+    private static MockMultipartFile delta() {
+        return new MockMultipartFile("file", "delta.zip", "application/zip", new byte[] { 1 });
+    }
+}
@@ -0,0 +1,165 @@
+package com.aaseya.Flowsure.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.aaseya.Flowsure.Model.DiagramValidationResult;
+import com.aaseya.Flowsure.Model.DmnDecisionTable;
+import com.aaseya.Flowsure.Model.DmnDefinitions;
+import com.aaseya.Flowsure.Model.ValidationIssue;
+import com.aaseya.Flowsure.Model.ValidationIssue.IssueType;
+
+class RulePairIssuesTest {
+
+	private static final DmnDecisionTable TABLE = wildcardTable("UNIQUE", 40);
+
+	@Test
+	void groupWithinTheTableLimitIsReportedPairByPair() {
+		RulePairIssues pairs = new RulePairIssues(IssueLimits.defaults(), "f.dmn");
+		addPairs(pairs.group(TABLE, IssueType.ERROR, "overlap."), 20);
+
+		List<ValidationIssue> issues = flush(pairs);
+
+		assertThat(issues).hasSize(20).allMatch(issue -> issue.getType() == IssueType.ERROR);
+		assertThat(issues.get(0).getMessage())
+				.isEqualTo("Rule 1 (ID: rule0) and Rule 2 (ID: rule1) in table 'table' (file: f.dmn) overlap.");
+		assertThat(issues.get(19).getMessage()).startsWith("Rule 1 (ID: rule0) and Rule 21 (ID: rule20) ");
+	}
+
+	@Test
+	void groupOverTheTableLimitBecomesOneSummaryWithFiveSamples() {
+		RulePairIssues pairs = new RulePairIssues(IssueLimits.defaults(), "f.dmn");
+		addPairs(pairs.group(TABLE, IssueType.ERROR, "overlap."), 21);
+
+		List<ValidationIssue> issues = flush(pairs);
+
+		assertThat(issues).hasSize(1);
+		assertThat(issues.get(0).getElementId()).isEqualTo("table");
+		assertThat(issues.get(0).getMessage()).isEqualTo("21 pairs of rules in table 'table' (file: f.dmn) overlap."
+				+ " The first 5 are: Rule 1 (ID: rule0) and Rule 2 (ID: rule1); Rule 1 (ID: rule0) and Rule 3 (ID: rule2);"
+				+ " Rule 1 (ID: rule0) and Rule 4 (ID: rule3); Rule 1 (ID: rule0) and Rule 5 (ID: rule4);"
+				+ " Rule 1 (ID: rule0) and Rule 6 (ID: rule5).");
+	}
+
+	@Test
+	void groupsBeyondTheFileLimitBecomeSummaries() {
+		RulePairIssues pairs = new RulePairIssues(IssueLimits.defaults(), "f.dmn");
+		for (int g = 0; g < 11; g++) {
+			addPairs(pairs.group(TABLE, IssueType.INFO, "overlap (" + g + ")."), 20);
+		}
+
+		List<ValidationIssue> issues = flush(pairs);
+
+		// Ten groups of 20 use up the 200 pairs of the file; the eleventh is summarized
+		assertThat(issues).hasSize(201);
+		assertThat(issues.get(199).getMessage()).endsWith("overlap (9).");
+		assertThat(issues.get(200).getMessage())
+				.startsWith("20 pairs of rules in table 'table' (file: f.dmn) overlap (10). The first 5 are: ");
+	}
+
+	@Test
+	void summaryOfAFewPairsListsThemAll() {
+		RulePairIssues pairs = new RulePairIssues(new IssueLimits(20, 3, 5), "f.dmn");
+		addPairs(pairs.group(TABLE, IssueType.WARNING, "overlap."), 3);
+		addPairs(pairs.group(TABLE, IssueType.WARNING, "differ."), 2);
+
+		List<ValidationIssue> issues = flush(pairs);
+
+		assertThat(issues).hasSize(4);
+		assertThat(issues.get(3).getMessage()).isEqualTo("2 pairs of rules in table 'table' (file: f.dmn) differ."
+				+ " They are: Rule 1 (ID: rule0) and Rule 2 (ID: rule1); Rule 1 (ID: rule0) and Rule 3 (ID: rule2).");
+	}
+
+	@Test
+	void emptyGroupsAreNotReportedAndFlushStartsOver() {
+		RulePairIssues pairs = new RulePairIssues(IssueLimits.defaults(), "f.dmn");
+		pairs.group(TABLE, IssueType.ERROR, "overlap.");
+		addPairs(pairs.group(TABLE, IssueType.ERROR, "differ."), 1);
+
+		assertThat(flush(pairs)).extracting(ValidationIssue::getMessage)
+				.containsExactly("Rule 1 (ID: rule0) and Rule 2 (ID: rule1) in table 'table' (file: f.dmn) differ.");
+		assertThat(flush(pairs)).isEmpty();
+	}
+
+	@Test
+	void rowsAreCountedWholeAndSampledInOrder() {
+		RulePairIssues pairs = new RulePairIssues(IssueLimits.defaults(), "f.dmn");
+		RulePairIssues.Group group = pairs.group(TABLE, IssueType.ERROR, "overlap.");
+		group.add(0, 1);
+		BitSet row = new BitSet();
+		row.set(3, 40);
+		group.addAll(2, row);
+
+		assertThat(group.getCount()).isEqualTo(38);
+		assertThat(flush(pairs).get(0).getMessage())
+				.contains("The first 5 are: Rule 1 (ID: rule0) and Rule 2 (ID: rule1);"
+						+ " Rule 3 (ID: rule2) and Rule 4 (ID: rule3); Rule 3 (ID: rule2) and Rule 5 (ID: rule4);");
+	}
+
+	@Test
+	void wildcardTableGetsOneSummaryPerCheck() {
+		DmnDecisionTable table = wildcardTable("UNIQUE", 20_000);
+		DmnValidationService service = new DmnValidationService(null, null, ValidationMetrics.disabled(),
+				Runnable::run, List.of(), 2000);
+		DmnDefinitions model = new DmnDefinitions("definitions", "d", "ns", List.of(), List.of(table));
+		DiagramValidationResult result = new DiagramValidationResult("big.dmn", true, new ArrayList<>());
+		List<ValidationIssue> issues = new ArrayList<>();
+
+		service.checkForRuleOverlapsInDmnFile(model, new IdentityHashMap<>(), issues, "big.dmn", result);
+
+		assertThat(result.isValid()).isFalse();
+		assertThat(issues).hasSize(1);
+		assertThat(issues.get(0).getMessage()).startsWith(
+				"199990000 pairs of rules in table 'table' (file: big.dmn) overlap. This violates UNIQUE hit policy.");
+	}
+
+	@Test
+	void anyTableCountsOnlyPairsWithDifferentOutputs() {
+		DmnDecisionTable table = DecisionTables.table("ANY", 1,
+				"-", "\"a\"",
+				"-", "\"a\"",
+				"-", "\"b\"",
+				"< 0", "\"b\"");
+		DmnValidationService service = new DmnValidationService(null, null, ValidationMetrics.disabled(),
+				Runnable::run, List.of(), 2000);
+		DmnDefinitions model = new DmnDefinitions("definitions", "d", "ns", List.of(), List.of(table));
+		DiagramValidationResult result = new DiagramValidationResult("any.dmn", true, new ArrayList<>());
+		List<ValidationIssue> issues = new ArrayList<>();
+
+		service.checkForRuleOverlapsInDmnFile(model, new IdentityHashMap<>(), issues, "any.dmn", result);
+
+		assertThat(issues).extracting(issue -> issue.getMessage().substring(0, issue.getMessage().indexOf(" in ")))
+				.containsExactly("Rule 1 (ID: rule0) and Rule 3 (ID: rule2)",
+						"Rule 1 (ID: rule0) and Rule 4 (ID: rule3)", "Rule 2 (ID: rule1) and Rule 3 (ID: rule2)", "Rule 2 (ID: rule1) and Rule 4 (ID: rule3)");
+	}
+
+	/**
+	 * Adds the pairs of rule 0 with rules 1 to count.
+	 */
+	private static void addPairs(RulePairIssues.Group group, int count) {
+		for (int j = 1; j <= count; j++) {
+			group.add(0, j);
+		}
+	}
+
+	private static List<ValidationIssue> flush(RulePairIssues pairs) {
+		List<ValidationIssue> issues = new ArrayList<>();
+		pairs.flush(issues);
+		return issues;
+	}
+
+	private static DmnDecisionTable wildcardTable(String hitPolicy, int ruleCount) {
+		String[] cells = new String[ruleCount * 2];
+		for (int r = 0; r < ruleCount; r++) {
+			cells[2 * r] = "-";
+			cells[2 * r + 1] = "\"out\"";
+		}
+		return DecisionTables.table(hitPolicy, 1, cells);
+	}
+}
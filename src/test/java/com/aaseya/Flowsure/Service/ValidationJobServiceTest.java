@@ -0,0 +1,141 @@
+package com.aaseya.Flowsure.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.aaseya.Flowsure.Entity.ValidationJob;
+import com.aaseya.Flowsure.Entity.ValidationJobData;
+import com.aaseya.Flowsure.Repository.ValidationJobDataRepository;
+import com.aaseya.Flowsure.Repository.ValidationJobRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class ValidationJobServiceTest {
+
+    @TempDir
+    Path spoolDirectory;
+
+    private final ValidationJobRepository jobRepository = mock(ValidationJobRepository.class);
+    private final ValidationJobDataRepository dataRepository = mock(ValidationJobDataRepository.class);
+    private ValidationJobService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ValidationJobService(jobRepository, dataRepository, new ObjectMapper(),
+                mock(PlatformTransactionManager.class), spoolDirectory.toString(), 2, 300_000, 3, 24);
+        when(jobRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void submitSpoolsArchiveAndStoresOnlyItsPath() throws Exception {
+        MockMultipartFile upload = new MockMultipartFile("file", "models.zip", "application/zip", new byte[] { 1, 2, 3 });
+        when(jobRepository.countByStatusIn(anyCollection())).thenReturn(1L);
+
+        Optional<ValidationJob> job = service.submit(ValidationJob.Kind.DIAGRAM, "models.zip", upload);
+
+        assertThat(job).isPresent();
+        assertThat(job.get().getArchiveSize()).isEqualTo(3);
+        ArgumentCaptor<ValidationJobData> data = ArgumentCaptor.forClass(ValidationJobData.class);
+        verify(dataRepository).save(data.capture());
+        Path spooled = Path.of(data.getValue().getArchivePath());
+        assertThat(spooled.getParent()).isEqualTo(spoolDirectory);
+        assertThat(Files.readAllBytes(spooled)).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    void capacityIsCheckedUnderTheSubmissionLock() throws Exception {
+        MockMultipartFile upload = new MockMultipartFile("file", "models.zip", "application/zip", new byte[] { 1 });
+
+        service.submit(ValidationJob.Kind.DMN, "models.zip", upload);
+
+        InOrder order = inOrder(jobRepository);
+        order.verify(jobRepository).lockForSubmission(anyLong());
+        order.verify(jobRepository).countByStatusIn(anyCollection());
+        order.verify(jobRepository).save(any());
+    }
+
+    @Test
+    void fullQueueRefusesSubmissionAndDeletesSpooledArchive() throws Exception {
+        MockMultipartFile upload = new MockMultipartFile("file", "models.zip", "application/zip", new byte[] { 1 });
+        when(jobRepository.countByStatusIn(anyCollection())).thenReturn(2L);
+
+        Optional<ValidationJob> job = service.submit(ValidationJob.Kind.DIAGRAM, "models.zip", upload);
+
+        assertThat(job).isEmpty();
+        verify(jobRepository, never()).save(any());
+        try (var spooled = Files.list(spoolDirectory)) {
+            assertThat(spooled).isEmpty();
+        }
+    }
+
+    @Test
+    void exhaustedJobIsFailedAndFlushedBeforeTheNextJobIsClaimed() throws Exception {
+        ValidationJob exhausted = job(3);
+        ValidationJob runnable = job(1);
+        Path spooled = Files.write(spoolDirectory.resolve("exhausted.zip"), new byte[] { 1 });
+        ValidationJobData exhaustedData = new ValidationJobData(exhausted.getId(), spooled.toString());
+        when(jobRepository.lockNextClaimable(any())).thenReturn(Optional.of(exhausted.getId()),
+                Optional.of(runnable.getId()));
+        when(jobRepository.findById(exhausted.getId())).thenReturn(Optional.of(exhausted));
+        when(jobRepository.findById(runnable.getId())).thenReturn(Optional.of(runnable));
+        when(dataRepository.findById(exhausted.getId())).thenReturn(Optional.of(exhaustedData));
+        when(dataRepository.findById(runnable.getId()))
+                .thenReturn(Optional.of(new ValidationJobData(runnable.getId(), "/spool/runnable.zip")));
+
+        Optional<ValidationJobService.ClaimedJob> claimed = service.claimNext();
+
+        assertThat(claimed).isPresent();
+        assertThat(claimed.get().getJobId()).isEqualTo(runnable.getId());
+        assertThat(runnable.getAttempts()).isEqualTo(2);
+        assertThat(exhausted.getStatus()).isEqualTo(ValidationJob.Status.FAILED);
+        assertThat(exhausted.getErrorMessage()).isEqualTo("Abandoned after 3 attempts without completing.");
+        assertThat(exhaustedData.getArchivePath()).isNull();
+        assertThat(spooled).doesNotExist();
+        InOrder order = inOrder(jobRepository);
+        order.verify(jobRepository).lockNextClaimable(any());
+        order.verify(jobRepository).saveAndFlush(exhausted);
+        order.verify(jobRepository).lockNextClaimable(any());
+        verify(dataRepository, times(1)).findById(exhausted.getId());
+        verify(dataRepository, times(1)).findById(runnable.getId());
+    }
+
+    @Test
+    void onlyExhaustedJobsLeaveNothingToClaim() {
+        ValidationJob exhausted = job(3);
+        when(jobRepository.lockNextClaimable(any())).thenReturn(Optional.of(exhausted.getId()), Optional.empty());
+        when(jobRepository.findById(exhausted.getId())).thenReturn(Optional.of(exhausted));
+        when(dataRepository.findById(exhausted.getId())).thenReturn(Optional.empty());
+
+        assertThat(service.claimNext()).isEmpty();
+        assertThat(exhausted.getStatus()).isEqualTo(ValidationJob.Status.FAILED);
+        verify(jobRepository).saveAndFlush(exhausted);
+    }
+
+    private static ValidationJob job(int attempts) {
+        ValidationJob job = new ValidationJob(ValidationJob.Kind.DIAGRAM, "models.zip", 1);
+        job.setId(UUID.randomUUID());
+        job.setStatus(ValidationJob.Status.RUNNING);
+        job.setAttempts(attempts);
+        return job;
+    }
+}
@@ -0,0 +1,121 @@
+package com.aaseya.Flowsure.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.aaseya.Flowsure.Entity.ValidationResultCacheEntry;
+import com.aaseya.Flowsure.Model.DiagramValidationResult;
+import com.aaseya.Flowsure.Repository.ValidationResultCacheRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class ValidationResultCacheTest {
+
+    private final ValidationResultCacheRepository repository = mock(ValidationResultCacheRepository.class);
+    private final ValidationResultCache cache = new ValidationResultCache(new ObjectMapper(), repository, true, 10, "7",
+            Duration.ofHours(24));
+
+    @Test
+    void purgeDeletesOtherRulesetVersionsAndExpiredRows() {
+        when(repository.deleteOtherRulesetVersions("7")).thenReturn(3);
+        when(repository.deleteLastHitBefore(any())).thenReturn(2);
+        Instant before = Instant.now();
+
+        assertThat(cache.purgeStale()).isEqualTo(5);
+
+        ArgumentCaptor<Instant> cutoff = ArgumentCaptor.forClass(Instant.class);
+        verify(repository).deleteLastHitBefore(cutoff.capture());
+        assertThat(cutoff.getValue())
+                .isBetween(before.minus(Duration.ofHours(24)), Instant.now().minus(Duration.ofHours(24)));
+    }
+
+    @Test
+    void storedRowsCarryRulesetVersionAndLastHit() throws Exception {
+        cache.getOrValidate("bpmn", "a.bpmn", new byte[] { 1 },
+                (name, content) -> new DiagramValidationResult(name, true, new ArrayList<>()));
+
+        ArgumentCaptor<ValidationResultCacheEntry> entry = ArgumentCaptor.forClass(ValidationResultCacheEntry.class);
+        verify(repository).save(entry.capture());
+        assertThat(entry.getValue().getRulesetVersion()).isEqualTo("7");
+        assertThat(entry.getValue().getCacheKey()).startsWith("bpmn:7:");
+        assertThat(entry.getValue().getLastHitAt()).isNotNull();
+    }
+
+    @Test
+    void hitOnLongUntouchedRowRefreshesLastHitOnce() {
+        String hash = ValidationResultCache.sha256(new byte[] { 1 });
+        String key = cache.cacheKey("bpmn", "a.bpmn", hash);
+        ValidationResultCacheEntry entry = new ValidationResultCacheEntry(key, "7", "a.bpmn",
+                "{\"diagramName\":\"a.bpmn\",\"issues\":[],\"valid\":true}");
+        entry.setLastHitAt(Instant.now().minus(Duration.ofDays(2)));
+        when(repository.findById(key)).thenReturn(Optional.of(entry));
+
+        assertThat(cache.lookup("bpmn", "a.bpmn", hash)).isPresent();
+        assertThat(cache.lookup("bpmn", "a.bpmn", hash)).isPresent(); // served from memory
+
+        verify(repository).touch(eq(key), any());
+    }
+
+    @Test
+    void hitOnRecentlyTouchedRowWritesNothing() {
+        String hash = ValidationResultCache.sha256(new byte[] { 2 });
+        String key = cache.cacheKey("bpmn", "b.bpmn", hash);
+        ValidationResultCacheEntry entry = new ValidationResultCacheEntry(key, "7", "b.bpmn",
+                "{\"diagramName\":\"b.bpmn\",\"issues\":[],\"valid\":true}");
+        when(repository.findById(key)).thenReturn(Optional.of(entry));
+
+        assertThat(cache.lookup("bpmn", "b.bpmn", hash)).isPresent();
+
+        verify(repository, never()).touch(anyString(), any());
+    }
+
+    @Test
+    void identicalFilesUnderDifferentNamesDoNotEvictEachOther() throws Exception {
+        ValidationResultCache memoryOnly = ValidationResultCache.inMemory(new ObjectMapper(), 10, "7");
+        byte[] content = { 3 };
+        AtomicInteger validations = new AtomicInteger();
+        ArchiveValidationPipeline.EntryValidator validate = (name, bytes) -> {
+            validations.incrementAndGet();
+            return new DiagramValidationResult(name, true, new ArrayList<>());
+        };
+
+        for (int round = 0; round < 3; round++) {
+            assertThat(memoryOnly.getOrValidate("bpmn", "a.bpmn", content, validate).getDiagramName())
+                    .isEqualTo("a.bpmn");
+            assertThat(memoryOnly.getOrValidate("bpmn", "copy/a.bpmn", content, validate).getDiagramName())
+                    .isEqualTo("copy/a.bpmn");
+        }
+
+        assertThat(validations).hasValue(2);
+        String hash = ValidationResultCache.sha256(content);
+        assertThat(memoryOnly.lookupAll("bpmn", Map.of("a.bpmn", hash, "copy/a.bpmn", hash, "b.bpmn", hash)))
+                .containsOnlyKeys("a.bpmn", "copy/a.bpmn");
+    }
+
+    @Test
+    void keyIncludesTheEntryNameAndFitsTheColumn() {
+        ValidationResultCache longVersion = new ValidationResultCache(new ObjectMapper(), repository, true, 10,
+                "x".repeat(32), Duration.ofHours(24));
+        String hash = ValidationResultCache.sha256(new byte[] { 4 });
+
+        String key = longVersion.cacheKey("diagram", "a/very/long/path/".repeat(60) + "a.bpmn", hash);
+
+        assertThat(key).hasSizeLessThanOrEqualTo(160).startsWith("diagram:" + "x".repeat(32) + ":" + hash + ":");
+        assertThat(cache.cacheKey("bpmn", "a.bpmn", hash)).isNotEqualTo(cache.cacheKey("bpmn", "b.bpmn", hash));
+    }
+}
@@ -0,0 +1,84 @@
+package com.aaseya.Flowsure;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.springframework.mock.web.MockMultipartFile;
+
+/**
+ * Small BPMN and DMN models and ZIP uploads built from them.
+ */
+public final class TestArchives {
+
+	public static final String VALID_BPMN = """
+			<?xml version="1.0" encoding="UTF-8"?>
+			<bpmn:definitions xmlns:bpmn="http://www.omg.org/spec/BPMN/20100524/MODEL" id="defs" targetNamespace="http://example">
+			  <bpmn:process id="process" isExecutable="true">
+			    <bpmn:startEvent id="start"><bpmn:outgoing>flow</bpmn:outgoing></bpmn:startEvent>
+			    <bpmn:sequenceFlow id="flow" sourceRef="start" targetRef="end"/>
+			    <bpmn:endEvent id="end"><bpmn:incoming>flow</bpmn:incoming></bpmn:endEvent>
+			  </bpmn:process>
+			</bpmn:definitions>
+			""";
+
+	// No end event: an ERROR
+	public static final String INVALID_BPMN = """
+			<?xml version="1.0" encoding="UTF-8"?>
+			<bpmn:definitions xmlns:bpmn="http://www.omg.org/spec/BPMN/20100524/MODEL" id="defs" targetNamespace="http://example">
+			  <bpmn:process id="process" isExecutable="true">
+			    <bpmn:startEvent id="start"/>
+			  </bpmn:process>
+			</bpmn:definitions>
+			""";
+
+	// One decision per namespace: decisions sharing an ID and namespace across files are an ERROR
+	private static final String VALID_DMN = """
+			<?xml version="1.0" encoding="UTF-8"?>
+			<definitions xmlns="https://www.omg.org/spec/DMN/20191111/MODEL/" id="definitions" name="Definitions" namespace="%s">
+			  <decision id="decision" name="Decision">
+			    <decisionTable id="table" hitPolicy="UNIQUE">
+			      <input id="input" label="x"><inputExpression id="inputExpression" typeRef="number"><text>x</text></inputExpression></input>
+			      <output id="output" name="y" typeRef="string"/>
+			      <rule id="low"><inputEntry id="lowIn"><text>&lt; 10</text></inputEntry><outputEntry id="lowOut"><text>"low"</text></outputEntry></rule>
+			      <rule id="high"><inputEntry id="highIn"><text>&gt;= 10</text></inputEntry><outputEntry id="highOut"><text>"high"</text></outputEntry></rule>
+			    </decisionTable>
+			  </decision>
+			</definitions>
+			""";
+
+	private TestArchives() {
+	}
+
+	public static String validDmn(String namespace) {
+		return VALID_DMN.formatted(namespace);
+	}
+
+	public static Map<String, String> entries(String... namesAndContents) {
+		Map<String, String> entries = new LinkedHashMap<>();
+		for (int i = 0; i < namesAndContents.length; i += 2) {
+			entries.put(namesAndContents[i], namesAndContents[i + 1]);
+		}
+		return entries;
+	}
+
+	public static byte[] zip(Map<String, String> entries) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+			for (Map.Entry<String, String> entry : entries.entrySet()) {
+				zip.putNextEntry(new ZipEntry(entry.getKey()));
+				zip.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+				zip.closeEntry();
+			}
+		}
+		return bytes.toByteArray();
+	}
+
+	public static MockMultipartFile upload(String fileName, String... namesAndContents) throws IOException {
+		return new MockMultipartFile("file", fileName, "application/zip", zip(entries(namesAndContents)));
+	}
+}
@@ -0,0 +1,99 @@
+package com.aaseya.Flowsure;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.aaseya.Flowsure.Service.DeploymentGateway;
+import com.aaseya.Flowsure.Service.ValidationHistoryService;
+import com.aaseya.Flowsure.Service.ValidationJobService;
+
+import io.camunda.zeebe.client.ZeebeClient;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * The validation-only profile starts without a datasource or Camunda client, validates
+ * uploads, and answers 503 on every endpoint that needs persistence or deployment.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("validation-only")
+class ValidationOnlyProfileTest {
+
+	@Autowired
+	private ApplicationContext context;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	void startsWithoutDatasourceOrCamunda() {
+		assertThat(context.getBeanNamesForType(DataSource.class)).isEmpty();
+		assertThat(context.getBeanNamesForType(EntityManagerFactory.class)).isEmpty();
+		assertThat(context.getBeanNamesForType(ZeebeClient.class)).isEmpty();
+		assertThat(context.getBeanNamesForType(DeploymentGateway.class)).isEmpty();
+		assertThat(context.getBeanNamesForType(ValidationJobService.class)).isEmpty();
+		assertThat(context.getBeanNamesForType(ValidationHistoryService.class)).isEmpty();
+	}
+
+	@Test
+	void synchronousValidationStillWorks() throws Exception {
+		mockMvc.perform(multipart("/api/validate/upload").file(
+				TestArchives.upload("models.zip", "process.bpmn", TestArchives.VALID_BPMN)))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.status").value("SUCCESS"))
+				.andExpect(jsonPath("$.results[0].valid").value(true));
+	}
+
+	@Test
+	void jobEndpointsAnswer503() throws Exception {
+		expectUnavailable(mockMvc.perform(multipart("/api/validate/jobs").file(
+				TestArchives.upload("models.zip", "process.bpmn", TestArchives.VALID_BPMN))));
+		expectUnavailable(mockMvc.perform(get("/api/validate/jobs/{id}", UUID.randomUUID())));
+		expectUnavailable(mockMvc.perform(get("/api/validate/jobs/{id}/results", UUID.randomUUID())));
+	}
+
+	@Test
+	void historyEndpointsAnswer503() throws Exception {
+		expectUnavailable(mockMvc.perform(get("/api/validate/history/issues").param("diagram", "process.bpmn")));
+		expectUnavailable(mockMvc.perform(get("/api/validate/history/results").param("contentHash", "abc")));
+	}
+
+	@Test
+	void projectDeltaEndpointsAnswer503() throws Exception {
+		expectUnavailable(mockMvc.perform(post("/api/validate/projects/{project}/manifest", "demo")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"entries\":{}}")));
+		expectUnavailable(mockMvc.perform(get("/api/validate/projects/{project}/manifest", "demo")));
+		expectUnavailable(mockMvc.perform(multipart("/api/validate/projects/{project}/delta", "demo")));
+	}
+
+	@Test
+	void deployAnswers503() throws Exception {
+		expectUnavailable(mockMvc.perform(multipart("/api/validate/upload").file(
+				TestArchives.upload("models.zip", "process.bpmn", TestArchives.VALID_BPMN))
+				.param("deploy", "true")));
+	}
+
+	private static void expectUnavailable(ResultActions response) throws Exception {
+		response.andExpect(status().isServiceUnavailable())
+				.andExpect(jsonPath("$.status").value("FAILURE"));
+	}
+}